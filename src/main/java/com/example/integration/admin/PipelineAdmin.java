@@ -0,0 +1,110 @@
+// PipelineAdmin.java
+package com.example.integration.admin;
+
+import com.example.integration.executor.AdaptiveTaskExecutor;
+import com.example.integration.queue.ResizableBlockingQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.integration.util.DynamicPeriodicTrigger;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.messaging.Message;
+
+import java.time.Duration;
+
+/**
+ * Live tuning of a running pipeline, exported over JMX as
+ * {@code com.example.integration:type=PipelineAdmin}. Every change takes effect without a
+ * restart and without losing queued work: shrinking a queue only holds producers back until
+ * it has drained, shrinking the executor lets busy threads finish their current task, and a
+ * new poll interval applies from the next scan.
+ */
+@ManagedResource(objectName = "com.example.integration:type=PipelineAdmin",
+        description = "Poll rate, queue limits and executor bounds of the file pipeline")
+public class PipelineAdmin {
+
+    private static final Logger logger = LoggerFactory.getLogger(PipelineAdmin.class);
+
+    private final DynamicPeriodicTrigger pollTrigger;
+    private final ResizableBlockingQueue<Message<?>> inboundQueue;
+    private final AdaptiveTaskExecutor executor;
+
+    public PipelineAdmin(DynamicPeriodicTrigger pollTrigger, ResizableBlockingQueue<Message<?>> inboundQueue,
+                         AdaptiveTaskExecutor executor) {
+        this.pollTrigger = pollTrigger;
+        this.inboundQueue = inboundQueue;
+        this.executor = executor;
+    }
+
+    @ManagedAttribute(description = "Delay between input directory scans, in milliseconds")
+    public long getPollIntervalMillis() {
+        return pollTrigger.getDuration().toMillis();
+    }
+
+    @ManagedAttribute
+    public void setPollIntervalMillis(long millis) {
+        if (millis < 1) {
+            throw new IllegalArgumentException("Poll interval must be at least 1 ms");
+        }
+        logger.info("Poll interval {} -> {} ms", getPollIntervalMillis(), millis);
+        pollTrigger.setDuration(Duration.ofMillis(millis));
+    }
+
+    @ManagedAttribute(description = "Capacity of inboundFileChannel")
+    public int getInboundQueueCapacity() {
+        return inboundQueue.getCapacity();
+    }
+
+    @ManagedAttribute
+    public void setInboundQueueCapacity(int capacity) {
+        logger.info("Inbound queue capacity {} -> {}", getInboundQueueCapacity(), capacity);
+        inboundQueue.setCapacity(capacity);
+    }
+
+    @ManagedAttribute(description = "Files currently waiting in inboundFileChannel")
+    public int getInboundQueueSize() {
+        return inboundQueue.size();
+    }
+
+    @ManagedAttribute(description = "Capacity of the branch executor's task queue")
+    public int getExecutorQueueCapacity() {
+        return executor.getQueueCapacity();
+    }
+
+    @ManagedAttribute
+    public void setExecutorQueueCapacity(int capacity) {
+        logger.info("Executor queue capacity {} -> {}", getExecutorQueueCapacity(), capacity);
+        executor.setQueueCapacity(capacity);
+    }
+
+    @ManagedAttribute(description = "Tasks waiting for an executor thread")
+    public int getExecutorQueueSize() {
+        return executor.getQueueSize();
+    }
+
+    @ManagedAttribute
+    public int getExecutorMinThreads() {
+        return executor.getMinLimit();
+    }
+
+    @ManagedAttribute
+    public int getExecutorMaxThreads() {
+        return executor.getMaxLimit();
+    }
+
+    @ManagedAttribute(description = "Current adaptive concurrency limit")
+    public int getExecutorConcurrency() {
+        return executor.getConcurrencyLimit();
+    }
+
+    /**
+     * Both bounds at once, so the range is never momentarily invalid.
+     */
+    @ManagedOperation(description = "Sets the range the executor's thread count adapts within")
+    public void setExecutorThreads(int minThreads, int maxThreads) {
+        logger.info("Executor threads {}..{} -> {}..{}", getExecutorMinThreads(), getExecutorMaxThreads(),
+                minThreads, maxThreads);
+        executor.setLimitBounds(minThreads, maxThreads);
+    }
+}
@@ -0,0 +1,13 @@
+// ArchiveEntry.java
+package com.example.integration.archive;
+
+import java.io.File;
+
+/**
+ * Location of one archived file inside a segment.
+ *
+ * @param dataOffset position of the first content byte in {@code segment}
+ */
+public record ArchiveEntry(String name, File segment, long dataOffset, long length, long modifiedMillis,
+                           int crc32c) {
+}
@@ -0,0 +1,46 @@
+// SegmentArchiveMessageHandler.java
+package com.example.integration.archive;
+
+import org.springframework.integration.file.FileNameGenerator;
+import org.springframework.integration.handler.AbstractMessageHandler;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandlingException;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Terminal handler that appends each {@code File} (or {@code byte[]}) payload to a
+ * {@link SegmentArchiveWriter} instead of writing a separate file.
+ */
+public class SegmentArchiveMessageHandler extends AbstractMessageHandler {
+
+    private final SegmentArchiveWriter writer;
+    private final FileNameGenerator fileNameGenerator;
+
+    public SegmentArchiveMessageHandler(SegmentArchiveWriter writer, FileNameGenerator fileNameGenerator) {
+        this.writer = writer;
+        this.fileNameGenerator = fileNameGenerator;
+    }
+
+    public SegmentArchiveWriter getWriter() {
+        return writer;
+    }
+
+    @Override
+    protected void handleMessageInternal(Message<?> message) {
+        String name = fileNameGenerator.generateFileName(message);
+        try {
+            if (message.getPayload() instanceof File file) {
+                writer.append(name, file);
+            } else if (message.getPayload() instanceof byte[] content) {
+                writer.append(name, content, System.currentTimeMillis());
+            } else {
+                throw new MessageHandlingException(message,
+                        "Unsupported payload type for archiving: " + message.getPayload().getClass().getName());
+            }
+        } catch (IOException e) {
+            throw new MessageHandlingException(message, "Failed to archive " + name, e);
+        }
+    }
+}
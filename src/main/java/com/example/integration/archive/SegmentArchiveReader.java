@@ -0,0 +1,241 @@
+// SegmentArchiveReader.java
+package com.example.integration.archive;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+import static com.example.integration.archive.SegmentFormat.CRC_BYTES;
+import static com.example.integration.archive.SegmentFormat.ENTRY_FIXED_BYTES;
+import static com.example.integration.archive.SegmentFormat.ENTRY_MAGIC;
+import static com.example.integration.archive.SegmentFormat.FOOTER_BYTES;
+import static com.example.integration.archive.SegmentFormat.FOOTER_MAGIC;
+import static com.example.integration.archive.SegmentFormat.INDEX_MAGIC;
+import static com.example.integration.archive.SegmentFormat.SEGMENT_HEADER_BYTES;
+import static com.example.integration.archive.SegmentFormat.SEGMENT_MAGIC;
+
+/**
+ * Read access to one segment written by {@link SegmentArchiveWriter}. The entry list comes
+ * from the index when the segment was closed cleanly, otherwise from walking the entries
+ * up to the first incomplete one.
+ */
+public class SegmentArchiveReader implements Closeable {
+
+    private final File segment;
+    private final FileChannel channel;
+    private final List<ArchiveEntry> entries;
+    private final Map<String, ArchiveEntry> byName = new HashMap<>();
+    private final boolean indexed;
+
+    private SegmentArchiveReader(File segment) throws IOException {
+        this.segment = segment;
+        this.channel = FileChannel.open(segment.toPath(), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = readAt(0, SEGMENT_HEADER_BYTES);
+            if (header.getInt() != SEGMENT_MAGIC) {
+                throw new IOException(segment + " is not an archive segment");
+            }
+            List<ArchiveEntry> fromIndex = readIndex();
+            this.indexed = fromIndex != null;
+            this.entries = Collections.unmodifiableList(indexed ? fromIndex : scanEntries());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        for (ArchiveEntry entry : entries) {
+            byName.put(entry.name(), entry);
+        }
+    }
+
+    public static SegmentArchiveReader open(File segment) throws IOException {
+        return new SegmentArchiveReader(segment);
+    }
+
+    /**
+     * Segment files in {@code directory}, oldest first.
+     */
+    public static List<File> segments(File directory) {
+        File[] files = directory.listFiles((dir, name) -> SegmentFormat.sequenceOf(name) >= 0);
+        if (files == null) {
+            return List.of();
+        }
+        Arrays.sort(files, Comparator.comparingLong(f -> SegmentFormat.sequenceOf(f.getName())));
+        return List.of(files);
+    }
+
+    /**
+     * Finds the most recently archived entry called {@code name} in any segment of {@code directory}.
+     */
+    public static Optional<ArchiveEntry> locate(File directory, String name) throws IOException {
+        List<File> segments = new ArrayList<>(segments(directory));
+        Collections.reverse(segments);
+        for (File segment : segments) {
+            try (SegmentArchiveReader reader = open(segment)) {
+                Optional<ArchiveEntry> entry = reader.find(name);
+                if (entry.isPresent()) {
+                    return entry;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    public File getSegment() {
+        return segment;
+    }
+
+    /**
+     * Whether the entry list came from the embedded index rather than a recovery scan.
+     */
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    public List<ArchiveEntry> entries() {
+        return entries;
+    }
+
+    public Optional<ArchiveEntry> find(String name) {
+        return Optional.ofNullable(byName.get(name));
+    }
+
+    /**
+     * Reads an entry's content into memory, verifying its checksum.
+     */
+    public byte[] read(ArchiveEntry entry) throws IOException {
+        if (entry.length() > Integer.MAX_VALUE - 8) {
+            throw new IOException(entry.name() + " is too large to read into memory; use copyTo");
+        }
+        ByteBuffer content = readAt(entry.dataOffset(), (int) entry.length());
+        CRC32C crc = new CRC32C();
+        crc.update(content.array(), 0, content.limit());
+        if ((int) crc.getValue() != entry.crc32c()) {
+            throw new IOException("Checksum mismatch for " + entry.name() + " in " + segment);
+        }
+        return content.array();
+    }
+
+    /**
+     * Streams an entry's content to {@code target} without copying it through the heap.
+     */
+    public void copyTo(ArchiveEntry entry, WritableByteChannel target) throws IOException {
+        long written = 0;
+        while (written < entry.length()) {
+            long transferred = channel.transferTo(entry.dataOffset() + written, entry.length() - written, target);
+            if (transferred <= 0) {
+                throw new IOException("Unexpected end of " + segment + " while copying " + entry.name());
+            }
+            written += transferred;
+        }
+    }
+
+    /**
+     * Writes the entry to {@code targetDirectory} under its archived name, keeping its modification time.
+     */
+    public File extract(ArchiveEntry entry, File targetDirectory) throws IOException {
+        File target = new File(targetDirectory, entry.name());
+        if (!target.toPath().normalize().startsWith(targetDirectory.toPath().normalize())) {
+            throw new IOException("Refusing to extract " + entry.name() + " outside " + targetDirectory);
+        }
+        Files.createDirectories(targetDirectory.toPath());
+        try (FileChannel out = FileChannel.open(target.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            copyTo(entry, out);
+        }
+        target.setLastModified(entry.modifiedMillis());
+        return target;
+    }
+
+    public List<File> extractAll(File targetDirectory) throws IOException {
+        List<File> extracted = new ArrayList<>(entries.size());
+        for (ArchiveEntry entry : entries) {
+            extracted.add(extract(entry, targetDirectory));
+        }
+        return extracted;
+    }
+
+    private List<ArchiveEntry> readIndex() throws IOException {
+        long size = channel.size();
+        if (size < SEGMENT_HEADER_BYTES + FOOTER_BYTES) {
+            return null;
+        }
+        ByteBuffer footer = readAt(size - FOOTER_BYTES, FOOTER_BYTES);
+        long indexOffset = footer.getLong();
+        int count = footer.getInt();
+        if (footer.getInt() != FOOTER_MAGIC || indexOffset < SEGMENT_HEADER_BYTES || indexOffset >= size) {
+            return null;
+        }
+        ByteBuffer index = readAt(indexOffset, (int) (size - FOOTER_BYTES - indexOffset));
+        if (index.getInt() != INDEX_MAGIC || index.getInt() != count) {
+            return null;
+        }
+        List<ArchiveEntry> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[index.getShort()];
+            index.get(name);
+            result.add(new ArchiveEntry(new String(name, StandardCharsets.UTF_8), segment, index.getLong(),
+                    index.getLong(), index.getLong(), index.getInt()));
+        }
+        return result;
+    }
+
+    private List<ArchiveEntry> scanEntries() throws IOException {
+        List<ArchiveEntry> result = new ArrayList<>();
+        long size = channel.size();
+        long position = SEGMENT_HEADER_BYTES;
+        while (position + ENTRY_FIXED_BYTES + CRC_BYTES <= size) {
+            ByteBuffer prefix = readAt(position, Integer.BYTES + Short.BYTES);
+            if (prefix.getInt() != ENTRY_MAGIC) {
+                break;
+            }
+            int nameLength = prefix.getShort();
+            if (position + ENTRY_FIXED_BYTES + nameLength + CRC_BYTES > size) {
+                break;
+            }
+            ByteBuffer rest = readAt(position + prefix.limit(), nameLength + Long.BYTES * 2);
+            byte[] name = new byte[nameLength];
+            rest.get(name);
+            long modified = rest.getLong();
+            long length = rest.getLong();
+            long dataOffset = position + ENTRY_FIXED_BYTES + nameLength;
+            if (length < 0 || dataOffset + length + CRC_BYTES > size) {
+                break;
+            }
+            int crc = readAt(dataOffset + length, CRC_BYTES).getInt();
+            result.add(new ArchiveEntry(new String(name, StandardCharsets.UTF_8), segment, dataOffset, length,
+                    modified, crc));
+            position = dataOffset + length + CRC_BYTES;
+        }
+        return result;
+    }
+
+    private ByteBuffer readAt(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + segment);
+            }
+        }
+        return buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
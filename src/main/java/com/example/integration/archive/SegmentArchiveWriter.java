@@ -0,0 +1,299 @@
+// SegmentArchiveWriter.java
+package com.example.integration.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+import static com.example.integration.archive.SegmentFormat.CRC_BYTES;
+import static com.example.integration.archive.SegmentFormat.ENTRY_FIXED_BYTES;
+import static com.example.integration.archive.SegmentFormat.ENTRY_MAGIC;
+import static com.example.integration.archive.SegmentFormat.FOOTER_BYTES;
+import static com.example.integration.archive.SegmentFormat.FOOTER_MAGIC;
+import static com.example.integration.archive.SegmentFormat.INDEX_MAGIC;
+import static com.example.integration.archive.SegmentFormat.SEGMENT_MAGIC;
+import static com.example.integration.archive.SegmentFormat.VERSION;
+
+/**
+ * Appends files to rolling segment files instead of creating one file per copy. Each entry
+ * is a single sequential write of header, content and CRC32C; when a segment reaches its
+ * size limit (or the writer is closed) an index of all entries and a fixed-size footer are
+ * appended, and writing continues in a new segment.
+ *
+ * <p>Durability is batched: the segment is forced to disk after {@code syncEveryEntries}
+ * appends or when {@code syncInterval} has passed since the last force, whichever comes first.
+ * A background timer forces entries left over after a burst, so nothing stays unsynced for
+ * longer than {@code syncInterval} once appends stop. Entries written after the last force
+ * may be lost in a crash, and the unfinished segment
+ * will have no index; {@link SegmentArchiveReader} recovers it by walking the entries.
+ */
+public class SegmentArchiveWriter implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentArchiveWriter.class);
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final File directory;
+    private final long maxSegmentBytes;
+    private final int syncEveryEntries;
+    private final long syncIntervalNanos;
+    private final ScheduledExecutorService syncTimer;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private final CRC32C crc = new CRC32C();
+    private final List<ArchiveEntry> index = new ArrayList<>();
+    private long indexBytes;
+
+    private FileChannel channel;
+    private File segment;
+    private long nextSequence = -1;
+    private long position;
+    private int unsyncedEntries;
+    private long lastSyncNanos = System.nanoTime();
+
+    private long appendedEntries;
+    private long appendedBytes;
+    private long syncCount;
+    private long segmentCount;
+
+    public SegmentArchiveWriter(File directory, long maxSegmentBytes, int syncEveryEntries, long syncIntervalMillis) {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.syncEveryEntries = Math.max(1, syncEveryEntries);
+        this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis);
+        if (syncIntervalNanos > 0) {
+            this.syncTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "archive-sync-" + directory.getName());
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncTimer.scheduleWithFixedDelay(this::syncIdle, syncIntervalNanos, syncIntervalNanos,
+                    TimeUnit.NANOSECONDS);
+        } else {
+            // Every append is due anyway
+            this.syncTimer = null;
+        }
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public synchronized ArchiveEntry append(String name, File source) throws IOException {
+        try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            return append(name, in.size(), source.lastModified(), in);
+        }
+    }
+
+    public synchronized ArchiveEntry append(String name, byte[] content, long modifiedMillis) throws IOException {
+        return append(name, content.length, modifiedMillis,
+                Channels.newChannel(new ByteArrayInputStream(content)));
+    }
+
+    private ArchiveEntry append(String name, long length, long modifiedMillis, ReadableByteChannel source)
+            throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Entry name too long: " + name);
+        }
+        long entryBytes = ENTRY_FIXED_BYTES + nameBytes.length + length + CRC_BYTES;
+        prepareSegment(entryBytes, nameBytes.length);
+
+        long entryOffset = position;
+        try {
+            buffer.clear();
+            buffer.putInt(ENTRY_MAGIC).putShort((short) nameBytes.length).put(nameBytes)
+                    .putLong(modifiedMillis).putLong(length);
+            long dataOffset = entryOffset + buffer.position();
+            crc.reset();
+            long remaining = length;
+            while (remaining > 0) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int start = buffer.position();
+                buffer.limit((int) Math.min(buffer.capacity(), start + remaining));
+                int read = source.read(buffer);
+                buffer.limit(buffer.capacity());
+                if (read < 0) {
+                    throw new EOFException(name + " ended " + remaining + " bytes early");
+                }
+                crc.update(buffer.array(), start, read);
+                remaining -= read;
+            }
+            if (buffer.remaining() < CRC_BYTES) {
+                flush();
+            }
+            int checksum = (int) crc.getValue();
+            buffer.putInt(checksum);
+            flush();
+            position += entryBytes;
+
+            ArchiveEntry entry = new ArchiveEntry(name, segment, dataOffset, length, modifiedMillis, checksum);
+            index.add(entry);
+            indexBytes += indexEntryBytes(nameBytes.length);
+            appendedEntries++;
+            appendedBytes += length;
+            unsyncedEntries++;
+            syncIfDue();
+            return entry;
+        } catch (IOException | RuntimeException e) {
+            // Drop the partial entry so the segment stays readable
+            channel.truncate(entryOffset);
+            channel.position(entryOffset);
+            position = entryOffset;
+            throw e;
+        }
+    }
+
+    /**
+     * Forces everything appended so far to disk.
+     */
+    public synchronized void sync() throws IOException {
+        if (channel != null && unsyncedEntries > 0) {
+            channel.force(false);
+            syncCount++;
+        }
+        unsyncedEntries = 0;
+        lastSyncNanos = System.nanoTime();
+    }
+
+    /**
+     * Finishes the current segment; the next append starts a new one.
+     */
+    public synchronized void roll() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        buffer.clear();
+        buffer.putInt(INDEX_MAGIC).putInt(index.size());
+        long indexOffset = position;
+        for (ArchiveEntry entry : index) {
+            byte[] nameBytes = entry.name().getBytes(StandardCharsets.UTF_8);
+            if (buffer.remaining() < indexEntryBytes(nameBytes.length)) {
+                flush();
+            }
+            buffer.putShort((short) nameBytes.length).put(nameBytes).putLong(entry.dataOffset())
+                    .putLong(entry.length()).putLong(entry.modifiedMillis()).putInt(entry.crc32c());
+        }
+        if (buffer.remaining() < FOOTER_BYTES) {
+            flush();
+        }
+        buffer.putLong(indexOffset).putInt(index.size()).putInt(FOOTER_MAGIC);
+        flush();
+        channel.force(true);
+        syncCount++;
+        channel.close();
+        channel = null;
+        segment = null;
+        index.clear();
+        indexBytes = 0;
+        unsyncedEntries = 0;
+    }
+
+    private void prepareSegment(long entryBytes, int nameLength) throws IOException {
+        long finishedSize = position + entryBytes + indexBytes + indexEntryBytes(nameLength)
+                + Integer.BYTES * 2 + FOOTER_BYTES;
+        if (channel != null && !index.isEmpty() && finishedSize > maxSegmentBytes) {
+            roll();
+        }
+        if (channel == null) {
+            openNextSegment();
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        Files.createDirectories(directory.toPath());
+        if (nextSequence < 0) {
+            nextSequence = 0;
+            for (File existing : SegmentArchiveReader.segments(directory)) {
+                nextSequence = Math.max(nextSequence, SegmentFormat.sequenceOf(existing.getName()) + 1);
+            }
+        }
+        segment = new File(directory, SegmentFormat.segmentName(nextSequence++));
+        channel = FileChannel.open(segment.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        buffer.clear();
+        buffer.putInt(SEGMENT_MAGIC).putShort(VERSION);
+        flush();
+        position = SegmentFormat.SEGMENT_HEADER_BYTES;
+        segmentCount++;
+    }
+
+    private void syncIfDue() throws IOException {
+        if (unsyncedEntries >= syncEveryEntries || System.nanoTime() - lastSyncNanos >= syncIntervalNanos) {
+            sync();
+        }
+    }
+
+    // Runs every syncInterval, so an entry appended just after a tick is forced by the next one
+    private synchronized void syncIdle() {
+        if (channel == null || unsyncedEntries == 0) {
+            return;
+        }
+        try {
+            sync();
+        } catch (IOException e) {
+            logger.warn("Could not sync {}", segment, e);
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static int indexEntryBytes(int nameLength) {
+        return Short.BYTES + nameLength + Long.BYTES * 3 + Integer.BYTES;
+    }
+
+    public synchronized File getCurrentSegment() {
+        return segment;
+    }
+
+    public synchronized long getAppendedEntries() {
+        return appendedEntries;
+    }
+
+    public synchronized long getAppendedBytes() {
+        return appendedBytes;
+    }
+
+    public synchronized long getSyncCount() {
+        return syncCount;
+    }
+
+    public synchronized long getSegmentCount() {
+        return segmentCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (syncTimer != null) {
+            syncTimer.shutdownNow();
+        }
+        synchronized (this) {
+            roll();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+// SegmentFormat.java
+package com.example.integration.archive;
+
+/**
+ * On-disk layout of an archive segment. All numbers are big-endian.
+ *
+ * <pre>
+ * segment := SEGMENT_MAGIC:int VERSION:short entry* [index footer]
+ * entry   := ENTRY_MAGIC:int nameLength:short name:utf8 modified:long length:long data crc32c:int
+ * index   := INDEX_MAGIC:int count:int (nameLength:short name:utf8 dataOffset:long length:long modified:long crc32c:int)*
+ * footer  := indexOffset:long count:int FOOTER_MAGIC:int
+ * </pre>
+ *
+ * The index and footer are only written when a segment is closed; a segment without them
+ * (for example after a crash) can still be read by walking its entries.
+ */
+final class SegmentFormat {
+
+    static final int SEGMENT_MAGIC = 0x53494152; // "SIAR"
+    static final short VERSION = 1;
+    static final int ENTRY_MAGIC = 0x454e5452;   // "ENTR"
+    static final int INDEX_MAGIC = 0x494e4458;   // "INDX"
+    static final int FOOTER_MAGIC = 0x454e4421;  // "END!"
+
+    static final int SEGMENT_HEADER_BYTES = Integer.BYTES + Short.BYTES;
+    static final int FOOTER_BYTES = Long.BYTES + Integer.BYTES + Integer.BYTES;
+    static final int ENTRY_FIXED_BYTES = Integer.BYTES + Short.BYTES + Long.BYTES + Long.BYTES;
+    static final int CRC_BYTES = Integer.BYTES;
+
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private SegmentFormat() {
+    }
+
+    static String segmentName(long sequence) {
+        return String.format("%s%08d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX);
+    }
+
+    static long sequenceOf(String segmentName) {
+        if (!segmentName.startsWith(SEGMENT_PREFIX) || !segmentName.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(segmentName.substring(SEGMENT_PREFIX.length(),
+                    segmentName.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
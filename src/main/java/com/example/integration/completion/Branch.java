@@ -0,0 +1,10 @@
+// Branch.java
+package com.example.integration.completion;
+
+/**
+ * The destinations every inbound file fans out to.
+ */
+public enum Branch {
+    MONITOR,
+    PRE_PROCESS
+}
@@ -0,0 +1,32 @@
+// BranchOutcome.java
+package com.example.integration.completion;
+
+import com.example.integration.digest.FileDigest;
+
+import java.io.File;
+
+/**
+ * Result of one branch handling one file, published by {@link BranchOutcomeAdvice}.
+ *
+ * @param startedNanos   {@link System#nanoTime()} when the handler was entered
+ * @param durationNanos  time spent in the handler
+ * @param file           source file, or {@code null} for in-memory payloads
+ * @param bytes          size of the source file (or payload) when the branch started, or -1 if unknown
+ * @param error          failure message, {@code null} on success
+ * @param digest         digest of what the branch wrote, if its handler replied with one
+ */
+public record BranchOutcome(
+        Branch branch,
+        File file,
+        boolean successful,
+        long startedNanos,
+        long durationNanos,
+        long bytes,
+        String error,
+        FileDigest digest) {
+
+    public BranchOutcome(Branch branch, File file, boolean successful, long startedNanos, long durationNanos,
+                         long bytes, String error) {
+        this(branch, file, successful, startedNanos, durationNanos, bytes, error, null);
+    }
+}
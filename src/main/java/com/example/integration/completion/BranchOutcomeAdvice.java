@@ -0,0 +1,84 @@
+// BranchOutcomeAdvice.java
+package com.example.integration.completion;
+
+import com.example.integration.digest.FileDigest;
+import com.example.integration.latency.IngestHeaders;
+import org.springframework.integration.handler.advice.AbstractRequestHandlerAdvice;
+import org.springframework.integration.support.AbstractIntegrationMessageBuilder;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Reports the outcome of a branch handler to the correlation stage. Messages without a
+ * {@link IngestHeaders#FILE_ID} cannot be correlated and pass through untouched. A
+ * {@link FileDigest} in the handler's reply headers is carried over into the outcome. A handler
+ * replying with a {@link CompletableFuture} is reported once the future completes.
+ */
+public class BranchOutcomeAdvice extends AbstractRequestHandlerAdvice {
+
+    private final Branch branch;
+    private final MessageChannel outcomeChannel;
+
+    public BranchOutcomeAdvice(Branch branch, MessageChannel outcomeChannel) {
+        this.branch = branch;
+        this.outcomeChannel = outcomeChannel;
+    }
+
+    @Override
+    protected Object doInvoke(ExecutionCallback callback, Object target, Message<?> message) {
+        if (!message.getHeaders().containsKey(IngestHeaders.FILE_ID)) {
+            return callback.execute();
+        }
+        File file = message.getPayload() instanceof File f ? f : null;
+        long bytes = file != null ? file.length()
+                : message.getPayload() instanceof byte[] content ? content.length : -1;
+        long start = System.nanoTime();
+        try {
+            Object result = callback.execute();
+            if (result instanceof CompletableFuture<?> pending) {
+                return pending.whenComplete((reply, error) -> {
+                    if (error != null) {
+                        failed(message, file, bytes, start,
+                                error instanceof CompletionException ? error.getCause() : error);
+                    } else {
+                        succeeded(message, file, bytes, start, reply);
+                    }
+                });
+            }
+            succeeded(message, file, bytes, start, result);
+            return result;
+        } catch (RuntimeException e) {
+            failed(message, file, bytes, start, unwrapThrowableIfNecessary(e));
+            throw e;
+        }
+    }
+
+    private void succeeded(Message<?> message, File file, long bytes, long start, Object result) {
+        long duration = System.nanoTime() - start;
+        FileDigest digest = digestOf(result);
+        publish(message, new BranchOutcome(branch, file, true, start, duration,
+                digest != null ? digest.bytes() : bytes, null, digest));
+    }
+
+    private void failed(Message<?> message, File file, long bytes, long start, Throwable error) {
+        publish(message, new BranchOutcome(branch, file, false, start, System.nanoTime() - start, bytes,
+                String.valueOf(error.getMessage())));
+    }
+
+    private static FileDigest digestOf(Object result) {
+        if (result instanceof AbstractIntegrationMessageBuilder<?> builder) {
+            return FileDigest.fromHeaders(new MessageHeaders(builder.getHeaders()));
+        }
+        return result instanceof Message<?> reply ? FileDigest.fromHeaders(reply.getHeaders()) : null;
+    }
+
+    private void publish(Message<?> message, BranchOutcome outcome) {
+        outcomeChannel.send(MessageBuilder.withPayload(outcome).copyHeaders(message.getHeaders()).build());
+    }
+}
@@ -0,0 +1,34 @@
+// FileCompletionEvent.java
+package com.example.integration.completion;
+
+import java.util.Map;
+
+/**
+ * Published on {@code processedFileChannel} once a file has left both branches, or once the
+ * correlation timeout expired with only some of them reporting back.
+ *
+ * @param detectedAt      epoch milliseconds when the poller picked the file up, or -1 if unknown
+ * @param endToEndNanos   detection until the last branch finished, or -1 if unknown
+ */
+public record FileCompletionEvent(
+        String fileId,
+        String fileName,
+        long detectedAt,
+        long endToEndNanos,
+        Map<Branch, BranchOutcome> outcomes) {
+
+    /**
+     * Whether every branch reported back before the correlation timeout.
+     */
+    public boolean isComplete() {
+        return outcomes.size() == Branch.values().length;
+    }
+
+    public boolean isSuccessful() {
+        return isComplete() && outcomes.values().stream().allMatch(BranchOutcome::successful);
+    }
+
+    public long getBytes() {
+        return outcomes.values().stream().mapToLong(BranchOutcome::bytes).max().orElse(-1);
+    }
+}
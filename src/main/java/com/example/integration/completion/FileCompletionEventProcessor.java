@@ -0,0 +1,43 @@
+// FileCompletionEventProcessor.java
+package com.example.integration.completion;
+
+import com.example.integration.latency.IngestHeaders;
+import org.springframework.integration.aggregator.MessageGroupProcessor;
+import org.springframework.integration.file.FileHeaders;
+import org.springframework.integration.store.MessageGroup;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Folds the {@link BranchOutcome}s reported for one file into a single {@link FileCompletionEvent}.
+ */
+public class FileCompletionEventProcessor implements MessageGroupProcessor {
+
+    @Override
+    public Object processMessageGroup(MessageGroup group) {
+        Map<Branch, BranchOutcome> outcomes = new EnumMap<>(Branch.class);
+        long lastFinished = Long.MIN_VALUE;
+        for (Message<?> message : group.getMessages()) {
+            BranchOutcome outcome = (BranchOutcome) message.getPayload();
+            outcomes.put(outcome.branch(), outcome);
+            lastFinished = Math.max(lastFinished, outcome.startedNanos() + outcome.durationNanos());
+        }
+        Message<?> first = group.getOne();
+        MessageHeaders headers = first.getHeaders();
+        Long detectedNanos = headers.get(IngestHeaders.DETECTED_NANOS, Long.class);
+        Long detectedAt = headers.get(IngestHeaders.DETECTED_AT, Long.class);
+        BranchOutcome any = (BranchOutcome) first.getPayload();
+
+        FileCompletionEvent event = new FileCompletionEvent(
+                String.valueOf(group.getGroupId()),
+                any.file() != null ? any.file().getName() : headers.get(FileHeaders.FILENAME, String.class),
+                detectedAt != null ? detectedAt : -1,
+                detectedNanos != null ? lastFinished - detectedNanos : -1,
+                outcomes);
+        return MessageBuilder.withPayload(event).copyHeaders(headers).build();
+    }
+}
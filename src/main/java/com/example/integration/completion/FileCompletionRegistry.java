@@ -0,0 +1,41 @@
+// FileCompletionRegistry.java
+package com.example.integration.completion;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lets a caller that injected a file wait for its {@link FileCompletionEvent}. Futures are
+ * registered under the file id before the message is sent and completed from
+ * {@code processedFileChannel}; events nobody registered for are ignored.
+ */
+public class FileCompletionRegistry {
+
+    private final Map<String, CompletableFuture<FileCompletionEvent>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * The returned future is forgotten once it completes, including when the caller times it
+     * out or cancels it.
+     */
+    public CompletableFuture<FileCompletionEvent> register(String fileId) {
+        CompletableFuture<FileCompletionEvent> future = new CompletableFuture<>();
+        if (pending.putIfAbsent(fileId, future) != null) {
+            throw new IllegalStateException("File id already registered: " + fileId);
+        }
+        future.whenComplete((event, error) -> pending.remove(fileId, future));
+        return future;
+    }
+
+    /**
+     * @return {@code true} if someone was waiting for the event
+     */
+    public boolean complete(FileCompletionEvent event) {
+        CompletableFuture<FileCompletionEvent> future = pending.remove(event.fileId());
+        return future != null && future.complete(event);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+}
@@ -0,0 +1,55 @@
+// FileCompletionStatistics.java
+package com.example.integration.completion;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput accounting fed by the completion events on {@code processedFileChannel}.
+ */
+public class FileCompletionStatistics {
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final AtomicReference<FileCompletionEvent> lastEvent = new AtomicReference<>();
+
+    public void record(FileCompletionEvent event) {
+        if (!event.isComplete()) {
+            timedOut.increment();
+        } else if (event.isSuccessful()) {
+            completed.increment();
+            long size = event.getBytes();
+            if (size > 0) {
+                bytes.add(size);
+            }
+        } else {
+            failed.increment();
+        }
+        lastEvent.lazySet(event);
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Files for which at least one branch never reported back within the correlation timeout.
+     */
+    public long getTimedOutCount() {
+        return timedOut.sum();
+    }
+
+    public long getCompletedBytes() {
+        return bytes.sum();
+    }
+
+    public FileCompletionEvent getLastEvent() {
+        return lastEvent.get();
+    }
+}
@@ -1,71 +1,233 @@
 // FileProcessingConfig.java
 package com.example.integration.config;
 
+import com.example.integration.admin.PipelineAdmin;
 import com.example.integration.advice.TestAdvice;
+import com.example.integration.archive.SegmentArchiveMessageHandler;
+import com.example.integration.archive.SegmentArchiveWriter;
+import com.example.integration.completion.Branch;
+import com.example.integration.completion.BranchOutcomeAdvice;
+import com.example.integration.completion.FileCompletionEvent;
+import com.example.integration.completion.FileCompletionEventProcessor;
+import com.example.integration.completion.FileCompletionRegistry;
+import com.example.integration.completion.FileCompletionStatistics;
+import com.example.integration.digest.AsyncFileWriter;
+import com.example.integration.digest.DigestingFileWritingMessageHandler;
+import com.example.integration.digest.WriteSkipStatistics;
+import com.example.integration.content.FileContentSupport;
+import com.example.integration.executor.AdaptiveTaskExecutor;
+import com.example.integration.executor.AimdConcurrencyLimit;
+import com.example.integration.filter.FileMatchers;
+import com.example.integration.filter.StableFileListFilter;
+import com.example.integration.gateway.PipelineSubmitter;
+import com.example.integration.ingest.NetworkIngestServer;
+import com.example.integration.interceptor.SamplingChannelInterceptor;
+import com.example.integration.jfr.CopyEvent;
+import com.example.integration.jfr.DispatchEventInterceptor;
+import com.example.integration.jfr.FileTransferEventAdvice;
+import com.example.integration.jfr.MoveEvent;
+import com.example.integration.jfr.PollEventAdvice;
+import com.example.integration.jfr.ScanEventDirectoryScanner;
+import com.example.integration.latency.IngestHeaders;
+import com.example.integration.latency.IngestStampingAdvice;
+import com.example.integration.latency.PipelineLatencyRecorder;
+import com.example.integration.latency.PipelineStage;
+import com.example.integration.latency.StageLatencyAdvice;
+import com.example.integration.layout.ShardedDirectoryLayout;
+import com.example.integration.parser.RecordBatchHandler;
+import com.example.integration.parser.RecordParsingTransformer;
+import com.example.integration.ordering.FileRanks;
+import com.example.integration.queue.ResizableBlockingQueue;
+import com.example.integration.ratelimit.DispatchPacer;
+import com.example.integration.ratelimit.IoRateLimiter;
+import com.example.integration.ratelimit.TokenBucket;
+import com.example.integration.retention.RetentionPolicy;
+import com.example.integration.retention.RetentionSweeper;
+import com.example.integration.scan.ParallelTreeScanner;
+import com.example.integration.status.InFlightTracker;
+import com.example.integration.status.PipelineMeterBinder;
+import com.example.integration.status.PipelineStatusEndpoint;
+import com.example.integration.tenant.DeficitRoundRobinQueue;
+import com.example.integration.tenant.TenantDirectoryScanner;
+import com.example.integration.tenant.TenantMeterBinder;
+import com.example.integration.tenant.TenantResolver;
+import com.example.integration.tenant.TenantStatistics;
 import org.aopalliance.aop.Advice;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableMBeanExport;
+import org.springframework.context.annotation.Profile;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.integration.channel.DirectChannel;
 import org.springframework.integration.channel.PublishSubscribeChannel;
 import org.springframework.integration.channel.QueueChannel;
 import org.springframework.integration.config.EnableIntegration;
+import org.springframework.integration.aop.ReceiveMessageAdvice;
 import org.springframework.integration.core.MessageSource;
+import org.springframework.integration.core.MessageProducer;
 import org.springframework.integration.dsl.IntegrationFlow;
+import org.springframework.integration.dsl.IntegrationFlowBuilder;
 import org.springframework.integration.dsl.Pollers;
+import org.springframework.integration.file.FileHeaders;
+import org.springframework.integration.file.FileNameGenerator;
 import org.springframework.integration.file.FileReadingMessageSource;
-import org.springframework.integration.file.FileWritingMessageHandler;
-import org.springframework.integration.file.filters.SimplePatternFileListFilter;
 import org.springframework.integration.file.support.FileExistsMode;
+import org.springframework.integration.scheduling.PollerMetadata;
+import org.springframework.integration.store.SimpleMessageStore;
+import org.springframework.integration.util.DynamicPeriodicTrigger;
+import org.springframework.jmx.support.RegistrationPolicy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHandler;
 import org.springframework.messaging.Message;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.messaging.MessageHandlingException;
 import java.io.File;
-
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.function.ToLongFunction;
 
 @Configuration
 @EnableIntegration
+@EnableConfigurationProperties(PipelineProperties.class)
+@EnableMBeanExport(registration = RegistrationPolicy.REPLACE_EXISTING)
+@Profile("!reactive")
 public class FlowConfig {
 
-    private static final String MONITOR_DIR = "monitor";
-    private static final String PRE_PROCESS_DIR = "pre-process";
+    private static final long COMPLETION_TIMEOUT_MILLIS = 30_000;
+    private static final int NETWORK_INGEST_PORT = 7070;
+    static final String DIGEST_SIDECAR_SUFFIX = ".sum";
 
     @Autowired
     private BeanFactory beanFactory;
 
+    @Autowired
+    private PipelineProperties properties;
+
     private BeanFactory getBeanFactory() {
         return this.beanFactory;
     }
 
+    // Starts at the minimum and adapts up to the maximum thread count to observed throughput and I/O latency
     @Bean
-    public Executor taskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(5);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("file-processor-");
-        executor.initialize();
-        return executor;
+    public AdaptiveTaskExecutor taskExecutor() {
+        PipelineProperties.Executor executor = properties.getExecutor();
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(executor.getMinThreads(), executor.resolveMaxThreads(),
+                executor.getMinThreads(), 0.9, 2.0);
+        return new AdaptiveTaskExecutor("file-processor-", limit, executor.getQueueCapacity(), Duration.ofSeconds(1));
     }
 
     @Bean
     public MessageChannel inboundFileChannel() {
-        return new QueueChannel(50);
+        QueueChannel channel = new QueueChannel(inboundQueue());
+        channel.addInterceptor(inboundChannelInterceptor());
+        return channel;
+    }
+
+    // Backs inboundFileChannel; its capacity can be changed on the live pipeline
+    @Bean
+    public ResizableBlockingQueue<Message<?>> inboundQueue() {
+        PipelineProperties.Tenants tenants = properties.getTenants();
+        if (!tenants.isEnabled()) {
+            return new ResizableBlockingQueue<>(properties.getInboundQueueCapacity(),
+                    inboundRank(properties.getInboundOrdering()));
+        }
+        if (properties.getInboundOrdering().getMode() != PipelineProperties.InboundOrdering.Mode.FIFO) {
+            throw new IllegalStateException("pipeline.inbound-ordering.mode must be FIFO when tenants are enabled");
+        }
+        return new ResizableBlockingQueue<>(properties.getInboundQueueCapacity(),
+                tenantQueue(tenants, tenantResolver()));
+    }
+
+    // Files cost their size plus a fixed per-file charge; the size is read outside the queue lock
+    static DeficitRoundRobinQueue<Message<?>> tenantQueue(PipelineProperties.Tenants tenants,
+                                                           TenantResolver tenantResolver) {
+        long fileCost = tenants.getFileCost().toBytes();
+        return new DeficitRoundRobinQueue<>(tenantResolver::tenantOf,
+                m -> fileCost + (m.getPayload() instanceof File file ? file.length()
+                        : m.getPayload() instanceof byte[] content ? content.length : 0),
+                tenants::weightOf, tenants.getQuantum().toBytes());
+    }
+
+    @Bean
+    public TenantResolver tenantResolver() {
+        return new TenantResolver(properties.getInputDirectory(), properties.getTenants().getDefaultTenant());
+    }
+
+    @Bean
+    public TenantStatistics tenantStatistics() {
+        return new TenantStatistics();
+    }
+
+    @Bean
+    public TenantMeterBinder tenantMeterBinder() {
+        return new TenantMeterBinder(tenantStatistics());
+    }
+
+    // Null keeps inboundFileChannel FIFO
+    static ToLongFunction<Message<?>> inboundRank(PipelineProperties.InboundOrdering ordering) {
+        return switch (ordering.getMode()) {
+            case FIFO -> null;
+            case OLDEST_FIRST -> FileRanks.oldestFirst(ordering.getMaxAdvance());
+            case PRIORITY -> FileRanks.byPriority(
+                    FileRanks.priorityFromPath(ordering.getPriorityPattern(), ordering.getDefaultPriority()),
+                    ordering.getStep(), ordering.getMaxAdvance());
+            case SMALLEST_FIRST -> FileRanks.smallestFirst(ordering.getBytesPerStep().toBytes(),
+                    ordering.getStep(), ordering.getMaxAdvance());
+        };
+    }
+
+    // The source's own backlog, which can be far longer than inboundFileChannel, in the same order; null keeps paths sorted
+    static Comparator<File> inboundFileOrder(PipelineProperties.InboundOrdering ordering, File inputDirectory) {
+        return switch (ordering.getMode()) {
+            case FIFO -> null;
+            case OLDEST_FIRST -> FileRanks.oldestFilesFirst();
+            case PRIORITY -> FileRanks.filesByPriority(
+                    FileRanks.priorityFromPath(ordering.getPriorityPattern(), ordering.getDefaultPriority(),
+                            inputDirectory),
+                    ordering.getStep(), ordering.getMaxAdvance());
+            case SMALLEST_FIRST -> FileRanks.smallestFilesFirst(ordering.getBytesPerStep().toBytes(),
+                    ordering.getStep(), ordering.getMaxAdvance());
+        };
+    }
+
+    @Bean
+    public DynamicPeriodicTrigger pollTrigger() {
+        return new DynamicPeriodicTrigger(properties.getPollInterval());
+    }
+
+    @Bean
+    public PipelineAdmin pipelineAdmin() {
+        return new PipelineAdmin(pollTrigger(), inboundQueue(), taskExecutor());
+    }
+
+    @Bean
+    public SamplingChannelInterceptor inboundChannelInterceptor() {
+        return new SamplingChannelInterceptor(128, 0.01);
     }
 
     @Bean
     public MessageChannel copyToMonitorChannel() {
-        return new DirectChannel();
+        DirectChannel channel = new DirectChannel();
+        channel.addInterceptor(inFlightTracker().entryInterceptor(Branch.MONITOR));
+        return channel;
     }
 
     @Bean
     public MessageChannel moveToPreProcessChannel() {
-        return new DirectChannel();
+        DirectChannel channel = new DirectChannel();
+        channel.addInterceptor(inFlightTracker().entryInterceptor(Branch.PRE_PROCESS));
+        return channel;
     }
 
     @Bean
@@ -73,74 +235,337 @@ public class FlowConfig {
         return new DirectChannel();
     }
 
+    @Bean
+    public MessageChannel fileOutcomeChannel() {
+        DirectChannel channel = new DirectChannel();
+        channel.addInterceptor(inFlightTracker().outcomeInterceptor());
+        return channel;
+    }
+
+    @Bean
+    public InFlightTracker inFlightTracker() {
+        return new InFlightTracker();
+    }
+
+    // Exported over JMX as com.example.integration:type=PipelineStatus
+    @Bean
+    public PipelineStatusEndpoint pipelineStatusEndpoint() {
+        return new PipelineStatusEndpoint(inboundQueue(), taskExecutor(), inFlightTracker(),
+                pipelineLatencyRecorder(), fileCompletionStatistics(), properties.getStatusRateWindow());
+    }
+
+    // Picked up by any MeterRegistry that binds MeterBinder beans, e.g. Actuator's
+    @Bean
+    public PipelineMeterBinder pipelineMeterBinder() {
+        return new PipelineMeterBinder(inboundQueue(), taskExecutor(), inFlightTracker(),
+                pipelineLatencyRecorder(), fileCompletionStatistics());
+    }
+
     @Bean
     public PublishSubscribeChannel pubSubChannel(Executor taskExecutor) {
-        return new PublishSubscribeChannel(taskExecutor);
+        PublishSubscribeChannel channel = new PublishSubscribeChannel(taskExecutor);
+        channel.addInterceptor(new DispatchEventInterceptor());
+        return channel;
     }
 
     @Bean
-    public IntegrationFlow fileProcessingFlow() {
+    public IntegrationFlow fileProcessingFlow(@Qualifier(PollerMetadata.DEFAULT_POLLER) PollerMetadata defaultPoller) {
         return IntegrationFlow
                 .from(inboundFileChannel())
-                .transform((Message<?> m) -> {
-                    System.out.println("Processing file: " + ((File) m.getPayload()).getName());
+                .bridge(e -> e.poller(gatedPoller(defaultPoller, dispatchPacer())))
+                .transform(Message.class, m -> {
+                    System.out.println("Processing file: " + sourceFileName(m));
                     return m;
                 })
+                .transform(Message.class, m -> pipelineLatencyRecorder().markDispatched(m))
+                // Files wait for both branches' write budgets on a timer; unpaced ones pass straight through
+                .delay(d -> d.messageGroupId("ioPacing")
+                        .delayFunction(m -> dispatchPacer().delayMillis(m))
+                        .taskScheduler(ioPacingScheduler()))
+                .transform(Message.class, m -> pipelineLatencyRecorder().markPaced(dispatchPacer().released(m)))
                 .channel(pubSubChannel(taskExecutor()))
                 .get();
     }
 
+    // The default poller, which skips polls while the dispatch pacer holds a full queue's worth of files
+    static PollerMetadata gatedPoller(PollerMetadata defaults, ReceiveMessageAdvice gate) {
+        PollerMetadata poller = new PollerMetadata();
+        poller.setTrigger(defaults.getTrigger());
+        poller.setMaxMessagesPerPoll(defaults.getMaxMessagesPerPoll());
+        poller.setReceiveTimeout(defaults.getReceiveTimeout());
+        poller.setTaskExecutor(defaults.getTaskExecutor());
+        poller.setErrorHandler(defaults.getErrorHandler());
+        if (defaults.getTransactionSynchronizationFactory() != null) {
+            poller.setTransactionSynchronizationFactory(defaults.getTransactionSynchronizationFactory());
+        }
+        List<Advice> adviceChain = new ArrayList<>();
+        if (defaults.getAdviceChain() != null) {
+            adviceChain.addAll(defaults.getAdviceChain());
+        }
+        adviceChain.add(gate);
+        poller.setAdviceChain(adviceChain);
+        return poller;
+    }
+
     @Bean
-    public IntegrationFlow pubSubFlow() {
-        return IntegrationFlow
+    public DispatchPacer dispatchPacer() {
+        return new DispatchPacer(ioRateLimiter(), properties.getInboundQueueCapacity());
+    }
+
+    // Releases paced files; they go on to the taskExecutor, whose full queue can block it briefly
+    @Bean
+    public ThreadPoolTaskScheduler ioPacingScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(2);
+        scheduler.setThreadNamePrefix("io-pacer-");
+        return scheduler;
+    }
+
+    // Batches go to the application's RecordBatchHandler bean, if any; records are reused, so copy out anything kept
+    @Bean
+    public RecordParsingTransformer recordParsingTransformer(ObjectProvider<RecordBatchHandler> recordBatchHandler) {
+        return new RecordParsingTransformer(recordBatchHandler.getIfAvailable(() -> batch -> {
+        }), properties.getParsing().getBatchSize());
+    }
+
+    @Bean
+    public IntegrationFlow pubSubFlow(RecordParsingTransformer recordParsingTransformer) {
+        IntegrationFlowBuilder flow = IntegrationFlow
                 .from(pubSubChannel(taskExecutor()))
+                .transform(Message.class, m -> pipelineLatencyRecorder().markExecutorStart(m));
+        if (properties.getParsing().isEnabled()) {
+            // On the executor thread, so reading a file does not hold up the serial inbound stage;
+            // content inspection steps go inside withContent, which closes the file even if one throws
+            flow.transform(Message.class, m -> FileContentSupport.withContent(m, recordParsingTransformer::transform));
+        }
+        return flow
                 .publishSubscribeChannel(c -> c
                         .subscribe(f -> f.channel(copyToMonitorChannel()))
                         .subscribe(f -> f.channel(moveToPreProcessChannel()))
                 )
-                // Remove .channel(processedFileChannel())
                 .get();
     }
 
     @Bean
-    public IntegrationFlow copyToMonitorFlow(@Qualifier("monitorAdvice") Advice monitorAdvice) {
-        return IntegrationFlow
+    public IntegrationFlow copyToMonitorFlow(@Qualifier("monitorAdvice") Advice monitorAdvice,
+                                             @Qualifier("monitorLatencyAdvice") Advice monitorLatencyAdvice,
+                                             @Qualifier("monitorOutcomeAdvice") Advice monitorOutcomeAdvice,
+                                             @Qualifier("monitorEventAdvice") Advice monitorEventAdvice,
+                                             ObjectProvider<SegmentArchiveMessageHandler> monitorArchiveHandler) {
+        // The monitor-archive profile packs copies into segment files instead of one file each
+        MessageHandler monitorHandler = monitorArchiveHandler.getIfAvailable();
+        if (monitorHandler == null) {
+            monitorHandler = monitorFileHandler();
+        }
+        IntegrationFlowBuilder flow = IntegrationFlow
                 .from(copyToMonitorChannel())
-                .handle(monitorFileHandler(), e -> e.advice(monitorAdvice))
-                .get();
+                .handle(monitorHandler, e -> e.advice(monitorAdvice, monitorLatencyAdvice, monitorOutcomeAdvice, monitorEventAdvice));
+        // The file handler replies with the digest for BranchOutcomeAdvice; nothing else needs the reply
+        return monitorHandler instanceof MessageProducer ? flow.nullChannel() : flow.get();
     }
 
     @Bean
-    public IntegrationFlow moveToPreProcessFlow(@Qualifier("preProcessAdvice") Advice preProcessAdvice) {
+    public IntegrationFlow moveToPreProcessFlow(@Qualifier("preProcessAdvice") Advice preProcessAdvice,
+                                                @Qualifier("preProcessLatencyAdvice") Advice preProcessLatencyAdvice,
+                                                @Qualifier("preProcessOutcomeAdvice") Advice preProcessOutcomeAdvice,
+                                                @Qualifier("preProcessEventAdvice") Advice preProcessEventAdvice) {
         return IntegrationFlow
                 .from(moveToPreProcessChannel())
-                .handle(preProcessFileHandler(), e -> e.advice(preProcessAdvice))
+                .handle(preProcessFileHandler(),
+                        e -> e.advice(preProcessAdvice, preProcessLatencyAdvice, preProcessOutcomeAdvice,
+                                preProcessEventAdvice))
+                .nullChannel();
+    }
+
+    // Unlimited by default; limits can be changed on the live bean. Each file is paced once for
+    // both branches before it fans out
+    @Bean
+    public IoRateLimiter ioRateLimiter() {
+        return new IoRateLimiter();
+    }
+
+    // Joins the monitor and pre-process outcomes of each file into one completion event
+    @Bean
+    public IntegrationFlow fileCompletionFlow() {
+        return IntegrationFlow
+                .from(fileOutcomeChannel())
+                .aggregate(a -> a
+                        .correlationStrategy(m -> m.getHeaders().get(IngestHeaders.FILE_ID))
+                        .releaseStrategy(group -> group.size() >= Branch.values().length)
+                        .outputProcessor(new FileCompletionEventProcessor())
+                        .messageStore(new SimpleMessageStore(0, Branch.values().length))
+                        .groupTimeout(COMPLETION_TIMEOUT_MILLIS)
+                        .sendPartialResultOnExpiry(true)
+                        .expireGroupsUponCompletion(true)
+                        .expireGroupsUponTimeout(true))
+                .channel(processedFileChannel())
                 .get();
     }
 
+    @Bean
+    public IntegrationFlow processedFileFlow() {
+        return IntegrationFlow
+                .from(processedFileChannel())
+                .handle(m -> {
+                    FileCompletionEvent event = (FileCompletionEvent) m.getPayload();
+                    fileCompletionStatistics().record(event);
+                    tenantStatistics().record(tenantResolver().tenantOf(m), event);
+                    fileCompletionRegistry().complete(event);
+                    if (inputDirectoryScanner() instanceof TenantDirectoryScanner tenantScanner) {
+                        tenantScanner.completed(event);
+                    }
+                })
+                .get();
+    }
+
+    // Flat unless pipeline.layout.* shards very large output directories
+    @Bean
+    public ShardedDirectoryLayout monitorLayout() {
+        return layout(properties.getMonitorDirectory(), properties.getLayout().getMonitor());
+    }
+
+    @Bean
+    public ShardedDirectoryLayout preProcessLayout() {
+        return layout(properties.getPreProcessDirectory(), properties.getLayout().getPreProcess());
+    }
+
+    static ShardedDirectoryLayout layout(File root, PipelineProperties.Layout layout) {
+        return switch (layout.getStrategy()) {
+            case FLAT -> ShardedDirectoryLayout.flat(root);
+            case HASH -> ShardedDirectoryLayout.hashed(root, layout.getDepth(), layout.getFanOut());
+            case DATE -> ShardedDirectoryLayout.dated(root, layout.getDepth());
+        };
+    }
+
+    // Monitor copies are kept forever unless pipeline.retention.* sets a limit
+    @Bean
+    public RetentionSweeper monitorRetentionSweeper() {
+        PipelineProperties.Retention retention = properties.getRetention();
+        RetentionSweeper sweeper = new RetentionSweeper(monitorLayout().getRoot(), retentionPolicy(retention),
+                new TokenBucket(retention.getIops(), 1), Duration.ofMillis(50), Duration.ofMillis(250));
+        sweeper.setCandidateLimit(retention.getCandidatesPerScan());
+        if (properties.getDigest().isSidecar()) {
+            sweeper.setSidecarSuffix(DIGEST_SIDECAR_SUFFIX);
+        }
+        return sweeper;
+    }
+
+    static RetentionPolicy retentionPolicy(PipelineProperties.Retention retention) {
+        return new RetentionPolicy(retention.getMaxAge(),
+                retention.getMaxBytes() != null ? retention.getMaxBytes().toBytes() : 0, retention.getMaxFiles());
+    }
+
     @Bean
     public MessageHandler monitorFileHandler() {
-        FileWritingMessageHandler handler = new FileWritingMessageHandler(new File(MONITOR_DIR));
+        DigestingFileWritingMessageHandler handler = fileWritingHandler(monitorLayout(), FlowConfig::monitorFileName);
         handler.setFileExistsMode(FileExistsMode.REPLACE);
         handler.setDeleteSourceFiles(false);
-        handler.setFileNameGenerator(message -> {
-            File originalFile = (File) message.getPayload();
-            return "monitor_" + originalFile.getName();
-        });
-        handler.setExpectReply(false); // This is the key change
+        configureDigest(handler, properties.getDigest(), true);
+        handler.setExpectReply(true); // The reply carries the digest headers
+        handler.setSkipIdentical(true);
+        handler.setSkipStatistics(monitorWriteSkipStatistics());
+        if (properties.getAsyncWrite().isEnabled()) {
+            handler.setAsyncWriter(asyncFileWriter());
+        }
         return handler;
     }
 
+    // Replays leave copies that already match alone; see pipeline.write.* for what was avoided
+    @Bean
+    public WriteSkipStatistics monitorWriteSkipStatistics() {
+        return new WriteSkipStatistics("monitor");
+    }
+
+    @Bean
+    public WriteSkipStatistics preProcessWriteSkipStatistics() {
+        return new WriteSkipStatistics("pre-process");
+    }
+
+    @Bean
+    @Profile("monitor-archive")
+    public SegmentArchiveWriter monitorArchiveWriter() {
+        return new SegmentArchiveWriter(new File(properties.getMonitorDirectory(), "archive"),
+                256L * 1024 * 1024, 256, 1000);
+    }
+
+    @Bean
+    @Profile("monitor-archive")
+    public SegmentArchiveMessageHandler monitorArchiveHandler() {
+        return new SegmentArchiveMessageHandler(monitorArchiveWriter(), FlowConfig::monitorFileName);
+    }
+
+    // The prefix goes on the file name, below any subdirectory the source came from
+    static String monitorFileName(Message<?> message) {
+        String name = sourceFileName(message);
+        int directory = name.lastIndexOf(File.separatorChar) + 1;
+        return name.substring(0, directory) + "monitor_" + name.substring(directory);
+    }
+
+    // Polled files keep their path below the input directory, so same-named files of different
+    // tenants or subdirectories do not overwrite each other; network uploads are byte[] payloads
+    // named by a header
+    static String sourceFileName(Message<?> message) {
+        String relativePath = message.getHeaders().get(FileHeaders.RELATIVE_PATH, String.class);
+        if (relativePath != null) {
+            Path path = Path.of(relativePath).normalize();
+            if (path.isAbsolute() || path.startsWith("..") || path.toString().isEmpty()) {
+                throw new MessageHandlingException(message, "Relative path " + relativePath
+                        + " is outside the input directory");
+            }
+            return path.toString();
+        }
+        if (message.getPayload() instanceof File originalFile) {
+            return originalFile.getName();
+        }
+        String name = message.getHeaders().get(FileHeaders.FILENAME, String.class);
+        if (name == null) {
+            throw new MessageHandlingException(message,
+                    "No file name for " + message.getPayload().getClass().getName() + " payload");
+        }
+        return name;
+    }
+
     @Bean
     public MessageHandler preProcessFileHandler() {
-        FileWritingMessageHandler handler = new FileWritingMessageHandler(new File(PRE_PROCESS_DIR));
+        DigestingFileWritingMessageHandler handler = fileWritingHandler(preProcessLayout(),
+                FlowConfig::sourceFileName);
         handler.setFileExistsMode(FileExistsMode.REPLACE);
         handler.setDeleteSourceFiles(true);
-        handler.setFileNameGenerator(message -> {
-            File originalFile = (File) message.getPayload();
-            return originalFile.getName();
-        });
-        handler.setExpectReply(false); // This is the key change
+        configureDigest(handler, properties.getDigest(), false);
+        // Moves are not digested; the monitor copy of the same content replies with its digest
+        handler.setExpectReply(true);
+        handler.setSkipIdentical(true);
+        handler.setSkipStatistics(preProcessWriteSkipStatistics());
+        if (properties.getAsyncWrite().isEnabled()) {
+            handler.setAsyncWriter(asyncFileWriter());
+        }
+        return handler;
+    }
+
+    // Shared by both branches, so ioThreads bounds the output requests of the whole pipeline;
+    // its threads only start once pipeline.async-write.enabled hands it a write
+    @Bean
+    public AsyncFileWriter asyncFileWriter() {
+        PipelineProperties.AsyncWrite asyncWrite = properties.getAsyncWrite();
+        return new AsyncFileWriter(asyncWrite.getIoThreads(), asyncWrite.getFilesInFlight(),
+                asyncWrite.getWritesPerFile(), (int) asyncWrite.getChunkSize().toBytes());
+    }
+
+    // Only monitor copies may get a .sum sidecar, so they can be verified without recomputing the checksum
+    static void configureDigest(DigestingFileWritingMessageHandler handler, PipelineProperties.Digest digest,
+                                boolean sidecar) {
+        handler.setStrongHashAlgorithm(digest.getStrongHashAlgorithm());
+        if (sidecar && digest.isSidecar()) {
+            handler.setSidecarSuffix(DIGEST_SIDECAR_SUFFIX);
+        }
+    }
+
+    static DigestingFileWritingMessageHandler fileWritingHandler(ShardedDirectoryLayout layout,
+                                                                 FileNameGenerator fileNameGenerator) {
+        DigestingFileWritingMessageHandler handler = layout.isFlat()
+                ? new DigestingFileWritingMessageHandler(layout.getRoot())
+                : new DigestingFileWritingMessageHandler(layout.directoryExpression(fileNameGenerator));
+        handler.setFileNameGenerator(fileNameGenerator);
         return handler;
     }
 
@@ -155,21 +580,125 @@ public class FlowConfig {
         return new TestAdvice();
     }
 
+    @Bean
+    public Advice monitorOutcomeAdvice() {
+        return new BranchOutcomeAdvice(Branch.MONITOR, fileOutcomeChannel());
+    }
+
+    @Bean
+    public Advice preProcessOutcomeAdvice() {
+        return new BranchOutcomeAdvice(Branch.PRE_PROCESS, fileOutcomeChannel());
+    }
+
+    @Bean
+    public FileCompletionStatistics fileCompletionStatistics() {
+        return new FileCompletionStatistics();
+    }
+
+    @Bean
+    public FileCompletionRegistry fileCompletionRegistry() {
+        return new FileCompletionRegistry();
+    }
+
+    // Embedded callers submit through PipelineGateway instead of the input directory
+    @Bean
+    public IntegrationFlow pipelineSubmissionFlow() {
+        return IntegrationFlow
+                .from("pipelineSubmissionChannel")
+                // The reply is the completion future itself, for the gateway to return
+                .handle(pipelineSubmitter(), "submit", e -> e.async(false))
+                .get();
+    }
+
+    @Bean
+    public PipelineSubmitter pipelineSubmitter() {
+        return new PipelineSubmitter(inboundFileChannel(), fileCompletionRegistry(), pipelineLatencyRecorder(),
+                Duration.ofMillis(COMPLETION_TIMEOUT_MILLIS + 5_000));
+    }
+
+    // Loopback only; pass UnixDomainSocketAddress.of(...) instead to listen on a socket file
+    @Bean
+    @Profile("network-ingest")
+    public NetworkIngestServer networkIngestServer() {
+        NetworkIngestServer server = new NetworkIngestServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), NETWORK_INGEST_PORT),
+                pubSubChannel(taskExecutor()), fileCompletionRegistry(), pipelineLatencyRecorder(),
+                16, 8, 64 * 1024 * 1024, Duration.ofMillis(COMPLETION_TIMEOUT_MILLIS + 5_000));
+        server.setRateLimiter(ioRateLimiter());
+        return server;
+    }
+
+    @Bean
+    public PipelineLatencyRecorder pipelineLatencyRecorder() {
+        return new PipelineLatencyRecorder();
+    }
+
+    @Bean
+    public Advice monitorLatencyAdvice() {
+        return new StageLatencyAdvice(pipelineLatencyRecorder(),
+                PipelineStage.MONITOR_WRITE, PipelineStage.MONITOR_END_TO_END);
+    }
+
+    @Bean
+    public Advice preProcessLatencyAdvice() {
+        return new StageLatencyAdvice(pipelineLatencyRecorder(),
+                PipelineStage.PRE_PROCESS_WRITE, PipelineStage.PRE_PROCESS_END_TO_END);
+    }
+
+    // JFR copy and move events; only an isEnabled() check unless a recording enables them
+    @Bean
+    public Advice monitorEventAdvice() {
+        return new FileTransferEventAdvice(CopyEvent::new);
+    }
+
+    @Bean
+    public Advice preProcessEventAdvice() {
+        return new FileTransferEventAdvice(MoveEvent::new);
+    }
+
+
+    // Top of the input directory only, unless tenants or pipeline.scan.max-depth make it recursive
+    @Bean
+    public ScanEventDirectoryScanner inputDirectoryScanner() {
+        PipelineProperties.Tenants tenants = properties.getTenants();
+        PipelineProperties.Scan scan = properties.getScan();
+        ScanEventDirectoryScanner scanner;
+        if (tenants.isEnabled()) {
+            scanner = new TenantDirectoryScanner(tenantResolver(), tenants::weightOf, tenants.getFilesPerScan(),
+                    tenants.getRedeliverAfter());
+        } else if (scan.getMaxDepth() > 0) {
+            scanner = new ParallelTreeScanner(scan.getMaxDepth(), scan.resolveParallelism(), scan.getRacyWindow());
+        } else {
+            scanner = new ScanEventDirectoryScanner();
+        }
+        // Only pick up *.txt files whose size and mtime held still for one whole poll
+        scanner.setFilter(new StableFileListFilter(FileMatchers.glob("*.txt"), FileMatchers.sizeStable(1)));
+        return scanner;
+    }
 
     @Bean
     public MessageSource<File> fileReadingMessageSource() {
-        FileReadingMessageSource source = new FileReadingMessageSource();
-        source.setDirectory(new File("input-directory")); // Replace with your directory path
-        source.setFilter(new SimplePatternFileListFilter("*.txt")); // Example filter for .txt files
+        ScanEventDirectoryScanner scanner = inputDirectoryScanner();
+        Comparator<File> order = scanner instanceof TenantDirectoryScanner tenantScanner
+                ? tenantScanner.receptionOrder()
+                : inboundFileOrder(properties.getInboundOrdering(), properties.getInputDirectory());
+        FileReadingMessageSource source = order != null
+                ? new FileReadingMessageSource(order)
+                : new FileReadingMessageSource();
+        source.setDirectory(properties.getInputDirectory());
+        source.setScanner(scanner);
         return source;
     }
 
     @Bean
     public IntegrationFlow fileInboundFlow() {
-        return IntegrationFlow
-                .from(fileReadingMessageSource(), c -> c.poller(Pollers.fixedDelay(1000)))
-                .channel(inboundFileChannel())
-                .get();
+        IntegrationFlowBuilder flow = IntegrationFlow
+                .from(fileReadingMessageSource(), c -> c.poller(Pollers.trigger(pollTrigger())
+                        .advice(new IngestStampingAdvice(pipelineLatencyRecorder()), new PollEventAdvice())));
+        if (properties.getTenants().isEnabled()) {
+            flow.transform(Message.class, m -> tenantResolver().stamp(m));
+        }
+        return flow.channel(inboundFileChannel()).get();
     }
 
 }
\ No newline at end of file
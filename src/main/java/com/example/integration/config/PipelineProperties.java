@@ -0,0 +1,634 @@
+// PipelineProperties.java
+package com.example.integration.config;
+
+import com.example.integration.layout.ShardedDirectoryLayout;
+import com.example.integration.retention.RetentionSweeper;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Externalized pipeline settings under the {@code pipeline} prefix, e.g.
+ * {@code pipeline.poll-interval=250ms} or {@code pipeline.executor.max-threads=16}. The
+ * directories are read once at startup; poll interval, queue capacities and executor bounds
+ * are only initial values and can be changed on the running pipeline through
+ * {@link com.example.integration.admin.PipelineAdmin}.
+ */
+@ConfigurationProperties("pipeline")
+public class PipelineProperties {
+
+    private File inputDirectory = new File("input-directory");
+
+    private File monitorDirectory = new File("monitor");
+
+    private File preProcessDirectory = new File("pre-process");
+
+    /** Delay between the end of one input directory scan and the start of the next. */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /** Polled files waiting for dispatch in {@code inboundFileChannel}. */
+    private int inboundQueueCapacity = 50;
+
+    /** Window over which the status endpoint measures per-stage rates. */
+    private Duration statusRateWindow = Duration.ofSeconds(10);
+
+    private final Executor executor = new Executor();
+
+    private final InboundOrdering inboundOrdering = new InboundOrdering();
+
+    private final Tenants tenants = new Tenants();
+
+    private final Scan scan = new Scan();
+
+    private final AsyncWrite asyncWrite = new AsyncWrite();
+
+    private final Layouts layout = new Layouts();
+
+    private final Retention retention = new Retention();
+
+    private final Parsing parsing = new Parsing();
+
+    private final Digest digest = new Digest();
+
+    public File getInputDirectory() {
+        return inputDirectory;
+    }
+
+    public void setInputDirectory(File inputDirectory) {
+        this.inputDirectory = inputDirectory;
+    }
+
+    public File getMonitorDirectory() {
+        return monitorDirectory;
+    }
+
+    public void setMonitorDirectory(File monitorDirectory) {
+        this.monitorDirectory = monitorDirectory;
+    }
+
+    public File getPreProcessDirectory() {
+        return preProcessDirectory;
+    }
+
+    public void setPreProcessDirectory(File preProcessDirectory) {
+        this.preProcessDirectory = preProcessDirectory;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public Duration getStatusRateWindow() {
+        return statusRateWindow;
+    }
+
+    public void setStatusRateWindow(Duration statusRateWindow) {
+        this.statusRateWindow = statusRateWindow;
+    }
+
+    public int getInboundQueueCapacity() {
+        return inboundQueueCapacity;
+    }
+
+    public void setInboundQueueCapacity(int inboundQueueCapacity) {
+        this.inboundQueueCapacity = inboundQueueCapacity;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public InboundOrdering getInboundOrdering() {
+        return inboundOrdering;
+    }
+
+    public Tenants getTenants() {
+        return tenants;
+    }
+
+    public Scan getScan() {
+        return scan;
+    }
+
+    public AsyncWrite getAsyncWrite() {
+        return asyncWrite;
+    }
+
+    public Layouts getLayout() {
+        return layout;
+    }
+
+    public Retention getRetention() {
+        return retention;
+    }
+
+    public Parsing getParsing() {
+        return parsing;
+    }
+
+    public Digest getDigest() {
+        return digest;
+    }
+
+    /**
+     * Bounds of the adaptive branch executor; its thread count moves between them.
+     */
+    public static class Executor {
+
+        private int minThreads = 2;
+
+        /** 0 means four per core, but at least 5. */
+        private int maxThreads;
+
+        private int queueCapacity = 100;
+
+        public int getMinThreads() {
+            return minThreads;
+        }
+
+        public void setMinThreads(int minThreads) {
+            this.minThreads = minThreads;
+        }
+
+        public int getMaxThreads() {
+            return maxThreads;
+        }
+
+        public void setMaxThreads(int maxThreads) {
+            this.maxThreads = maxThreads;
+        }
+
+        public int resolveMaxThreads() {
+            return maxThreads > 0 ? maxThreads : Math.max(5, Runtime.getRuntime().availableProcessors() * 4);
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    /**
+     * Order in which waiting files leave {@code inboundFileChannel}; see
+     * {@link com.example.integration.ordering.FileRanks}.
+     */
+    public static class InboundOrdering {
+
+        public enum Mode {
+            /** Directory listing order. */
+            FIFO,
+            /** Oldest last-modified time first. */
+            OLDEST_FIRST,
+            /** Highest priority read from the file path with {@code priorityPattern} first. */
+            PRIORITY,
+            /** Smallest file first. */
+            SMALLEST_FIRST
+        }
+
+        private Mode mode = Mode.FIFO;
+
+        /** First group is the priority, e.g. 7 in {@code report.p7.txt}. */
+        private Pattern priorityPattern = Pattern.compile("\\.p(\\d+)\\.");
+
+        private int defaultPriority;
+
+        /** Waiting time one priority level, or {@code bytesPerStep} of size, is worth. */
+        private Duration step = Duration.ofSeconds(10);
+
+        private DataSize bytesPerStep = DataSize.ofMegabytes(1);
+
+        /** Furthest any file may overtake earlier arrivals; bounds how long others can be starved. */
+        private Duration maxAdvance = Duration.ofMinutes(5);
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public Pattern getPriorityPattern() {
+            return priorityPattern;
+        }
+
+        public void setPriorityPattern(Pattern priorityPattern) {
+            this.priorityPattern = priorityPattern;
+        }
+
+        public int getDefaultPriority() {
+            return defaultPriority;
+        }
+
+        public void setDefaultPriority(int defaultPriority) {
+            this.defaultPriority = defaultPriority;
+        }
+
+        public Duration getStep() {
+            return step;
+        }
+
+        public void setStep(Duration step) {
+            this.step = step;
+        }
+
+        public DataSize getBytesPerStep() {
+            return bytesPerStep;
+        }
+
+        public void setBytesPerStep(DataSize bytesPerStep) {
+            this.bytesPerStep = bytesPerStep;
+        }
+
+        public Duration getMaxAdvance() {
+            return maxAdvance;
+        }
+
+        public void setMaxAdvance(Duration maxAdvance) {
+            this.maxAdvance = maxAdvance;
+        }
+    }
+
+    /**
+     * Multi-tenant intake, where each subdirectory of the input directory belongs to one tenant;
+     * see {@link com.example.integration.tenant.DeficitRoundRobinQueue}.
+     */
+    public static class Tenants {
+
+        /** Off by default: only files directly in the input directory are picked up. */
+        private boolean enabled;
+
+        /** Files directly in the input directory belong to this tenant. */
+        private String defaultTenant = "default";
+
+        /** Relative share of dispatch per tenant, e.g. {@code pipeline.tenants.weights.acme=3}; others get 1. */
+        private Map<String, Integer> weights = new HashMap<>();
+
+        /** Credit a weight-1 tenant receives per round-robin turn. */
+        private DataSize quantum = DataSize.ofMegabytes(1);
+
+        /** Charged per file on top of its size, so a tenant of tiny files cannot take a whole turn at once. */
+        private DataSize fileCost = DataSize.ofKilobytes(64);
+
+        /** Files taken from a weight-1 tenant per input directory scan. */
+        private int filesPerScan = 100;
+
+        /** When a file that was polled and completed but is still there, e.g. after a failure, is picked up again. */
+        private Duration redeliverAfter = Duration.ofMinutes(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDefaultTenant() {
+            return defaultTenant;
+        }
+
+        public void setDefaultTenant(String defaultTenant) {
+            this.defaultTenant = defaultTenant;
+        }
+
+        public Map<String, Integer> getWeights() {
+            return weights;
+        }
+
+        public void setWeights(Map<String, Integer> weights) {
+            this.weights = weights;
+        }
+
+        public int weightOf(String tenant) {
+            return weights.getOrDefault(tenant, 1);
+        }
+
+        public DataSize getQuantum() {
+            return quantum;
+        }
+
+        public void setQuantum(DataSize quantum) {
+            this.quantum = quantum;
+        }
+
+        public DataSize getFileCost() {
+            return fileCost;
+        }
+
+        public void setFileCost(DataSize fileCost) {
+            this.fileCost = fileCost;
+        }
+
+        public int getFilesPerScan() {
+            return filesPerScan;
+        }
+
+        public void setFilesPerScan(int filesPerScan) {
+            this.filesPerScan = filesPerScan;
+        }
+
+        public Duration getRedeliverAfter() {
+            return redeliverAfter;
+        }
+
+        public void setRedeliverAfter(Duration redeliverAfter) {
+            this.redeliverAfter = redeliverAfter;
+        }
+    }
+
+    /**
+     * Recursive intake below the input directory; see
+     * {@link com.example.integration.scan.ParallelTreeScanner}. Ignored when tenants are enabled,
+     * since the tenant scanner walks each tenant's tree itself. Outputs keep each file's path
+     * below the input directory.
+     */
+    public static class Scan {
+
+        /** Directory levels below the input directory to pick files up from; 0 scans only its top. */
+        private int maxDepth;
+
+        /** Directories listed concurrently; 0 means one per core. */
+        private int parallelism;
+
+        /** How long after a directory's last change its cached listing is still re-checked. */
+        private Duration racyWindow = Duration.ofSeconds(2);
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public void setMaxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int resolveParallelism() {
+            return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        }
+
+        public Duration getRacyWindow() {
+            return racyWindow;
+        }
+
+        public void setRacyWindow(Duration racyWindow) {
+            this.racyWindow = racyWindow;
+        }
+    }
+
+    /**
+     * Asynchronous output writes for the monitor and pre-process branches; see
+     * {@link com.example.integration.digest.AsyncFileWriter}.
+     */
+    public static class AsyncWrite {
+
+        /** Off by default: branch executor threads write the output files themselves. */
+        private boolean enabled;
+
+        /** Threads issuing reads and writes, i.e. the requests the device sees at once. */
+        private int ioThreads = 16;
+
+        /** Files being written at once before handlers wait for one to complete. */
+        private int filesInFlight = 256;
+
+        /** Chunk buffers of one copy in flight at once, the one being read included. */
+        private int writesPerFile = 4;
+
+        private DataSize chunkSize = DataSize.ofKilobytes(256);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getIoThreads() {
+            return ioThreads;
+        }
+
+        public void setIoThreads(int ioThreads) {
+            this.ioThreads = ioThreads;
+        }
+
+        public int getFilesInFlight() {
+            return filesInFlight;
+        }
+
+        public void setFilesInFlight(int filesInFlight) {
+            this.filesInFlight = filesInFlight;
+        }
+
+        public int getWritesPerFile() {
+            return writesPerFile;
+        }
+
+        public void setWritesPerFile(int writesPerFile) {
+            this.writesPerFile = writesPerFile;
+        }
+
+        public DataSize getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(DataSize chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    /**
+     * Subdirectory sharding of the output directories, e.g.
+     * {@code pipeline.layout.monitor.strategy=hash}; see {@link ShardedDirectoryLayout}.
+     */
+    public static class Layouts {
+
+        private final Layout monitor = new Layout();
+
+        private final Layout preProcess = new Layout();
+
+        public Layout getMonitor() {
+            return monitor;
+        }
+
+        public Layout getPreProcess() {
+            return preProcess;
+        }
+    }
+
+    public static class Layout {
+
+        /** {@code flat} writes straight into the directory, {@code hash} by file name, {@code date} by detection time. */
+        private ShardedDirectoryLayout.Strategy strategy = ShardedDirectoryLayout.Strategy.FLAT;
+
+        /** Directory levels below the root; for {@code date}, 1 is day, 2 day/hour and 3 day/hour/minute. */
+        private int depth = 2;
+
+        /** Directories per level for {@code hash}. */
+        private int fanOut = 256;
+
+        public ShardedDirectoryLayout.Strategy getStrategy() {
+            return strategy;
+        }
+
+        public void setStrategy(ShardedDirectoryLayout.Strategy strategy) {
+            this.strategy = strategy;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public void setDepth(int depth) {
+            this.depth = depth;
+        }
+
+        public int getFanOut() {
+            return fanOut;
+        }
+
+        public void setFanOut(int fanOut) {
+            this.fanOut = fanOut;
+        }
+    }
+
+    /**
+     * Limits on the monitor directory, enforced in the background by
+     * {@link com.example.integration.retention.RetentionSweeper}; copies are kept forever
+     * unless one is set. The oldest copies go first until every limit holds.
+     */
+    public static class Retention {
+
+        /** Copies last modified longer ago than this are removed. */
+        private Duration maxAge;
+
+        /** 0 means no limit. */
+        private long maxFiles;
+
+        private DataSize maxBytes;
+
+        /** Directory opens, attribute reads and deletes per second the sweep may use. */
+        private int iops = 200;
+
+        /** Oldest copies the size and count limits can pick from one scan; a larger excess takes several. */
+        private int candidatesPerScan = RetentionSweeper.DEFAULT_CANDIDATE_LIMIT;
+
+        public Duration getMaxAge() {
+            return maxAge;
+        }
+
+        public void setMaxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+        }
+
+        public long getMaxFiles() {
+            return maxFiles;
+        }
+
+        public void setMaxFiles(long maxFiles) {
+            this.maxFiles = maxFiles;
+        }
+
+        public DataSize getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(DataSize maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public int getIops() {
+            return iops;
+        }
+
+        public void setIops(int iops) {
+            this.iops = iops;
+        }
+
+        public int getCandidatesPerScan() {
+            return candidatesPerScan;
+        }
+
+        public void setCandidatesPerScan(int candidatesPerScan) {
+            this.candidatesPerScan = candidatesPerScan;
+        }
+    }
+
+    /**
+     * Record parsing of CSV and JSON-lines files on the branch executor, before the fan-out.
+     * Batches go to the application's {@link com.example.integration.parser.RecordBatchHandler}
+     * bean; without one only the record and error counts are stamped on the message.
+     */
+    public static class Parsing {
+
+        /** Off by default: files are copied and moved without being read. */
+        private boolean enabled;
+
+        /** Records per batch handed to the handler. */
+        private int batchSize = 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    /**
+     * Digests of the output files. CRC-32C, byte and line counts are always taken while writing
+     * and travel in the reply headers; these settings add to that.
+     */
+    public static class Digest {
+
+        /** Off by default: a {@code .sum} file next to every monitor copy doubles the files there. */
+        private boolean sidecar;
+
+        /** A {@code MessageDigest} algorithm such as {@code SHA-256}; unset computes CRC-32C only. */
+        private String strongHashAlgorithm;
+
+        public boolean isSidecar() {
+            return sidecar;
+        }
+
+        public void setSidecar(boolean sidecar) {
+            this.sidecar = sidecar;
+        }
+
+        public String getStrongHashAlgorithm() {
+            return strongHashAlgorithm;
+        }
+
+        public void setStrongHashAlgorithm(String strongHashAlgorithm) {
+            this.strongHashAlgorithm = strongHashAlgorithm;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+// ReactiveFlowConfig.java
+package com.example.integration.config;
+
+import com.example.integration.completion.FileCompletionEvent;
+import com.example.integration.completion.FileCompletionStatistics;
+import com.example.integration.digest.DigestingFileWritingMessageHandler;
+import com.example.integration.filter.FileMatchers;
+import com.example.integration.filter.StableFileListFilter;
+import com.example.integration.latency.PipelineLatencyRecorder;
+import com.example.integration.layout.ShardedDirectoryLayout;
+import com.example.integration.ratelimit.IoRateLimiter;
+import com.example.integration.reactive.ReactiveFilePipeline;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.integration.channel.FluxMessageChannel;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.integration.dsl.IntegrationFlow;
+import org.springframework.integration.file.FileReadingMessageSource;
+import org.springframework.integration.file.filters.AcceptOnceFileListFilter;
+import org.springframework.integration.file.filters.ChainFileListFilter;
+import org.springframework.integration.file.support.FileExistsMode;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.MessageHandler;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Same pipeline as {@link FlowConfig}, wired as a demand-driven reactive stream; enabled
+ * with the {@code reactive} profile, which also switches {@code FlowConfig} off.
+ *
+ * <p>Demand is carried by the Flux inside {@link ReactiveFilePipeline}, not by channels:
+ * {@link FluxMessageChannel} is only used for {@code processedFileChannel}, which takes the
+ * completion events to the statistics. The file-system stages still block; see
+ * {@link ReactiveFilePipeline} for where they run. {@code ReactiveFlowBenchmark} in the
+ * tests compares end-to-end throughput with {@code FlowConfig}.
+ */
+@Configuration
+@EnableIntegration
+@EnableConfigurationProperties(PipelineProperties.class)
+@Profile("reactive")
+public class ReactiveFlowConfig {
+
+    private static final int CONCURRENCY = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    @Autowired
+    private PipelineProperties properties;
+
+    @Bean
+    public FileReadingMessageSource reactiveFileSource() {
+        FileReadingMessageSource source = new FileReadingMessageSource();
+        source.setDirectory(properties.getInputDirectory());
+        source.setFilter(new ChainFileListFilter<>(List.of(
+                new StableFileListFilter(FileMatchers.glob("*.txt"), FileMatchers.sizeStable(1)),
+                inFlightFileFilter())));
+        return source;
+    }
+
+    // Files stay in input-directory until pre-process moves them, so rescans must skip those in flight
+    @Bean
+    public AcceptOnceFileListFilter<File> inFlightFileFilter() {
+        return new AcceptOnceFileListFilter<>();
+    }
+
+    @Bean
+    public ShardedDirectoryLayout monitorLayout() {
+        return FlowConfig.layout(properties.getMonitorDirectory(), properties.getLayout().getMonitor());
+    }
+
+    @Bean
+    public ShardedDirectoryLayout preProcessLayout() {
+        return FlowConfig.layout(properties.getPreProcessDirectory(), properties.getLayout().getPreProcess());
+    }
+
+    @Bean
+    public MessageHandler monitorFileHandler() {
+        DigestingFileWritingMessageHandler handler = FlowConfig.fileWritingHandler(monitorLayout(),
+                FlowConfig::monitorFileName);
+        handler.setFileExistsMode(FileExistsMode.REPLACE);
+        handler.setDeleteSourceFiles(false);
+        FlowConfig.configureDigest(handler, properties.getDigest(), true);
+        handler.setExpectReply(false);
+        return handler;
+    }
+
+    @Bean
+    public MessageHandler preProcessFileHandler() {
+        DigestingFileWritingMessageHandler handler = FlowConfig.fileWritingHandler(preProcessLayout(),
+                FlowConfig::sourceFileName);
+        handler.setFileExistsMode(FileExistsMode.REPLACE);
+        handler.setDeleteSourceFiles(true);
+        FlowConfig.configureDigest(handler, properties.getDigest(), false);
+        handler.setExpectReply(false);
+        return handler;
+    }
+
+    @Bean
+    public IoRateLimiter ioRateLimiter() {
+        return new IoRateLimiter();
+    }
+
+    @Bean
+    public PipelineLatencyRecorder pipelineLatencyRecorder() {
+        return new PipelineLatencyRecorder();
+    }
+
+    @Bean
+    public FileCompletionStatistics fileCompletionStatistics() {
+        return new FileCompletionStatistics();
+    }
+
+    // Copies and moves run here; the source's directory scans run on Reactor's shared boundedElastic
+    @Bean(destroyMethod = "dispose")
+    public Scheduler reactiveIoScheduler() {
+        return Schedulers.newBoundedElastic(CONCURRENCY, 1000, "reactive-io");
+    }
+
+    @Bean
+    public ReactiveFilePipeline reactiveFilePipeline() {
+        return new ReactiveFilePipeline(reactiveFileSource(), inFlightFileFilter(), monitorFileHandler(), preProcessFileHandler(),
+                ioRateLimiter(), pipelineLatencyRecorder(), reactiveIoScheduler(), CONCURRENCY,
+                Duration.ofMillis(200));
+    }
+
+    @Bean
+    public FluxMessageChannel processedFileChannel() {
+        return new FluxMessageChannel();
+    }
+
+    // Subscribing here is what starts the pipeline; stopping the flow cancels it
+    @Bean
+    public IntegrationFlow reactiveFileFlow() {
+        return IntegrationFlow
+                .from(reactiveFilePipeline().events().map(event -> MessageBuilder.withPayload(event).build()))
+                .channel(processedFileChannel())
+                .handle(m -> fileCompletionStatistics().record((FileCompletionEvent) m.getPayload()))
+                .get();
+    }
+}
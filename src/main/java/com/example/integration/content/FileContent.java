@@ -0,0 +1,150 @@
+// FileContent.java
+package com.example.integration.content;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only, memory-mapped view of a file's content for inspection steps. Nothing is opened
+ * until content is first requested, and only one window of at most {@code windowSize} bytes
+ * is mapped at a time, so multi-gigabyte files can be scanned without copying them onto the heap.
+ *
+ * <p>Windows are never unmapped explicitly: a mapping is released by the garbage collector
+ * once no buffer handed out from it is reachable, so a buffer obtained earlier stays safe to
+ * read after moving on or {@link #close()}, which only closes the channel. Explicit unmapping
+ * would turn any such later read into a crash of the whole JVM. Instances are not thread-safe.
+ */
+public class FileContent implements AutoCloseable {
+
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final Logger logger = LoggerFactory.getLogger(FileContent.class);
+
+    private final File file;
+    private final int windowSize;
+    private FileChannel channel;
+    private long size = -1;
+    private MappedByteBuffer window;
+    private long windowPosition = -1;
+    private boolean closed;
+
+    public FileContent(File file) {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    public FileContent(File file, int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("windowSize must be positive");
+        }
+        this.file = file;
+        this.windowSize = windowSize;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public long size() {
+        ensureOpen();
+        return size;
+    }
+
+    /**
+     * Maps the window starting at {@code position}; the returned buffer covers up to
+     * {@link #getWindowSize()} bytes and is positioned at zero.
+     */
+    public ByteBuffer window(long position) {
+        ensureOpen();
+        if (position < 0 || position > size) {
+            throw new IndexOutOfBoundsException("Position " + position + " outside file of " + size + " bytes");
+        }
+        if (window == null || windowPosition != position) {
+            long length = Math.min(windowSize, size - position);
+            try {
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not map " + file, e);
+            }
+            windowPosition = position;
+        }
+        return window.duplicate();
+    }
+
+    /**
+     * The first {@code length} bytes (fewer if the file is shorter), e.g. for format sniffing.
+     */
+    public ByteBuffer head(int length) {
+        ByteBuffer first = window(0);
+        return first.limit(Math.min(first.limit(), length)).slice();
+    }
+
+    /**
+     * Hands each consecutive window to {@code visitor} until the end of the file or until the
+     * visitor returns {@code false}.
+     */
+    public void forEachWindow(WindowVisitor visitor) {
+        ensureOpen();
+        for (long position = 0; position < size; position += windowSize) {
+            if (!visitor.visit(position, window(position))) {
+                return;
+            }
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        window = null;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Could not close {}", file, e);
+            }
+            channel = null;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Content of " + file + " has been released");
+        }
+        if (channel == null) {
+            try {
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                size = channel.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open " + file, e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface WindowVisitor {
+
+        /**
+         * @param position offset of the window's first byte in the file
+         * @return {@code false} to stop scanning
+         */
+        boolean visit(long position, ByteBuffer window);
+    }
+}
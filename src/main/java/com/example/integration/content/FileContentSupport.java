@@ -0,0 +1,61 @@
+// FileContentSupport.java
+package com.example.integration.content;
+
+import com.example.integration.latency.IngestHeaders;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+import java.io.File;
+import java.util.function.UnaryOperator;
+
+/**
+ * Attaches and releases the {@link FileContent} carried in the {@link IngestHeaders#CONTENT}
+ * header. Attaching is free until a step actually reads content; releasing must happen before
+ * the message is copied to several branches so the open file has a single owner. Prefer
+ * {@link #withContent}, which releases even when a step throws.
+ */
+public final class FileContentSupport {
+
+    private FileContentSupport() {
+    }
+
+    public static Message<?> attach(Message<?> message) {
+        if (!(message.getPayload() instanceof File file) || message.getHeaders().containsKey(IngestHeaders.CONTENT)) {
+            return message;
+        }
+        return MessageBuilder.fromMessage(message).setHeader(IngestHeaders.CONTENT, new FileContent(file)).build();
+    }
+
+    /**
+     * Runs {@code steps} on the message with content attached, then releases it whether the
+     * steps return or throw. Content attached by the caller is left for the caller to release.
+     */
+    public static Message<?> withContent(Message<?> message, UnaryOperator<Message<?>> steps) {
+        Message<?> attached = attach(message);
+        FileContent owned = attached != message ? contentOf(attached) : null;
+        if (owned == null) {
+            return steps.apply(attached);
+        }
+        try {
+            return release(steps.apply(attached));
+        } finally {
+            owned.close();
+        }
+    }
+
+    /**
+     * @return the message's content view, or {@code null} if none is attached
+     */
+    public static FileContent contentOf(Message<?> message) {
+        return message.getHeaders().get(IngestHeaders.CONTENT, FileContent.class);
+    }
+
+    public static Message<?> release(Message<?> message) {
+        FileContent content = contentOf(message);
+        if (content == null) {
+            return message;
+        }
+        content.close();
+        return MessageBuilder.fromMessage(message).removeHeader(IngestHeaders.CONTENT).build();
+    }
+}
@@ -0,0 +1,327 @@
+// AsyncFileWriter.java
+package com.example.integration.digest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Copies files and writes byte arrays through {@link AsynchronousFileChannel}s, digesting the
+ * content on the way like {@link DigestingInputStream}. The caller only starts the write and
+ * gets a future for the digest; up to {@code filesInFlight} files are written at once and
+ * further calls block until one completes.
+ *
+ * <p>Each copy reads the source sequentially, one chunk at a time, and has at most
+ * {@code writesPerFile} chunk buffers in flight, the one being read included, so the digest
+ * sees the bytes in order while reads and writes overlap. All channels share one pool of {@code ioThreads}
+ * threads; on Linux the JDK runs each asynchronous file operation as a blocking positional
+ * read or write on that pool, so it bounds how many requests reach the device at once,
+ * independently of how many threads hand messages to the writer.
+ */
+public class AsyncFileWriter implements AutoCloseable {
+
+    private static final Set<StandardOpenOption> READ = EnumSet.of(StandardOpenOption.READ);
+    private static final Set<StandardOpenOption> WRITE = EnumSet.of(
+            StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+
+    private final int chunkSize;
+    private final int writesPerFile;
+    private final int filesInFlight;
+    private final Semaphore permits;
+    private final ExecutorService ioPool;
+
+    public AsyncFileWriter(int ioThreads, int filesInFlight, int writesPerFile, int chunkSize) {
+        if (ioThreads < 1 || filesInFlight < 1 || writesPerFile < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Threads, files, writes and chunk size must be positive");
+        }
+        this.chunkSize = chunkSize;
+        this.writesPerFile = writesPerFile;
+        this.filesInFlight = filesInFlight;
+        this.permits = new Semaphore(filesInFlight);
+        AtomicInteger count = new AtomicInteger();
+        this.ioPool = Executors.newFixedThreadPool(ioThreads, r -> {
+            Thread thread = new Thread(r, "async-io-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Copies {@code source} to {@code target}, replacing it. Completion callbacks of the
+     * returned future run on the I/O pool.
+     */
+    public CompletableFuture<FileDigest> copy(Path source, Path target, String strongHashAlgorithm) {
+        return start(new Copy(source, target, new DigestAccumulator(strongHashAlgorithm)));
+    }
+
+    /**
+     * Writes {@code content} to {@code target}, replacing it.
+     */
+    public CompletableFuture<FileDigest> write(byte[] content, Path target, String strongHashAlgorithm) {
+        DigestAccumulator accumulator = new DigestAccumulator(strongHashAlgorithm);
+        accumulator.update(content, 0, content.length);
+        return start(new Write(content, target, accumulator));
+    }
+
+    /**
+     * Files currently being written.
+     */
+    public int getInFlight() {
+        return filesInFlight - permits.availablePermits();
+    }
+
+    private CompletableFuture<FileDigest> start(Transfer transfer) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        transfer.result.whenComplete((digest, error) -> permits.release());
+        try {
+            transfer.start();
+        } catch (IOException | RuntimeException e) {
+            transfer.fail(e);
+        }
+        return transfer.result;
+    }
+
+    /**
+     * Waits up to ten seconds for files in flight before stopping the I/O pool.
+     */
+    @Override
+    public void close() {
+        try {
+            if (!permits.tryAcquire(filesInFlight, 10, TimeUnit.SECONDS)) {
+                ioPool.shutdownNow();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ioPool.shutdown();
+    }
+
+    private abstract class Transfer {
+
+        final CompletableFuture<FileDigest> result = new CompletableFuture<>();
+        final DigestAccumulator accumulator;
+        final Path target;
+        AsynchronousFileChannel output;
+        boolean done;
+
+        Transfer(Path target, DigestAccumulator accumulator) {
+            this.target = target;
+            this.accumulator = accumulator;
+        }
+
+        abstract void start() throws IOException;
+
+        void write(ByteBuffer buffer, long position) {
+            output.write(buffer, position, position, new CompletionHandler<>() {
+                @Override
+                public void completed(Integer count, Long start) {
+                    if (buffer.hasRemaining()) {
+                        output.write(buffer, start + count, start + count, this);
+                    } else {
+                        written(buffer);
+                    }
+                }
+
+                @Override
+                public void failed(Throwable e, Long start) {
+                    fail(e);
+                }
+            });
+        }
+
+        // Called once all of the buffer has been written
+        abstract void written(ByteBuffer buffer);
+
+        // Completes outside the lock, since the future's callbacks carry on with the message
+        void finish() {
+            IOException failure = null;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                try {
+                    closeChannels();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(accumulator.finish());
+            }
+        }
+
+        void fail(Throwable e) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                try {
+                    closeChannels();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            result.completeExceptionally(e);
+        }
+
+        void closeChannels() throws IOException {
+            if (output != null) {
+                output.close();
+            }
+        }
+    }
+
+    private final class Write extends Transfer {
+
+        private final byte[] content;
+
+        Write(byte[] content, Path target, DigestAccumulator accumulator) {
+            super(target, accumulator);
+            this.content = content;
+        }
+
+        @Override
+        void start() throws IOException {
+            output = AsynchronousFileChannel.open(target, WRITE, ioPool);
+            if (content.length == 0) {
+                finish();
+            } else {
+                write(ByteBuffer.wrap(content), 0);
+            }
+        }
+
+        @Override
+        void written(ByteBuffer buffer) {
+            finish();
+        }
+    }
+
+    /**
+     * One read outstanding at a time, so the accumulator is updated in file order; a chunk's
+     * buffer goes back to the free list once it has been written.
+     */
+    private final class Copy extends Transfer {
+
+        private final Path source;
+        private final Deque<ByteBuffer> free = new ArrayDeque<>();
+        private AsynchronousFileChannel input;
+        private int bufferSize;
+        private int allocated;
+        private long readPosition;
+        private int writesPending;
+        private boolean reading;
+        private boolean endOfInput;
+
+        Copy(Path source, Path target, DigestAccumulator accumulator) {
+            super(target, accumulator);
+            this.source = source;
+        }
+
+        @Override
+        void start() throws IOException {
+            input = AsynchronousFileChannel.open(source, READ, ioPool);
+            output = AsynchronousFileChannel.open(target, WRITE, ioPool);
+            bufferSize = (int) Math.max(1, Math.min(chunkSize, input.size()));
+            readNext();
+        }
+
+        private synchronized void readNext() {
+            if (reading || endOfInput || done) {
+                return;
+            }
+            ByteBuffer buffer = free.poll();
+            if (buffer == null) {
+                if (allocated >= writesPerFile) {
+                    return;
+                }
+                allocated++;
+                buffer = ByteBuffer.allocate(bufferSize);
+            }
+            reading = true;
+            input.read(buffer, readPosition, buffer, new CompletionHandler<>() {
+                @Override
+                public void completed(Integer count, ByteBuffer chunk) {
+                    read(chunk, count);
+                }
+
+                @Override
+                public void failed(Throwable e, ByteBuffer chunk) {
+                    fail(e);
+                }
+            });
+        }
+
+        private void read(ByteBuffer buffer, int count) {
+            boolean last;
+            synchronized (this) {
+                reading = false;
+                if (count < 0) {
+                    endOfInput = true;
+                } else {
+                    accumulator.update(buffer.array(), 0, count);
+                    buffer.flip();
+                    long position = readPosition;
+                    readPosition += count;
+                    writesPending++;
+                    write(buffer, position);
+                }
+                last = endOfInput && writesPending == 0;
+            }
+            if (last) {
+                finish();
+            } else {
+                readNext();
+            }
+        }
+
+        @Override
+        void written(ByteBuffer buffer) {
+            boolean last;
+            synchronized (this) {
+                writesPending--;
+                buffer.clear();
+                free.push(buffer);
+                last = endOfInput && writesPending == 0;
+            }
+            if (last) {
+                finish();
+            } else {
+                readNext();
+            }
+        }
+
+        @Override
+        void closeChannels() throws IOException {
+            try {
+                if (input != null) {
+                    input.close();
+                }
+            } finally {
+                super.closeChannels();
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+// DigestAccumulator.java
+package com.example.integration.digest;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.CRC32C;
+
+/**
+ * Incrementally builds a {@link FileDigest} from the bytes as they pass through a write.
+ * Not thread-safe; use one per file.
+ */
+public class DigestAccumulator {
+
+    private final CRC32C crc = new CRC32C();
+    private final MessageDigest strongHash;
+    private long bytes;
+    private long newlines;
+    private byte lastByte = '\n';
+
+    /**
+     * @param strongHashAlgorithm a {@link MessageDigest} algorithm such as {@code SHA-256}, or
+     *                            {@code null} for CRC-32C only
+     */
+    public DigestAccumulator(String strongHashAlgorithm) {
+        try {
+            this.strongHash = strongHashAlgorithm != null ? MessageDigest.getInstance(strongHashAlgorithm) : null;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("Unknown hash algorithm " + strongHashAlgorithm, e);
+        }
+    }
+
+    public void update(byte[] data, int offset, int length) {
+        if (length <= 0) {
+            return;
+        }
+        crc.update(data, offset, length);
+        if (strongHash != null) {
+            strongHash.update(data, offset, length);
+        }
+        long count = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            if (data[i] == '\n') {
+                count++;
+            }
+        }
+        newlines += count;
+        bytes += length;
+        lastByte = data[offset + length - 1];
+    }
+
+    public void update(int b) {
+        byte value = (byte) b;
+        crc.update(value);
+        if (strongHash != null) {
+            strongHash.update(value);
+        }
+        if (value == '\n') {
+            newlines++;
+        }
+        bytes++;
+        lastByte = value;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public FileDigest finish() {
+        return new FileDigest(crc.getValue(),
+                strongHash != null ? strongHash.getAlgorithm() : null,
+                strongHash != null ? HexFormat.of().formatHex(strongHash.digest()) : null,
+                bytes,
+                lastByte == '\n' ? newlines : newlines + 1);
+    }
+}
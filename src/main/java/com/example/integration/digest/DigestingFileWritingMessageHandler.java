@@ -0,0 +1,520 @@
+// DigestingFileWritingMessageHandler.java
+package com.example.integration.digest;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.integration.expression.ExpressionUtils;
+import org.springframework.integration.file.FileHeaders;
+import org.springframework.integration.file.FileNameGenerator;
+import org.springframework.integration.file.FileWritingMessageHandler;
+import org.springframework.integration.file.support.FileExistsMode;
+import org.springframework.integration.support.AbstractIntegrationMessageBuilder;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandlingException;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link FileWritingMessageHandler} that computes a {@link FileDigest} (CRC-32C, optionally a
+ * strong hash, byte and line count) of every file it writes, without reading the result back.
+ *
+ * <ul>
+ * <li>{@code File} copies are streamed through a {@link DigestingInputStream}, so the digest
+ * is taken from the very buffers that are written. File name generators therefore see an
+ * {@code InputStream} payload and should use the {@link FileHeaders#FILENAME} header, which
+ * is set to the source file name.</li>
+ * <li>{@code File} moves stay a rename and are not digested unless
+ * {@link #setDigestMoves(boolean)} is on, in which case the source is read once for the
+ * digest instead of being copied.</li>
+ * <li>{@code byte[]} payloads are digested in memory.</li>
+ * </ul>
+ *
+ * The digest is added to the reply headers and, if a sidecar suffix is set, written next to
+ * the result file. Only {@link FileExistsMode#REPLACE} and {@link FileExistsMode#FAIL} are
+ * digested, since with the other modes the message may not determine the file content; other
+ * modes and {@code String} payloads are written as usual.
+ *
+ * <p>With {@link #setSkipIdentical(boolean)}, {@code REPLACE} leaves a destination alone if it
+ * already holds the same content, cheapest check first: same size, then source and destination
+ * attributes unchanged since this handler wrote it, then the source digest against the
+ * destination's cached or sidecar digest, and only for destinations without one a byte
+ * comparison. A skipped move still deletes its source, and the reply is the same as if the
+ * file had been written.
+ *
+ * <p>With {@link #setAsyncWriter(AsyncFileWriter)}, copies and {@code byte[]} payloads are
+ * written to a temporary file by the {@link AsyncFileWriter} and renamed into place when it
+ * completes; the handler replies with a {@link CompletableFuture} and the calling thread is
+ * free as soon as the write has started. Moves are still renamed on the calling thread. The
+ * asynchronous path needs a file name generator and does not apply the parent's permissions,
+ * timestamp preservation or flush settings.
+ *
+ * <p>Generated names may contain a relative path; its directories are created below the
+ * destination directory as needed.
+ */
+public class DigestingFileWritingMessageHandler extends FileWritingMessageHandler {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private String strongHashAlgorithm;
+    private String sidecarSuffix;
+    private boolean replyExpected = true;
+    private boolean deleteSourceFiles;
+    private boolean digestMoves;
+    private FileExistsMode fileExistsMode = FileExistsMode.REPLACE;
+    private final File destinationDirectory;
+    private final Expression destinationDirectoryExpression;
+    private FileNameGenerator fileNameGenerator;
+    private EvaluationContext evaluationContext;
+    private boolean skipIdentical;
+    private WriteSkipStatistics skipStatistics = new WriteSkipStatistics("file");
+    private Map<Path, Fingerprint> fingerprints = fingerprintCache(10_000);
+    private AsyncFileWriter asyncWriter;
+
+    public DigestingFileWritingMessageHandler(File destinationDirectory) {
+        super(destinationDirectory);
+        this.destinationDirectory = destinationDirectory;
+        this.destinationDirectoryExpression = null;
+    }
+
+    public DigestingFileWritingMessageHandler(Expression destinationDirectoryExpression) {
+        super(destinationDirectoryExpression);
+        this.destinationDirectory = null;
+        this.destinationDirectoryExpression = destinationDirectoryExpression;
+    }
+
+    /**
+     * A {@link MessageDigest} algorithm such as {@code SHA-256}; {@code null}
+     * (the default) computes CRC-32C only.
+     */
+    public void setStrongHashAlgorithm(String strongHashAlgorithm) {
+        if (strongHashAlgorithm != null) {
+            try {
+                MessageDigest.getInstance(strongHashAlgorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalArgumentException("Unknown hash algorithm " + strongHashAlgorithm, e);
+            }
+        }
+        this.strongHashAlgorithm = strongHashAlgorithm;
+    }
+
+    /**
+     * Suffix of the sidecar file written next to each result, e.g. {@code .sum}; {@code null}
+     * (the default) writes none.
+     */
+    public void setSidecarSuffix(String sidecarSuffix) {
+        this.sidecarSuffix = sidecarSuffix;
+    }
+
+    /**
+     * Skip {@code REPLACE} writes whose destination already holds the same content; needs a
+     * {@link #setFileNameGenerator file name generator}.
+     */
+    public void setSkipIdentical(boolean skipIdentical) {
+        this.skipIdentical = skipIdentical;
+    }
+
+    /**
+     * Digest {@code File} moves too, at the cost of reading each source once before the
+     * rename; off by default. Where the same file is also copied elsewhere, the copy's reply
+     * already carries its digest.
+     */
+    public void setDigestMoves(boolean digestMoves) {
+        this.digestMoves = digestMoves;
+    }
+
+    public void setSkipStatistics(WriteSkipStatistics skipStatistics) {
+        this.skipStatistics = skipStatistics;
+    }
+
+    public WriteSkipStatistics getSkipStatistics() {
+        return skipStatistics;
+    }
+
+    /**
+     * Destinations whose digest and attributes after the last write are remembered; the least
+     * recently used are evicted first and fall back to the sidecar or a byte comparison.
+     */
+    public void setFingerprintCacheSize(int size) {
+        this.fingerprints = fingerprintCache(size);
+    }
+
+    /**
+     * Writes copies and {@code byte[]} payloads through {@code asyncWriter}, replying
+     * asynchronously; {@code null} (the default) writes on the calling thread.
+     */
+    public void setAsyncWriter(AsyncFileWriter asyncWriter) {
+        this.asyncWriter = asyncWriter;
+        setAsync(asyncWriter != null);
+    }
+
+    @Override
+    public void setFileNameGenerator(FileNameGenerator fileNameGenerator) {
+        super.setFileNameGenerator(fileNameGenerator);
+        this.fileNameGenerator = fileNameGenerator;
+    }
+
+    // The parent always replies so the result file is known; the reply is dropped here instead
+    @Override
+    public void setExpectReply(boolean expectReply) {
+        this.replyExpected = expectReply;
+    }
+
+    @Override
+    public void setDeleteSourceFiles(boolean deleteSourceFiles) {
+        super.setDeleteSourceFiles(deleteSourceFiles);
+        this.deleteSourceFiles = deleteSourceFiles;
+    }
+
+    @Override
+    public void setFileExistsMode(FileExistsMode fileExistsMode) {
+        super.setFileExistsMode(fileExistsMode);
+        this.fileExistsMode = fileExistsMode;
+    }
+
+    @Override
+    protected Object handleRequestMessage(Message<?> requestMessage) {
+        if (fileNameGenerator != null) {
+            createParentDirectories(requestMessage);
+        }
+        Object payload = requestMessage.getPayload();
+        boolean digestable = (fileExistsMode == FileExistsMode.REPLACE || fileExistsMode == FileExistsMode.FAIL)
+                && (payload instanceof File || payload instanceof byte[]);
+        if (!digestable) {
+            Object result = super.handleRequestMessage(requestMessage);
+            return replyExpected ? result : null;
+        }
+        File destination = null;
+        Attributes sourceBefore = null;
+        if (skipIdentical && fileExistsMode == FileExistsMode.REPLACE && fileNameGenerator != null) {
+            destination = destinationFile(requestMessage);
+            try {
+                sourceBefore = payload instanceof File source ? Attributes.of(source.toPath()) : null;
+                FileDigest identical = identicalDigest(payload, sourceBefore, destination);
+                if (identical != null) {
+                    return skip(requestMessage, destination, identical);
+                }
+            } catch (IOException e) {
+                throw new MessageHandlingException(requestMessage,
+                        "Failed to compare " + payload + " with " + destination, e);
+            }
+            skipStatistics.written();
+        }
+        if (asyncWriter != null && fileNameGenerator != null && (payload instanceof byte[] || !deleteSourceFiles)) {
+            return writeAsync(requestMessage, destination != null ? destination : destinationFile(requestMessage),
+                    destination != null, sourceBefore);
+        }
+        DigestAccumulator accumulator = new DigestAccumulator(strongHashAlgorithm);
+        Object result;
+        try {
+            if (payload instanceof byte[] content) {
+                accumulator.update(content, 0, content.length);
+                result = super.handleRequestMessage(requestMessage);
+            } else if (deleteSourceFiles) {
+                if (!digestMoves) {
+                    // Just the rename; replays are compared by content instead of a remembered digest
+                    result = super.handleRequestMessage(requestMessage);
+                    return replyExpected ? result : null;
+                }
+                digest((File) payload, accumulator);
+                result = super.handleRequestMessage(requestMessage);
+            } else {
+                result = copy(requestMessage, (File) payload, accumulator);
+            }
+        } catch (IOException e) {
+            throw new MessageHandlingException(requestMessage, "Failed to digest " + payload, e);
+        }
+        return written(requestMessage, result, accumulator.finish(), destination != null, sourceBefore);
+    }
+
+    private Object written(Message<?> requestMessage, Object result, FileDigest digest, boolean remember,
+                           Attributes sourceBefore) {
+        File written = resultFile(result);
+        if (written == null) {
+            return replyExpected ? result : null;
+        }
+        if (sidecarSuffix != null) {
+            try {
+                digest.writeSidecar(new File(written.getPath() + sidecarSuffix).toPath());
+            } catch (IOException e) {
+                throw new MessageHandlingException(requestMessage, "Failed to write digest sidecar for " + written, e);
+            }
+        }
+        if (remember) {
+            remember(written, sourceBefore, digest);
+        }
+        return replyExpected ? withDigest(result, digest) : null;
+    }
+
+    // Written next to the destination and renamed over it, like the parent's REPLACE mode
+    private CompletableFuture<Object> writeAsync(Message<?> requestMessage, File destination, boolean remember,
+                                                 Attributes sourceBefore) {
+        Object payload = requestMessage.getPayload();
+        Path temporary = Path.of(destination.getPath() + getTemporaryFileSuffix());
+        try {
+            Files.createDirectories(temporary.getParent());
+        } catch (IOException e) {
+            throw new MessageHandlingException(requestMessage, "Failed to create directory for " + destination, e);
+        }
+        if (fileExistsMode == FileExistsMode.FAIL && destination.exists()) {
+            throw new MessageHandlingException(requestMessage,
+                    "The destination file already exists at '" + destination.getAbsolutePath() + "'.");
+        }
+        CompletableFuture<FileDigest> writing = payload instanceof byte[] content
+                ? asyncWriter.write(content, temporary, strongHashAlgorithm)
+                : asyncWriter.copy(((File) payload).toPath(), temporary, strongHashAlgorithm);
+        return writing.handle((digest, error) -> {
+            try {
+                if (error != null) {
+                    Files.deleteIfExists(temporary);
+                    throw new MessageHandlingException(requestMessage, "Failed to write " + destination, error);
+                }
+                Files.move(temporary, destination.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new MessageHandlingException(requestMessage, "Failed to write " + destination, e);
+            }
+            Object result = getMessageBuilderFactory().withPayload(destination)
+                    .setHeader(FileHeaders.ORIGINAL_FILE, payload instanceof File source ? source : null);
+            return written(requestMessage, result, digest, remember, sourceBefore);
+        });
+    }
+
+    // The parent only creates the destination directory, not subdirectories named by the generator
+    private void createParentDirectories(Message<?> message) {
+        String name = fileNameGenerator.generateFileName(message);
+        if (name.indexOf('/') < 0 && name.indexOf(File.separatorChar) < 0) {
+            return;
+        }
+        File parent = destinationFile(message).getParentFile();
+        if (!parent.isDirectory()) {
+            try {
+                Files.createDirectories(parent.toPath());
+            } catch (IOException e) {
+                throw new MessageHandlingException(message, "Failed to create directory " + parent, e);
+            }
+        }
+    }
+
+    private File destinationFile(Message<?> message) {
+        File directory = destinationDirectory;
+        if (directory == null) {
+            if (evaluationContext == null) {
+                evaluationContext = ExpressionUtils.createStandardEvaluationContext(getBeanFactory());
+            }
+            Object value = destinationDirectoryExpression.getValue(evaluationContext, message);
+            directory = value instanceof File file ? file : new File(String.valueOf(value));
+        }
+        return new File(directory, fileNameGenerator.generateFileName(message));
+    }
+
+    /**
+     * @return the content's digest if the destination already holds it, otherwise {@code null}
+     */
+    private FileDigest identicalDigest(Object payload, Attributes source, File destination) throws IOException {
+        Attributes target = Attributes.ofIfExists(destination.toPath());
+        long size = payload instanceof byte[] content ? content.length : source.size();
+        if (target == null || target.size() != size) {
+            return null;
+        }
+        Fingerprint cached = fingerprints.get(destination.toPath());
+        FileDigest fingerprint = null;
+        if (cached != null && cached.destination().equals(target)) {
+            if (source != null && source.equals(cached.source())) {
+                skipStatistics.skipped(WriteSkipStatistics.Check.ATTRIBUTES, size);
+                return cached.digest();
+            }
+            fingerprint = cached.digest();
+        } else if (sidecarSuffix != null) {
+            fingerprint = sidecarDigest(destination, target);
+        }
+        if (fingerprint != null && (strongHashAlgorithm == null
+                || strongHashAlgorithm.equals(fingerprint.strongHashAlgorithm()))) {
+            FileDigest digest = digestOf(payload);
+            if (!sameContent(digest, fingerprint)) {
+                return null;
+            }
+            skipStatistics.skipped(WriteSkipStatistics.Check.FINGERPRINT, size);
+            return digest;
+        }
+        FileDigest digest = compareContent(payload, destination);
+        if (digest != null) {
+            skipStatistics.skipped(WriteSkipStatistics.Check.CONTENT, size);
+        }
+        return digest;
+    }
+
+    // Only trusted if written after the file it describes, and for the size the file has now
+    private FileDigest sidecarDigest(File destination, Attributes target) {
+        Path sidecar = Path.of(destination.getPath() + sidecarSuffix);
+        try {
+            if (Files.getLastModifiedTime(sidecar).compareTo(target.modified()) < 0) {
+                return null;
+            }
+            FileDigest digest = FileDigest.readSidecar(sidecar);
+            return digest.bytes() == target.size() ? digest : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private boolean sameContent(FileDigest digest, FileDigest fingerprint) {
+        return digest.crc32c() == fingerprint.crc32c() && digest.bytes() == fingerprint.bytes()
+                && (strongHashAlgorithm == null || Objects.equals(digest.strongHash(), fingerprint.strongHash()));
+    }
+
+    private FileDigest digestOf(Object payload) throws IOException {
+        DigestAccumulator accumulator = new DigestAccumulator(strongHashAlgorithm);
+        if (payload instanceof byte[] content) {
+            accumulator.update(content, 0, content.length);
+        } else {
+            digest((File) payload, accumulator);
+        }
+        return accumulator.finish();
+    }
+
+    /**
+     * Reads the source and destination side by side, stopping at the first difference.
+     *
+     * @return the source digest if the two are identical, otherwise {@code null}
+     */
+    private FileDigest compareContent(Object payload, File destination) throws IOException {
+        DigestAccumulator accumulator = new DigestAccumulator(strongHashAlgorithm);
+        byte[] expected = new byte[BUFFER_SIZE];
+        byte[] actual = new byte[BUFFER_SIZE];
+        try (InputStream source = payload instanceof byte[] content
+                ? new ByteArrayInputStream(content) : new FileInputStream((File) payload);
+             InputStream target = new FileInputStream(destination)) {
+            while (true) {
+                int read = source.readNBytes(expected, 0, BUFFER_SIZE);
+                if (target.readNBytes(actual, 0, BUFFER_SIZE) != read
+                        || !Arrays.equals(expected, 0, read, actual, 0, read)) {
+                    return null;
+                }
+                if (read == 0) {
+                    return accumulator.finish();
+                }
+                accumulator.update(expected, 0, read);
+            }
+        }
+    }
+
+    private Object skip(Message<?> requestMessage, File destination, FileDigest digest) throws IOException {
+        Object payload = requestMessage.getPayload();
+        if (sidecarSuffix != null) {
+            Path sidecar = Path.of(destination.getPath() + sidecarSuffix);
+            if (!Files.exists(sidecar)) {
+                digest.writeSidecar(sidecar);
+            }
+        }
+        remember(destination, payload instanceof File source ? Attributes.of(source.toPath()) : null, digest);
+        if (deleteSourceFiles && payload instanceof File source) {
+            Files.deleteIfExists(source.toPath());
+        }
+        if (!replyExpected) {
+            return null;
+        }
+        return getMessageBuilderFactory().withPayload(destination)
+                .setHeader(FileHeaders.ORIGINAL_FILE, payload instanceof File source ? source : null)
+                .copyHeaders(digest.toHeaders());
+    }
+
+    private void remember(File destination, Attributes source, FileDigest digest) {
+        Attributes target = Attributes.ofIfExists(destination.toPath());
+        if (target != null) {
+            fingerprints.put(destination.toPath(), new Fingerprint(target, source, digest));
+        }
+    }
+
+    private static Map<Path, Fingerprint> fingerprintCache(int size) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Fingerprint> eldest) {
+                return size() > size;
+            }
+        });
+    }
+
+    private Object copy(Message<?> requestMessage, File source, DigestAccumulator accumulator) throws IOException {
+        try (InputStream in = new DigestingInputStream(
+                new BufferedInputStream(new FileInputStream(source), BUFFER_SIZE), accumulator)) {
+            Message<InputStream> streaming = MessageBuilder.withPayload(in)
+                    .copyHeaders(requestMessage.getHeaders())
+                    .setHeaderIfAbsent(FileHeaders.FILENAME, source.getName())
+                    .setHeader(FileHeaders.ORIGINAL_FILE, source)
+                    .build();
+            return super.handleRequestMessage(streaming);
+        }
+    }
+
+    private static void digest(File source, DigestAccumulator accumulator) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = new FileInputStream(source)) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                accumulator.update(buffer, 0, read);
+            }
+        }
+    }
+
+    private static File resultFile(Object result) {
+        Object payload = result;
+        if (result instanceof AbstractIntegrationMessageBuilder<?> builder) {
+            payload = builder.getPayload();
+        } else if (result instanceof Message<?> message) {
+            payload = message.getPayload();
+        }
+        return payload instanceof File file ? file : null;
+    }
+
+    private Object withDigest(Object result, FileDigest digest) {
+        if (result instanceof AbstractIntegrationMessageBuilder<?> builder) {
+            return builder.copyHeaders(digest.toHeaders());
+        }
+        if (result instanceof Message<?> message) {
+            return MessageBuilder.fromMessage(message).copyHeaders(digest.toHeaders()).build();
+        }
+        return getMessageBuilderFactory().withPayload(result).copyHeaders(digest.toHeaders());
+    }
+
+    /**
+     * Destination state right after this handler wrote or verified it, the source it came
+     * from, and the digest of that content.
+     */
+    private record Fingerprint(Attributes destination, Attributes source, FileDigest digest) {
+    }
+
+    private record Attributes(long size, FileTime modified, Object fileKey) {
+
+        static Attributes of(Path path) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new Attributes(attributes.size(), attributes.lastModifiedTime(), attributes.fileKey());
+        }
+
+        static Attributes ofIfExists(Path path) {
+            try {
+                return of(path);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+// DigestingInputStream.java
+package com.example.integration.digest;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Feeds every byte read through it into a {@link DigestAccumulator}.
+ */
+public class DigestingInputStream extends FilterInputStream {
+
+    private final DigestAccumulator accumulator;
+
+    public DigestingInputStream(InputStream in, DigestAccumulator accumulator) {
+        super(in);
+        this.accumulator = accumulator;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            accumulator.update(b);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            accumulator.update(buffer, offset, read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        throw new IOException("Skipping would leave bytes out of the digest");
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
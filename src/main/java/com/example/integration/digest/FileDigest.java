@@ -0,0 +1,110 @@
+// FileDigest.java
+package com.example.integration.digest;
+
+import com.example.integration.latency.IngestHeaders;
+import org.springframework.messaging.MessageHeaders;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checksums and simple analytics of one written file, computed in the same pass that
+ * wrote it.
+ *
+ * @param crc32c              CRC-32C of the content, in the low 32 bits
+ * @param strongHashAlgorithm e.g. {@code SHA-256}, or {@code null} if no strong hash was computed
+ * @param strongHash          lower-case hex digest, or {@code null}
+ * @param lines               number of lines; a last line without a terminator still counts
+ */
+public record FileDigest(long crc32c, String strongHashAlgorithm, String strongHash, long bytes, long lines) {
+
+    private static final String CRC32C_KEY = "crc32c";
+    private static final String BYTES_KEY = "bytes";
+    private static final String LINES_KEY = "lines";
+
+    public String crc32cHex() {
+        return String.format("%08x", crc32c);
+    }
+
+    public Map<String, Object> toHeaders() {
+        Map<String, Object> headers = new HashMap<>();
+        headers.put(IngestHeaders.CRC32C, crc32cHex());
+        if (strongHash != null) {
+            headers.put(IngestHeaders.STRONG_HASH, strongHashAlgorithm + ":" + strongHash);
+        }
+        headers.put(IngestHeaders.BYTE_COUNT, bytes);
+        headers.put(IngestHeaders.LINE_COUNT, lines);
+        return headers;
+    }
+
+    /**
+     * @return {@code null} if the headers carry no digest
+     */
+    public static FileDigest fromHeaders(MessageHeaders headers) {
+        String crc = headers.get(IngestHeaders.CRC32C, String.class);
+        if (crc == null) {
+            return null;
+        }
+        String algorithm = null;
+        String hash = null;
+        String strong = headers.get(IngestHeaders.STRONG_HASH, String.class);
+        if (strong != null) {
+            int colon = strong.indexOf(':');
+            algorithm = strong.substring(0, colon);
+            hash = strong.substring(colon + 1);
+        }
+        return new FileDigest(Long.parseLong(crc, 16), algorithm, hash,
+                headers.get(IngestHeaders.BYTE_COUNT, Long.class), headers.get(IngestHeaders.LINE_COUNT, Long.class));
+    }
+
+    /**
+     * Writes the digest as {@code key=value} lines, atomically replacing any previous sidecar.
+     */
+    public void writeSidecar(Path sidecar) throws IOException {
+        StringBuilder content = new StringBuilder();
+        sidecarValues().forEach((key, value) -> content.append(key).append('=').append(value).append('\n'));
+        Path temporary = sidecar.resolveSibling(sidecar.getFileName() + ".writing");
+        Files.writeString(temporary, content, StandardCharsets.UTF_8);
+        Files.move(temporary, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static FileDigest readSidecar(Path sidecar) throws IOException {
+        Map<String, String> values = new HashMap<>();
+        List<String> lines = Files.readAllLines(sidecar, StandardCharsets.UTF_8);
+        String algorithm = null;
+        for (String line : lines) {
+            int equals = line.indexOf('=');
+            if (equals > 0) {
+                String key = line.substring(0, equals);
+                values.put(key, line.substring(equals + 1));
+                if (!key.equals(CRC32C_KEY) && !key.equals(BYTES_KEY) && !key.equals(LINES_KEY)) {
+                    algorithm = key;
+                }
+            }
+        }
+        if (!values.containsKey(CRC32C_KEY)) {
+            throw new IOException("Not a digest sidecar: " + sidecar);
+        }
+        return new FileDigest(Long.parseLong(values.get(CRC32C_KEY), 16), algorithm,
+                algorithm != null ? values.get(algorithm) : null,
+                Long.parseLong(values.get(BYTES_KEY)), Long.parseLong(values.get(LINES_KEY)));
+    }
+
+    private Map<String, String> sidecarValues() {
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put(CRC32C_KEY, crc32cHex());
+        if (strongHash != null) {
+            values.put(strongHashAlgorithm, strongHash);
+        }
+        values.put(BYTES_KEY, Long.toString(bytes));
+        values.put(LINES_KEY, Long.toString(lines));
+        return values;
+    }
+}
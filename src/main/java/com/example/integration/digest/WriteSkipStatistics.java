@@ -0,0 +1,84 @@
+// WriteSkipStatistics.java
+package com.example.integration.digest;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the writes a {@link DigestingFileWritingMessageHandler} skipped because the
+ * destination already held the same content, by the check that decided it, and the bytes
+ * that were therefore not written. Published as {@code pipeline.write.*}, tagged with the
+ * handler name.
+ */
+public class WriteSkipStatistics implements MeterBinder {
+
+    public enum Check {
+        /** Source and destination size, mtime and file key unchanged since the last write. */
+        ATTRIBUTES,
+        /** Source digest matched the destination's cached or sidecar digest. */
+        FINGERPRINT,
+        /** Byte-by-byte comparison, for destinations without a fingerprint. */
+        CONTENT
+    }
+
+    private final String handler;
+    private final Map<Check, LongAdder> skipped = new EnumMap<>(Check.class);
+    private final LongAdder bytesAvoided = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    public WriteSkipStatistics(String handler) {
+        this.handler = handler;
+        for (Check check : Check.values()) {
+            skipped.put(check, new LongAdder());
+        }
+    }
+
+    void skipped(Check check, long bytes) {
+        skipped.get(check).increment();
+        bytesAvoided.add(bytes);
+    }
+
+    void written() {
+        written.increment();
+    }
+
+    public long getSkippedCount(Check check) {
+        return skipped.get(check).sum();
+    }
+
+    public long getSkippedCount() {
+        return skipped.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public long getBytesAvoided() {
+        return bytesAvoided.sum();
+    }
+
+    /**
+     * Writes that went ahead, because the destination was missing or differed.
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Check check : Check.values()) {
+            FunctionCounter.builder("pipeline.write.skipped", this, s -> s.getSkippedCount(check))
+                    .tags("handler", handler, "check", check.name().toLowerCase())
+                    .register(registry);
+        }
+        FunctionCounter.builder("pipeline.write.bytes.avoided", this, WriteSkipStatistics::getBytesAvoided)
+                .tag("handler", handler)
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("pipeline.write.written", this, WriteSkipStatistics::getWrittenCount)
+                .tag("handler", handler)
+                .register(registry);
+    }
+}
@@ -0,0 +1,220 @@
+// AdaptiveTaskExecutor.java
+package com.example.integration.executor;
+
+import com.example.integration.queue.ResizableBlockingQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executor whose thread count follows an {@link AimdConcurrencyLimit} instead of fixed pool
+ * sizes. Every task is timed; once per control interval the completed count, mean execution
+ * time and queue depth are fed to the limit and the pool is resized to match.
+ *
+ * <p>Core and maximum pool size are always equal, so the pool grows as soon as the limit
+ * allows rather than only after the queue has filled up. When the queue is full, including
+ * after its capacity was lowered below its depth, {@link #execute} waits for room instead of
+ * rejecting the task; only a closed executor rejects.
+ */
+public class AdaptiveTaskExecutor implements Executor, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveTaskExecutor.class);
+
+    private final AimdConcurrencyLimit limit;
+    private final ThreadPoolExecutor pool;
+    private final ResizableBlockingQueue<Runnable> queue;
+    private final ScheduledExecutorService controller;
+
+    private final LongAdder completedInInterval = new LongAdder();
+    private final LongAdder latencyInInterval = new LongAdder();
+    private final LongAdder increases = new LongAdder();
+    private final LongAdder decreases = new LongAdder();
+
+    private long lastSampleNanos = System.nanoTime();
+    private volatile double lastThroughput;
+    private volatile long lastLatencyNanos;
+
+    public AdaptiveTaskExecutor(String threadNamePrefix, AimdConcurrencyLimit limit, int queueCapacity,
+                                Duration controlInterval) {
+        this.limit = limit;
+        int initial = limit.getLimit();
+        this.queue = new ResizableBlockingQueue<>(queueCapacity);
+        this.pool = new ThreadPoolExecutor(initial, initial, 60, TimeUnit.SECONDS,
+                queue, namedThreads(threadNamePrefix), AdaptiveTaskExecutor::waitForRoom);
+        this.controller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, threadNamePrefix + "control");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = controlInterval.toNanos();
+        this.controller.scheduleWithFixedDelay(this::adjust, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        pool.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                latencyInInterval.add(System.nanoTime() - start);
+                completedInInterval.increment();
+            }
+        });
+    }
+
+    void adjust() {
+        long now = System.nanoTime();
+        long completed = completedInInterval.sumThenReset();
+        long latency = latencyInInterval.sumThenReset();
+        long averageLatency = completed == 0 ? 0 : latency / completed;
+        AimdConcurrencyLimit.Sample sample = new AimdConcurrencyLimit.Sample(
+                completed, averageLatency, pool.getQueue().size(), now - lastSampleNanos);
+        lastSampleNanos = now;
+
+        int before = limit.getLimit();
+        AimdConcurrencyLimit.Decision decision = limit.update(sample);
+        if (completed > 0) {
+            lastThroughput = sample.throughput();
+            lastLatencyNanos = averageLatency;
+        }
+        int after = limit.getLimit();
+        if (after != before) {
+            resize(after);
+            if (after > before) {
+                increases.increment();
+            } else {
+                decreases.increment();
+            }
+            logger.debug("Concurrency {} from {} to {} (throughput {}/s, latency {}us, queued {})",
+                    decision, before, after, Math.round(sample.throughput()),
+                    TimeUnit.NANOSECONDS.toMicros(averageLatency), sample.queued());
+        }
+    }
+
+    private synchronized void resize(int size) {
+        if (size > pool.getMaximumPoolSize()) {
+            pool.setMaximumPoolSize(size);
+            pool.setCorePoolSize(size);
+        } else {
+            pool.setCorePoolSize(size);
+            pool.setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * Changes the range the concurrency limit may move in; takes effect immediately.
+     */
+    public void setLimitBounds(int minLimit, int maxLimit) {
+        limit.setBounds(minLimit, maxLimit);
+        resize(limit.getLimit());
+    }
+
+    public int getConcurrencyLimit() {
+        return limit.getLimit();
+    }
+
+    public int getMinLimit() {
+        return limit.getMinLimit();
+    }
+
+    public int getMaxLimit() {
+        return limit.getMaxLimit();
+    }
+
+    public AimdConcurrencyLimit.Decision getLastDecision() {
+        return limit.getLastDecision();
+    }
+
+    public long getIncreaseCount() {
+        return increases.sum();
+    }
+
+    public long getDecreaseCount() {
+        return decreases.sum();
+    }
+
+    /**
+     * Tasks per second completed in the last interval that completed any.
+     */
+    public double getLastThroughput() {
+        return lastThroughput;
+    }
+
+    public long getLastLatencyNanos() {
+        return lastLatencyNanos;
+    }
+
+    public int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    public int getPoolSize() {
+        return pool.getPoolSize();
+    }
+
+    public int getQueueSize() {
+        return pool.getQueue().size();
+    }
+
+    public int getQueueRemainingCapacity() {
+        return pool.getQueue().remainingCapacity();
+    }
+
+    public int getQueueCapacity() {
+        return queue.getCapacity();
+    }
+
+    /**
+     * Queued tasks are kept when shrinking; new tasks wait until the queue drains below the new capacity.
+     */
+    public void setQueueCapacity(int capacity) {
+        queue.setCapacity(capacity);
+    }
+
+    public long getCompletedTaskCount() {
+        return pool.getCompletedTaskCount();
+    }
+
+    @Override
+    public void close() {
+        controller.shutdownNow();
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Every thread is busy and the queue is full, so the submitting thread waits its turn
+    private static void waitForRoom(Runnable task, ThreadPoolExecutor pool) {
+        if (pool.isShutdown()) {
+            throw new RejectedExecutionException("Executor is closed");
+        }
+        try {
+            pool.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for queue room", e);
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> new Thread(r, prefix + counter.incrementAndGet());
+    }
+}
@@ -0,0 +1,149 @@
+// AimdConcurrencyLimit.java
+package com.example.integration.executor;
+
+/**
+ * Additive-increase / multiplicative-decrease concurrency limit driven by periodic throughput
+ * and latency samples.
+ *
+ * <p>The limit grows by one while there is queued work and the extra thread paid for itself
+ * in throughput. Once a thread buys nothing, the limit holds until throughput rises above the
+ * level that thread failed to improve on, instead of probing again every other interval. It
+ * shrinks by {@code backoffRatio} when the average task latency exceeds the best latency seen
+ * so far by more than {@code latencyTolerance}, which is how saturated I/O shows up. The
+ * best-latency baseline slowly drifts upwards so the limit can recover after the device has
+ * been busy for a long time.
+ */
+public class AimdConcurrencyLimit {
+
+    public enum Decision {
+        INCREASE,
+        DECREASE,
+        HOLD
+    }
+
+    /**
+     * One control interval worth of observations.
+     *
+     * @param completed          tasks finished during the interval
+     * @param averageLatencyNanos mean task execution time during the interval
+     * @param queued             tasks waiting for a thread at the end of the interval
+     * @param intervalNanos      length of the interval
+     */
+    public record Sample(long completed, long averageLatencyNanos, int queued, long intervalNanos) {
+
+        double throughput() {
+            return intervalNanos <= 0 ? 0 : completed * 1e9 / intervalNanos;
+        }
+    }
+
+    private static final double BASELINE_DRIFT = 1.02;
+    private static final double MIN_THROUGHPUT_GAIN = 1.02;
+
+    private int minLimit;
+    private int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+
+    private double limit;
+    private double baselineLatencyNanos = Double.NaN;
+    private double lastThroughput;
+    // Throughput an extra thread failed to improve on; 0 when not holding on a plateau
+    private double plateauThroughput;
+    private Decision lastDecision = Decision.HOLD;
+
+    public AimdConcurrencyLimit(int minLimit, int maxLimit, int initialLimit, double backoffRatio, double latencyTolerance) {
+        validate(minLimit, maxLimit);
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+        }
+        if (latencyTolerance <= 1) {
+            throw new IllegalArgumentException("latencyTolerance must be greater than 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    private static void validate(int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= minLimit <= maxLimit");
+        }
+    }
+
+    public synchronized Decision update(Sample sample) {
+        Decision decision = decide(sample);
+        switch (decision) {
+            case INCREASE -> limit = Math.min(maxLimit, limit + 1);
+            case DECREASE -> limit = Math.max(minLimit, limit * backoffRatio);
+            case HOLD -> { }
+        }
+        if (sample.completed() > 0) {
+            lastThroughput = sample.throughput();
+        }
+        lastDecision = decision;
+        return decision;
+    }
+
+    private Decision decide(Sample sample) {
+        if (sample.completed() == 0) {
+            // Nothing finished: either idle, or every thread is stuck on slow I/O. Neither
+            // case is evidence that more threads would help.
+            return Decision.HOLD;
+        }
+        double latency = sample.averageLatencyNanos();
+        if (Double.isNaN(baselineLatencyNanos) || latency < baselineLatencyNanos) {
+            baselineLatencyNanos = latency;
+        } else {
+            baselineLatencyNanos = Math.min(latency, baselineLatencyNanos * BASELINE_DRIFT);
+        }
+        if (latency > baselineLatencyNanos * latencyTolerance) {
+            plateauThroughput = 0;
+            return getLimit() > minLimit ? Decision.DECREASE : Decision.HOLD;
+        }
+        if (sample.queued() == 0 || getLimit() >= maxLimit) {
+            return Decision.HOLD;
+        }
+        if (lastDecision == Decision.INCREASE && sample.throughput() < lastThroughput * MIN_THROUGHPUT_GAIN) {
+            // The last extra thread did not buy any throughput
+            plateauThroughput = lastThroughput;
+        }
+        if (sample.throughput() < plateauThroughput * MIN_THROUGHPUT_GAIN) {
+            return Decision.HOLD;
+        }
+        plateauThroughput = 0;
+        return Decision.INCREASE;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Changes the bounds at runtime, clamping the current limit into the new range.
+     */
+    public synchronized void setBounds(int minLimit, int maxLimit) {
+        validate(minLimit, maxLimit);
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, limit));
+        this.plateauThroughput = 0;
+    }
+
+    public synchronized int getMinLimit() {
+        return minLimit;
+    }
+
+    public synchronized int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public synchronized Decision getLastDecision() {
+        return lastDecision;
+    }
+
+    public synchronized double getBaselineLatencyNanos() {
+        return baselineLatencyNanos;
+    }
+}
@@ -0,0 +1,80 @@
+// FileCandidate.java
+package com.example.integration.filter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Set;
+
+/**
+ * One directory entry under consideration by {@link StableFileListFilter}. Attributes are
+ * read with a single bulk {@link Files#readAttributes} call the first time a matcher asks
+ * for them and shared by every matcher after that.
+ */
+public final class FileCandidate {
+
+    private final File file;
+    private final String name;
+    private final long scanStartMillis;
+    private final Set<String> siblingNames;
+    private BasicFileAttributes attributes;
+    private boolean vanished;
+
+    FileCandidate(File file, long scanStartMillis, Set<String> siblingNames) {
+        this.file = file;
+        this.name = file.getName();
+        this.scanStartMillis = scanStartMillis;
+        this.siblingNames = siblingNames;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Path getPath() {
+        return file.toPath();
+    }
+
+    /**
+     * Wall-clock time the current scan started; age checks use this instead of reading the clock per entry.
+     */
+    public long getScanStartMillis() {
+        return scanStartMillis;
+    }
+
+    /**
+     * Whether an entry with the given name was listed in the same directory during this scan.
+     * Only available when a matcher declared {@link FileCandidateMatcher#needsSiblingNames()}.
+     */
+    public boolean hasSibling(String siblingName) {
+        if (siblingNames == null) {
+            throw new IllegalStateException("Sibling names were not collected for this scan");
+        }
+        String parent = file.getParent();
+        return siblingNames.contains(parent == null ? siblingName : parent + File.separator + siblingName);
+    }
+
+    /**
+     * @return the entry's attributes, or {@code null} if it disappeared since the directory was listed
+     */
+    public BasicFileAttributes getAttributes() {
+        if (attributes == null && !vanished) {
+            try {
+                attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                vanished = true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return attributes;
+    }
+}
@@ -0,0 +1,37 @@
+// FileCandidateMatcher.java
+package com.example.integration.filter;
+
+/**
+ * A single rule in a {@link StableFileListFilter}. Matchers that only look at the name run
+ * before any matcher that needs file attributes, so rejected names never cost a {@code stat}.
+ */
+public interface FileCandidateMatcher {
+
+    boolean matches(FileCandidate candidate);
+
+    /**
+     * Whether {@link #matches} reads {@link FileCandidate#getAttributes()}.
+     */
+    default boolean needsAttributes() {
+        return false;
+    }
+
+    /**
+     * Whether {@link #matches} calls {@link FileCandidate#hasSibling(String)}.
+     */
+    default boolean needsSiblingNames() {
+        return false;
+    }
+
+    /**
+     * Called when the whole filter accepted the candidate, i.e. it is about to be handed out.
+     */
+    default void accepted(FileCandidate candidate) {
+    }
+
+    /**
+     * Called once per scan after every candidate has been offered, for matchers that keep state between scans.
+     */
+    default void scanCompleted() {
+    }
+}
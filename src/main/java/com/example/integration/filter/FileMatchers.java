@@ -0,0 +1,173 @@
+// FileMatchers.java
+package com.example.integration.filter;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Factory methods for the {@link FileCandidateMatcher}s understood by {@link StableFileListFilter}.
+ * Patterns are compiled once when the matcher is created, never per entry.
+ */
+public final class FileMatchers {
+
+    private FileMatchers() {
+    }
+
+    /**
+     * Matches the file name against a {@code glob:} pattern such as {@code *.txt}.
+     */
+    public static FileCandidateMatcher glob(String pattern) {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        return candidate -> matcher.matches(Path.of(candidate.getName()));
+    }
+
+    /**
+     * Matches the whole file name against a regular expression.
+     */
+    public static FileCandidateMatcher regex(String regex) {
+        Pattern pattern = Pattern.compile(regex);
+        return candidate -> pattern.matcher(candidate.getName()).matches();
+    }
+
+    /**
+     * Matches only when a marker named {@code <file name><suffix>} (for example {@code data.txt.done})
+     * was listed in the same scan. Checked against the listing, so it costs no extra I/O.
+     */
+    public static FileCandidateMatcher markerFile(String suffix) {
+        return new FileCandidateMatcher() {
+
+            @Override
+            public boolean matches(FileCandidate candidate) {
+                return candidate.hasSibling(candidate.getName() + suffix);
+            }
+
+            @Override
+            public boolean needsSiblingNames() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Matches regular files whose last modification is at least {@code minimumAge} before the scan started.
+     */
+    public static FileCandidateMatcher minimumAge(Duration minimumAge) {
+        long minimumMillis = minimumAge.toMillis();
+        return new FileCandidateMatcher() {
+
+            @Override
+            public boolean matches(FileCandidate candidate) {
+                BasicFileAttributes attributes = candidate.getAttributes();
+                return attributes != null && attributes.isRegularFile()
+                        && candidate.getScanStartMillis() - attributes.lastModifiedTime().toMillis() >= minimumMillis;
+            }
+
+            @Override
+            public boolean needsAttributes() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Matches regular files whose size and modification time have not changed for {@code scans}
+     * consecutive scans after the one they were first seen in. A file is matched once: after the
+     * filter accepted it, it is not matched again while it stays in the directory unchanged, so
+     * files still queued or being processed are not handed out twice. A file that changes
+     * afterwards has to settle again and is then matched once more.
+     */
+    public static FileCandidateMatcher sizeStable(int scans) {
+        return new SizeStableMatcher(scans);
+    }
+
+    /**
+     * Remembers the size and modification time of each candidate it has been offered, and
+     * whether it was handed out. Entries that were not offered during a scan are dropped at the
+     * end of it, so the state never grows beyond the number of files currently in the directory.
+     */
+    static final class SizeStableMatcher implements FileCandidateMatcher {
+
+        private final int requiredScans;
+        private final Map<String, Observation> observations = new HashMap<>();
+        private long scan;
+
+        SizeStableMatcher(int requiredScans) {
+            if (requiredScans < 1) {
+                throw new IllegalArgumentException("requiredScans must be at least 1");
+            }
+            this.requiredScans = requiredScans;
+        }
+
+        @Override
+        public boolean matches(FileCandidate candidate) {
+            BasicFileAttributes attributes = candidate.getAttributes();
+            if (attributes == null || !attributes.isRegularFile()) {
+                return false;
+            }
+            long size = attributes.size();
+            long modified = attributes.lastModifiedTime().toMillis();
+            Observation observation = observations.get(candidate.getFile().getPath());
+            if (observation == null) {
+                observations.put(candidate.getFile().getPath(), new Observation(size, modified, scan));
+                return false;
+            }
+            observation.scan = scan;
+            if (observation.size != size || observation.modified != modified) {
+                observation.size = size;
+                observation.modified = modified;
+                observation.unchangedScans = 0;
+                observation.handedOut = false;
+                return false;
+            }
+            return !observation.handedOut && ++observation.unchangedScans >= requiredScans;
+        }
+
+        @Override
+        public void accepted(FileCandidate candidate) {
+            Observation observation = observations.get(candidate.getFile().getPath());
+            if (observation != null) {
+                observation.handedOut = true;
+            }
+        }
+
+        @Override
+        public boolean needsAttributes() {
+            return true;
+        }
+
+        @Override
+        public void scanCompleted() {
+            for (Iterator<Observation> it = observations.values().iterator(); it.hasNext(); ) {
+                if (it.next().scan != scan) {
+                    it.remove();
+                }
+            }
+            scan++;
+        }
+
+        int trackedCount() {
+            return observations.size();
+        }
+
+        private static final class Observation {
+            long size;
+            long modified;
+            long scan;
+            int unchangedScans;
+            boolean handedOut;
+
+            Observation(long size, long modified, long scan) {
+                this.size = size;
+                this.modified = modified;
+                this.scan = scan;
+            }
+        }
+    }
+}
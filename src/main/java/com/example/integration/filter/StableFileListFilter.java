@@ -0,0 +1,94 @@
+// StableFileListFilter.java
+package com.example.integration.filter;
+
+import org.springframework.integration.file.filters.FileListFilter;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Composite {@link FileListFilter} that only lets through files that are safe to pick up.
+ * Name-based matchers run first and need no I/O; the remaining entries get a single bulk
+ * attribute read that every attribute-based matcher shares, so a large directory full of
+ * unrelated names costs one listing and no {@code stat} calls.
+ *
+ * <p>Within each group matchers run in the order given. Stateful matchers such as
+ * {@link FileMatchers#sizeStable(int)} only see entries that passed the matchers before them,
+ * and are told which entries the whole chain accepted.
+ */
+public class StableFileListFilter implements FileListFilter<File> {
+
+    private final List<FileCandidateMatcher> nameMatchers = new ArrayList<>();
+    private final List<FileCandidateMatcher> attributeMatchers = new ArrayList<>();
+    private final List<FileCandidateMatcher> allMatchers;
+    private final boolean needsSiblingNames;
+
+    public StableFileListFilter(FileCandidateMatcher... matchers) {
+        this.allMatchers = List.of(matchers);
+        boolean siblings = false;
+        for (FileCandidateMatcher matcher : matchers) {
+            (matcher.needsAttributes() ? attributeMatchers : nameMatchers).add(matcher);
+            siblings |= matcher.needsSiblingNames();
+        }
+        this.needsSiblingNames = siblings;
+    }
+
+    @Override
+    public synchronized List<File> filterFiles(File[] files) {
+        List<File> accepted = new ArrayList<>();
+        if (files == null) {
+            return accepted;
+        }
+        long scanStart = System.currentTimeMillis();
+        Set<String> siblingNames = needsSiblingNames ? pathsOf(files) : null;
+        try {
+            for (File file : files) {
+                FileCandidate candidate = new FileCandidate(file, scanStart, siblingNames);
+                if (matchesAll(nameMatchers, candidate) && matchesAll(attributeMatchers, candidate)) {
+                    accepted.add(file);
+                    for (FileCandidateMatcher matcher : allMatchers) {
+                        matcher.accepted(candidate);
+                    }
+                }
+            }
+        } finally {
+            for (FileCandidateMatcher matcher : allMatchers) {
+                matcher.scanCompleted();
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Runs just the name matchers that need no sibling names, so a scanner can skip unrelated
+     * names before it counts candidates against a cap. Stateful matchers are not involved.
+     */
+    public boolean matchesName(File file) {
+        FileCandidate candidate = new FileCandidate(file, System.currentTimeMillis(), null);
+        for (FileCandidateMatcher matcher : nameMatchers) {
+            if (!matcher.needsSiblingNames() && !matcher.matches(candidate)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesAll(List<FileCandidateMatcher> matchers, FileCandidate candidate) {
+        for (FileCandidateMatcher matcher : matchers) {
+            if (!matcher.matches(candidate)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> pathsOf(File[] files) {
+        Set<String> paths = new HashSet<>((int) (files.length / 0.75f) + 1);
+        Arrays.stream(files).map(File::getPath).forEach(paths::add);
+        return paths;
+    }
+}
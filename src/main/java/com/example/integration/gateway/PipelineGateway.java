@@ -0,0 +1,48 @@
+// PipelineGateway.java
+package com.example.integration.gateway;
+
+import com.example.integration.completion.FileCompletionEvent;
+import org.springframework.integration.annotation.AnnotationConstants;
+import org.springframework.integration.annotation.MessagingGateway;
+import org.springframework.integration.file.FileHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Submits files to {@code inboundFileChannel} without going through the input directory, so
+ * embedded callers skip the poll. Each future completes with the file's
+ * {@link FileCompletionEvent} once both branches have reported, or with a partial event if
+ * one of them did not within the completion timeout; check {@link FileCompletionEvent#isSuccessful()}.
+ *
+ * <p>Calls return as soon as the file is queued, and block while {@code inboundFileChannel}
+ * is full. Submitted files are moved to the pre-process directory like polled ones; do not
+ * submit files from the input directory, or the poller picks them up as well. Content is
+ * written under {@code name}, which must be a plain file name; others fail the future with an
+ * {@link IllegalArgumentException}.
+ *
+ * @see PipelineSubmitter
+ */
+@MessagingGateway(defaultRequestChannel = "pipelineSubmissionChannel", asyncExecutor = AnnotationConstants.NULL)
+public interface PipelineGateway {
+
+    CompletableFuture<FileCompletionEvent> submit(Path file);
+
+    CompletableFuture<FileCompletionEvent> submit(@Header(FileHeaders.FILENAME) String name, @Payload byte[] content);
+
+    /**
+     * Submits the buffer's remaining bytes, which are copied before the call returns.
+     */
+    CompletableFuture<FileCompletionEvent> submit(@Header(FileHeaders.FILENAME) String name,
+                                                  @Payload ByteBuffer content);
+
+    /**
+     * Submits the files in iteration order; the future completes once all of them have.
+     */
+    CompletableFuture<List<FileCompletionEvent>> submitAll(Collection<Path> files);
+}
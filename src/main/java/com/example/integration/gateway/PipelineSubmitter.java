@@ -0,0 +1,114 @@
+// PipelineSubmitter.java
+package com.example.integration.gateway;
+
+import com.example.integration.completion.FileCompletionEvent;
+import com.example.integration.completion.FileCompletionRegistry;
+import com.example.integration.ingest.NetworkIngestServer;
+import com.example.integration.latency.IngestHeaders;
+import com.example.integration.latency.PipelineLatencyRecorder;
+import org.springframework.integration.file.FileHeaders;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Behind {@link PipelineGateway}: stamps each submission like a polled file, registers it with
+ * the {@link FileCompletionRegistry} and sends it to the inbound channel on the caller's
+ * thread. Replies with the completion future itself, so the gateway returns it as is.
+ *
+ * <p>Only the file name travels with a submission; the gateway's own headers are dropped.
+ */
+public class PipelineSubmitter {
+
+    private final MessageChannel inboundChannel;
+    private final FileCompletionRegistry completionRegistry;
+    private final PipelineLatencyRecorder latencyRecorder;
+    private final Duration completionTimeout;
+    private final LongAdder submitted = new LongAdder();
+
+    /**
+     * @param completionTimeout how long to wait for a completion event before failing the
+     *                          future with a {@link java.util.concurrent.TimeoutException}
+     */
+    public PipelineSubmitter(MessageChannel inboundChannel, FileCompletionRegistry completionRegistry,
+                             PipelineLatencyRecorder latencyRecorder, Duration completionTimeout) {
+        this.inboundChannel = inboundChannel;
+        this.completionRegistry = completionRegistry;
+        this.latencyRecorder = latencyRecorder;
+        this.completionTimeout = completionTimeout;
+    }
+
+    public CompletableFuture<?> submit(Message<?> request) {
+        if (request.getPayload() instanceof Collection<?> files) {
+            return submitAll(files);
+        }
+        return submit(request.getPayload(), request.getHeaders().get(FileHeaders.FILENAME, String.class));
+    }
+
+    private CompletableFuture<List<FileCompletionEvent>> submitAll(Collection<?> files) {
+        List<CompletableFuture<FileCompletionEvent>> completions = new ArrayList<>(files.size());
+        for (Object file : files) {
+            completions.add(submit(file, null));
+        }
+        return CompletableFuture.allOf(completions.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> completions.stream().map(CompletableFuture::join).toList());
+    }
+
+    private CompletableFuture<FileCompletionEvent> submit(Object payload, String name) {
+        if (payload instanceof Path path) {
+            payload = path.toFile();
+        } else if (payload instanceof ByteBuffer buffer) {
+            byte[] content = new byte[buffer.remaining()];
+            buffer.get(content);
+            payload = content;
+        }
+        if (payload instanceof File file) {
+            if (!file.isFile()) {
+                return CompletableFuture.failedFuture(new NoSuchFileException(file.getPath()));
+            }
+        } else if (!(payload instanceof byte[])) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                    "Cannot submit a " + payload.getClass().getName()));
+        } else if (name == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("No file name for byte[] content"));
+        } else {
+            // Named like a network upload, so it must not reach outside the output directories either
+            String invalid = NetworkIngestServer.checkFileName(name);
+            if (invalid != null) {
+                return CompletableFuture.failedFuture(new IllegalArgumentException(invalid));
+            }
+        }
+        Message<?> message = latencyRecorder.markSubmitted(MessageBuilder.withPayload(payload)
+                .setHeader(FileHeaders.FILENAME, name)
+                .build());
+        String fileId = message.getHeaders().get(IngestHeaders.FILE_ID, String.class);
+        CompletableFuture<FileCompletionEvent> completion = completionRegistry.register(fileId);
+        try {
+            if (!inboundChannel.send(message)) {
+                completion.completeExceptionally(new IllegalStateException("Pipeline did not accept " + fileId));
+                return completion;
+            }
+        } catch (RuntimeException e) {
+            completion.completeExceptionally(e);
+            return completion;
+        }
+        submitted.increment();
+        return completion.orTimeout(completionTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+}
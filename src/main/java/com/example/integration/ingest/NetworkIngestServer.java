@@ -0,0 +1,434 @@
+// NetworkIngestServer.java
+package com.example.integration.ingest;
+
+import com.example.integration.completion.BranchOutcome;
+import com.example.integration.completion.FileCompletionEvent;
+import com.example.integration.completion.FileCompletionRegistry;
+import com.example.integration.ingest.UploadProtocol.Response;
+import com.example.integration.ingest.UploadProtocol.Status;
+import com.example.integration.ingest.UploadProtocol.Upload;
+import com.example.integration.latency.IngestHeaders;
+import com.example.integration.latency.PipelineLatencyRecorder;
+import com.example.integration.ratelimit.IoRateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.integration.file.FileHeaders;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accepts file uploads over TCP or a Unix domain socket and sends them, as {@code byte[]}
+ * payloads named by the {@link FileHeaders#FILENAME} header, straight to the fan-out
+ * channel that feeds the monitor and pre-process branches. Producers skip the input
+ * directory entirely: no temporary write, poll, read and delete per file.
+ *
+ * <p>Each connection may have at most {@code maxInFlightPerConnection} uploads in the
+ * pipeline. When that window is full the connection thread stops reading, the socket
+ * buffers fill up and TCP flow control stalls the producer; it resumes as soon as one of its
+ * uploads completes. Every upload is answered with a {@link Response} once its
+ * {@link FileCompletionEvent} arrives (see {@link UploadProtocol}); each connection has a
+ * writer thread for the answers, so completion callbacks never wait on a socket.
+ */
+public class NetworkIngestServer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(NetworkIngestServer.class);
+
+    private final SocketAddress bindAddress;
+    private final MessageChannel outputChannel;
+    private final FileCompletionRegistry completionRegistry;
+    private final PipelineLatencyRecorder latencyRecorder;
+    private final int maxConnections;
+    private final int maxInFlightPerConnection;
+    private final int maxContentBytes;
+    private final Duration completionTimeout;
+    private volatile IoRateLimiter rateLimiter;
+
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connectionCounter = new AtomicInteger();
+    private final LongAdder acceptedUploads = new LongAdder();
+    private final LongAdder acceptedBytes = new LongAdder();
+    private final LongAdder rejectedUploads = new LongAdder();
+    private final LongAdder stalledReads = new LongAdder();
+
+    private volatile ServerSocketChannel serverChannel;
+    private volatile SocketAddress localAddress;
+    private Semaphore connectionSlots;
+    private Thread acceptThread;
+
+    /**
+     * @param bindAddress              an {@code InetSocketAddress} (port 0 picks a free port) or a
+     *                                 {@link UnixDomainSocketAddress}
+     * @param maxConnections           further connections wait in the accept backlog
+     * @param maxInFlightPerConnection uploads of one connection that may be in the pipeline at once
+     * @param maxContentBytes          larger uploads break the connection
+     * @param completionTimeout        how long to wait for a completion event before answering
+     *                                 {@link Status#TIMED_OUT}
+     */
+    public NetworkIngestServer(SocketAddress bindAddress, MessageChannel outputChannel,
+                               FileCompletionRegistry completionRegistry, PipelineLatencyRecorder latencyRecorder,
+                               int maxConnections, int maxInFlightPerConnection, int maxContentBytes,
+                               Duration completionTimeout) {
+        if (maxConnections < 1 || maxInFlightPerConnection < 1 || maxContentBytes < 0) {
+            throw new IllegalArgumentException("Connection and in-flight limits must be positive");
+        }
+        this.bindAddress = bindAddress;
+        this.outputChannel = outputChannel;
+        this.completionRegistry = completionRegistry;
+        this.latencyRecorder = latencyRecorder;
+        this.maxConnections = maxConnections;
+        this.maxInFlightPerConnection = maxInFlightPerConnection;
+        this.maxContentBytes = maxContentBytes;
+        this.completionTimeout = completionTimeout;
+    }
+
+    /**
+     * The bound address, with the actual port if the server was configured with port 0;
+     * {@code null} while stopped.
+     */
+    public SocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    /**
+     * Paces uploads for both branches on the connection thread before they fan out, so a
+     * producer over the write budget is held back by TCP flow control.
+     */
+    public void setRateLimiter(IoRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    public long getAcceptedUploads() {
+        return acceptedUploads.sum();
+    }
+
+    public long getAcceptedBytes() {
+        return acceptedBytes.sum();
+    }
+
+    public long getRejectedUploads() {
+        return rejectedUploads.sum();
+    }
+
+    /**
+     * Number of times a connection stopped reading because its window or the executor queue was full.
+     */
+    public long getStalledReads() {
+        return stalledReads.sum();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (serverChannel != null) {
+            return;
+        }
+        try {
+            ServerSocketChannel channel;
+            if (bindAddress instanceof UnixDomainSocketAddress unix) {
+                Files.deleteIfExists(unix.getPath());
+                channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            } else {
+                channel = ServerSocketChannel.open();
+            }
+            channel.bind(bindAddress, maxConnections);
+            serverChannel = channel;
+            localAddress = channel.getLocalAddress();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot bind network ingest to " + bindAddress, e);
+        }
+        connectionSlots = new Semaphore(maxConnections);
+        acceptThread = new Thread(this::acceptLoop, "ingest-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        logger.info("Network ingest listening on {}", localAddress);
+    }
+
+    @Override
+    public synchronized void stop() {
+        ServerSocketChannel channel = serverChannel;
+        if (channel == null) {
+            return;
+        }
+        serverChannel = null;
+        closeQuietly(channel);
+        acceptThread.interrupt();
+        for (Connection connection : connections) {
+            connection.close();
+            connection.thread.interrupt();
+        }
+        try {
+            acceptThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (localAddress instanceof UnixDomainSocketAddress unix) {
+            try {
+                Files.deleteIfExists(unix.getPath());
+            } catch (IOException e) {
+                logger.debug("Could not remove socket file {}", unix.getPath(), e);
+            }
+        }
+        localAddress = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return serverChannel != null;
+    }
+
+    private void acceptLoop() {
+        ServerSocketChannel channel = serverChannel;
+        while (channel != null && channel.isOpen()) {
+            try {
+                connectionSlots.acquire();
+                SocketChannel socket;
+                try {
+                    socket = channel.accept();
+                } catch (IOException e) {
+                    connectionSlots.release();
+                    throw e;
+                }
+                Connection connection = new Connection(socket, connectionCounter.incrementAndGet());
+                connections.add(connection);
+                connection.start();
+            } catch (InterruptedException | ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                logger.warn("Accepting an ingest connection failed", e);
+            }
+        }
+    }
+
+    /**
+     * Also applied to content submitted through the gateway.
+     *
+     * @return why the name is unusable as a plain file name in the output directories, or {@code null}
+     */
+    public static String checkFileName(String name) {
+        if (name.isEmpty() || name.equals(".") || name.equals("..")) {
+            return "Invalid file name '" + name + "'";
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '/' || c == '\\' || c == 0) {
+                return "File name must not contain path separators: " + name;
+            }
+        }
+        return null;
+    }
+
+    private static Response toResponse(long uploadId, String fileId, FileCompletionEvent event, Throwable error) {
+        if (error != null) {
+            Throwable cause = error.getCause() != null ? error.getCause() : error;
+            return cause instanceof TimeoutException
+                    ? new Response(uploadId, Status.TIMED_OUT, fileId)
+                    : new Response(uploadId, Status.FAILED, String.valueOf(cause.getMessage()));
+        }
+        if (event.isSuccessful()) {
+            return new Response(uploadId, Status.OK, fileId);
+        }
+        String reason = event.outcomes().values().stream()
+                .map(BranchOutcome::error)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse("Not all branches completed");
+        return new Response(uploadId, Status.FAILED, reason);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // already closing
+        }
+    }
+
+    private final class Connection {
+
+        private final SocketChannel socket;
+        private final Thread thread;
+        private final Thread writer;
+        private final Semaphore window = new Semaphore(maxInFlightPerConnection);
+        // Every queued response still holds its window permit, so the queue never overflows
+        private final BlockingQueue<Response> responses = new ArrayBlockingQueue<>(maxInFlightPerConnection);
+        private final DataOutputStream out;
+
+        Connection(SocketChannel socket, int number) {
+            this.socket = socket;
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(socket)));
+            this.thread = new Thread(this::readLoop, "ingest-conn-" + number);
+            this.thread.setDaemon(true);
+            this.writer = new Thread(this::writeLoop, "ingest-conn-" + number + "-out");
+            this.writer.setDaemon(true);
+        }
+
+        void start() {
+            writer.start();
+            thread.start();
+        }
+
+        private void readLoop() {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(socket)))) {
+                while (true) {
+                    if (!window.tryAcquire()) {
+                        stalledReads.increment();
+                        window.acquire();
+                    }
+                    Upload upload = UploadProtocol.readUpload(in, maxContentBytes);
+                    if (upload == null) {
+                        window.release();
+                        break;
+                    }
+                    submit(upload);
+                }
+                // Let the pipeline answer everything before closing the socket
+                window.tryAcquire(maxInFlightPerConnection,
+                        completionTimeout.toMillis() + TimeUnit.SECONDS.toMillis(1), TimeUnit.MILLISECONDS);
+            } catch (UploadProtocol.ProtocolException e) {
+                logger.warn("Closing ingest connection {}: {}", socket, e.getMessage());
+            } catch (IOException e) {
+                if (isRunning()) {
+                    logger.debug("Ingest connection {} failed", socket, e);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        private void submit(Upload upload) {
+            String invalid = checkFileName(upload.name());
+            if (invalid != null) {
+                rejectedUploads.increment();
+                respond(new Response(upload.uploadId(), Status.REJECTED, invalid));
+                return;
+            }
+            Message<?> message = latencyRecorder.markDetected(MessageBuilder.withPayload(upload.content())
+                    .setHeader(FileHeaders.FILENAME, upload.name())
+                    .build());
+            message = latencyRecorder.markDispatched(message);
+            IoRateLimiter limiter = rateLimiter;
+            if (limiter != null) {
+                // Only this connection's thread waits, which slows down just this client
+                message = latencyRecorder.markPaced(limiter.pace(message));
+            }
+            String fileId = message.getHeaders().get(IngestHeaders.FILE_ID, String.class);
+            CompletableFuture<FileCompletionEvent> completion = completionRegistry.register(fileId);
+            completion.orTimeout(completionTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .whenComplete((event, error) -> respond(toResponse(upload.uploadId(), fileId, event, error)));
+            try {
+                if (!send(message)) {
+                    completion.completeExceptionally(new IllegalStateException("Pipeline did not accept the upload"));
+                    return;
+                }
+            } catch (RuntimeException | InterruptedException e) {
+                completion.completeExceptionally(e);
+                return;
+            }
+            acceptedUploads.increment();
+            acceptedBytes.add(upload.content().length);
+        }
+
+        /**
+         * A full executor queue is more backpressure: the branch executor holds the send until
+         * it has room, so the connection stops reading. An executor that rejects instead is
+         * retried until the queue drains or the completion timeout passes.
+         */
+        private boolean send(Message<?> message) throws InterruptedException {
+            long deadline = System.nanoTime() + completionTimeout.toNanos();
+            long backoffMillis = 1;
+            while (true) {
+                try {
+                    return outputChannel.send(message);
+                } catch (MessageDeliveryException e) {
+                    if (!(e.getCause() instanceof RejectedExecutionException) || System.nanoTime() > deadline) {
+                        throw e;
+                    }
+                    stalledReads.increment();
+                    Thread.sleep(backoffMillis);
+                    backoffMillis = Math.min(backoffMillis * 2, 50);
+                }
+            }
+        }
+
+        /**
+         * Called on pipeline threads when an upload completes, so it only queues the response;
+         * a client that is slow to read blocks its own writer thread, never the pipeline.
+         */
+        private void respond(Response response) {
+            if (!responses.offer(response)) {
+                logger.warn("Dropping answer to upload {} on {}", response.uploadId(), socket);
+                window.release();
+            }
+        }
+
+        // Writes whatever has queued up since the last flush in one go
+        private void writeLoop() {
+            List<Response> batch = new ArrayList<>();
+            try {
+                while (true) {
+                    batch.add(responses.take());
+                    responses.drainTo(batch);
+                    try {
+                        for (Response response : batch) {
+                            UploadProtocol.writeResponse(out, response);
+                        }
+                        out.flush();
+                    } catch (IOException e) {
+                        logger.debug("Could not answer {} uploads on {}", batch.size(), socket, e);
+                    } finally {
+                        window.release(batch.size());
+                        batch.clear();
+                    }
+                }
+            } catch (InterruptedException e) {
+                // connection closed
+            }
+        }
+
+        void close() {
+            if (connections.remove(this)) {
+                closeQuietly(socket);
+                writer.interrupt();
+                connectionSlots.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+// UploadClient.java
+package com.example.integration.ingest;
+
+import com.example.integration.ingest.UploadProtocol.Response;
+import com.example.integration.ingest.UploadProtocol.Upload;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Producer side of {@link NetworkIngestServer}. Uploads are pipelined over one connection;
+ * {@link #upload} blocks only while the server is applying backpressure, and the returned
+ * future completes when the file has been through the pipeline.
+ */
+public class UploadClient implements Closeable {
+
+    private final SocketChannel socket;
+    private final DataOutputStream out;
+    private final Map<Long, CompletableFuture<Response>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong uploadIds = new AtomicLong();
+    private final Thread reader;
+
+    public UploadClient(SocketAddress address) throws IOException {
+        socket = address instanceof UnixDomainSocketAddress
+                ? SocketChannel.open(StandardProtocolFamily.UNIX)
+                : SocketChannel.open();
+        socket.connect(address);
+        out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(socket)));
+        reader = new Thread(this::readLoop, "upload-client-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    public CompletableFuture<Response> upload(String name, byte[] content) throws IOException {
+        long uploadId = uploadIds.incrementAndGet();
+        CompletableFuture<Response> response = new CompletableFuture<>();
+        pending.put(uploadId, response);
+        try {
+            synchronized (out) {
+                UploadProtocol.writeUpload(out, new Upload(uploadId, name, content));
+                out.flush();
+            }
+        } catch (IOException | RuntimeException e) {
+            pending.remove(uploadId);
+            throw e;
+        }
+        return response;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private void readLoop() {
+        IOException failure = null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(socket)))) {
+            Response response;
+            while ((response = UploadProtocol.readResponse(in)) != null) {
+                CompletableFuture<Response> future = pending.remove(response.uploadId());
+                if (future != null) {
+                    future.complete(response);
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+        IOException cause = failure != null ? failure : new IOException("Connection closed by server");
+        pending.values().forEach(future -> future.completeExceptionally(cause));
+        pending.clear();
+    }
+
+    /**
+     * Closes the connection; uploads that have not been answered yet fail.
+     */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        try {
+            reader.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
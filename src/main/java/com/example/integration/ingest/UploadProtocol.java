@@ -0,0 +1,135 @@
+// UploadProtocol.java
+package com.example.integration.ingest;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format of the network ingest endpoint. All numbers are big-endian.
+ *
+ * <pre>
+ * request:  int magic 'UPL1' | long uploadId | u16 nameLength | name (UTF-8) | int contentLength | content
+ * response: long uploadId | byte status | u16 detailLength | detail (UTF-8)
+ * </pre>
+ *
+ * A client may pipeline requests; responses carry the client's upload id and arrive in
+ * completion order. On success the detail is the pipeline's file id, otherwise an error message.
+ */
+public final class UploadProtocol {
+
+    public static final int MAGIC = 0x55504C31;
+
+    static final int MAX_NAME_BYTES = 0xFFFF;
+
+    public enum Status {
+        /** Both the monitor copy and the pre-process file were written. */
+        OK,
+        /** At least one branch failed. */
+        FAILED,
+        /** The pipeline did not report back in time; the file may still be written later. */
+        TIMED_OUT,
+        /** The upload was refused before entering the pipeline. */
+        REJECTED
+    }
+
+    public record Upload(long uploadId, String name, byte[] content) {
+    }
+
+    public record Response(long uploadId, Status status, String detail) {
+
+        public boolean isOk() {
+            return status == Status.OK;
+        }
+    }
+
+    private UploadProtocol() {
+    }
+
+    public static void writeUpload(DataOutputStream out, Upload upload) throws IOException {
+        byte[] name = upload.name().getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("File name too long: " + upload.name());
+        }
+        out.writeInt(MAGIC);
+        out.writeLong(upload.uploadId());
+        out.writeShort(name.length);
+        out.write(name);
+        out.writeInt(upload.content().length);
+        out.write(upload.content());
+    }
+
+    /**
+     * @return {@code null} on a clean end of stream between frames
+     * @throws ProtocolException if the frame is malformed or its content exceeds {@code maxContentBytes}
+     */
+    public static Upload readUpload(DataInputStream in, int maxContentBytes) throws IOException {
+        int magic;
+        try {
+            magic = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (magic != MAGIC) {
+            throw new ProtocolException(String.format("Bad frame magic 0x%08x", magic));
+        }
+        long uploadId = in.readLong();
+        byte[] name = new byte[in.readUnsignedShort()];
+        in.readFully(name);
+        int length = in.readInt();
+        if (length < 0 || length > maxContentBytes) {
+            throw new ProtocolException("Upload " + uploadId + " of " + length + " bytes exceeds the limit of "
+                    + maxContentBytes);
+        }
+        byte[] content = new byte[length];
+        in.readFully(content);
+        return new Upload(uploadId, new String(name, StandardCharsets.UTF_8), content);
+    }
+
+    public static void writeResponse(DataOutputStream out, Response response) throws IOException {
+        byte[] detail = truncate(response.detail() == null ? "" : response.detail());
+        out.writeLong(response.uploadId());
+        out.writeByte(response.status().ordinal());
+        out.writeShort(detail.length);
+        out.write(detail);
+    }
+
+    /**
+     * @return {@code null} on a clean end of stream between frames
+     */
+    public static Response readResponse(DataInputStream in) throws IOException {
+        long uploadId;
+        try {
+            uploadId = in.readLong();
+        } catch (EOFException e) {
+            return null;
+        }
+        int status = in.readUnsignedByte();
+        if (status >= Status.values().length) {
+            throw new ProtocolException("Unknown response status " + status);
+        }
+        byte[] detail = new byte[in.readUnsignedShort()];
+        in.readFully(detail);
+        return new Response(uploadId, Status.values()[status], new String(detail, StandardCharsets.UTF_8));
+    }
+
+    private static byte[] truncate(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_NAME_BYTES) {
+            return bytes;
+        }
+        return text.substring(0, MAX_NAME_BYTES / 4).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The peer broke the framing; the connection cannot be resynchronised and is closed.
+     */
+    public static class ProtocolException extends IOException {
+
+        public ProtocolException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+// SamplingChannelInterceptor.java
+package com.example.integration.interceptor;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Channel interceptor that is safe to leave on a production channel. Unlike
+ * {@link TestChannelInterceptor} it keeps a fixed number of sampled messages in a lock-free
+ * ring buffer, counts every message with striped counters and remembers only the last
+ * message sent and received.
+ */
+public class SamplingChannelInterceptor implements ChannelInterceptor {
+
+    private final AtomicReferenceArray<Message<?>> sentRing;
+    private final AtomicReferenceArray<Message<?>> receivedRing;
+    private final int mask;
+    private final AtomicLong sentCursor = new AtomicLong();
+    private final AtomicLong receivedCursor = new AtomicLong();
+
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder receivedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    private final AtomicReference<Message<?>> lastSent = new AtomicReference<>();
+    private final AtomicReference<Message<?>> lastReceived = new AtomicReference<>();
+
+    private volatile double samplingRate;
+
+    /**
+     * @param capacity     number of sampled messages retained per direction, rounded up to a power of two
+     * @param samplingRate fraction of messages retained in the ring buffer, between 0 and 1
+     */
+    public SamplingChannelInterceptor(int capacity, double samplingRate) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.sentRing = new AtomicReferenceArray<>(size);
+        this.receivedRing = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        setSamplingRate(samplingRate);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        sentCount.increment();
+        lastSent.lazySet(message);
+        if (sampled()) {
+            sentRing.lazySet((int) (sentCursor.getAndIncrement() & mask), message);
+        }
+        return message;
+    }
+
+    @Override
+    public void postSend(Message<?> message, MessageChannel channel, boolean sent) {
+        if (!sent) {
+            failedCount.increment();
+            return;
+        }
+        receivedCount.increment();
+        lastReceived.lazySet(message);
+        if (sampled()) {
+            receivedRing.lazySet((int) (receivedCursor.getAndIncrement() & mask), message);
+        }
+    }
+
+    private boolean sampled() {
+        double rate = samplingRate;
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    public void setSamplingRate(double samplingRate) {
+        if (samplingRate < 0.0 || samplingRate > 1.0) {
+            throw new IllegalArgumentException("samplingRate must be between 0 and 1");
+        }
+        this.samplingRate = samplingRate;
+    }
+
+    public double getSamplingRate() {
+        return samplingRate;
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Sampled sent messages, oldest first. Entries being overwritten concurrently may be skipped.
+     */
+    public List<Message<?>> getSampledSentMessages() {
+        return snapshot(sentRing, sentCursor);
+    }
+
+    public List<Message<?>> getSampledReceivedMessages() {
+        return snapshot(receivedRing, receivedCursor);
+    }
+
+    private List<Message<?>> snapshot(AtomicReferenceArray<Message<?>> ring, AtomicLong cursor) {
+        long end = cursor.get();
+        long start = Math.max(0, end - ring.length());
+        List<Message<?>> messages = new ArrayList<>((int) (end - start));
+        for (long i = start; i < end; i++) {
+            Message<?> message = ring.get((int) (i & mask));
+            if (message != null) {
+                messages.add(message);
+            }
+        }
+        return messages;
+    }
+
+    public Message<?> getLastSentMessage() {
+        return lastSent.get();
+    }
+
+    public Message<?> getLastReceivedMessage() {
+        return lastReceived.get();
+    }
+
+    public long getSentMessageCount() {
+        return sentCount.sum();
+    }
+
+    public long getReceivedMessageCount() {
+        return receivedCount.sum();
+    }
+
+    public long getFailedMessageCount() {
+        return failedCount.sum();
+    }
+
+    public void clear() {
+        for (int i = 0; i <= mask; i++) {
+            sentRing.set(i, null);
+            receivedRing.set(i, null);
+        }
+        sentCursor.set(0);
+        receivedCursor.set(0);
+        sentCount.reset();
+        receivedCount.reset();
+        failedCount.reset();
+        lastSent.set(null);
+        lastReceived.set(null);
+    }
+}
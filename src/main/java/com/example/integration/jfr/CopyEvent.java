@@ -0,0 +1,12 @@
+// CopyEvent.java
+package com.example.integration.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.integration.Copy")
+@Label("File Copy")
+@Description("Monitor branch copy of a file")
+public class CopyEvent extends FileTransferEvent {
+}
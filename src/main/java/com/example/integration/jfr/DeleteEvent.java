@@ -0,0 +1,25 @@
+// DeleteEvent.java
+package com.example.integration.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.nio.file.Path;
+
+@Name("com.example.integration.Delete")
+@Label("File Delete")
+@Description("Deletion of an output file by retention")
+public class DeleteEvent extends FileEvent {
+
+    /**
+     * Commits the event for the given file, if it is enabled and over its threshold.
+     */
+    public void commit(Path path, long size) {
+        if (shouldCommit()) {
+            this.fileName = path.toString();
+            this.size = size;
+            commit();
+        }
+    }
+}
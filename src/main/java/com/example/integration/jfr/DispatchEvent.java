@@ -0,0 +1,12 @@
+// DispatchEvent.java
+package com.example.integration.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.integration.Dispatch")
+@Label("File Dispatch")
+@Description("Hand-off of a file to the branch executor, including any wait for queue space")
+public class DispatchEvent extends FileEvent {
+}
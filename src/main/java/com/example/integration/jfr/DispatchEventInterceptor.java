@@ -0,0 +1,39 @@
+// DispatchEventInterceptor.java
+package com.example.integration.jfr;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+
+/**
+ * Emits a {@link DispatchEvent} for every send to an executor channel, timed from
+ * {@code preSend} to send completion on the sending thread.
+ */
+public class DispatchEventInterceptor implements ChannelInterceptor {
+
+    private final ThreadLocal<DispatchEvent> current = new ThreadLocal<>();
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        DispatchEvent event = new DispatchEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            current.set(event);
+        }
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        DispatchEvent event = current.get();
+        if (event == null) {
+            return;
+        }
+        current.remove();
+        event.end();
+        if (event.shouldCommit()) {
+            event.setFile(message);
+            event.commit();
+        }
+    }
+}
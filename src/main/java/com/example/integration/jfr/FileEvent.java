@@ -0,0 +1,40 @@
+// FileEvent.java
+package com.example.integration.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Event;
+import jdk.jfr.StackTrace;
+import org.springframework.integration.file.FileHeaders;
+import org.springframework.messaging.Message;
+
+import java.io.File;
+
+/**
+ * Base of the pipeline's Java Flight Recorder events: one file, timed from {@code begin()}
+ * to {@code commit()}, on the thread that did the work. Stack traces are off; the thread
+ * and duration are what correlate the stages with GC, I/O and lock events.
+ */
+@Category({"Application", "File Pipeline"})
+@StackTrace(false)
+public abstract class FileEvent extends Event {
+
+    @Label("File Name")
+    String fileName;
+
+    @Label("Size")
+    @DataAmount
+    long size;
+
+    // Only called for enabled events, so the stat of a polled file costs nothing otherwise
+    void setFile(Message<?> message) {
+        if (message.getPayload() instanceof File file) {
+            fileName = file.getName();
+            size = file.length();
+        } else {
+            fileName = message.getHeaders().get(FileHeaders.FILENAME, String.class);
+            size = message.getPayload() instanceof byte[] content ? content.length : -1;
+        }
+    }
+}
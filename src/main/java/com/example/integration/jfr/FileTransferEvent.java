@@ -0,0 +1,21 @@
+// FileTransferEvent.java
+package com.example.integration.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+
+/**
+ * A file handler writing one file; {@code bytes} is what reached the destination.
+ */
+public abstract class FileTransferEvent extends FileEvent {
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Destination")
+    String destination;
+
+    @Label("Failure")
+    String failure;
+}
@@ -0,0 +1,90 @@
+// FileTransferEventAdvice.java
+package com.example.integration.jfr;
+
+import com.example.integration.latency.IngestHeaders;
+import org.springframework.integration.handler.advice.AbstractRequestHandlerAdvice;
+import org.springframework.integration.support.AbstractIntegrationMessageBuilder;
+import org.springframework.messaging.Message;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Emits a {@link FileTransferEvent} around a file handler, e.g. {@code new FileTransferEventAdvice(CopyEvent::new)}.
+ * The source size is taken before the handler runs, since a move removes it; the bytes
+ * written come from the {@link IngestHeaders#BYTE_COUNT} reply header when the handler
+ * digests its output, and default to the source size otherwise. A {@link CompletableFuture}
+ * reply ends the event when it completes.
+ */
+public class FileTransferEventAdvice extends AbstractRequestHandlerAdvice {
+
+    private final Supplier<? extends FileTransferEvent> eventFactory;
+
+    public FileTransferEventAdvice(Supplier<? extends FileTransferEvent> eventFactory) {
+        this.eventFactory = eventFactory;
+    }
+
+    @Override
+    protected Object doInvoke(ExecutionCallback callback, Object target, Message<?> message) {
+        FileTransferEvent event = eventFactory.get();
+        if (!event.isEnabled()) {
+            return callback.execute();
+        }
+        event.setFile(message);
+        event.bytes = event.size;
+        event.begin();
+        Object result;
+        try {
+            result = callback.execute();
+        } catch (RuntimeException e) {
+            failed(event, unwrapThrowableIfNecessary(e));
+            throw e;
+        }
+        if (result instanceof CompletableFuture<?> pending) {
+            return pending.whenComplete((reply, error) -> {
+                if (error != null) {
+                    failed(event, error instanceof CompletionException ? error.getCause() : error);
+                } else {
+                    succeeded(event, reply);
+                }
+            });
+        }
+        succeeded(event, result);
+        return result;
+    }
+
+    private static void succeeded(FileTransferEvent event, Object result) {
+        event.end();
+        if (event.shouldCommit()) {
+            describeResult(event, result);
+        }
+        event.commit();
+    }
+
+    private static void failed(FileTransferEvent event, Throwable error) {
+        event.bytes = 0;
+        event.failure = String.valueOf(error.getMessage());
+        event.commit();
+    }
+
+    private static void describeResult(FileTransferEvent event, Object result) {
+        Object payload = result;
+        Map<String, Object> headers = Map.of();
+        if (result instanceof AbstractIntegrationMessageBuilder<?> builder) {
+            payload = builder.getPayload();
+            headers = builder.getHeaders();
+        } else if (result instanceof Message<?> reply) {
+            payload = reply.getPayload();
+            headers = reply.getHeaders();
+        }
+        if (payload instanceof File written) {
+            event.destination = written.getPath();
+        }
+        if (headers.get(IngestHeaders.BYTE_COUNT) instanceof Long bytes) {
+            event.bytes = bytes;
+        }
+    }
+}
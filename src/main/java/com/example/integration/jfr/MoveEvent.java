@@ -0,0 +1,12 @@
+// MoveEvent.java
+package com.example.integration.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.integration.Move")
+@Label("File Move")
+@Description("Pre-process branch move of a file")
+public class MoveEvent extends FileTransferEvent {
+}
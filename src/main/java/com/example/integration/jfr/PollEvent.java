@@ -0,0 +1,12 @@
+// PollEvent.java
+package com.example.integration.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.integration.Poll")
+@Label("File Poll")
+@Description("One receive from the input directory source, including a directory scan if one was due")
+public class PollEvent extends FileEvent {
+}
@@ -0,0 +1,35 @@
+// PollEventAdvice.java
+package com.example.integration.jfr;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.integration.aop.ReceiveMessageAdvice;
+import org.springframework.messaging.Message;
+
+/**
+ * Poller advice that emits a {@link PollEvent} around every {@code receive()} of the source.
+ */
+public class PollEventAdvice implements ReceiveMessageAdvice {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        PollEvent event = new PollEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+        event.begin();
+        Object result = invocation.proceed();
+        event.end();
+        if (event.shouldCommit()) {
+            if (result instanceof Message<?> message) {
+                event.setFile(message);
+            }
+            event.commit();
+        }
+        return result;
+    }
+
+    @Override
+    public Message<?> afterReceive(Message<?> result, Object source) {
+        return result;
+    }
+}
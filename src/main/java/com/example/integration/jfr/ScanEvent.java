@@ -0,0 +1,23 @@
+// ScanEvent.java
+package com.example.integration.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.integration.Scan")
+@Label("Directory Scan")
+@Description("Listing and filtering of the input directory")
+@Category({"Application", "File Pipeline"})
+@StackTrace(false)
+public class ScanEvent extends Event {
+
+    @Label("Directory")
+    String directory;
+
+    @Label("Files Accepted")
+    int filesAccepted;
+}
@@ -0,0 +1,28 @@
+// ScanEventDirectoryScanner.java
+package com.example.integration.jfr;
+
+import org.springframework.integration.file.DefaultDirectoryScanner;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * {@link DefaultDirectoryScanner} that emits a {@link ScanEvent} for every listing. Give it
+ * the filter instead of the {@code FileReadingMessageSource}, which rejects both.
+ */
+public class ScanEventDirectoryScanner extends DefaultDirectoryScanner {
+
+    @Override
+    public List<File> listFiles(File directory) {
+        ScanEvent event = new ScanEvent();
+        event.begin();
+        List<File> files = super.listFiles(directory);
+        event.end();
+        if (event.shouldCommit()) {
+            event.directory = directory.getPath();
+            event.filesAccepted = files.size();
+            event.commit();
+        }
+        return files;
+    }
+}
@@ -0,0 +1,47 @@
+// IngestHeaders.java
+package com.example.integration.latency;
+
+/**
+ * Header names stamped on file messages as they move through the pipeline. The
+ * {@code *_NANOS} values come from {@link System#nanoTime()} and are only comparable within
+ * the same JVM.
+ */
+public final class IngestHeaders {
+
+    public static final String PREFIX = "ingest_";
+
+    /** Identifies one file across both branches; used to correlate their outcomes. */
+    public static final String FILE_ID = PREFIX + "fileId";
+
+    /** Wall-clock time, in epoch milliseconds, when the poller picked the file up. */
+    public static final String DETECTED_AT = PREFIX + "detectedAt";
+
+    public static final String DETECTED_NANOS = PREFIX + "detectedNanos";
+
+    /** Owner of the file when the input directory is split into tenant subdirectories. */
+    public static final String TENANT = PREFIX + "tenant";
+
+    /** When the file left {@code inboundFileChannel} and was handed to the executor. */
+    public static final String DISPATCHED_NANOS = PREFIX + "dispatchedNanos";
+
+    /** {@code FileContent} view of the payload; only present until the message fans out. */
+    public static final String CONTENT = PREFIX + "content";
+
+    /** Records parsed from the file, and how many of them were malformed. */
+    public static final String RECORD_COUNT = PREFIX + "recordCount";
+
+    public static final String RECORD_ERRORS = PREFIX + "recordErrors";
+
+    /** Digest of the bytes a branch handler wrote, computed while writing them; see {@code FileDigest}. */
+    public static final String CRC32C = PREFIX + "crc32c";
+
+    /** Hex digest from the optional strong hash, e.g. SHA-256. */
+    public static final String STRONG_HASH = PREFIX + "strongHash";
+
+    public static final String BYTE_COUNT = PREFIX + "byteCount";
+
+    public static final String LINE_COUNT = PREFIX + "lineCount";
+
+    private IngestHeaders() {
+    }
+}
@@ -0,0 +1,23 @@
+// IngestStampingAdvice.java
+package com.example.integration.latency;
+
+import org.springframework.integration.aop.MessageSourceMutator;
+import org.springframework.integration.core.MessageSource;
+import org.springframework.messaging.Message;
+
+/**
+ * Poller advice that stamps every message produced by the file source with its ingest time.
+ */
+public class IngestStampingAdvice implements MessageSourceMutator {
+
+    private final PipelineLatencyRecorder recorder;
+
+    public IngestStampingAdvice(PipelineLatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Message<?> afterReceive(Message<?> result, MessageSource<?> source) {
+        return result == null ? null : recorder.markDetected(result);
+    }
+}
@@ -0,0 +1,157 @@
+// PipelineLatencyRecorder.java
+package com.example.integration.latency;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+import java.io.File;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects per-stage latencies, in microseconds, from the ingest headers stamped along the
+ * pipeline. Recording is wait-free; {@link #snapshot(PipelineStage)} folds the latest
+ * interval into a cumulative histogram.
+ */
+public class PipelineLatencyRecorder {
+
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private final Map<PipelineStage, Recorder> recorders = new EnumMap<>(PipelineStage.class);
+    private final Map<PipelineStage, Histogram> cumulative = new EnumMap<>(PipelineStage.class);
+    private final Map<PipelineStage, Histogram> recycled = new EnumMap<>(PipelineStage.class);
+    private final Map<PipelineStage, LongAdder> counts = new EnumMap<>(PipelineStage.class);
+
+    public PipelineLatencyRecorder() {
+        for (PipelineStage stage : PipelineStage.values()) {
+            recorders.put(stage, new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+            cumulative.put(stage, new Histogram(HIGHEST_TRACKABLE_MICROS, 3));
+            counts.put(stage, new LongAdder());
+        }
+    }
+
+    public void recordNanos(PipelineStage stage, long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        recorders.get(stage).recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(0, micros)));
+        counts.get(stage).increment();
+    }
+
+    /**
+     * Values recorded for the stage so far; cheap enough to poll for rates, unlike {@link #snapshot}.
+     */
+    public long getCount(PipelineStage stage) {
+        return counts.get(stage).sum();
+    }
+
+    public void recordMillis(PipelineStage stage, long millis) {
+        recordNanos(stage, TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    /**
+     * Stamps a freshly polled file with its detection time and records how long it sat in
+     * the input directory before the poller saw it.
+     */
+    public Message<?> markDetected(Message<?> message) {
+        long now = System.currentTimeMillis();
+        if (message.getPayload() instanceof File file) {
+            long lastModified = file.lastModified();
+            if (lastModified > 0) {
+                recordMillis(PipelineStage.POLL_DELAY, now - lastModified);
+            }
+        }
+        return stamp(message, now);
+    }
+
+    /**
+     * Stamps a file submitted to the pipeline directly like {@link #markDetected}, without a
+     * poll delay since it never waited in the input directory.
+     */
+    public Message<?> markSubmitted(Message<?> message) {
+        return stamp(message, System.currentTimeMillis());
+    }
+
+    private static Message<?> stamp(Message<?> message, long now) {
+        return MessageBuilder.fromMessage(message)
+                .setHeader(IngestHeaders.FILE_ID, message.getHeaders().getId().toString())
+                .setHeader(IngestHeaders.DETECTED_AT, now)
+                .setHeader(IngestHeaders.DETECTED_NANOS, System.nanoTime())
+                .build();
+    }
+
+    /**
+     * Called when {@code fileProcessingFlow} takes a file off {@code inboundFileChannel}.
+     * Messages sent to the channel directly, rather than polled, get their file id here.
+     */
+    public Message<?> markDispatched(Message<?> message) {
+        long now = System.nanoTime();
+        Long detected = message.getHeaders().get(IngestHeaders.DETECTED_NANOS, Long.class);
+        if (detected != null) {
+            recordNanos(PipelineStage.INBOUND_QUEUE, now - detected);
+        }
+        return MessageBuilder.fromMessage(message)
+                .setHeaderIfAbsent(IngestHeaders.FILE_ID, message.getHeaders().getId().toString())
+                .setHeader(IngestHeaders.DISPATCHED_NANOS, now)
+                .build();
+    }
+
+    /**
+     * Called once the {@code IoRateLimiter} lets a dispatched file go; the executor queue is
+     * timed from here, so it does not include the pacing.
+     */
+    public Message<?> markPaced(Message<?> message) {
+        Long dispatched = message.getHeaders().get(IngestHeaders.DISPATCHED_NANOS, Long.class);
+        if (dispatched == null) {
+            return message;
+        }
+        long now = System.nanoTime();
+        recordNanos(PipelineStage.PACING, now - dispatched);
+        return MessageBuilder.fromMessage(message)
+                .setHeader(IngestHeaders.DISPATCHED_NANOS, now)
+                .build();
+    }
+
+    /**
+     * Called on the executor thread before the file fans out to the monitor and pre-process branches.
+     */
+    public Message<?> markExecutorStart(Message<?> message) {
+        Long dispatched = message.getHeaders().get(IngestHeaders.DISPATCHED_NANOS, Long.class);
+        if (dispatched != null) {
+            recordNanos(PipelineStage.EXECUTOR_QUEUE, System.nanoTime() - dispatched);
+        }
+        return message;
+    }
+
+    public synchronized Histogram snapshot(PipelineStage stage) {
+        Histogram interval = recorders.get(stage).getIntervalHistogram(recycled.get(stage));
+        recycled.put(stage, interval);
+        Histogram total = cumulative.get(stage);
+        total.add(interval);
+        return total.copy();
+    }
+
+    public synchronized void reset() {
+        for (PipelineStage stage : PipelineStage.values()) {
+            recorders.get(stage).reset();
+            cumulative.get(stage).reset();
+            counts.get(stage).reset();
+        }
+    }
+
+    public String summary() {
+        StringBuilder summary = new StringBuilder();
+        for (PipelineStage stage : PipelineStage.values()) {
+            Histogram histogram = snapshot(stage);
+            summary.append(String.format("%-22s count=%d p50=%dus p99=%dus p99.9=%dus max=%dus%n",
+                    stage, histogram.getTotalCount(),
+                    histogram.getValueAtPercentile(50),
+                    histogram.getValueAtPercentile(99),
+                    histogram.getValueAtPercentile(99.9),
+                    histogram.getMaxValue()));
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,29 @@
+// PipelineStage.java
+package com.example.integration.latency;
+
+public enum PipelineStage {
+
+    /** File last-modified time until the poller picked it up. Millisecond resolution. */
+    POLL_DELAY,
+
+    /** Waiting in {@code inboundFileChannel} until {@code fileProcessingFlow} took the file. */
+    INBOUND_QUEUE,
+
+    /** Held back by the {@code IoRateLimiter} until every destination had write budget. */
+    PACING,
+
+    /** Waiting in the {@code taskExecutor} queue until a worker thread started the fan-out. */
+    EXECUTOR_QUEUE,
+
+    /** Time spent inside the monitor file handler. */
+    MONITOR_WRITE,
+
+    /** Time spent inside the pre-process file handler. */
+    PRE_PROCESS_WRITE,
+
+    /** Detection until the monitor copy was written. */
+    MONITOR_END_TO_END,
+
+    /** Detection until the pre-process move completed. */
+    PRE_PROCESS_END_TO_END
+}
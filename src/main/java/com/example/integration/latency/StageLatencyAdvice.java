@@ -0,0 +1,48 @@
+// StageLatencyAdvice.java
+package com.example.integration.latency;
+
+import org.springframework.integration.handler.advice.AbstractRequestHandlerAdvice;
+import org.springframework.messaging.Message;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Times a file handler and records both the handler duration and the latency since the file
+ * was detected by the poller. A {@link CompletableFuture} reply is timed until it completes.
+ */
+public class StageLatencyAdvice extends AbstractRequestHandlerAdvice {
+
+    private final PipelineLatencyRecorder recorder;
+    private final PipelineStage handlerStage;
+    private final PipelineStage endToEndStage;
+
+    public StageLatencyAdvice(PipelineLatencyRecorder recorder, PipelineStage handlerStage, PipelineStage endToEndStage) {
+        this.recorder = recorder;
+        this.handlerStage = handlerStage;
+        this.endToEndStage = endToEndStage;
+    }
+
+    @Override
+    protected Object doInvoke(ExecutionCallback callback, Object target, Message<?> message) {
+        long start = System.nanoTime();
+        Object result = callback.execute();
+        if (result instanceof CompletableFuture<?> pending) {
+            return pending.whenComplete((reply, error) -> {
+                if (error == null) {
+                    record(message, start);
+                }
+            });
+        }
+        record(message, start);
+        return result;
+    }
+
+    private void record(Message<?> message, long start) {
+        long end = System.nanoTime();
+        recorder.recordNanos(handlerStage, end - start);
+        Long detected = message.getHeaders().get(IngestHeaders.DETECTED_NANOS, Long.class);
+        if (detected != null) {
+            recorder.recordNanos(endToEndStage, end - detected);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+// ShardedDirectoryLayout.java
+package com.example.integration.layout;
+
+import com.example.integration.latency.IngestHeaders;
+import org.springframework.expression.Expression;
+import org.springframework.integration.expression.FunctionExpression;
+import org.springframework.integration.file.FileNameGenerator;
+import org.springframework.messaging.Message;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which subdirectory of an output root a file is written to, so that no single
+ * directory has to hold millions of entries.
+ *
+ * <ul>
+ * <li>{@link Strategy#FLAT} writes straight into the root, as before.</li>
+ * <li>{@link Strategy#HASH} spreads names over {@code depth} levels of {@code fanOut}
+ * directories each, using a stable 64-bit FNV-1a hash of the file name.</li>
+ * <li>{@link Strategy#DATE} groups files by detection time (UTC) into {@code yyyy-MM-dd},
+ * then hour, then minute directories, up to {@code depth} levels.</li>
+ * </ul>
+ *
+ * Subdirectories are created on first use and remembered, so a write into an existing
+ * shard costs no extra {@code mkdir}.
+ */
+public class ShardedDirectoryLayout {
+
+    public enum Strategy { FLAT, HASH, DATE }
+
+    private static final DateTimeFormatter[] DATE_LEVELS = {
+            DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneOffset.UTC),
+            DateTimeFormatter.ofPattern("HH").withZone(ZoneOffset.UTC),
+            DateTimeFormatter.ofPattern("mm").withZone(ZoneOffset.UTC)
+    };
+
+    private static final int MAX_CACHED_DIRECTORIES = 100_000;
+
+    private final File root;
+    private final Strategy strategy;
+    private final int depth;
+    private final int fanOut;
+    private final String hexFormat;
+    private final Set<String> createdDirectories = ConcurrentHashMap.newKeySet();
+
+    private ShardedDirectoryLayout(File root, Strategy strategy, int depth, int fanOut) {
+        this.root = root;
+        this.strategy = strategy;
+        this.depth = depth;
+        this.fanOut = fanOut;
+        int digits = Math.max(1, (Integer.toHexString(Math.max(fanOut - 1, 1))).length());
+        this.hexFormat = "%0" + digits + "x";
+    }
+
+    public static ShardedDirectoryLayout flat(File root) {
+        return new ShardedDirectoryLayout(root, Strategy.FLAT, 0, 1);
+    }
+
+    /**
+     * @param depth  number of directory levels below the root, at least 1
+     * @param fanOut directories per level, at least 2
+     */
+    public static ShardedDirectoryLayout hashed(File root, int depth, int fanOut) {
+        if (depth < 1 || fanOut < 2) {
+            throw new IllegalArgumentException("Hash sharding needs depth >= 1 and fanOut >= 2");
+        }
+        return new ShardedDirectoryLayout(root, Strategy.HASH, depth, fanOut);
+    }
+
+    /**
+     * @param depth 1 for day, 2 for day/hour, 3 for day/hour/minute
+     */
+    public static ShardedDirectoryLayout dated(File root, int depth) {
+        if (depth < 1 || depth > DATE_LEVELS.length) {
+            throw new IllegalArgumentException("Date sharding depth must be between 1 and " + DATE_LEVELS.length);
+        }
+        return new ShardedDirectoryLayout(root, Strategy.DATE, depth, 1);
+    }
+
+    public File getRoot() {
+        return root;
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    public boolean isFlat() {
+        return strategy == Strategy.FLAT;
+    }
+
+    /**
+     * Where {@code fileName} is (or will be) written. {@code timestampMillis} is only used by
+     * {@link Strategy#DATE} and should be the file's detection time.
+     */
+    public File locate(String fileName, long timestampMillis) {
+        return new File(shardDirectory(fileName, timestampMillis), fileName);
+    }
+
+    /**
+     * Looks up a file that was written without knowing its timestamp. For flat and hashed
+     * layouts this is a single existence check; dated layouts are searched newest shard first.
+     */
+    public Optional<File> find(String fileName) {
+        if (strategy != Strategy.DATE) {
+            File candidate = locate(fileName, 0);
+            return candidate.exists() ? Optional.of(candidate) : Optional.empty();
+        }
+        return findDated(root, 0, fileName);
+    }
+
+    /**
+     * Returns the shard directory for {@code fileName}, creating it if this layout has not done so yet.
+     */
+    public File directoryFor(String fileName, long timestampMillis) {
+        File directory = shardDirectory(fileName, timestampMillis);
+        if (directory != root) {
+            String path = directory.getPath();
+            if (!createdDirectories.contains(path)) {
+                try {
+                    Files.createDirectories(directory.toPath());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not create shard directory " + directory, e);
+                }
+                if (createdDirectories.size() >= MAX_CACHED_DIRECTORIES) {
+                    createdDirectories.clear();
+                }
+                createdDirectories.add(path);
+            }
+        }
+        return directory;
+    }
+
+    /**
+     * Destination directory expression for a {@code FileWritingMessageHandler}. The shard is
+     * chosen from the name {@code fileNameGenerator} gives the output file, so
+     * {@link #locate} and {@link #find} work with the names found on disk.
+     */
+    public Expression directoryExpression(FileNameGenerator fileNameGenerator) {
+        return new FunctionExpression<Message<?>>(message -> {
+            Long detectedAt = message.getHeaders().get(IngestHeaders.DETECTED_AT, Long.class);
+            long timestamp = detectedAt != null ? detectedAt : System.currentTimeMillis();
+            return directoryFor(fileNameGenerator.generateFileName(message), timestamp);
+        });
+    }
+
+    int cachedDirectoryCount() {
+        return createdDirectories.size();
+    }
+
+    private File shardDirectory(String fileName, long timestampMillis) {
+        switch (strategy) {
+            case HASH -> {
+                long hash = fnv1a64(fileName);
+                File directory = root;
+                for (int level = 0; level < depth; level++) {
+                    directory = new File(directory, String.format(hexFormat, Long.remainderUnsigned(hash, fanOut)));
+                    hash = Long.divideUnsigned(hash, fanOut);
+                }
+                return directory;
+            }
+            case DATE -> {
+                Instant instant = Instant.ofEpochMilli(timestampMillis);
+                File directory = root;
+                for (int level = 0; level < depth; level++) {
+                    directory = new File(directory, DATE_LEVELS[level].format(instant));
+                }
+                return directory;
+            }
+            default -> {
+                return root;
+            }
+        }
+    }
+
+    private Optional<File> findDated(File directory, int level, String fileName) {
+        if (level == depth) {
+            File candidate = new File(directory, fileName);
+            return candidate.exists() ? Optional.of(candidate) : Optional.empty();
+        }
+        File[] children = directory.listFiles(File::isDirectory);
+        if (children == null) {
+            return Optional.empty();
+        }
+        Arrays.sort(children, Comparator.comparing(File::getName).reversed());
+        for (File child : children) {
+            Optional<File> found = findDated(child, level + 1, fileName);
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static long fnv1a64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,178 @@
+// ArrivalWatcher.java
+package com.example.integration.loadgen;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the {@code monitor} and {@code pre-process} directories for the files written by
+ * {@link LoadGenerator} and records, per file, how long each branch took to deliver it.
+ * Latencies are recorded in microseconds.
+ */
+public class ArrivalWatcher implements AutoCloseable {
+
+    static final String MONITOR_PREFIX = "monitor_";
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private final Path monitorDirectory;
+    private final Path preProcessDirectory;
+    private final WatchService watchService;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    private final Histogram monitorLatency = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Histogram preProcessLatency = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Histogram endToEndLatency = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+    private final Thread watcherThread;
+    private volatile boolean running = true;
+
+    public ArrivalWatcher(Path monitorDirectory, Path preProcessDirectory) throws IOException {
+        this.monitorDirectory = Files.createDirectories(monitorDirectory);
+        this.preProcessDirectory = Files.createDirectories(preProcessDirectory);
+        this.watchService = monitorDirectory.getFileSystem().newWatchService();
+        monitorDirectory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+        preProcessDirectory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+        this.watcherThread = new Thread(this::watch, "loadgen-arrival-watcher");
+        this.watcherThread.setDaemon(true);
+        this.watcherThread.start();
+    }
+
+    /**
+     * Registers a file name before it becomes visible in the input directory.
+     */
+    public void expect(String fileName) {
+        pending.put(fileName, new Pending());
+    }
+
+    /**
+     * Marks the moment the file became visible to the poller; latencies are measured from here.
+     */
+    public void submitted(String fileName, long nanoTime) {
+        Pending entry = pending.get(fileName);
+        if (entry != null) {
+            entry.submittedNanos = nanoTime;
+        }
+    }
+
+    public int outstanding() {
+        return pending.size();
+    }
+
+    public boolean awaitDrained(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!pending.isEmpty()) {
+            if (System.nanoTime() >= deadline) {
+                rescan();
+                return pending.isEmpty();
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    public synchronized Histogram getMonitorLatency() {
+        return monitorLatency.copy();
+    }
+
+    public synchronized Histogram getPreProcessLatency() {
+        return preProcessLatency.copy();
+    }
+
+    public synchronized Histogram getEndToEndLatency() {
+        return endToEndLatency.copy();
+    }
+
+    private void watch() {
+        while (running) {
+            WatchKey key;
+            try {
+                key = watchService.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            if (key == null) {
+                continue;
+            }
+            long now = System.nanoTime();
+            boolean monitor = monitorDirectory.equals(key.watchable());
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    rescan();
+                } else {
+                    arrived(((Path) event.context()).getFileName().toString(), monitor, now);
+                }
+            }
+            key.reset();
+        }
+    }
+
+    // The watch queue overflows under heavy bursts; fall back to checking each pending file.
+    private void rescan() {
+        long now = System.nanoTime();
+        for (String name : pending.keySet()) {
+            if (Files.exists(monitorDirectory.resolve(MONITOR_PREFIX + name))) {
+                arrived(MONITOR_PREFIX + name, true, now);
+            }
+            if (Files.exists(preProcessDirectory.resolve(name))) {
+                arrived(name, false, now);
+            }
+        }
+    }
+
+    private void arrived(String name, boolean monitor, long now) {
+        String original = monitor && name.startsWith(MONITOR_PREFIX) ? name.substring(MONITOR_PREFIX.length()) : name;
+        Pending entry = pending.get(original);
+        if (entry == null || entry.submittedNanos == 0) {
+            return;
+        }
+        synchronized (this) {
+            if (monitor && entry.monitorNanos == 0) {
+                entry.monitorNanos = now;
+                record(monitorLatency, now - entry.submittedNanos);
+            } else if (!monitor && entry.preProcessNanos == 0) {
+                entry.preProcessNanos = now;
+                record(preProcessLatency, now - entry.submittedNanos);
+            }
+            if (entry.monitorNanos != 0 && entry.preProcessNanos != 0) {
+                record(endToEndLatency, Math.max(entry.monitorNanos, entry.preProcessNanos) - entry.submittedNanos);
+                pending.remove(original);
+            }
+        }
+    }
+
+    private static void record(Histogram histogram, long nanos) {
+        histogram.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos))));
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            watchService.close();
+            watcherThread.join(1000);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Pending {
+        volatile long submittedNanos;
+        long monitorNanos;
+        long preProcessNanos;
+    }
+}
@@ -0,0 +1,163 @@
+// LoadGenerator.java
+package com.example.integration.loadgen;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stress rig for {@code FlowConfig}: writes files into the input directory at a configured
+ * rate, size distribution and burst pattern, then reports how long the monitor copy, the
+ * pre-process move and both together took to show up.
+ *
+ * <p>Run it next to a live application, for example
+ * {@code java -cp target/classes:<dependencies> com.example.integration.loadgen.LoadGenerator --files=5000 --rate=200}.
+ * See {@link LoadProfile#fromArgs(String[])} for the available options.
+ */
+public class LoadGenerator {
+
+    private static final int CONTENT_BLOCK_SIZE = 1 << 20;
+
+    private final LoadProfile profile;
+    private final ArrivalWatcher watcher;
+    private final byte[] contentBlock = contentBlock();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private long bytesWritten;
+    private long filesWritten;
+
+    public LoadGenerator(LoadProfile profile, ArrivalWatcher watcher) {
+        this.profile = profile;
+        this.watcher = watcher;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadProfile profile = LoadProfile.fromArgs(args);
+        try (ArrivalWatcher watcher = new ArrivalWatcher(profile.monitorDirectory(), profile.preProcessDirectory())) {
+            LoadGenerator generator = new LoadGenerator(profile, watcher);
+            long started = System.nanoTime();
+            generator.run();
+            long writeNanos = System.nanoTime() - started;
+            boolean drained = watcher.awaitDrained(profile.drainTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            generator.report(System.out, writeNanos, drained);
+        }
+    }
+
+    /**
+     * Writes {@link LoadProfile#totalFiles()} files, pacing them to the steady rate and
+     * injecting a burst of {@link LoadProfile#burstSize()} files every burst interval.
+     */
+    public void run() throws IOException {
+        Files.createDirectories(profile.inputDirectory());
+        long period = (long) (TimeUnit.SECONDS.toNanos(1) / profile.filesPerSecond());
+        long burstPeriod = profile.burstInterval().toNanos();
+        long now = System.nanoTime();
+        long nextSteady = now;
+        long nextBurst = profile.burstSize() > 0 ? now + burstPeriod : Long.MAX_VALUE;
+
+        while (filesWritten < profile.totalFiles()) {
+            now = System.nanoTime();
+            if (now >= nextBurst) {
+                long burst = Math.min(profile.burstSize(), profile.totalFiles() - filesWritten);
+                for (long i = 0; i < burst; i++) {
+                    writeNext();
+                }
+                nextBurst += burstPeriod;
+            } else if (now >= nextSteady) {
+                writeNext();
+                nextSteady += period;
+            } else {
+                LockSupport.parkNanos(Math.min(nextSteady, nextBurst) - now);
+            }
+        }
+    }
+
+    public long getFilesWritten() {
+        return filesWritten;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private void writeNext() throws IOException {
+        String name = "loadgen-" + runId + "-" + filesWritten + ".txt";
+        int size = profile.sizeDistribution().nextSize(profile.minSize(), profile.maxSize());
+        Path target = profile.inputDirectory().resolve(name);
+        if (watcher != null) {
+            watcher.expect(name);
+        }
+        if (profile.writeMode() == LoadProfile.WriteMode.ATOMIC_RENAME) {
+            Path temp = profile.inputDirectory().resolve("." + name + ".tmp");
+            writeContent(temp, size);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            if (watcher != null) {
+                watcher.submitted(name, System.nanoTime());
+            }
+        } else {
+            // The poller may see the file before it is complete; that is the point of this mode.
+            if (watcher != null) {
+                watcher.submitted(name, System.nanoTime());
+            }
+            writeContent(target, size);
+        }
+        filesWritten++;
+        bytesWritten += size;
+    }
+
+    private void writeContent(Path path, int size) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            int remaining = size;
+            while (remaining > 0) {
+                int chunk = Math.min(remaining, contentBlock.length);
+                out.write(contentBlock, 0, chunk);
+                remaining -= chunk;
+            }
+        }
+    }
+
+    public void report(PrintStream out, long writeNanos, boolean drained) {
+        double seconds = writeNanos / 1e9;
+        out.printf("Wrote %d files (%d bytes) in %.2f s: %.1f files/s, %.1f MB/s%n",
+                filesWritten, bytesWritten, seconds, filesWritten / seconds, bytesWritten / seconds / (1 << 20));
+        if (!drained) {
+            out.printf("WARNING: %d files had not reached both monitor and pre-process when the drain timeout expired%n",
+                    watcher.outstanding());
+        }
+        printHistogram(out, "monitor", watcher.getMonitorLatency());
+        printHistogram(out, "pre-process", watcher.getPreProcessLatency());
+        printHistogram(out, "end-to-end", watcher.getEndToEndLatency());
+    }
+
+    private static void printHistogram(PrintStream out, String label, Histogram histogram) {
+        out.printf("%-12s count=%d p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms%n",
+                label,
+                histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+        if (histogram.getTotalCount() > 0) {
+            histogram.outputPercentileDistribution(out, 5, 1000.0);
+        }
+    }
+
+    private static byte[] contentBlock() {
+        byte[] block = new byte[CONTENT_BLOCK_SIZE];
+        byte[] line = "loadgen,0123456789,abcdefghijklmnopqrstuvwxyz,ABCDEFGHIJKLMNOPQRSTUVWXYZ\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < block.length; i++) {
+            block[i] = line[i % line.length];
+        }
+        return block;
+    }
+}
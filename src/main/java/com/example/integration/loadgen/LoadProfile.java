@@ -0,0 +1,108 @@
+// LoadProfile.java
+package com.example.integration.loadgen;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Shape of the load written by {@link LoadGenerator}: how many files, how fast,
+ * how big and how they land in the input directory.
+ */
+public record LoadProfile(
+        Path inputDirectory,
+        Path monitorDirectory,
+        Path preProcessDirectory,
+        int totalFiles,
+        double filesPerSecond,
+        int burstSize,
+        Duration burstInterval,
+        SizeDistribution sizeDistribution,
+        int minSize,
+        int maxSize,
+        WriteMode writeMode,
+        Duration drainTimeout) {
+
+    public enum WriteMode {
+        /** Write to a hidden temporary name, then rename into place. */
+        ATOMIC_RENAME,
+        /** Create the final name and write the content into it directly. */
+        IN_PLACE
+    }
+
+    public enum SizeDistribution {
+        /** Every file is {@code maxSize} bytes. */
+        FIXED,
+        /** Sizes spread evenly between {@code minSize} and {@code maxSize}. */
+        UNIFORM,
+        /** Pareto tail: many files near {@code minSize}, a few close to {@code maxSize}. */
+        LONG_TAIL;
+
+        int nextSize(int min, int max) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            return switch (this) {
+                case FIXED -> max;
+                case UNIFORM -> min == max ? min : random.nextInt(min, max + 1);
+                case LONG_TAIL -> {
+                    double pareto = min / Math.pow(1.0 - random.nextDouble(), 1.0 / 1.16);
+                    yield (int) Math.min(max, Math.max(min, pareto));
+                }
+            };
+        }
+    }
+
+    public LoadProfile {
+        if (totalFiles <= 0) {
+            throw new IllegalArgumentException("totalFiles must be positive");
+        }
+        if (filesPerSecond <= 0) {
+            throw new IllegalArgumentException("filesPerSecond must be positive");
+        }
+        if (minSize < 0 || maxSize < minSize) {
+            throw new IllegalArgumentException("size range must satisfy 0 <= minSize <= maxSize");
+        }
+        if (burstSize < 0) {
+            throw new IllegalArgumentException("burstSize must not be negative");
+        }
+    }
+
+    public static LoadProfile defaults() {
+        return fromArgs(new String[0]);
+    }
+
+    /**
+     * Builds a profile from {@code --key=value} arguments, e.g.
+     * {@code --files=10000 --rate=500 --burst=2000 --burst-interval=PT10S --sizes=LONG_TAIL
+     * --min-size=512 --max-size=67108864 --write-mode=IN_PLACE}.
+     */
+    public static LoadProfile fromArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unrecognised argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return new LoadProfile(
+                Paths.get(options.getOrDefault("input-dir", "input-directory")),
+                Paths.get(options.getOrDefault("monitor-dir", "monitor")),
+                Paths.get(options.getOrDefault("pre-process-dir", "pre-process")),
+                Integer.parseInt(options.getOrDefault("files", "1000")),
+                Double.parseDouble(options.getOrDefault("rate", "100")),
+                Integer.parseInt(options.getOrDefault("burst", "0")),
+                Duration.parse(options.getOrDefault("burst-interval", "PT10S")),
+                SizeDistribution.valueOf(options.getOrDefault("sizes", "UNIFORM")),
+                Integer.parseInt(options.getOrDefault("min-size", "1024")),
+                Integer.parseInt(options.getOrDefault("max-size", "65536")),
+                WriteMode.valueOf(options.getOrDefault("write-mode", "ATOMIC_RENAME")),
+                Duration.parse(options.getOrDefault("drain-timeout", "PT60S")));
+    }
+}
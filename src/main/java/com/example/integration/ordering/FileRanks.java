@@ -0,0 +1,169 @@
+// FileRanks.java
+package com.example.integration.ordering;
+
+import org.springframework.integration.file.FileHeaders;
+import org.springframework.messaging.Message;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rank functions for a ranked {@link com.example.integration.queue.ResizableBlockingQueue}
+ * of file messages; lower ranks leave the queue first.
+ *
+ * <p>Every rank is an arrival time in epoch milliseconds, moved earlier or later by at most
+ * {@code maxAdvance}. A file can therefore overtake files that arrived up to
+ * {@code maxAdvance} before it, but never older ones, so nothing is starved however much
+ * favoured work keeps arriving.
+ *
+ * <p>The {@code Comparator<File>} variants apply the same orderings to the files a
+ * {@code FileReadingMessageSource} has listed but not emitted yet, so a backlog larger than the
+ * queue is taken in order too. There the file's last-modified time stands in for its arrival
+ * time. Each file's rank is computed once, when the source queues it, and kept while the file
+ * waits, so the source's queue never reorders on a changed file or stats on every comparison;
+ * equal ranks go by path.
+ */
+public final class FileRanks {
+
+    private FileRanks() {
+    }
+
+    /**
+     * Oldest last-modified time first, e.g. to work off a backlog in the order it was produced.
+     */
+    public static ToLongFunction<Message<?>> oldestFirst(Duration maxAdvance) {
+        return oldestFirst(maxAdvance, System::currentTimeMillis);
+    }
+
+    static ToLongFunction<Message<?>> oldestFirst(Duration maxAdvance, LongSupplier clock) {
+        long limit = maxAdvance.toMillis();
+        return message -> {
+            long now = clock.getAsLong();
+            long modified = message.getPayload() instanceof File file ? file.lastModified() : 0;
+            return Math.max(modified > 0 ? modified : now, now - limit);
+        };
+    }
+
+    /**
+     * Higher priority first: each priority level is worth {@code step} of waiting time.
+     */
+    public static ToLongFunction<Message<?>> byPriority(ToIntFunction<Message<?>> priority, Duration step,
+                                                        Duration maxAdvance) {
+        return byPriority(priority, step, maxAdvance, System::currentTimeMillis);
+    }
+
+    static ToLongFunction<Message<?>> byPriority(ToIntFunction<Message<?>> priority, Duration step,
+                                                 Duration maxAdvance, LongSupplier clock) {
+        long stepMillis = step.toMillis();
+        long limit = maxAdvance.toMillis();
+        return message -> clock.getAsLong() - clamp(priority.applyAsInt(message) * stepMillis, limit);
+    }
+
+    /**
+     * Smaller files first: each {@code bytesPerStep} of size costs {@code step} of waiting time.
+     */
+    public static ToLongFunction<Message<?>> smallestFirst(long bytesPerStep, Duration step, Duration maxAdvance) {
+        return smallestFirst(bytesPerStep, step, maxAdvance, System::currentTimeMillis);
+    }
+
+    static ToLongFunction<Message<?>> smallestFirst(long bytesPerStep, Duration step, Duration maxAdvance,
+                                                    LongSupplier clock) {
+        long stepMillis = step.toMillis();
+        long limit = maxAdvance.toMillis();
+        return message -> clock.getAsLong() + sizeDelay(sizeOf(message), bytesPerStep, stepMillis, limit);
+    }
+
+    public static Comparator<File> oldestFilesFirst() {
+        return byArrival(file -> 0);
+    }
+
+    public static Comparator<File> filesByPriority(ToIntFunction<File> priority, Duration step, Duration maxAdvance) {
+        long stepMillis = step.toMillis();
+        long limit = maxAdvance.toMillis();
+        return byArrival(file -> -clamp(priority.applyAsInt(file) * stepMillis, limit));
+    }
+
+    public static Comparator<File> smallestFilesFirst(long bytesPerStep, Duration step, Duration maxAdvance) {
+        long stepMillis = step.toMillis();
+        long limit = maxAdvance.toMillis();
+        return byArrival(file -> sizeDelay(file.length(), bytesPerStep, stepMillis, limit));
+    }
+
+    // Ranks are dropped with the file objects, i.e. once the file has been emitted and processed
+    private static Comparator<File> byArrival(ToLongFunction<File> adjustment) {
+        Map<File, Long> ranks = Collections.synchronizedMap(new WeakHashMap<>());
+        ToLongFunction<File> rank = file -> ranks.computeIfAbsent(file,
+                f -> f.lastModified() + adjustment.applyAsLong(f));
+        return Comparator.comparingLong(rank).thenComparing(Comparator.naturalOrder());
+    }
+
+    private static long sizeDelay(long size, long bytesPerStep, long stepMillis, long limit) {
+        long steps = size / bytesPerStep;
+        // Compared before multiplying, since a huge file could overflow the product
+        return stepMillis == 0 || steps <= limit / stepMillis ? Math.min(limit, steps * stepMillis) : limit;
+    }
+
+    /**
+     * Reads the priority from the first group of {@code pattern}, searched in the file's path
+     * relative to the input directory (or its name), so both {@code report.p7.txt} and
+     * {@code urgent-7/report.txt} can be matched. Files that do not match get {@code defaultPriority}.
+     */
+    public static ToIntFunction<Message<?>> priorityFromPath(Pattern pattern, int defaultPriority) {
+        return message -> priorityOf(pattern, defaultPriority, pathOf(message));
+    }
+
+    /**
+     * As {@link #priorityFromPath(Pattern, int)}, for files below {@code root}.
+     */
+    public static ToIntFunction<File> priorityFromPath(Pattern pattern, int defaultPriority, File root) {
+        Path base = root.toPath().toAbsolutePath();
+        return file -> priorityOf(pattern, defaultPriority,
+                base.relativize(file.toPath().toAbsolutePath()).toString().replace(File.separatorChar, '/'));
+    }
+
+    private static int priorityOf(Pattern pattern, int defaultPriority, String path) {
+        Matcher matcher = pattern.matcher(path);
+        if (!matcher.find()) {
+            return defaultPriority;
+        }
+        try {
+            return Integer.parseInt(matcher.group(1));
+        } catch (NumberFormatException e) {
+            return defaultPriority;
+        }
+    }
+
+    private static String pathOf(Message<?> message) {
+        String relative = message.getHeaders().get(FileHeaders.RELATIVE_PATH, String.class);
+        if (relative != null) {
+            return relative.replace(File.separatorChar, '/');
+        }
+        if (message.getPayload() instanceof File file) {
+            return file.getName();
+        }
+        String name = message.getHeaders().get(FileHeaders.FILENAME, String.class);
+        return name != null ? name : "";
+    }
+
+    private static long sizeOf(Message<?> message) {
+        Object payload = message.getPayload();
+        if (payload instanceof File file) {
+            return file.length();
+        }
+        return payload instanceof byte[] content ? content.length : 0;
+    }
+
+    private static long clamp(long advance, long limit) {
+        return Math.max(-limit, Math.min(limit, advance));
+    }
+}
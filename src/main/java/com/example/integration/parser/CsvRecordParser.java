@@ -0,0 +1,123 @@
+// CsvRecordParser.java
+package com.example.integration.parser;
+
+import java.nio.ByteBuffer;
+
+/**
+ * RFC 4180 style CSV: configurable delimiter, double-quoted fields that may contain the
+ * delimiter, line breaks and doubled quotes, and {@code \n} or {@code \r\n} line endings.
+ * Quoted fields are sliced without their quotes; doubled quotes are only collapsed if the
+ * field is decoded to a {@code String}.
+ */
+public class CsvRecordParser implements RecordParser {
+
+    private static final byte QUOTE = '"';
+
+    private final byte delimiter;
+    private boolean expectHeader;
+    private byte[][] columnNames;
+
+    public CsvRecordParser(char delimiter, boolean hasHeader) {
+        this.delimiter = (byte) delimiter;
+        this.expectHeader = hasHeader;
+    }
+
+    /**
+     * Header column names, once the header has been parsed.
+     */
+    public byte[][] getColumnNames() {
+        return columnNames;
+    }
+
+    @Override
+    public int parse(ByteBuffer buffer, int from, int limit, boolean endOfInput, ParsedRecord record) {
+        record.setEscapeStyle(ParsedRecord.EscapeStyle.CSV);
+        int position = from;
+        if (position < limit && (buffer.get(position) == '\n'
+                || (buffer.get(position) == '\r' && position + 1 < limit && buffer.get(position + 1) == '\n'))) {
+            return buffer.get(position) == '\n' ? position + 1 : position + 2;
+        }
+        while (true) {
+            int start;
+            int end;
+            byte fieldFlags = 0;
+            if (position < limit && buffer.get(position) == QUOTE) {
+                start = ++position;
+                while (true) {
+                    if (position >= limit) {
+                        if (endOfInput) {
+                            throw new RecordFormatException("Unterminated quoted field");
+                        }
+                        return -1;
+                    }
+                    if (buffer.get(position) == QUOTE) {
+                        if (position + 1 < limit && buffer.get(position + 1) == QUOTE) {
+                            fieldFlags = ParsedRecord.ESCAPED;
+                            position += 2;
+                            continue;
+                        }
+                        if (position + 1 >= limit && !endOfInput) {
+                            return -1;
+                        }
+                        break;
+                    }
+                    position++;
+                }
+                end = position++;
+                if (position < limit && buffer.get(position) == '\r') {
+                    position++;
+                }
+                if (position < limit && buffer.get(position) != delimiter && buffer.get(position) != '\n') {
+                    throw new RecordFormatException("Unexpected character after quoted field");
+                }
+            } else {
+                start = position;
+                while (position < limit) {
+                    byte b = buffer.get(position);
+                    if (b == delimiter || b == '\n') {
+                        break;
+                    }
+                    position++;
+                }
+                end = position;
+                if (end > start && buffer.get(end - 1) == '\r' && (position == limit || buffer.get(position) == '\n')) {
+                    end--;
+                }
+            }
+            record.addField(start, end, fieldFlags);
+            if (position >= limit) {
+                if (!endOfInput) {
+                    return -1;
+                }
+                return finish(buffer, record, limit);
+            }
+            if (buffer.get(position) == delimiter) {
+                position++;
+                if (position == limit && endOfInput) {
+                    record.addField(position, position, (byte) 0);
+                    return finish(buffer, record, limit);
+                }
+                continue;
+            }
+            return finish(buffer, record, position + 1);
+        }
+    }
+
+    private int finish(ByteBuffer buffer, ParsedRecord record, int next) {
+        if (expectHeader) {
+            expectHeader = false;
+            byte[][] names = new byte[record.fieldCount()][];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = new byte[record.length(i)];
+                for (int j = 0; j < names[i].length; j++) {
+                    names[i][j] = record.byteAt(i, j);
+                }
+            }
+            columnNames = names;
+            record.reset(buffer, record.getRecordNumber());
+            return next;
+        }
+        record.setColumnNames(columnNames);
+        return next;
+    }
+}
@@ -0,0 +1,150 @@
+// JsonLinesRecordParser.java
+package com.example.integration.parser;
+
+import java.nio.ByteBuffer;
+
+/**
+ * JSON Lines: one object per line. Top-level members become named fields; string values are
+ * sliced without their quotes, and nested objects or arrays are kept as raw text. Escapes
+ * are only resolved if a field is decoded to a {@code String}.
+ */
+public class JsonLinesRecordParser implements RecordParser {
+
+    @Override
+    public int parse(ByteBuffer buffer, int from, int limit, boolean endOfInput, ParsedRecord record) {
+        record.setEscapeStyle(ParsedRecord.EscapeStyle.JSON);
+        int lineEnd = from;
+        while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+            lineEnd++;
+        }
+        if (lineEnd == limit && !endOfInput) {
+            return -1;
+        }
+        int next = lineEnd < limit ? lineEnd + 1 : limit;
+
+        int position = skipWhitespace(buffer, from, lineEnd);
+        if (position == lineEnd) {
+            return next;
+        }
+        expect(buffer, position++, lineEnd, '{');
+        position = skipWhitespace(buffer, position, lineEnd);
+        if (position < lineEnd && buffer.get(position) == '}') {
+            position++;
+        } else {
+            while (true) {
+                expect(buffer, position, lineEnd, '"');
+                int nameStart = position + 1;
+                int nameEnd = endOfString(buffer, nameStart, lineEnd);
+                position = skipWhitespace(buffer, nameEnd + 1, lineEnd);
+                expect(buffer, position, lineEnd, ':');
+                position = skipWhitespace(buffer, position + 1, lineEnd);
+                if (position >= lineEnd) {
+                    throw new RecordFormatException("Missing value for member");
+                }
+                byte first = buffer.get(position);
+                int valueStart;
+                int valueEnd;
+                byte fieldFlags = 0;
+                if (first == '"') {
+                    valueStart = position + 1;
+                    valueEnd = endOfString(buffer, valueStart, lineEnd);
+                    if (hasBackslash(buffer, valueStart, valueEnd)) {
+                        fieldFlags = ParsedRecord.ESCAPED;
+                    }
+                    position = valueEnd + 1;
+                } else if (first == '{' || first == '[') {
+                    valueStart = position;
+                    position = endOfNested(buffer, position, lineEnd);
+                    valueEnd = position;
+                    fieldFlags = ParsedRecord.RAW;
+                } else {
+                    valueStart = position;
+                    while (position < lineEnd) {
+                        byte b = buffer.get(position);
+                        if (b == ',' || b == '}' || b == ' ' || b == '\t' || b == '\r') {
+                            break;
+                        }
+                        position++;
+                    }
+                    valueEnd = position;
+                    if (valueEnd == valueStart) {
+                        throw new RecordFormatException("Missing value for member");
+                    }
+                    if (valueEnd - valueStart == 4 && buffer.get(valueStart) == 'n') {
+                        fieldFlags = ParsedRecord.NULL;
+                    }
+                }
+                record.addNamedField(nameStart, nameEnd, valueStart, valueEnd, fieldFlags);
+                position = skipWhitespace(buffer, position, lineEnd);
+                if (position < lineEnd && buffer.get(position) == ',') {
+                    position = skipWhitespace(buffer, position + 1, lineEnd);
+                    continue;
+                }
+                expect(buffer, position++, lineEnd, '}');
+                break;
+            }
+        }
+        if (skipWhitespace(buffer, position, lineEnd) != lineEnd) {
+            throw new RecordFormatException("Trailing characters after object");
+        }
+        return next;
+    }
+
+    private static int endOfString(ByteBuffer buffer, int position, int limit) {
+        while (position < limit) {
+            byte b = buffer.get(position);
+            if (b == '\\') {
+                position += 2;
+            } else if (b == '"') {
+                return position;
+            } else {
+                position++;
+            }
+        }
+        throw new RecordFormatException("Unterminated string");
+    }
+
+    private static int endOfNested(ByteBuffer buffer, int position, int limit) {
+        int depth = 0;
+        while (position < limit) {
+            byte b = buffer.get(position);
+            if (b == '"') {
+                position = endOfString(buffer, position + 1, limit);
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                if (--depth == 0) {
+                    return position + 1;
+                }
+            }
+            position++;
+        }
+        throw new RecordFormatException("Unterminated nested value");
+    }
+
+    private static boolean hasBackslash(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int skipWhitespace(ByteBuffer buffer, int position, int limit) {
+        while (position < limit) {
+            byte b = buffer.get(position);
+            if (b != ' ' && b != '\t' && b != '\r') {
+                break;
+            }
+            position++;
+        }
+        return position;
+    }
+
+    private static void expect(ByteBuffer buffer, int position, int limit, char expected) {
+        if (position >= limit || buffer.get(position) != expected) {
+            throw new RecordFormatException("Expected '" + expected + "' at offset " + position);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+// ParsedRecord.java
+package com.example.integration.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * One record as a set of byte ranges into the buffer it was parsed from. Instances are
+ * reused for every record a parser produces, so nothing is allocated per field unless a
+ * caller asks for a {@code String}; values are only valid until the batch handler returns.
+ */
+public final class ParsedRecord {
+
+    static final byte ESCAPED = 1;
+    static final byte NULL = 2;
+    static final byte RAW = 4;
+
+    private ByteBuffer buffer;
+    private long recordNumber;
+    private int count;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private byte[] flags = new byte[16];
+    private int[] nameStarts = new int[16];
+    private int[] nameEnds = new int[16];
+    private boolean namedInline;
+    private byte[][] columnNames;
+    private EscapeStyle escapeStyle = EscapeStyle.CSV;
+
+    enum EscapeStyle { CSV, JSON }
+
+    void reset(ByteBuffer buffer, long recordNumber) {
+        this.buffer = buffer;
+        this.recordNumber = recordNumber;
+        this.count = 0;
+        this.namedInline = false;
+        this.columnNames = null;
+    }
+
+    void addField(int start, int end, byte fieldFlags) {
+        if (count == starts.length) {
+            int capacity = count * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+            nameStarts = Arrays.copyOf(nameStarts, capacity);
+            nameEnds = Arrays.copyOf(nameEnds, capacity);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        flags[count] = fieldFlags;
+        count++;
+    }
+
+    void addNamedField(int nameStart, int nameEnd, int start, int end, byte fieldFlags) {
+        addField(start, end, fieldFlags);
+        nameStarts[count - 1] = nameStart;
+        nameEnds[count - 1] = nameEnd;
+        namedInline = true;
+    }
+
+    void setColumnNames(byte[][] columnNames) {
+        this.columnNames = columnNames;
+    }
+
+    void setEscapeStyle(EscapeStyle escapeStyle) {
+        this.escapeStyle = escapeStyle;
+    }
+
+    /**
+     * 1-based position of the record in its input, counting skipped and malformed records.
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    public int fieldCount() {
+        return count;
+    }
+
+    public int length(int field) {
+        check(field);
+        return ends[field] - starts[field];
+    }
+
+    public byte byteAt(int field, int index) {
+        check(field);
+        return buffer.get(starts[field] + index);
+    }
+
+    public boolean isEmpty(int field) {
+        return length(field) == 0;
+    }
+
+    /**
+     * True for a JSON {@code null}.
+     */
+    public boolean isNull(int field) {
+        check(field);
+        return (flags[field] & NULL) != 0;
+    }
+
+    /**
+     * True for a JSON object or array value, which is kept as its unparsed text.
+     */
+    public boolean isRaw(int field) {
+        check(field);
+        return (flags[field] & RAW) != 0;
+    }
+
+    /**
+     * Index of the field called {@code name} (JSON key or CSV header column), or -1.
+     */
+    public int indexOf(byte[] name) {
+        if (namedInline) {
+            for (int i = 0; i < count; i++) {
+                if (rangeEquals(nameStarts[i], nameEnds[i], name)) {
+                    return i;
+                }
+            }
+        } else if (columnNames != null) {
+            for (int i = 0; i < columnNames.length && i < count; i++) {
+                if (Arrays.equals(columnNames[i], name)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    public int indexOf(String name) {
+        return indexOf(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Compares the raw field bytes with {@code value} without decoding.
+     */
+    public boolean fieldEquals(int field, byte[] value) {
+        check(field);
+        return rangeEquals(starts[field], ends[field], value);
+    }
+
+    /**
+     * Parses a decimal integer straight from the field bytes.
+     *
+     * @throws NumberFormatException if the field is not a valid {@code long}
+     */
+    public long getLong(int field) {
+        check(field);
+        int position = starts[field];
+        int end = ends[field];
+        if (position == end) {
+            throw new NumberFormatException("Empty field " + field);
+        }
+        boolean negative = buffer.get(position) == '-';
+        if (negative || buffer.get(position) == '+') {
+            position++;
+        }
+        if (position == end) {
+            throw new NumberFormatException("No digits in field " + field);
+        }
+        long value = 0;
+        for (; position < end; position++) {
+            int digit = buffer.get(position) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Not a number: " + getString(field));
+            }
+            if (value < (Long.MIN_VALUE + digit) / 10) {
+                throw new NumberFormatException("Out of range: " + getString(field));
+            }
+            value = value * 10 - digit;
+        }
+        if (!negative) {
+            if (value == Long.MIN_VALUE) {
+                throw new NumberFormatException("Out of range: " + getString(field));
+            }
+            value = -value;
+        }
+        return value;
+    }
+
+    /**
+     * Decodes the field; this allocates, so prefer the byte-level accessors on hot paths.
+     */
+    public double getDouble(int field) {
+        return Double.parseDouble(getString(field));
+    }
+
+    /**
+     * Decodes the field to a {@code String}, undoing CSV quote doubling or JSON escapes.
+     */
+    public String getString(int field) {
+        check(field);
+        if (isNull(field)) {
+            return null;
+        }
+        String text = decode(starts[field], ends[field]);
+        if ((flags[field] & ESCAPED) == 0) {
+            return text;
+        }
+        return escapeStyle == EscapeStyle.CSV ? text.replace("\"\"", "\"") : unescapeJson(text);
+    }
+
+    public String getName(int field) {
+        check(field);
+        if (namedInline) {
+            return unescapeJson(decode(nameStarts[field], nameEnds[field]));
+        }
+        return columnNames != null && field < columnNames.length
+                ? new String(columnNames[field], StandardCharsets.UTF_8) : null;
+    }
+
+    private String decode(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean rangeEquals(int start, int end, byte[] value) {
+        if (end - start != value.length) {
+            return false;
+        }
+        for (int i = 0; i < value.length; i++) {
+            if (buffer.get(start + i) != value[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void check(int field) {
+        if (field < 0 || field >= count) {
+            throw new IndexOutOfBoundsException("Field " + field + " of " + count);
+        }
+    }
+
+    private static String unescapeJson(String text) {
+        if (text.indexOf('\\') < 0) {
+            return text;
+        }
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '\\' || i + 1 == text.length()) {
+                result.append(c);
+                continue;
+            }
+            char escaped = text.charAt(++i);
+            switch (escaped) {
+                case 'b' -> result.append('\b');
+                case 'f' -> result.append('\f');
+                case 'n' -> result.append('\n');
+                case 'r' -> result.append('\r');
+                case 't' -> result.append('\t');
+                case 'u' -> {
+                    result.append((char) Integer.parseInt(text.substring(i + 1, i + 5), 16));
+                    i += 4;
+                }
+                default -> result.append(escaped);
+            }
+        }
+        return result.toString();
+    }
+}
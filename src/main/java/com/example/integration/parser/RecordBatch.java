@@ -0,0 +1,48 @@
+// RecordBatch.java
+package com.example.integration.parser;
+
+/**
+ * Fixed set of reused {@link ParsedRecord}s handed to a {@link RecordBatchHandler}.
+ */
+public final class RecordBatch {
+
+    private final ParsedRecord[] records;
+    private int size;
+
+    RecordBatch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        records = new ParsedRecord[capacity];
+        for (int i = 0; i < capacity; i++) {
+            records[i] = new ParsedRecord();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public ParsedRecord get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + size);
+        }
+        return records[index];
+    }
+
+    boolean isFull() {
+        return size == records.length;
+    }
+
+    ParsedRecord next() {
+        return records[size++];
+    }
+
+    void discardLast() {
+        size--;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
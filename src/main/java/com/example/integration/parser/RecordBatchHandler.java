@@ -0,0 +1,12 @@
+// RecordBatchHandler.java
+package com.example.integration.parser;
+
+/**
+ * Consumer of parsed records. The batch and its records are reused as soon as the call
+ * returns, so anything that must outlive it has to be copied out.
+ */
+@FunctionalInterface
+public interface RecordBatchHandler {
+
+    void onBatch(RecordBatch batch);
+}
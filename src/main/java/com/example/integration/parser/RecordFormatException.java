@@ -0,0 +1,13 @@
+// RecordFormatException.java
+package com.example.integration.parser;
+
+/**
+ * Thrown by a {@link RecordParser} for input it cannot parse; the stream parser counts it
+ * and resumes at the next line.
+ */
+public class RecordFormatException extends RuntimeException {
+
+    public RecordFormatException(String message) {
+        super(message);
+    }
+}
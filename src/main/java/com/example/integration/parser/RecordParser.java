@@ -0,0 +1,25 @@
+// RecordParser.java
+package com.example.integration.parser;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Format-specific part of the parsing stage. Implementations find the end of one record and
+ * record its field boundaries in a reused {@link ParsedRecord}, reading the buffer with
+ * absolute gets only. A parser instance holds per-input state (such as a CSV header) and is
+ * used for a single input.
+ */
+public interface RecordParser {
+
+    /**
+     * Parses the record starting at {@code from}.
+     *
+     * @param limit      end of the readable bytes
+     * @param endOfInput whether nothing follows {@code limit}; otherwise a record that runs
+     *                   up to {@code limit} is incomplete
+     * @return the position after the record and its terminator, or -1 if the record is
+     * incomplete. A record left with no fields (blank line, header) is skipped.
+     * @throws RecordFormatException for malformed input
+     */
+    int parse(ByteBuffer buffer, int from, int limit, boolean endOfInput, ParsedRecord record);
+}
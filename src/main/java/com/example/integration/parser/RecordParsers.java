@@ -0,0 +1,37 @@
+// RecordParsers.java
+package com.example.integration.parser;
+
+import com.example.integration.content.FileContent;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+/**
+ * Picks a parser for a file: by extension for {@code .jsonl}/{@code .ndjson}/{@code .csv},
+ * otherwise by sniffing the first non-blank byte ({@code '{'} means JSON Lines, anything
+ * else CSV with a header line).
+ */
+public final class RecordParsers {
+
+    private RecordParsers() {
+    }
+
+    public static RecordParser forFile(File file, FileContent content) {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return new JsonLinesRecordParser();
+        }
+        if (name.endsWith(".csv")) {
+            return new CsvRecordParser(',', true);
+        }
+        ByteBuffer head = content.head(256);
+        for (int i = 0; i < head.limit(); i++) {
+            byte b = head.get(i);
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                return b == '{' ? new JsonLinesRecordParser() : new CsvRecordParser(',', true);
+            }
+        }
+        return new CsvRecordParser(',', true);
+    }
+}
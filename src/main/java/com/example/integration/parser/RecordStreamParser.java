@@ -0,0 +1,201 @@
+// RecordStreamParser.java
+package com.example.integration.parser;
+
+import com.example.integration.content.FileContent;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Drives a {@link RecordParser} over an input and hands records to a
+ * {@link RecordBatchHandler} in batches of reused {@link ParsedRecord}s.
+ *
+ * <p>Records are parsed in place from each {@link FileContent} window. A record that
+ * straddles two windows is the only thing ever copied: its bytes go to a small carry buffer
+ * and it is parsed from there. Pending batches are always handed over before the parser
+ * moves to the next window, so reused records only ever point into the current one.
+ */
+public final class RecordStreamParser {
+
+    private final RecordParser parser;
+    private final RecordBatch batch;
+    private RecordBatchHandler handler;
+    private ByteBuffer carry = ByteBuffer.allocate(4096);
+    private boolean skippingMalformedLine;
+
+    private long recordNumber;
+    private long records;
+    private long errors;
+    private long batches;
+    private long bytes;
+
+    public RecordStreamParser(RecordParser parser, int batchSize) {
+        this.parser = parser;
+        this.batch = new RecordBatch(batchSize);
+    }
+
+    public ParseResult parse(FileContent content, RecordBatchHandler handler) {
+        long start = System.nanoTime();
+        this.handler = handler;
+        long size = content.size();
+        content.forEachWindow((position, window) -> {
+            parseWindow(window, position + window.limit() >= size);
+            return true;
+        });
+        return result(start);
+    }
+
+    public ParseResult parse(ByteBuffer input, RecordBatchHandler handler) {
+        long start = System.nanoTime();
+        this.handler = handler;
+        parseWindow(input, true);
+        return result(start);
+    }
+
+    private void parseWindow(ByteBuffer window, boolean last) {
+        int limit = window.limit();
+        bytes += limit;
+        int position = 0;
+        if (skippingMalformedLine) {
+            position = nextLine(window, 0, limit);
+            if (position < 0) {
+                return;
+            }
+            skippingMalformedLine = false;
+        } else if (carry.position() > 0) {
+            position = completeCarry(window, last);
+        }
+        while (position < limit) {
+            ParsedRecord record = batch.next();
+            record.reset(window, ++recordNumber);
+            int next;
+            try {
+                next = parser.parse(window, position, limit, last, record);
+            } catch (RecordFormatException e) {
+                batch.discardLast();
+                errors++;
+                next = nextLine(window, position, limit);
+                if (next < 0) {
+                    skippingMalformedLine = !last;
+                    break;
+                }
+                position = next;
+                continue;
+            }
+            if (next < 0) {
+                batch.discardLast();
+                recordNumber--;
+                if (last) {
+                    errors++;
+                    break;
+                }
+                flush();
+                appendToCarry(window, position, limit);
+                return;
+            }
+            accept(record);
+            position = next;
+        }
+        flush();
+    }
+
+    /**
+     * Feeds the start of {@code window} into the carried partial record one line at a time
+     * until it parses.
+     *
+     * @return where parsing of the window continues
+     */
+    private int completeCarry(ByteBuffer window, boolean last) {
+        int limit = window.limit();
+        int from = 0;
+        while (true) {
+            int take = nextLine(window, from, limit);
+            if (take < 0) {
+                take = limit;
+            }
+            appendToCarry(window, from, take);
+            boolean carryLast = last && take == limit;
+            ParsedRecord record = batch.next();
+            record.reset(carry, ++recordNumber);
+            int next;
+            try {
+                next = parser.parse(carry, 0, carry.position(), carryLast, record);
+            } catch (RecordFormatException e) {
+                batch.discardLast();
+                errors++;
+                carry.clear();
+                skippingMalformedLine = take == limit && !last && (take == 0 || window.get(take - 1) != '\n');
+                return take;
+            }
+            if (next < 0) {
+                batch.discardLast();
+                recordNumber--;
+                if (take == limit) {
+                    if (last) {
+                        errors++;
+                        carry.clear();
+                    }
+                    return limit;
+                }
+                from = take;
+                continue;
+            }
+            accept(record);
+            // The carry stays referenced by the batch until the next flush
+            carry.clear();
+            return take;
+        }
+    }
+
+    private void accept(ParsedRecord record) {
+        if (record.fieldCount() == 0) {
+            batch.discardLast();
+            return;
+        }
+        records++;
+        if (batch.isFull()) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (batch.size() > 0) {
+            handler.onBatch(batch);
+            batches++;
+            batch.clear();
+        }
+    }
+
+    private void appendToCarry(ByteBuffer source, int from, int to) {
+        int length = to - from;
+        if (carry.remaining() < length) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(carry.capacity() * 2, carry.position() + length));
+            larger.put(carry.flip());
+            carry = larger;
+        }
+        carry.put(carry.position(), source, from, length);
+        carry.position(carry.position() + length);
+    }
+
+    private static int nextLine(ByteBuffer buffer, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private ParseResult result(long startNanos) {
+        return new ParseResult(records, errors, batches, bytes, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Totals for everything parsed by this instance so far.
+     */
+    public record ParseResult(long records, long errors, long batches, long bytes, long elapsedNanos) {
+
+        public double megabytesPerSecond() {
+            return elapsedNanos == 0 ? 0 : bytes / 1e6 / (elapsedNanos / 1e9);
+        }
+    }
+}
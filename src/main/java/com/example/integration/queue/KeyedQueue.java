@@ -0,0 +1,34 @@
+// KeyedQueue.java
+package com.example.integration.queue;
+
+import java.util.AbstractQueue;
+import java.util.function.ToLongFunction;
+
+/**
+ * Unsynchronized element store for {@link ResizableBlockingQueue} that orders elements by a
+ * key computed once per element. The blocking queue computes the key before taking its lock,
+ * so the key function may involve I/O such as a file stat; the store itself is only ever
+ * accessed under that lock.
+ */
+public abstract class KeyedQueue<E> extends AbstractQueue<E> {
+
+    private final ToLongFunction<? super E> key;
+
+    protected KeyedQueue(ToLongFunction<? super E> key) {
+        this.key = key;
+    }
+
+    public long keyOf(E e) {
+        return key.applyAsLong(e);
+    }
+
+    @Override
+    public boolean offer(E e) {
+        return offer(e, keyOf(e));
+    }
+
+    /**
+     * @param key the element's key, as returned by {@link #keyOf}
+     */
+    public abstract boolean offer(E e, long key);
+}
@@ -0,0 +1,396 @@
+// ResizableBlockingQueue.java
+package com.example.integration.queue;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded {@link BlockingQueue} whose capacity can be changed while it is in use.
+ * Lowering the capacity below the current size never drops elements; producers simply block
+ * (or {@code offer} fails) until consumers have drained the queue below the new limit.
+ * Raising it wakes blocked producers immediately.
+ *
+ * <p>Elements are FIFO unless a rank function is given, in which case the lowest rank is
+ * taken first and equal ranks stay FIFO. The rank is computed once per element, before the
+ * lock is taken, so it may involve I/O such as a file stat; insertion and removal are then
+ * O(log n). Other orderings plug in as a {@link KeyedQueue}.
+ */
+public class ResizableBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    private final Queue<E> elements;
+    private final KeyedQueue<E> keyed;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private volatile int capacity;
+
+    public ResizableBlockingQueue(int capacity) {
+        this(capacity, (KeyedQueue<E>) null);
+    }
+
+    /**
+     * @param rank orders the elements, lowest first; {@code null} for FIFO
+     */
+    public ResizableBlockingQueue(int capacity, ToLongFunction<? super E> rank) {
+        this(capacity, rank == null ? null : new RankedQueue<>(rank));
+    }
+
+    /**
+     * @param elements stores and orders the elements; {@code null} for FIFO
+     */
+    public ResizableBlockingQueue(int capacity, KeyedQueue<E> elements) {
+        checkCapacity(capacity);
+        this.capacity = capacity;
+        this.keyed = elements;
+        this.elements = elements == null ? new ArrayDeque<>() : elements;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        checkCapacity(capacity);
+        lock.lock();
+        try {
+            this.capacity = capacity;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void checkCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+    }
+
+    @Override
+    public boolean offer(E e) {
+        Objects.requireNonNull(e);
+        long r = rankOf(e);
+        lock.lock();
+        try {
+            if (elements.size() >= capacity) {
+                return false;
+            }
+            enqueue(e, r);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        Objects.requireNonNull(e);
+        long r = rankOf(e);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (elements.size() >= capacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(e, r);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        Objects.requireNonNull(e);
+        long r = rankOf(e);
+        lock.lockInterruptibly();
+        try {
+            while (elements.size() >= capacity) {
+                notFull.await();
+            }
+            enqueue(e, r);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E poll() {
+        lock.lock();
+        try {
+            return elements.isEmpty() ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (elements.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (elements.isEmpty()) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E peek() {
+        lock.lock();
+        try {
+            return elements.peek();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return elements.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return Math.max(0, capacity - elements.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        lock.lock();
+        try {
+            boolean removed = elements.remove(o);
+            if (removed) {
+                notFull.signal();
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        lock.lock();
+        try {
+            return elements.contains(o);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            elements.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        Objects.requireNonNull(c);
+        if (c == this) {
+            throw new IllegalArgumentException("Cannot drain a queue into itself");
+        }
+        lock.lock();
+        try {
+            int drained = 0;
+            while (drained < maxElements && !elements.isEmpty()) {
+                c.add(elements.poll());
+                drained++;
+            }
+            if (drained > 0) {
+                notFull.signalAll();
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Weakly consistent: iterates over a snapshot, in queue order if FIFO and in no particular
+     * order otherwise; {@code remove} removes the element from the queue.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        List<E> snapshot;
+        lock.lock();
+        try {
+            snapshot = new ArrayList<>(elements);
+        } finally {
+            lock.unlock();
+        }
+        Iterator<E> delegate = snapshot.iterator();
+        return new Iterator<>() {
+
+            private E last;
+
+            @Override
+            public boolean hasNext() {
+                return delegate.hasNext();
+            }
+
+            @Override
+            public E next() {
+                last = delegate.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                ResizableBlockingQueue.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    private long rankOf(E e) {
+        return keyed == null ? 0 : keyed.keyOf(e);
+    }
+
+    private void enqueue(E e, long r) {
+        if (keyed != null) {
+            keyed.offer(e, r);
+        } else {
+            elements.offer(e);
+        }
+        notEmpty.signal();
+    }
+
+    private E dequeue() {
+        E e = elements.poll();
+        if (elements.size() < capacity) {
+            notFull.signal();
+        }
+        return e;
+    }
+
+    /**
+     * Unsynchronized binary heap of elements and their insertion-time rank; the sequence
+     * number keeps equal ranks FIFO.
+     */
+    private static final class RankedQueue<E> extends KeyedQueue<E> {
+
+        private final PriorityQueue<Ranked<E>> heap = new PriorityQueue<>();
+        private long sequence;
+
+        RankedQueue(ToLongFunction<? super E> rank) {
+            super(rank);
+        }
+
+        @Override
+        public boolean offer(E e, long r) {
+            return heap.offer(new Ranked<>(e, r, sequence++));
+        }
+
+        @Override
+        public E poll() {
+            Ranked<E> head = heap.poll();
+            return head == null ? null : head.element();
+        }
+
+        @Override
+        public E peek() {
+            Ranked<E> head = heap.peek();
+            return head == null ? null : head.element();
+        }
+
+        @Override
+        public int size() {
+            return heap.size();
+        }
+
+        @Override
+        public void clear() {
+            heap.clear();
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            Iterator<Ranked<E>> delegate = heap.iterator();
+            return new Iterator<>() {
+
+                @Override
+                public boolean hasNext() {
+                    return delegate.hasNext();
+                }
+
+                @Override
+                public E next() {
+                    return delegate.next().element();
+                }
+
+                @Override
+                public void remove() {
+                    delegate.remove();
+                }
+            };
+        }
+    }
+
+    private record Ranked<E>(E element, long rank, long sequence) implements Comparable<Ranked<E>> {
+
+        @Override
+        public int compareTo(Ranked<E> other) {
+            int byRank = Long.compare(rank, other.rank);
+            return byRank != 0 ? byRank : Long.compare(sequence, other.sequence);
+        }
+    }
+}
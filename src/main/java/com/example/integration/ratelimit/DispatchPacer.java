@@ -0,0 +1,59 @@
+// DispatchPacer.java
+package com.example.integration.ratelimit;
+
+import org.springframework.integration.aop.ReceiveMessageAdvice;
+import org.springframework.messaging.Message;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Paces files for every destination at once with a delayer rather than a sleeping thread.
+ * {@link #delayMillis(Message)} is the delayer's delay function and {@link #released(Message)}
+ * goes right after it; in between, the file is held in the delayer's store and released by
+ * its scheduler.
+ *
+ * <p>As a {@link ReceiveMessageAdvice} on the poller in front of the delayer, it skips polls
+ * while {@code maxHeld} files are held, so a full inbound queue still holds the intake back
+ * instead of the backlog moving into the delayer's unbounded store.
+ */
+public class DispatchPacer implements ReceiveMessageAdvice {
+
+    private final IoRateLimiter rateLimiter;
+    private final int maxHeld;
+    private final Set<UUID> held = ConcurrentHashMap.newKeySet();
+
+    public DispatchPacer(IoRateLimiter rateLimiter, int maxHeld) {
+        this.rateLimiter = rateLimiter;
+        this.maxHeld = maxHeld;
+    }
+
+    public long delayMillis(Message<?> message) {
+        long delay = rateLimiter.dispatchDelayMillis(message);
+        if (delay > 0) {
+            held.add(message.getHeaders().getId());
+        }
+        return delay;
+    }
+
+    // The delayer releases the message it was given, id included
+    public Message<?> released(Message<?> message) {
+        held.remove(message.getHeaders().getId());
+        return message;
+    }
+
+    @Override
+    public boolean beforeReceive(Object source) {
+        return held.size() < maxHeld;
+    }
+
+    @Override
+    public Message<?> afterReceive(Message<?> result, Object source) {
+        return result;
+    }
+
+    public int getHeldCount() {
+        return held.size();
+    }
+}
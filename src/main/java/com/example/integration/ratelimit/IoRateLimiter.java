@@ -0,0 +1,149 @@
+// IoRateLimiter.java
+package com.example.integration.ratelimit;
+
+import com.example.integration.completion.Branch;
+import org.springframework.messaging.Message;
+
+import java.io.File;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-destination write pacing for the monitor and pre-process branches. Each destination
+ * has a bytes-per-second and a files-per-second {@link TokenBucket}.
+ *
+ * <p>Where a file's writes run one after the other, each one asks for its own delay with
+ * {@link #delayMillis(Branch, Message)}. Where they run at once, as after the fan-out in
+ * {@code FlowConfig}, the file is paced once for all destinations with
+ * {@link #dispatchDelayMillis(Message)} before it fans out, since the pre-process move
+ * deletes the source the monitor copy reads; the file then waits for the slowest
+ * destination. All limits can be changed at runtime.
+ */
+public class IoRateLimiter {
+
+    private final Map<Branch, Destination> destinations = new EnumMap<>(Branch.class);
+
+    public IoRateLimiter() {
+        for (Branch branch : Branch.values()) {
+            destinations.put(branch, new Destination());
+        }
+    }
+
+    public void setBytesPerSecond(Branch branch, double bytesPerSecond) {
+        destinations.get(branch).bytes.setPermitsPerSecond(bytesPerSecond);
+    }
+
+    public void setFilesPerSecond(Branch branch, double filesPerSecond) {
+        destinations.get(branch).files.setPermitsPerSecond(filesPerSecond);
+    }
+
+    public double getBytesPerSecond(Branch branch) {
+        return destinations.get(branch).bytes.getPermitsPerSecond();
+    }
+
+    public double getFilesPerSecond(Branch branch) {
+        return destinations.get(branch).files.getPermitsPerSecond();
+    }
+
+    /**
+     * Delayer function for a branch flow: reserves capacity for the message and returns the
+     * number of milliseconds to hold it back.
+     */
+    public long delayMillis(Branch branch, Message<?> message) {
+        long bytes = destinations.get(branch).bytes.isUnlimited() ? 0 : payloadBytes(message);
+        return toMillis(reserve(branch, bytes));
+    }
+
+    // Rounded up, so a held message is never released before its budget is there
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos + TimeUnit.MILLISECONDS.toNanos(1) - 1);
+    }
+
+    /**
+     * Delayer function for a file written to every destination at once: reserves capacity on
+     * all of them and returns the number of milliseconds to hold the file back.
+     */
+    public long dispatchDelayMillis(Message<?> message) {
+        return toMillis(reserveAll(bytesLimited() ? payloadBytes(message) : 0));
+    }
+
+    /**
+     * Holds the calling thread until every destination has capacity for the message, which is
+     * then written to all of them at once. Only for a thread that serves a single producer,
+     * such as a network connection, where waiting slows that producer down; shared poller and
+     * scheduler threads use {@link #dispatchDelayMillis(Message)} with a delayer instead. An
+     * interrupt ends the wait early, so the message is not lost on shutdown.
+     */
+    public Message<?> pace(Message<?> message) {
+        long delay = reserveAll(bytesLimited() ? payloadBytes(message) : 0);
+        if (delay > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return message;
+    }
+
+    /**
+     * @return nanoseconds to wait before writing {@code bytes} bytes to every destination
+     */
+    public synchronized long reserveAll(long bytes) {
+        long delay = 0;
+        for (Branch branch : destinations.keySet()) {
+            delay = Math.max(delay, reserve(branch, bytes));
+        }
+        return delay;
+    }
+
+    private boolean bytesLimited() {
+        for (Destination destination : destinations.values()) {
+            if (!destination.bytes.isUnlimited()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long payloadBytes(Message<?> message) {
+        Object payload = message.getPayload();
+        if (payload instanceof File file) {
+            return file.length();
+        }
+        return payload instanceof byte[] data ? data.length : 0;
+    }
+
+    /**
+     * @return nanoseconds to wait before writing {@code bytes} bytes to the branch destination
+     */
+    public synchronized long reserve(Branch branch, long bytes) {
+        Destination destination = destinations.get(branch);
+        long delay = Math.max(destination.files.reserve(1), destination.bytes.reserve(bytes));
+        if (delay > 0) {
+            destination.paced.increment();
+            destination.pacedNanos.add(delay);
+        }
+        return delay;
+    }
+
+    /**
+     * Number of writes to the branch destination that had to be held back.
+     */
+    public long getPacedCount(Branch branch) {
+        return destinations.get(branch).paced.sum();
+    }
+
+    public long getPacedNanos(Branch branch) {
+        return destinations.get(branch).pacedNanos.sum();
+    }
+
+    private static final class Destination {
+        final TokenBucket bytes = TokenBucket.unlimited();
+        final TokenBucket files = TokenBucket.unlimited();
+        final LongAdder paced = new LongAdder();
+        final LongAdder pacedNanos = new LongAdder();
+    }
+}
@@ -0,0 +1,91 @@
+// TokenBucket.java
+package com.example.integration.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reservation-based token bucket (the generic cell rate algorithm). {@link #reserve(long)}
+ * never blocks: it always grants the permits and returns how long the caller should wait
+ * before using them, so the caller decides how to pace.
+ *
+ * <p>A rate of zero or less means unlimited. Rate and burst can be changed at any time.
+ */
+public class TokenBucket {
+
+    private double permitsPerSecond;
+    private double burstSeconds;
+    private long theoreticalArrivalNanos;
+
+    /**
+     * @param permitsPerSecond sustained rate; {@code <= 0} disables the limit
+     * @param burstSeconds     how many seconds worth of permits may be used back to back
+     */
+    public TokenBucket(double permitsPerSecond, double burstSeconds) {
+        setRate(permitsPerSecond, burstSeconds);
+        this.theoreticalArrivalNanos = System.nanoTime();
+    }
+
+    public static TokenBucket unlimited() {
+        return new TokenBucket(0, 1);
+    }
+
+    public synchronized void setRate(double permitsPerSecond, double burstSeconds) {
+        if (burstSeconds < 0) {
+            throw new IllegalArgumentException("burstSeconds must not be negative");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burstSeconds = burstSeconds;
+    }
+
+    public synchronized void setPermitsPerSecond(double permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    public synchronized double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public synchronized boolean isUnlimited() {
+        return permitsPerSecond <= 0;
+    }
+
+    /**
+     * Takes {@code permits} from the bucket, going into debt if necessary.
+     *
+     * @return nanoseconds to wait before the permits may be used; zero if available now
+     */
+    public long reserve(long permits) {
+        return reserve(permits, System.nanoTime());
+    }
+
+    synchronized long reserve(long permits, long now) {
+        if (permitsPerSecond <= 0 || permits <= 0) {
+            return 0;
+        }
+        double nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        long burstNanos = (long) (burstSeconds * TimeUnit.SECONDS.toNanos(1));
+        theoreticalArrivalNanos = Math.max(theoreticalArrivalNanos, now) + (long) (permits * nanosPerPermit);
+        return Math.max(0, theoreticalArrivalNanos - burstNanos - now);
+    }
+
+    /**
+     * Takes the permits only if they are available without waiting.
+     */
+    public boolean tryAcquire(long permits) {
+        return tryAcquire(permits, System.nanoTime());
+    }
+
+    synchronized boolean tryAcquire(long permits, long now) {
+        if (permitsPerSecond <= 0 || permits <= 0) {
+            return true;
+        }
+        double nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        long burstNanos = (long) (burstSeconds * TimeUnit.SECONDS.toNanos(1));
+        long next = Math.max(theoreticalArrivalNanos, now) + (long) (permits * nanosPerPermit);
+        if (next - burstNanos > now) {
+            return false;
+        }
+        theoreticalArrivalNanos = next;
+        return true;
+    }
+}
@@ -0,0 +1,145 @@
+// ReactiveFilePipeline.java
+package com.example.integration.reactive;
+
+import com.example.integration.completion.Branch;
+import com.example.integration.completion.BranchOutcome;
+import com.example.integration.completion.FileCompletionEvent;
+import com.example.integration.latency.IngestHeaders;
+import com.example.integration.latency.PipelineLatencyRecorder;
+import com.example.integration.latency.PipelineStage;
+import com.example.integration.ratelimit.IoRateLimiter;
+import org.springframework.context.Lifecycle;
+import org.springframework.integration.core.MessageSource;
+import org.springframework.integration.file.filters.ResettableFileListFilter;
+import org.springframework.integration.util.IntegrationReactiveUtils;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.context.Context;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Demand-driven version of the file pipeline. The source is only polled when one of the
+ * {@code concurrency} processing slots is free, so ingest runs exactly as fast as the
+ * branches drain it instead of filling queues in front of them.
+ *
+ * <p>Because files are polled while earlier ones are still in flight, the source must be
+ * able to skip them; the {@code inFlightFilter} does that. Each file is copied to monitor and
+ * then moved to pre-process (the move deletes the source, so the copy has to finish first).
+ * Pacing from the {@link IoRateLimiter} is a timer delay rather than a sleeping thread. Every
+ * file produces one {@link FileCompletionEvent}.
+ *
+ * <p>Only the scheduling is non-blocking; the file-system stages block a thread each:
+ * <ul>
+ *   <li>the source's directory scan and stable-file checks, on Reactor's shared
+ *       {@code boundedElastic} scheduler, where {@code messageSourceToFlux} polls;</li>
+ *   <li>the monitor copy with its digest and sidecar, and the pre-process move, on
+ *       {@code ioScheduler}.</li>
+ * </ul>
+ * The JDK's {@link java.nio.channels.AsynchronousFileChannel} could replace the copy's reads
+ * and writes, but on Linux it runs them on a thread pool as well, and listing, attribute
+ * reads, renames and deletes have no asynchronous API at all; the handlers are shared with
+ * {@code FlowConfig}, so they stay blocking and are confined to those schedulers.
+ */
+public class ReactiveFilePipeline {
+
+    private final MessageSource<File> source;
+    private final ResettableFileListFilter<File> inFlightFilter;
+    private final MessageHandler monitorHandler;
+    private final MessageHandler preProcessHandler;
+    private final IoRateLimiter rateLimiter;
+    private final PipelineLatencyRecorder latencyRecorder;
+    private final Scheduler ioScheduler;
+    private final int concurrency;
+    private final Duration idlePollDelay;
+
+    /**
+     * @param inFlightFilter part of the source's filter chain that hides files already being
+     *                       processed; each file is removed from it once both branches are done
+     */
+    public ReactiveFilePipeline(MessageSource<File> source, ResettableFileListFilter<File> inFlightFilter,
+                                MessageHandler monitorHandler, MessageHandler preProcessHandler,
+                                IoRateLimiter rateLimiter, PipelineLatencyRecorder latencyRecorder,
+                                Scheduler ioScheduler, int concurrency, Duration idlePollDelay) {
+        this.source = source;
+        this.inFlightFilter = inFlightFilter;
+        this.monitorHandler = monitorHandler;
+        this.preProcessHandler = preProcessHandler;
+        this.rateLimiter = rateLimiter;
+        this.latencyRecorder = latencyRecorder;
+        this.ioScheduler = ioScheduler;
+        this.concurrency = concurrency;
+        this.idlePollDelay = idlePollDelay;
+    }
+
+    /**
+     * Cold stream of completion events; files are only picked up while it is subscribed.
+     */
+    public Flux<FileCompletionEvent> events() {
+        return Flux.defer(() -> {
+                    if (source instanceof Lifecycle lifecycle && !lifecycle.isRunning()) {
+                        lifecycle.start();
+                    }
+                    return IntegrationReactiveUtils.messageSourceToFlux(source);
+                })
+                .map(latencyRecorder::markDetected)
+                // prefetch 1: request a new file only when a slot frees up
+                .flatMap(this::process, concurrency, 1)
+                .contextWrite(Context.of(IntegrationReactiveUtils.DELAY_WHEN_EMPTY_KEY, idlePollDelay));
+    }
+
+    private Mono<FileCompletionEvent> process(Message<?> message) {
+        return write(Branch.MONITOR, monitorHandler, message)
+                .flatMap(monitor -> write(Branch.PRE_PROCESS, preProcessHandler, message)
+                        .map(preProcess -> completion(message, monitor, preProcess)))
+                .doFinally(signal -> inFlightFilter.remove((File) message.getPayload()));
+    }
+
+    private Mono<BranchOutcome> write(Branch branch, MessageHandler handler, Message<?> message) {
+        long delay = rateLimiter.delayMillis(branch, message);
+        Mono<BranchOutcome> write = Mono.fromCallable(() -> handle(branch, handler, message)).subscribeOn(ioScheduler);
+        return delay > 0 ? Mono.delay(Duration.ofMillis(delay)).then(write) : write;
+    }
+
+    private BranchOutcome handle(Branch branch, MessageHandler handler, Message<?> message) {
+        File file = (File) message.getPayload();
+        long bytes = file.length();
+        long start = System.nanoTime();
+        String error = null;
+        try {
+            handler.handleMessage(message);
+        } catch (RuntimeException e) {
+            error = String.valueOf(e.getMessage());
+        }
+        long duration = System.nanoTime() - start;
+        latencyRecorder.recordNanos(branch == Branch.MONITOR ? PipelineStage.MONITOR_WRITE
+                : PipelineStage.PRE_PROCESS_WRITE, duration);
+        Long detected = message.getHeaders().get(IngestHeaders.DETECTED_NANOS, Long.class);
+        if (detected != null) {
+            latencyRecorder.recordNanos(branch == Branch.MONITOR ? PipelineStage.MONITOR_END_TO_END
+                    : PipelineStage.PRE_PROCESS_END_TO_END, System.nanoTime() - detected);
+        }
+        return new BranchOutcome(branch, file, error == null, start, duration, bytes, error);
+    }
+
+    private static FileCompletionEvent completion(Message<?> message, BranchOutcome monitor,
+                                                  BranchOutcome preProcess) {
+        Map<Branch, BranchOutcome> outcomes = new EnumMap<>(Branch.class);
+        outcomes.put(Branch.MONITOR, monitor);
+        outcomes.put(Branch.PRE_PROCESS, preProcess);
+        Long detectedAt = message.getHeaders().get(IngestHeaders.DETECTED_AT, Long.class);
+        Long detectedNanos = message.getHeaders().get(IngestHeaders.DETECTED_NANOS, Long.class);
+        return new FileCompletionEvent(
+                message.getHeaders().get(IngestHeaders.FILE_ID, String.class),
+                monitor.file().getName(),
+                detectedAt != null ? detectedAt : -1,
+                detectedNanos != null ? System.nanoTime() - detectedNanos : -1,
+                outcomes);
+    }
+}
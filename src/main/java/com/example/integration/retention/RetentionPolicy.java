@@ -0,0 +1,35 @@
+// RetentionPolicy.java
+package com.example.integration.retention;
+
+import java.time.Duration;
+
+/**
+ * Limits enforced by a {@link RetentionSweeper}. Any limit may be left unset ({@code null} or
+ * {@code <= 0}); files are removed oldest first until every configured limit holds.
+ *
+ * @param maxAge        files last modified longer ago than this are removed
+ * @param maxTotalBytes upper bound on the combined size of the retained files
+ * @param maxFileCount  upper bound on the number of retained files
+ */
+public record RetentionPolicy(Duration maxAge, long maxTotalBytes, long maxFileCount) {
+
+    public static RetentionPolicy none() {
+        return new RetentionPolicy(null, 0, 0);
+    }
+
+    public boolean hasMaxAge() {
+        return maxAge != null && !maxAge.isZero() && !maxAge.isNegative();
+    }
+
+    public boolean hasMaxTotalBytes() {
+        return maxTotalBytes > 0;
+    }
+
+    public boolean hasMaxFileCount() {
+        return maxFileCount > 0;
+    }
+
+    public boolean isEnabled() {
+        return hasMaxAge() || hasMaxTotalBytes() || hasMaxFileCount();
+    }
+}
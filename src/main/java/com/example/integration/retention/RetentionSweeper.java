@@ -0,0 +1,403 @@
+// RetentionSweeper.java
+package com.example.integration.retention;
+
+import com.example.integration.jfr.DeleteEvent;
+import com.example.integration.ratelimit.TokenBucket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background cleanup of an output directory tree according to a {@link RetentionPolicy}.
+ *
+ * <p>Work is done in short time slices on a dedicated thread. Each slice continues a scan
+ * (or the deletions planned from the last completed scan) where the previous slice stopped,
+ * and every directory open, attribute read and delete takes one permit from an IOPS
+ * {@link TokenBucket}. When the budget or the slice runs out the sweeper simply yields until
+ * the next tick, so a large backlog is worked off gradually instead of in one disk-saturating pass.
+ *
+ * <p>Expired files are queued for deletion as they are found. Size and count limits need the
+ * whole scan, which keeps running totals and only the oldest {@code candidateLimit} files, so
+ * memory stays bounded however large the tree is; an excess beyond that is worked off over
+ * the following cycles.
+ *
+ * <p>With a sidecar suffix set, a copy and its sidecar ({@code name + suffix}) are one entry:
+ * counted once, sized together and deleted together. A sidecar without its copy is an entry
+ * of its own.
+ */
+public class RetentionSweeper implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetentionSweeper.class);
+
+    private enum Phase { IDLE, SCANNING, DELETING }
+
+    public static final int DEFAULT_CANDIDATE_LIMIT = 10_000;
+
+    private final Path root;
+    private final TokenBucket iopsBudget;
+    private final Duration timeSlice;
+    private final Duration tickInterval;
+    private volatile RetentionPolicy policy;
+    private volatile int candidateLimit = DEFAULT_CANDIDATE_LIMIT;
+    private volatile String sidecarSuffix;
+
+    private Phase phase = Phase.IDLE;
+    private final Deque<Path> pendingDirectories = new ArrayDeque<>();
+    private DirectoryStream<Path> currentStream;
+    private Iterator<Path> currentEntries;
+    // Newest on top, so the oldest candidateLimit entries are the ones kept
+    private final PriorityQueue<Entry> oldest =
+            new PriorityQueue<>(Comparator.comparingLong(Entry::modifiedMillis).reversed());
+    private long keptCount;
+    private long keptBytes;
+    private final Deque<Entry> toDelete = new ArrayDeque<>();
+    private long scanStartMillis;
+
+    private final LongAdder deletedFiles = new LongAdder();
+    private final LongAdder deletedBytes = new LongAdder();
+    private final LongAdder scannedFiles = new LongAdder();
+    private final LongAdder completedCycles = new LongAdder();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param iopsBudget   one permit per directory open, attribute read and delete
+     * @param timeSlice    longest a single tick may keep working
+     * @param tickInterval pause between ticks
+     */
+    public RetentionSweeper(File root, RetentionPolicy policy, TokenBucket iopsBudget, Duration timeSlice,
+                            Duration tickInterval) {
+        this.root = root.toPath();
+        this.policy = policy;
+        this.iopsBudget = iopsBudget;
+        this.timeSlice = timeSlice;
+        this.tickInterval = tickInterval;
+    }
+
+    public RetentionPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Takes effect from the next scan.
+     */
+    public void setPolicy(RetentionPolicy policy) {
+        this.policy = policy;
+    }
+
+    public TokenBucket getIopsBudget() {
+        return iopsBudget;
+    }
+
+    /**
+     * Oldest files a size or count limit can pick from one scan. Takes effect from the next scan.
+     */
+    public void setCandidateLimit(int candidateLimit) {
+        if (candidateLimit < 1) {
+            throw new IllegalArgumentException("candidateLimit must be positive");
+        }
+        this.candidateLimit = candidateLimit;
+    }
+
+    public int getCandidateLimit() {
+        return candidateLimit;
+    }
+
+    /**
+     * Suffix of the sidecar files kept and removed together with their copies, or {@code null}.
+     */
+    public void setSidecarSuffix(String sidecarSuffix) {
+        this.sidecarSuffix = sidecarSuffix;
+    }
+
+    public String getSidecarSuffix() {
+        return sidecarSuffix;
+    }
+
+    /**
+     * Runs one time slice. Called by the internal scheduler; exposed for tests and manual triggering.
+     *
+     * @return {@code true} if this slice completed a full scan-and-delete cycle
+     */
+    public synchronized boolean sweep() {
+        long deadline = System.nanoTime() + timeSlice.toNanos();
+        try {
+            while (System.nanoTime() < deadline) {
+                switch (phase) {
+                    case IDLE -> {
+                        if (!policy.isEnabled() || !Files.isDirectory(root)) {
+                            return false;
+                        }
+                        pendingDirectories.add(root);
+                        scanStartMillis = System.currentTimeMillis();
+                        phase = Phase.SCANNING;
+                    }
+                    case SCANNING -> {
+                        if (!scanStep()) {
+                            return false;
+                        }
+                    }
+                    case DELETING -> {
+                        Entry entry = toDelete.peek();
+                        if (entry == null) {
+                            phase = Phase.IDLE;
+                            completedCycles.increment();
+                            return true;
+                        }
+                        if (!iopsBudget.tryAcquire(1)) {
+                            return false;
+                        }
+                        toDelete.poll();
+                        delete(entry);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Retention sweep of {} failed, restarting scan", root, e);
+            reset();
+        }
+        return false;
+    }
+
+    /**
+     * @return {@code false} when the IOPS budget is exhausted
+     */
+    private boolean scanStep() {
+        if (currentEntries == null) {
+            Path directory = pendingDirectories.poll();
+            if (directory == null) {
+                planDeletions();
+                phase = Phase.DELETING;
+                return true;
+            }
+            if (!iopsBudget.tryAcquire(1)) {
+                pendingDirectories.addFirst(directory);
+                return false;
+            }
+            try {
+                currentStream = Files.newDirectoryStream(directory);
+                currentEntries = currentStream.iterator();
+            } catch (IOException e) {
+                logger.debug("Skipping unreadable directory {}", directory, e);
+            }
+            return true;
+        }
+        if (!currentEntries.hasNext()) {
+            closeCurrentStream();
+            return true;
+        }
+        if (!iopsBudget.tryAcquire(1)) {
+            return false;
+        }
+        Path path = currentEntries.next();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return true;
+        }
+        if (attributes.isDirectory()) {
+            pendingDirectories.add(path);
+        } else if (attributes.isRegularFile()) {
+            Entry entry = entryFor(path, attributes);
+            if (entry == null) {
+                return true;
+            }
+            scannedFiles.increment();
+            RetentionPolicy current = policy;
+            if (isExpired(current, entry)) {
+                toDelete.add(entry);
+            } else if (current.hasMaxTotalBytes() || current.hasMaxFileCount()) {
+                keep(entry);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code null} for a sidecar, which is counted with its copy
+     */
+    private Entry entryFor(Path path, BasicFileAttributes attributes) {
+        long modified = attributes.lastModifiedTime().toMillis();
+        String suffix = sidecarSuffix;
+        if (suffix == null) {
+            return new Entry(path, null, attributes.size(), modified);
+        }
+        String name = path.getFileName().toString();
+        // Either check costs one more attribute read, charged to the budget after the fact
+        iopsBudget.reserve(1);
+        if (name.endsWith(suffix) && name.length() > suffix.length()) {
+            Path copy = path.resolveSibling(name.substring(0, name.length() - suffix.length()));
+            return Files.exists(copy, LinkOption.NOFOLLOW_LINKS) ? null
+                    : new Entry(path, null, attributes.size(), modified);
+        }
+        Path sidecar = path.resolveSibling(name + suffix);
+        long size = attributes.size();
+        try {
+            size += Files.readAttributes(sidecar, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).size();
+        } catch (IOException e) {
+            // Not written yet or never; it is still removed with the copy if it turns up
+        }
+        return new Entry(path, sidecar, size, modified);
+    }
+
+    private void keep(Entry entry) {
+        keptCount++;
+        keptBytes += entry.size();
+        if (oldest.size() < candidateLimit) {
+            oldest.add(entry);
+        } else if (entry.modifiedMillis() < oldest.peek().modifiedMillis()) {
+            oldest.poll();
+            oldest.add(entry);
+        }
+    }
+
+    private void planDeletions() {
+        RetentionPolicy current = policy;
+        List<Entry> candidates = new ArrayList<>(oldest);
+        candidates.sort(Comparator.comparingLong(Entry::modifiedMillis));
+        long count = keptCount;
+        long bytes = keptBytes;
+        for (Entry entry : candidates) {
+            boolean overCount = current.hasMaxFileCount() && count > current.maxFileCount();
+            boolean overBytes = current.hasMaxTotalBytes() && bytes > current.maxTotalBytes();
+            if (!overCount && !overBytes) {
+                break;
+            }
+            toDelete.add(entry);
+            count--;
+            bytes -= entry.size();
+        }
+        clearKept();
+    }
+
+    private void clearKept() {
+        oldest.clear();
+        keptCount = 0;
+        keptBytes = 0;
+    }
+
+    private boolean isExpired(RetentionPolicy current, Entry entry) {
+        return current.hasMaxAge() && scanStartMillis - entry.modifiedMillis() > current.maxAge().toMillis();
+    }
+
+    private void delete(Entry entry) {
+        DeleteEvent event = new DeleteEvent();
+        event.begin();
+        try {
+            Files.delete(entry.path());
+            if (entry.sidecar() != null) {
+                iopsBudget.reserve(1);
+                Files.deleteIfExists(entry.sidecar());
+            }
+            event.commit(entry.path(), entry.size());
+            deletedFiles.increment();
+            deletedBytes.add(entry.size());
+        } catch (NoSuchFileException e) {
+            // Already gone
+        } catch (IOException e) {
+            logger.debug("Could not delete {}", entry.path(), e);
+        }
+    }
+
+    private void closeCurrentStream() {
+        if (currentStream != null) {
+            try {
+                currentStream.close();
+            } catch (IOException e) {
+                logger.debug("Could not close directory stream", e);
+            }
+        }
+        currentStream = null;
+        currentEntries = null;
+    }
+
+    private synchronized void reset() {
+        closeCurrentStream();
+        pendingDirectories.clear();
+        clearKept();
+        toDelete.clear();
+        phase = Phase.IDLE;
+    }
+
+    public long getDeletedFiles() {
+        return deletedFiles.sum();
+    }
+
+    public long getDeletedBytes() {
+        return deletedBytes.sum();
+    }
+
+    public long getScannedFiles() {
+        return scannedFiles.sum();
+    }
+
+    public long getCompletedCycles() {
+        return completedCycles.sum();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "retention-" + root.getFileName());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+            long interval = tickInterval.toNanos();
+            scheduler.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = scheduler;
+            scheduler = null;
+        }
+        if (running != null) {
+            running.shutdownNow();
+            try {
+                running.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        reset();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * @param sidecar removed together with {@code path}, or {@code null}
+     * @param size    including the sidecar's, if it existed when scanned
+     */
+    private record Entry(Path path, Path sidecar, long size, long modifiedMillis) {
+    }
+}
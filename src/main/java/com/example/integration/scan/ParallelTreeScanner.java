@@ -0,0 +1,235 @@
+// ParallelTreeScanner.java
+package com.example.integration.scan;
+
+import com.example.integration.filter.StableFileListFilter;
+import com.example.integration.jfr.ScanEventDirectoryScanner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Walks the input tree down to {@code maxDepth} levels below the root on a dedicated
+ * {@link ForkJoinPool}, one task per directory, and hands matches to the filter like
+ * {@link org.springframework.integration.file.DefaultDirectoryScanner}.
+ *
+ * <p>Each directory's listing is cached with its modification time. A directory's mtime only
+ * changes when entries are added, removed or renamed directly in it, so every directory is
+ * still stat-ed on each scan, but one whose mtime is unchanged is not listed again and its
+ * entries are not stat-ed again. Scan cost is then one stat per directory plus work
+ * proportional to the directories that changed, rather than to the number of files in the
+ * tree. As with git's racy-clean check, a listing taken within {@code racyWindow} of the
+ * directory's mtime is not trusted, since a change in the same clock tick would not move it.
+ *
+ * <p>Files the filter accepted are remembered with their size and mtime and not offered to it
+ * again while they stay where they are: in an unchanged directory they are skipped without a
+ * stat, and a re-listing only offers them again if they changed. So stateful matchers such as
+ * {@code sizeStable} only stat new and unsettled files, and files still queued or being
+ * processed are never handed out twice. Names the filter rejects outright are dropped as they
+ * are found, so the batch only holds real candidates.
+ *
+ * <p>Symbolic links are not followed. Directories deeper than {@code maxDepth} are ignored.
+ */
+public class ParallelTreeScanner extends ScanEventDirectoryScanner implements AutoCloseable {
+
+    private final int maxDepth;
+    private final long racyWindowMillis;
+    private final ForkJoinPool pool;
+    private final Map<Path, Listing> listings = new ConcurrentHashMap<>();
+    private final Map<File, HandedOut> handedOut = new ConcurrentHashMap<>();
+    private volatile ScanStatistics lastScan = new ScanStatistics(0, 0, 0);
+
+    /**
+     * @param maxDepth    directory levels below the root to descend into; 0 lists the root only
+     * @param parallelism directories listed concurrently
+     */
+    public ParallelTreeScanner(int maxDepth, int parallelism, Duration racyWindow) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("maxDepth must not be negative");
+        }
+        this.maxDepth = maxDepth;
+        this.racyWindowMillis = racyWindow.toMillis();
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Hands each regular file in the tree to {@code sink} as soon as its directory has been
+     * listed, from the pool's threads and in no particular order.
+     */
+    public void walk(File root, Consumer<File> sink) {
+        Set<Path> visited = ConcurrentHashMap.newKeySet();
+        LongAdder listed = new LongAdder();
+        LongAdder files = new LongAdder();
+        Consumer<File> counting = file -> {
+            files.increment();
+            sink.accept(file);
+        };
+        pool.invoke(new DirectoryTask(root.toPath(), 0, counting, visited, listed));
+        for (Iterator<Map.Entry<Path, Listing>> it = listings.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Path, Listing> entry = it.next();
+            if (!visited.contains(entry.getKey())) {
+                entry.getValue().files().forEach(handedOut::remove);
+                it.remove();
+            }
+        }
+        lastScan = new ScanStatistics(visited.size(), listed.intValue(), files.intValue());
+    }
+
+    @Override
+    public List<File> listFiles(File directory) {
+        List<File> accepted = super.listFiles(directory);
+        for (File file : accepted) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class,
+                        LinkOption.NOFOLLOW_LINKS);
+                handedOut.put(file, new HandedOut(attributes.size(), attributes.lastModifiedTime()));
+            } catch (IOException e) {
+                // Already gone; there is nothing to skip
+            }
+        }
+        return accepted;
+    }
+
+    @Override
+    protected File[] listEligibleFiles(File directory) {
+        if (!directory.isDirectory()) {
+            return null;
+        }
+        Predicate<File> named = getFilter() instanceof StableFileListFilter filter ? filter::matchesName : f -> true;
+        Queue<File> candidates = new ConcurrentLinkedQueue<>();
+        walk(directory, file -> {
+            if (!handedOut.containsKey(file) && named.test(file)) {
+                candidates.add(file);
+            }
+        });
+        return candidates.toArray(new File[0]);
+    }
+
+    /**
+     * Directories visited and re-listed, and files found, by the most recent scan.
+     */
+    public ScanStatistics getLastScan() {
+        return lastScan;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    public record ScanStatistics(int directories, int listed, int files) {
+    }
+
+    private record Listing(FileTime modified, long listedAtMillis, List<File> files, List<Path> directories) {
+    }
+
+    private record HandedOut(long size, FileTime modified) {
+    }
+
+    private final class DirectoryTask extends RecursiveAction {
+
+        private final Path directory;
+        private final int depth;
+        private final Consumer<File> sink;
+        private final Set<Path> visited;
+        private final LongAdder listed;
+
+        DirectoryTask(Path directory, int depth, Consumer<File> sink, Set<Path> visited, LongAdder listed) {
+            this.directory = directory;
+            this.depth = depth;
+            this.sink = sink;
+            this.visited = visited;
+            this.listed = listed;
+        }
+
+        @Override
+        protected void compute() {
+            Listing listing;
+            try {
+                listing = listing();
+            } catch (IOException e) {
+                // Vanished or unreadable; its cached listing is dropped and it is tried again next scan
+                return;
+            }
+            visited.add(directory);
+            listing.files().forEach(sink);
+            if (depth < maxDepth && !listing.directories().isEmpty()) {
+                List<DirectoryTask> subtasks = new ArrayList<>(listing.directories().size());
+                for (Path subdirectory : listing.directories()) {
+                    subtasks.add(new DirectoryTask(subdirectory, depth + 1, sink, visited, listed));
+                }
+                invokeAll(subtasks);
+            }
+        }
+
+        private Listing listing() throws IOException {
+            FileTime modified = Files.getLastModifiedTime(directory, LinkOption.NOFOLLOW_LINKS);
+            Listing cached = listings.get(directory);
+            if (cached != null && cached.modified().equals(modified)
+                    && cached.listedAtMillis() - modified.toMillis() > racyWindowMillis) {
+                return cached;
+            }
+            long listedAt = System.currentTimeMillis();
+            List<File> files = new ArrayList<>();
+            List<Path> directories = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (NoSuchFileException e) {
+                        continue;
+                    }
+                    if (attributes.isDirectory()) {
+                        directories.add(entry);
+                    } else if (attributes.isRegularFile()) {
+                        File file = entry.toFile();
+                        files.add(file);
+                        // A handed-out file that changed since has to go through the filter again
+                        HandedOut was = handedOut.get(file);
+                        if (was != null && (was.size() != attributes.size()
+                                || !was.modified().equals(attributes.lastModifiedTime()))) {
+                            handedOut.remove(file);
+                        }
+                    }
+                }
+            } catch (DirectoryIteratorException e) {
+                throw e.getCause();
+            }
+            if (cached != null) {
+                Set<File> present = new HashSet<>(files);
+                for (File file : cached.files()) {
+                    if (!present.contains(file)) {
+                        handedOut.remove(file);
+                    }
+                }
+            }
+            Listing listing = new Listing(modified, listedAt, List.copyOf(files), List.copyOf(directories));
+            listings.put(directory, listing);
+            listed.increment();
+            return listing;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+// InFlightTracker.java
+package com.example.integration.status;
+
+import com.example.integration.completion.Branch;
+import com.example.integration.completion.BranchOutcome;
+import com.example.integration.latency.IngestHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of the files that have entered a branch but not reported an outcome yet. A
+ * file enters when it is sent to the branch channel (see {@link #entryInterceptor}) and
+ * leaves when its {@link BranchOutcome} reaches the outcome channel (see
+ * {@link #outcomeInterceptor}). Only messages with a {@link IngestHeaders#FILE_ID} are
+ * tracked, since only those report outcomes.
+ *
+ * <p>The cost per file is one map insert and one remove per branch; ages are only computed
+ * when someone asks.
+ */
+public class InFlightTracker {
+
+    private final Map<Branch, Map<String, Long>> inFlight = new EnumMap<>(Branch.class);
+
+    public InFlightTracker() {
+        for (Branch branch : Branch.values()) {
+            inFlight.put(branch, new ConcurrentHashMap<>());
+        }
+    }
+
+    public ChannelInterceptor entryInterceptor(Branch branch) {
+        return new ChannelInterceptor() {
+
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                entered(branch, message);
+                return message;
+            }
+
+            // A send that failed before reaching the branch handler never reports an outcome
+            @Override
+            public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+                String fileId = message.getHeaders().get(IngestHeaders.FILE_ID, String.class);
+                if (fileId != null && (!sent || ex != null)) {
+                    exited(branch, fileId);
+                }
+            }
+        };
+    }
+
+    public ChannelInterceptor outcomeInterceptor() {
+        return new ChannelInterceptor() {
+
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                String fileId = message.getHeaders().get(IngestHeaders.FILE_ID, String.class);
+                if (fileId != null && message.getPayload() instanceof BranchOutcome outcome) {
+                    exited(outcome.branch(), fileId);
+                }
+                return message;
+            }
+        };
+    }
+
+    public void entered(Branch branch, Message<?> message) {
+        String fileId = message.getHeaders().get(IngestHeaders.FILE_ID, String.class);
+        if (fileId != null) {
+            Long detected = message.getHeaders().get(IngestHeaders.DETECTED_NANOS, Long.class);
+            inFlight.get(branch).putIfAbsent(fileId, detected != null ? detected : System.nanoTime());
+        }
+    }
+
+    public void exited(Branch branch, String fileId) {
+        inFlight.get(branch).remove(fileId);
+    }
+
+    public int getInFlightCount(Branch branch) {
+        return inFlight.get(branch).size();
+    }
+
+    /**
+     * @return nanoseconds since the oldest file still in the branch was detected, or 0 if it is idle
+     */
+    public long getOldestAgeNanos(Branch branch) {
+        long now = System.nanoTime();
+        long oldest = 0;
+        for (Long detected : inFlight.get(branch).values()) {
+            oldest = Math.max(oldest, now - detected);
+        }
+        return oldest;
+    }
+
+    public long getOldestAgeNanos() {
+        long oldest = 0;
+        for (Branch branch : Branch.values()) {
+            oldest = Math.max(oldest, getOldestAgeNanos(branch));
+        }
+        return oldest;
+    }
+}
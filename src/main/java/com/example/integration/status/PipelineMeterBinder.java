@@ -0,0 +1,89 @@
+// PipelineMeterBinder.java
+package com.example.integration.status;
+
+import com.example.integration.completion.Branch;
+import com.example.integration.completion.FileCompletionStatistics;
+import com.example.integration.executor.AdaptiveTaskExecutor;
+import com.example.integration.latency.PipelineLatencyRecorder;
+import com.example.integration.latency.PipelineStage;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer view of the same live state as {@link PipelineStatusEndpoint}. Every meter is
+ * a gauge or function counter read from existing counters at scrape time, so nothing is added
+ * to the per-file path; stage rates come from the {@code pipeline.stage.recorded} counters.
+ */
+public class PipelineMeterBinder implements MeterBinder {
+
+    private final BlockingQueue<?> inboundQueue;
+    private final AdaptiveTaskExecutor executor;
+    private final InFlightTracker inFlightTracker;
+    private final PipelineLatencyRecorder latencyRecorder;
+    private final FileCompletionStatistics completionStatistics;
+
+    public PipelineMeterBinder(BlockingQueue<?> inboundQueue, AdaptiveTaskExecutor executor,
+                               InFlightTracker inFlightTracker, PipelineLatencyRecorder latencyRecorder,
+                               FileCompletionStatistics completionStatistics) {
+        this.inboundQueue = inboundQueue;
+        this.executor = executor;
+        this.inFlightTracker = inFlightTracker;
+        this.latencyRecorder = latencyRecorder;
+        this.completionStatistics = completionStatistics;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("pipeline.channel.depth", inboundQueue, BlockingQueue::size)
+                .tag("channel", "inboundFileChannel")
+                .register(registry);
+        Gauge.builder("pipeline.channel.remaining", inboundQueue, BlockingQueue::remainingCapacity)
+                .tag("channel", "inboundFileChannel")
+                .register(registry);
+
+        Gauge.builder("pipeline.executor.active", executor, AdaptiveTaskExecutor::getActiveCount)
+                .register(registry);
+        Gauge.builder("pipeline.executor.pool.size", executor, AdaptiveTaskExecutor::getPoolSize)
+                .register(registry);
+        Gauge.builder("pipeline.executor.limit", executor, AdaptiveTaskExecutor::getConcurrencyLimit)
+                .register(registry);
+        Gauge.builder("pipeline.executor.queued", executor, AdaptiveTaskExecutor::getQueueSize)
+                .register(registry);
+        FunctionCounter.builder("pipeline.executor.completed", executor, AdaptiveTaskExecutor::getCompletedTaskCount)
+                .register(registry);
+
+        for (Branch branch : Branch.values()) {
+            String tag = branch.name().toLowerCase();
+            Gauge.builder("pipeline.inflight", inFlightTracker, tracker -> tracker.getInFlightCount(branch))
+                    .tag("branch", tag)
+                    .register(registry);
+            TimeGauge.builder("pipeline.inflight.oldest.age", inFlightTracker, TimeUnit.NANOSECONDS,
+                            tracker -> tracker.getOldestAgeNanos(branch))
+                    .tag("branch", tag)
+                    .register(registry);
+        }
+
+        for (PipelineStage stage : PipelineStage.values()) {
+            FunctionCounter.builder("pipeline.stage.recorded", latencyRecorder,
+                            recorder -> recorder.getCount(stage))
+                    .tag("stage", stage.name().toLowerCase())
+                    .register(registry);
+        }
+
+        FunctionCounter.builder("pipeline.files", completionStatistics, FileCompletionStatistics::getCompletedCount)
+                .tag("outcome", "completed")
+                .register(registry);
+        FunctionCounter.builder("pipeline.files", completionStatistics, FileCompletionStatistics::getFailedCount)
+                .tag("outcome", "failed")
+                .register(registry);
+        FunctionCounter.builder("pipeline.files", completionStatistics, FileCompletionStatistics::getTimedOutCount)
+                .tag("outcome", "timed_out")
+                .register(registry);
+    }
+}
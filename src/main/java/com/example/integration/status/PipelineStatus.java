@@ -0,0 +1,44 @@
+// PipelineStatus.java
+package com.example.integration.status;
+
+import com.example.integration.completion.Branch;
+import com.example.integration.latency.PipelineStage;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Point-in-time view of the running pipeline, as reported by {@link PipelineStatusEndpoint}.
+ *
+ * @param executorConcurrencyLimit threads the adaptive executor may currently use
+ * @param oldestInFlightAgeMillis  age, since detection, of the oldest file still in a branch
+ */
+public record PipelineStatus(
+        Instant takenAt,
+        int inboundQueueSize,
+        int inboundQueueCapacity,
+        int executorActiveCount,
+        int executorPoolSize,
+        int executorConcurrencyLimit,
+        int executorQueueSize,
+        int executorQueueCapacity,
+        Map<Branch, Integer> inFlight,
+        long oldestInFlightAgeMillis,
+        Map<PipelineStage, StageStatus> stages,
+        long completedFiles,
+        long failedFiles,
+        long timedOutFiles) {
+
+    /**
+     * Busy threads as a fraction of the current concurrency limit; 1 means every allowed thread is busy.
+     */
+    public double executorSaturation() {
+        return executorConcurrencyLimit == 0 ? 0 : (double) executorActiveCount / executorConcurrencyLimit;
+    }
+
+    /**
+     * @param ratePerSecond values recorded per second over the last complete sampling window
+     */
+    public record StageStatus(long count, double ratePerSecond, long p50Micros, long p99Micros, long maxMicros) {
+    }
+}
@@ -0,0 +1,168 @@
+// PipelineStatusEndpoint.java
+package com.example.integration.status;
+
+import com.example.integration.completion.Branch;
+import com.example.integration.completion.FileCompletionStatistics;
+import com.example.integration.executor.AdaptiveTaskExecutor;
+import com.example.integration.latency.PipelineLatencyRecorder;
+import com.example.integration.latency.PipelineStage;
+import com.example.integration.status.PipelineStatus.StageStatus;
+import org.HdrHistogram.Histogram;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-only status of the running pipeline, exported over JMX as
+ * {@code com.example.integration:type=PipelineStatus}. The attributes are live gauges;
+ * {@link #status()} and {@link #report()} add per-stage rates and latency percentiles. Rates
+ * cover the last complete sampling window, taken by the endpoint's own sampler thread, so
+ * they read the same whoever calls and however often.
+ */
+@ManagedResource(objectName = "com.example.integration:type=PipelineStatus",
+        description = "Queue depths, executor saturation, in-flight files and stage rates of the file pipeline")
+public class PipelineStatusEndpoint implements AutoCloseable {
+
+    private final BlockingQueue<?> inboundQueue;
+    private final AdaptiveTaskExecutor executor;
+    private final InFlightTracker inFlightTracker;
+    private final PipelineLatencyRecorder latencyRecorder;
+    private final FileCompletionStatistics completionStatistics;
+
+    private final ScheduledExecutorService sampler;
+
+    // Only the sampler thread touches these
+    private final Map<PipelineStage, Long> sampledCounts = new EnumMap<>(PipelineStage.class);
+    private long sampledNanos = System.nanoTime();
+
+    private volatile Map<PipelineStage, Double> rates;
+
+    /**
+     * @param rateWindow how often the stage counts are sampled; rates are per second over one window
+     */
+    public PipelineStatusEndpoint(BlockingQueue<?> inboundQueue, AdaptiveTaskExecutor executor,
+                                  InFlightTracker inFlightTracker, PipelineLatencyRecorder latencyRecorder,
+                                  FileCompletionStatistics completionStatistics, Duration rateWindow) {
+        this.inboundQueue = inboundQueue;
+        this.executor = executor;
+        this.inFlightTracker = inFlightTracker;
+        this.latencyRecorder = latencyRecorder;
+        this.completionStatistics = completionStatistics;
+        Map<PipelineStage, Double> initial = new EnumMap<>(PipelineStage.class);
+        for (PipelineStage stage : PipelineStage.values()) {
+            sampledCounts.put(stage, latencyRecorder.getCount(stage));
+            initial.put(stage, 0.0);
+        }
+        this.rates = Collections.unmodifiableMap(initial);
+        this.sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "pipeline-status-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long window = rateWindow.toNanos();
+        this.sampler.scheduleAtFixedRate(this::sample, window, window, TimeUnit.NANOSECONDS);
+    }
+
+    void sample() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-9, (now - sampledNanos) / 1e9);
+        sampledNanos = now;
+        Map<PipelineStage, Double> sampled = new EnumMap<>(PipelineStage.class);
+        for (PipelineStage stage : PipelineStage.values()) {
+            long count = latencyRecorder.getCount(stage);
+            sampled.put(stage, (count - sampledCounts.put(stage, count)) / seconds);
+        }
+        rates = Collections.unmodifiableMap(sampled);
+    }
+
+    @ManagedAttribute(description = "Files waiting in inboundFileChannel")
+    public int getInboundQueueSize() {
+        return inboundQueue.size();
+    }
+
+    @ManagedAttribute(description = "Busy executor threads")
+    public int getExecutorActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @ManagedAttribute(description = "Tasks waiting for an executor thread")
+    public int getExecutorQueueSize() {
+        return executor.getQueueSize();
+    }
+
+    @ManagedAttribute(description = "Busy threads as a fraction of the current concurrency limit")
+    public double getExecutorSaturation() {
+        int limit = executor.getConcurrencyLimit();
+        return limit == 0 ? 0 : (double) executor.getActiveCount() / limit;
+    }
+
+    @ManagedAttribute(description = "Files in the monitor branch without an outcome yet")
+    public int getMonitorInFlight() {
+        return inFlightTracker.getInFlightCount(Branch.MONITOR);
+    }
+
+    @ManagedAttribute(description = "Files in the pre-process branch without an outcome yet")
+    public int getPreProcessInFlight() {
+        return inFlightTracker.getInFlightCount(Branch.PRE_PROCESS);
+    }
+
+    @ManagedAttribute(description = "Age since detection of the oldest file still in a branch, in milliseconds")
+    public long getOldestInFlightAgeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(inFlightTracker.getOldestAgeNanos());
+    }
+
+    public PipelineStatus status() {
+        Map<PipelineStage, Double> sampled = rates;
+        Map<PipelineStage, StageStatus> stages = new EnumMap<>(PipelineStage.class);
+        for (PipelineStage stage : PipelineStage.values()) {
+            Histogram histogram = latencyRecorder.snapshot(stage);
+            stages.put(stage, new StageStatus(latencyRecorder.getCount(stage), sampled.get(stage),
+                    histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99), histogram.getMaxValue()));
+        }
+        Map<Branch, Integer> inFlight = new EnumMap<>(Branch.class);
+        for (Branch branch : Branch.values()) {
+            inFlight.put(branch, inFlightTracker.getInFlightCount(branch));
+        }
+        return new PipelineStatus(Instant.now(),
+                inboundQueue.size(), inboundQueue.size() + inboundQueue.remainingCapacity(),
+                executor.getActiveCount(), executor.getPoolSize(), executor.getConcurrencyLimit(),
+                executor.getQueueSize(), executor.getQueueCapacity(),
+                inFlight, getOldestInFlightAgeMillis(), stages,
+                completionStatistics.getCompletedCount(), completionStatistics.getFailedCount(),
+                completionStatistics.getTimedOutCount());
+    }
+
+    @ManagedOperation(description = "Full status with per-stage rates and latencies")
+    public String report() {
+        PipelineStatus status = status();
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("inbound queue   %d/%d%n", status.inboundQueueSize(), status.inboundQueueCapacity()));
+        report.append(String.format("executor        active=%d pool=%d limit=%d saturation=%.2f queue=%d/%d%n",
+                status.executorActiveCount(), status.executorPoolSize(), status.executorConcurrencyLimit(),
+                status.executorSaturation(), status.executorQueueSize(), status.executorQueueCapacity()));
+        report.append(String.format("in flight       %s oldest=%dms%n", status.inFlight(),
+                status.oldestInFlightAgeMillis()));
+        report.append(String.format("files           completed=%d failed=%d timedOut=%d%n",
+                status.completedFiles(), status.failedFiles(), status.timedOutFiles()));
+        status.stages().forEach((stage, stageStatus) -> report.append(String.format(
+                "%-22s count=%d rate=%.1f/s p50=%dus p99=%dus max=%dus%n", stage, stageStatus.count(),
+                stageStatus.ratePerSecond(), stageStatus.p50Micros(), stageStatus.p99Micros(),
+                stageStatus.maxMicros())));
+        return report.toString();
+    }
+
+    @Override
+    public void close() {
+        sampler.shutdownNow();
+    }
+}
@@ -0,0 +1,188 @@
+// DeficitRoundRobinQueue.java
+package com.example.integration.tenant;
+
+import com.example.integration.queue.KeyedQueue;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Per-tenant FIFO queues served by deficit round-robin: each turn a tenant's credit grows by
+ * {@code quantum} times its weight, and it may dequeue while its credit covers the cost of its
+ * head element. Over time every backlogged tenant gets a share of the total cost proportional
+ * to its weight, whatever the size of the backlog of the others, and both {@code offer} and
+ * {@code poll} are O(1) apart from the turns skipped by elements costing more than a quantum.
+ *
+ * <p>The element key is its cost, e.g. its size in bytes. Like every {@link KeyedQueue} this
+ * is not thread-safe; use it as the store of a
+ * {@link com.example.integration.queue.ResizableBlockingQueue}.
+ */
+public class DeficitRoundRobinQueue<E> extends KeyedQueue<E> {
+
+    private final Function<? super E, String> tenantOf;
+    private final ToIntFunction<String> weightOf;
+    private final long quantum;
+    private final Map<String, TenantQueue<E>> tenants = new HashMap<>();
+    private final ArrayDeque<TenantQueue<E>> active = new ArrayDeque<>();
+    private int size;
+
+    /**
+     * @param cost     non-negative cost of an element, charged against its tenant's credit
+     * @param weightOf weight of a tenant, at least 1; read when the tenant's queue is created
+     * @param quantum  credit a weight-1 tenant receives per turn
+     */
+    public DeficitRoundRobinQueue(Function<? super E, String> tenantOf, ToLongFunction<? super E> cost,
+                                  ToIntFunction<String> weightOf, long quantum) {
+        super(cost);
+        if (quantum < 1) {
+            throw new IllegalArgumentException("quantum must be positive");
+        }
+        this.tenantOf = tenantOf;
+        this.weightOf = weightOf;
+        this.quantum = quantum;
+    }
+
+    @Override
+    public boolean offer(E e, long cost) {
+        String tenant = tenantOf.apply(e);
+        TenantQueue<E> queue = tenants.get(tenant);
+        if (queue == null) {
+            queue = new TenantQueue<>(tenant, Math.max(1, weightOf.applyAsInt(tenant)));
+            tenants.put(tenant, queue);
+            active.addLast(queue);
+        }
+        queue.entries.addLast(new Entry<>(e, Math.max(0, cost)));
+        size++;
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        TenantQueue<E> queue = advance();
+        if (queue == null) {
+            return null;
+        }
+        Entry<E> head = queue.entries.pollFirst();
+        queue.deficit -= head.cost();
+        size--;
+        if (queue.entries.isEmpty()) {
+            retire(queue);
+        }
+        return head.element();
+    }
+
+    /**
+     * The element {@link #poll()} would return; may move turns on, which {@code poll} would do anyway.
+     */
+    @Override
+    public E peek() {
+        TenantQueue<E> queue = advance();
+        return queue == null ? null : queue.entries.peekFirst().element();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Elements waiting for the given tenant.
+     */
+    public int size(String tenant) {
+        TenantQueue<E> queue = tenants.get(tenant);
+        return queue == null ? 0 : queue.entries.size();
+    }
+
+    @Override
+    public void clear() {
+        tenants.clear();
+        active.clear();
+        size = 0;
+    }
+
+    /**
+     * Tenant by tenant in turn order; {@code remove} is supported.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        Iterator<TenantQueue<E>> queues = new ArrayDeque<>(active).iterator();
+        return new Iterator<>() {
+
+            private TenantQueue<E> queue;
+            private Iterator<Entry<E>> entries;
+
+            @Override
+            public boolean hasNext() {
+                while ((entries == null || !entries.hasNext()) && queues.hasNext()) {
+                    queue = queues.next();
+                    entries = queue.entries.iterator();
+                }
+                return entries != null && entries.hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return entries.next().element();
+            }
+
+            @Override
+            public void remove() {
+                entries.remove();
+                size--;
+                if (queue.entries.isEmpty()) {
+                    active.remove(queue);
+                    tenants.remove(queue.tenant);
+                }
+            }
+        };
+    }
+
+    // Moves turns on until the tenant at the front can afford its head element
+    private TenantQueue<E> advance() {
+        while (!active.isEmpty()) {
+            TenantQueue<E> queue = active.peekFirst();
+            if (!queue.credited) {
+                queue.deficit += quantum * queue.weight;
+                queue.credited = true;
+            }
+            if (queue.entries.peekFirst().cost() <= queue.deficit) {
+                return queue;
+            }
+            queue.credited = false;
+            active.addLast(active.pollFirst());
+        }
+        return null;
+    }
+
+    // An idle tenant keeps no credit, so it cannot save up for a burst
+    private void retire(TenantQueue<E> queue) {
+        active.pollFirst();
+        tenants.remove(queue.tenant);
+    }
+
+    private static final class TenantQueue<E> {
+
+        final String tenant;
+        final int weight;
+        final ArrayDeque<Entry<E>> entries = new ArrayDeque<>();
+        long deficit;
+        boolean credited;
+
+        TenantQueue(String tenant, int weight) {
+            this.tenant = tenant;
+            this.weight = weight;
+        }
+    }
+
+    private record Entry<E>(E element, long cost) {
+    }
+}
@@ -0,0 +1,188 @@
+// TenantDirectoryScanner.java
+package com.example.integration.tenant;
+
+import com.example.integration.completion.BranchOutcome;
+import com.example.integration.completion.FileCompletionEvent;
+import com.example.integration.filter.StableFileListFilter;
+import com.example.integration.jfr.ScanEventDirectoryScanner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Lists files directly in the input root and, recursively, in each tenant subdirectory, and
+ * returns them as a batch that interleaves tenants by weight.
+ *
+ * <p>{@code FileReadingMessageSource} only scans again once it has emitted the whole previous
+ * batch, so a tenant with a huge backlog would otherwise delay everyone else's new files until
+ * all of its own were polled. Each scan therefore takes at most {@code filesPerWeight} times its
+ * weight from every tenant, and only walks until it has twice that many candidates from a
+ * tenant's tree, so the cost of a scan does not grow with the backlog. Names the filter would
+ * reject do not count towards that cap. Files handed out are not listed again while they still
+ * exist, unless {@link #completed(FileCompletionEvent) their processing completed} and
+ * {@code redeliverAfter} has passed, so small batches never turn into duplicates of files still
+ * queued or being processed.
+ *
+ * <p>{@code FileReadingMessageSource} sorts each batch by path unless given a comparator, so
+ * construct it with {@link #receptionOrder()}. Matchers that need sibling names only see the
+ * siblings listed in the same scan.
+ */
+public class TenantDirectoryScanner extends ScanEventDirectoryScanner {
+
+    private final TenantResolver tenantResolver;
+    private final ToIntFunction<String> weightOf;
+    private final int filesPerWeight;
+    private final long redeliverAfterMillis;
+    private final Map<File, HandOut> handedOut = new HashMap<>();
+    private long sequence;
+
+    public TenantDirectoryScanner(TenantResolver tenantResolver, ToIntFunction<String> weightOf, int filesPerWeight,
+                                  Duration redeliverAfter) {
+        if (filesPerWeight < 1) {
+            throw new IllegalArgumentException("filesPerWeight must be positive");
+        }
+        this.tenantResolver = tenantResolver;
+        this.weightOf = weightOf;
+        this.filesPerWeight = filesPerWeight;
+        this.redeliverAfterMillis = redeliverAfter.toMillis();
+    }
+
+    @Override
+    public synchronized List<File> listFiles(File directory) {
+        Map<String, List<File>> byTenant = new LinkedHashMap<>();
+        for (File file : super.listFiles(directory)) {
+            byTenant.computeIfAbsent(tenantResolver.tenantOf(file), t -> new ArrayList<>()).add(file);
+        }
+        List<File> batch = interleave(byTenant);
+        long now = System.currentTimeMillis();
+        for (File file : batch) {
+            handedOut.put(file, new HandOut(sequence++, now));
+        }
+        return batch;
+    }
+
+    /**
+     * Keeps the order of each batch. Safe as a reception order because the source only scans,
+     * and this scanner only forgets files, once the previous batch has been received.
+     */
+    public Comparator<File> receptionOrder() {
+        return Comparator.comparingLong(this::sequenceOf);
+    }
+
+    private synchronized long sequenceOf(File file) {
+        HandOut handOut = handedOut.get(file);
+        return handOut == null ? Long.MAX_VALUE : handOut.sequence();
+    }
+
+    /**
+     * Called with every file's completion event; a file that is still there afterwards, e.g.
+     * because a branch failed, can be listed again once {@code redeliverAfter} has passed.
+     */
+    public synchronized void completed(FileCompletionEvent event) {
+        for (BranchOutcome outcome : event.outcomes().values()) {
+            handedOut.computeIfPresent(outcome.file(), (file, handOut) -> handOut.complete());
+        }
+    }
+
+    @Override
+    protected File[] listEligibleFiles(File directory) {
+        forgetHandedOut(System.currentTimeMillis());
+        File[] entries = directory.listFiles();
+        if (entries == null) {
+            return null;
+        }
+        Predicate<File> named = getFilter() instanceof StableFileListFilter filter ? filter::matchesName : f -> true;
+        List<File> eligible = new ArrayList<>();
+        int rootLimit = candidateLimit(tenantResolver.getDefaultTenant());
+        int rootCount = 0;
+        for (File entry : entries) {
+            if (entry.isDirectory()) {
+                walk(entry, candidateLimit(entry.getName()), named, eligible);
+            } else if (rootCount < rootLimit && !handedOut.containsKey(entry) && named.test(entry)) {
+                eligible.add(entry);
+                rootCount++;
+            }
+        }
+        return eligible.toArray(new File[0]);
+    }
+
+    private int candidateLimit(String tenant) {
+        return 2 * batchLimit(tenant);
+    }
+
+    private int batchLimit(String tenant) {
+        return filesPerWeight * Math.max(1, weightOf.applyAsInt(tenant));
+    }
+
+    // Lazy, so a tenant's tree is only walked as far as needed for this scan
+    private void walk(File tenantDirectory, int limit, Predicate<File> named, List<File> eligible) {
+        try (Stream<Path> paths = Files.walk(tenantDirectory.toPath())) {
+            paths.filter(Files::isRegularFile)
+                    .map(Path::toFile)
+                    .filter(file -> !handedOut.containsKey(file) && named.test(file))
+                    .limit(limit)
+                    .forEach(eligible::add);
+        } catch (IOException | UncheckedIOException e) {
+            // The tenant directory vanished or is unreadable; try again next scan
+        }
+    }
+
+    // Files still queued or in flight are kept however long they take
+    private void forgetHandedOut(long now) {
+        for (Iterator<Map.Entry<File, HandOut>> it = handedOut.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<File, HandOut> entry = it.next();
+            HandOut handOut = entry.getValue();
+            if ((handOut.completed() && now - handOut.atMillis() >= redeliverAfterMillis) || !entry.getKey().exists()) {
+                it.remove();
+            }
+        }
+    }
+
+    // Weighted round-robin: each round takes up to weight files from every tenant with files left
+    private List<File> interleave(Map<String, List<File>> byTenant) {
+        List<File> batch = new ArrayList<>();
+        Map<String, Integer> taken = new HashMap<>();
+        boolean added = true;
+        while (added) {
+            added = false;
+            for (Map.Entry<String, List<File>> tenant : byTenant.entrySet()) {
+                String name = tenant.getKey();
+                List<File> files = tenant.getValue();
+                int from = taken.getOrDefault(name, 0);
+                int to = Math.min(files.size(),
+                        Math.min(from + Math.max(1, weightOf.applyAsInt(name)), batchLimit(name)));
+                if (to > from) {
+                    batch.addAll(files.subList(from, to));
+                    taken.put(name, to);
+                    added = true;
+                }
+            }
+        }
+        return batch;
+    }
+
+    private record HandOut(long sequence, long atMillis, boolean completed) {
+
+        HandOut(long sequence, long atMillis) {
+            this(sequence, atMillis, false);
+        }
+
+        HandOut complete() {
+            return new HandOut(sequence, atMillis, true);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+// TenantMeterBinder.java
+package com.example.integration.tenant;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registers {@code pipeline.tenant.*} meters, tagged with the tenant, for every tenant
+ * {@link TenantStatistics} has seen, including tenants that first appear after binding.
+ */
+public class TenantMeterBinder implements MeterBinder {
+
+    private final TenantStatistics statistics;
+
+    public TenantMeterBinder(TenantStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        statistics.forEachTenant(tenant -> bind(registry, tenant));
+    }
+
+    private void bind(MeterRegistry registry, String tenant) {
+        FunctionCounter.builder("pipeline.tenant.files", statistics, s -> s.getCompletedCount(tenant))
+                .tags("tenant", tenant, "outcome", "completed")
+                .register(registry);
+        FunctionCounter.builder("pipeline.tenant.files", statistics, s -> s.getFailedCount(tenant))
+                .tags("tenant", tenant, "outcome", "failed")
+                .register(registry);
+        FunctionCounter.builder("pipeline.tenant.files", statistics, s -> s.getTimedOutCount(tenant))
+                .tags("tenant", tenant, "outcome", "timed_out")
+                .register(registry);
+        FunctionCounter.builder("pipeline.tenant.bytes", statistics, s -> s.getCompletedBytes(tenant))
+                .tag("tenant", tenant)
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionTimer.builder("pipeline.tenant.latency", statistics,
+                        s -> s.getLatencyCount(tenant), s -> s.getLatencyTotalNanos(tenant), TimeUnit.NANOSECONDS)
+                .tag("tenant", tenant)
+                .description("Detection until both branches finished")
+                .register(registry);
+    }
+}
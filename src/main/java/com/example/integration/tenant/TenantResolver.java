@@ -0,0 +1,54 @@
+// TenantResolver.java
+package com.example.integration.tenant;
+
+import com.example.integration.latency.IngestHeaders;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+import java.io.File;
+import java.nio.file.Path;
+
+/**
+ * Maps files to tenants: each immediate subdirectory of the input root is a tenant, and files
+ * directly in the root, or outside it, belong to the default tenant.
+ */
+public class TenantResolver {
+
+    private final Path root;
+    private final String defaultTenant;
+
+    public TenantResolver(File root, String defaultTenant) {
+        this.root = root.toPath().toAbsolutePath().normalize();
+        this.defaultTenant = defaultTenant;
+    }
+
+    public String getDefaultTenant() {
+        return defaultTenant;
+    }
+
+    public String tenantOf(File file) {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        if (!path.startsWith(root)) {
+            return defaultTenant;
+        }
+        Path relative = root.relativize(path);
+        return relative.getNameCount() > 1 ? relative.getName(0).toString() : defaultTenant;
+    }
+
+    /**
+     * The {@link IngestHeaders#TENANT} header if stamped, otherwise derived from a {@code File} payload.
+     */
+    public String tenantOf(Message<?> message) {
+        String tenant = message.getHeaders().get(IngestHeaders.TENANT, String.class);
+        if (tenant != null) {
+            return tenant;
+        }
+        return message.getPayload() instanceof File file ? tenantOf(file) : defaultTenant;
+    }
+
+    public Message<?> stamp(Message<?> message) {
+        return MessageBuilder.fromMessage(message)
+                .setHeader(IngestHeaders.TENANT, tenantOf(message))
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+// TenantStatistics.java
+package com.example.integration.tenant;
+
+import com.example.integration.completion.FileCompletionEvent;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Per-tenant throughput and end-to-end latency, fed by the completion events on
+ * {@code processedFileChannel}. Latencies are kept in microseconds, like
+ * {@link com.example.integration.latency.PipelineLatencyRecorder}.
+ */
+public class TenantStatistics {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private final Map<String, Counters> tenants = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> tenantListeners = new CopyOnWriteArrayList<>();
+
+    public void record(String tenant, FileCompletionEvent event) {
+        Counters counters = tenants.get(tenant);
+        if (counters == null) {
+            counters = tenants.computeIfAbsent(tenant, t -> new Counters());
+            if (counters.announced.compareAndSet(false, true)) {
+                tenantListeners.forEach(listener -> listener.accept(tenant));
+            }
+        }
+        if (!event.isComplete()) {
+            counters.timedOut.increment();
+        } else if (event.isSuccessful()) {
+            counters.completed.increment();
+            long size = event.getBytes();
+            if (size > 0) {
+                counters.bytes.add(size);
+            }
+        } else {
+            counters.failed.increment();
+        }
+        if (event.endToEndNanos() >= 0) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(event.endToEndNanos());
+            counters.latency.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, micros));
+            counters.latencyCount.increment();
+            counters.latencyTotalNanos.add(event.endToEndNanos());
+        }
+    }
+
+    /**
+     * Called for every tenant seen so far and then for each new one, on the recording thread; a
+     * tenant appearing while the listener is added may be reported twice.
+     */
+    public void forEachTenant(Consumer<String> listener) {
+        tenantListeners.add(listener);
+        tenants.keySet().forEach(listener);
+    }
+
+    public Set<String> getTenants() {
+        return new TreeSet<>(tenants.keySet());
+    }
+
+    public long getCompletedCount(String tenant) {
+        Counters counters = tenants.get(tenant);
+        return counters == null ? 0 : counters.completed.sum();
+    }
+
+    public long getFailedCount(String tenant) {
+        Counters counters = tenants.get(tenant);
+        return counters == null ? 0 : counters.failed.sum();
+    }
+
+    public long getTimedOutCount(String tenant) {
+        Counters counters = tenants.get(tenant);
+        return counters == null ? 0 : counters.timedOut.sum();
+    }
+
+    public long getCompletedBytes(String tenant) {
+        Counters counters = tenants.get(tenant);
+        return counters == null ? 0 : counters.bytes.sum();
+    }
+
+    public long getLatencyCount(String tenant) {
+        Counters counters = tenants.get(tenant);
+        return counters == null ? 0 : counters.latencyCount.sum();
+    }
+
+    public long getLatencyTotalNanos(String tenant) {
+        Counters counters = tenants.get(tenant);
+        return counters == null ? 0 : counters.latencyTotalNanos.sum();
+    }
+
+    /**
+     * Cumulative end-to-end latency of the tenant's files, in microseconds.
+     */
+    public Histogram snapshot(String tenant) {
+        Counters counters = tenants.get(tenant);
+        if (counters == null) {
+            return new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        }
+        synchronized (counters) {
+            Histogram interval = counters.latency.getIntervalHistogram(counters.recycled);
+            counters.recycled = interval;
+            counters.cumulative.add(interval);
+            return counters.cumulative.copy();
+        }
+    }
+
+    public String summary() {
+        StringBuilder summary = new StringBuilder();
+        for (String tenant : getTenants()) {
+            Histogram histogram = snapshot(tenant);
+            summary.append(String.format("%-16s completed=%d failed=%d timedOut=%d bytes=%d p50=%dus p99=%dus max=%dus%n",
+                    tenant, getCompletedCount(tenant), getFailedCount(tenant), getTimedOutCount(tenant),
+                    getCompletedBytes(tenant), histogram.getValueAtPercentile(50),
+                    histogram.getValueAtPercentile(99), histogram.getMaxValue()));
+        }
+        return summary.toString();
+    }
+
+    private static final class Counters {
+
+        final LongAdder completed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder timedOut = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder latencyCount = new LongAdder();
+        final LongAdder latencyTotalNanos = new LongAdder();
+        final Recorder latency = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        final Histogram cumulative = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final AtomicBoolean announced = new AtomicBoolean();
+        Histogram recycled;
+    }
+}
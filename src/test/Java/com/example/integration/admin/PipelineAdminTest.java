@@ -0,0 +1,132 @@
+package com.example.integration.admin;
+
+import com.example.integration.config.PipelineProperties;
+import com.example.integration.executor.AdaptiveTaskExecutor;
+import com.example.integration.executor.AimdConcurrencyLimit;
+import com.example.integration.queue.ResizableBlockingQueue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.integration.util.DynamicPeriodicTrigger;
+import org.springframework.messaging.Message;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class PipelineAdminTest {
+
+    private AdaptiveTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.close();
+        }
+    }
+
+    @Test
+    void testPropertiesBindFromConfiguration() {
+        PipelineProperties properties = new Binder(new MapConfigurationPropertySource(Map.of(
+                "pipeline.input-directory", "/data/in",
+                "pipeline.poll-interval", "250ms",
+                "pipeline.inbound-queue-capacity", "200",
+                "pipeline.executor.max-threads", "16",
+                "pipeline.inbound-ordering.mode", "priority",
+                "pipeline.inbound-ordering.priority-pattern", "^urgent-(\\d)/",
+                "pipeline.inbound-ordering.bytes-per-step", "2MB")))
+                .bind("pipeline", PipelineProperties.class)
+                .get();
+
+        assertThat(properties.getInputDirectory()).isEqualTo(new File("/data/in"));
+        assertThat(properties.getMonitorDirectory()).isEqualTo(new File("monitor"));
+        assertThat(properties.getPollInterval()).isEqualTo(Duration.ofMillis(250));
+        assertThat(properties.getInboundQueueCapacity()).isEqualTo(200);
+        assertThat(properties.getExecutor().getMinThreads()).isEqualTo(2);
+        assertThat(properties.getExecutor().resolveMaxThreads()).isEqualTo(16);
+        assertThat(properties.getInboundOrdering().getMode()).isEqualTo(PipelineProperties.InboundOrdering.Mode.PRIORITY);
+        assertThat(properties.getInboundOrdering().getPriorityPattern().pattern()).isEqualTo("^urgent-(\\d)/");
+        assertThat(properties.getInboundOrdering().getBytesPerStep().toMegabytes()).isEqualTo(2);
+        assertThat(properties.getInboundOrdering().getMaxAdvance()).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    @Test
+    void testSettingsChangeOnTheLiveComponents() {
+        DynamicPeriodicTrigger trigger = new DynamicPeriodicTrigger(Duration.ofSeconds(1));
+        ResizableBlockingQueue<Message<?>> inbound = new ResizableBlockingQueue<>(50);
+        executor = new AdaptiveTaskExecutor("admin-test-", new AimdConcurrencyLimit(2, 8, 2, 0.9, 2.0), 100,
+                Duration.ofHours(1));
+        PipelineAdmin admin = new PipelineAdmin(trigger, inbound, executor);
+
+        admin.setPollIntervalMillis(100);
+        admin.setInboundQueueCapacity(500);
+        admin.setExecutorQueueCapacity(10);
+        admin.setExecutorThreads(4, 12);
+
+        assertThat(trigger.getDuration()).isEqualTo(Duration.ofMillis(100));
+        assertThat(inbound.getCapacity()).isEqualTo(500);
+        assertThat(admin.getExecutorQueueCapacity()).isEqualTo(10);
+        assertThat(admin.getExecutorMinThreads()).isEqualTo(4);
+        assertThat(admin.getExecutorMaxThreads()).isEqualTo(12);
+        assertThat(admin.getExecutorConcurrency()).isEqualTo(4);
+        assertThat(executor.getPoolSize()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void testShrinkingTheExecutorQueueUnderLoadLosesNoTasks() throws Exception {
+        executor = new AdaptiveTaskExecutor("admin-test-", new AimdConcurrencyLimit(1, 1, 1, 0.9, 2.0), 10,
+                Duration.ofHours(1));
+        PipelineAdmin admin = new PipelineAdmin(new DynamicPeriodicTrigger(Duration.ofSeconds(1)),
+                new ResizableBlockingQueue<>(50), executor);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger completed = new AtomicInteger();
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            completed.incrementAndGet();
+        });
+        for (int i = 0; i < 10; i++) {
+            executor.execute(completed::incrementAndGet);
+        }
+
+        admin.setExecutorQueueCapacity(2);
+        CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 5; i++) {
+                executor.execute(completed::incrementAndGet);
+            }
+        });
+        Thread.sleep(200);
+        assertThat(producer).isNotDone();
+
+        release.countDown();
+        producer.get(5, TimeUnit.SECONDS);
+        await().atMost(Duration.ofSeconds(5)).until(() -> completed.get() == 16);
+        assertThat(executor.getQueueSize()).isZero();
+    }
+
+    @Test
+    void testInvalidValuesAreRefused() {
+        DynamicPeriodicTrigger trigger = new DynamicPeriodicTrigger(Duration.ofSeconds(1));
+        executor = new AdaptiveTaskExecutor("admin-test-", new AimdConcurrencyLimit(2, 8, 2, 0.9, 2.0), 100,
+                Duration.ofHours(1));
+        PipelineAdmin admin = new PipelineAdmin(trigger, new ResizableBlockingQueue<>(50), executor);
+
+        assertThatThrownBy(() -> admin.setPollIntervalMillis(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> admin.setInboundQueueCapacity(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> admin.setExecutorThreads(5, 3)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(admin.getPollIntervalMillis()).isEqualTo(1000);
+        assertThat(admin.getExecutorMaxThreads()).isEqualTo(8);
+    }
+}
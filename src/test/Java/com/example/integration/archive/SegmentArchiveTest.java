@@ -0,0 +1,125 @@
+package com.example.integration.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.messaging.support.GenericMessage;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class SegmentArchiveTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testClosedSegmentsAreIndexedAndRollBySize() throws Exception {
+        File archive = tempDir.resolve("archive").toFile();
+        try (SegmentArchiveWriter writer = new SegmentArchiveWriter(archive, 1024, 10, 1000)) {
+            for (int i = 0; i < 10; i++) {
+                writer.append("file-" + i + ".txt", ("content " + i).repeat(20).getBytes(StandardCharsets.UTF_8), i);
+            }
+            assertThat(writer.getSegmentCount()).isGreaterThan(1);
+        }
+
+        List<File> segments = SegmentArchiveReader.segments(archive);
+        int total = 0;
+        for (File segment : segments) {
+            assertThat(segment.length()).isLessThanOrEqualTo(1024);
+            try (SegmentArchiveReader reader = SegmentArchiveReader.open(segment)) {
+                assertThat(reader.isIndexed()).isTrue();
+                total += reader.entries().size();
+            }
+        }
+        assertThat(total).isEqualTo(10);
+
+        ArchiveEntry entry = SegmentArchiveReader.locate(archive, "file-7.txt").orElseThrow();
+        try (SegmentArchiveReader reader = SegmentArchiveReader.open(entry.segment())) {
+            assertThat(new String(reader.read(entry), StandardCharsets.UTF_8)).isEqualTo("content 7".repeat(20));
+            assertThat(entry.modifiedMillis()).isEqualTo(7);
+        }
+    }
+
+    @Test
+    void testUnclosedSegmentIsRecoveredByScanningAndTornTailIsIgnored() throws Exception {
+        File archive = tempDir.resolve("archive").toFile();
+        SegmentArchiveWriter writer = new SegmentArchiveWriter(archive, 1 << 20, 1, 0);
+        writer.append("a.txt", "alpha".getBytes(StandardCharsets.UTF_8), 1);
+        writer.append("b.txt", "beta".getBytes(StandardCharsets.UTF_8), 2);
+        File segment = writer.getCurrentSegment();
+        try (RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+            raf.setLength(raf.length() - 2);
+        }
+
+        try (SegmentArchiveReader reader = SegmentArchiveReader.open(segment)) {
+            assertThat(reader.isIndexed()).isFalse();
+            assertThat(reader.entries()).extracting(ArchiveEntry::name).containsExactly("a.txt");
+            assertThat(reader.read(reader.find("a.txt").orElseThrow())).isEqualTo("alpha".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testEntriesLeftAfterABurstAreSyncedOnceAppendsStop() throws Exception {
+        File archive = tempDir.resolve("archive").toFile();
+        try (SegmentArchiveWriter writer = new SegmentArchiveWriter(archive, 1 << 20, 100, 200)) {
+            for (int i = 0; i < 3; i++) {
+                writer.append("burst-" + i + ".txt", new byte[] {(byte) i}, i);
+            }
+            assertThat(writer.getSyncCount()).isZero();
+
+            await().atMost(Duration.ofSeconds(2)).until(() -> writer.getSyncCount() == 1);
+            // Nothing new to force while idle
+            Thread.sleep(500);
+            assertThat(writer.getSyncCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testNewWriterStartsAFreshSegment() throws Exception {
+        File archive = tempDir.resolve("archive").toFile();
+        try (SegmentArchiveWriter writer = new SegmentArchiveWriter(archive, 1 << 20, 10, 1000)) {
+            writer.append("a.txt", new byte[] {1}, 0);
+        }
+        try (SegmentArchiveWriter writer = new SegmentArchiveWriter(archive, 1 << 20, 10, 1000)) {
+            writer.append("a.txt", new byte[] {2}, 0);
+        }
+
+        assertThat(SegmentArchiveReader.segments(archive)).hasSize(2);
+        ArchiveEntry latest = SegmentArchiveReader.locate(archive, "a.txt").orElseThrow();
+        try (SegmentArchiveReader reader = SegmentArchiveReader.open(latest.segment())) {
+            assertThat(reader.read(latest)).containsExactly(2);
+        }
+    }
+
+    @Test
+    void testHandlerArchivesFilesAndExtractRestoresThem() throws Exception {
+        File archive = tempDir.resolve("archive").toFile();
+        Path source = Files.writeString(tempDir.resolve("input.txt"), "hello archive");
+        SegmentArchiveWriter writer = new SegmentArchiveWriter(archive, 1 << 20, 10, 1000);
+        SegmentArchiveMessageHandler handler = new SegmentArchiveMessageHandler(writer,
+                message -> "monitor_" + ((File) message.getPayload()).getName());
+        handler.setBeanFactory(Mockito.mock(BeanFactory.class));
+        handler.afterPropertiesSet();
+
+        handler.handleMessage(new GenericMessage<>(source.toFile()));
+        writer.close();
+
+        File extractDir = tempDir.resolve("extracted").toFile();
+        try (SegmentArchiveReader reader = SegmentArchiveReader.open(SegmentArchiveReader.segments(archive).get(0))) {
+            assertThat(reader.extractAll(extractDir)).hasSize(1);
+        }
+        File restored = new File(extractDir, "monitor_input.txt");
+        assertThat(restored).hasContent("hello archive");
+        assertThat(restored.lastModified()).isEqualTo(source.toFile().lastModified());
+    }
+}
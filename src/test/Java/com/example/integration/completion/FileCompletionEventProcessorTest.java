@@ -0,0 +1,98 @@
+package com.example.integration.completion;
+
+import com.example.integration.latency.IngestHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.handler.AbstractReplyProducingMessageHandler;
+import org.springframework.integration.store.SimpleMessageGroup;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+
+import java.io.File;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class FileCompletionEventProcessorTest {
+
+    @Test
+    void testBothBranchesProduceACompleteEvent() {
+        QueueChannel outcomes = new QueueChannel();
+        File file = new File("test.txt");
+        Message<File> message = MessageBuilder.withPayload(file)
+                .setHeader(IngestHeaders.FILE_ID, "file-1")
+                .setHeader(IngestHeaders.DETECTED_AT, 1000L)
+                .setHeader(IngestHeaders.DETECTED_NANOS, System.nanoTime())
+                .build();
+
+        advised(new BranchOutcomeAdvice(Branch.MONITOR, outcomes), null).handleMessage(message);
+        advised(new BranchOutcomeAdvice(Branch.PRE_PROCESS, outcomes), null).handleMessage(message);
+
+        SimpleMessageGroup group = new SimpleMessageGroup("file-1");
+        group.add(outcomes.receive(0));
+        group.add(outcomes.receive(0));
+        Message<?> result = (Message<?>) new FileCompletionEventProcessor().processMessageGroup(group);
+        FileCompletionEvent event = (FileCompletionEvent) result.getPayload();
+
+        assertThat(event.fileId()).isEqualTo("file-1");
+        assertThat(event.fileName()).isEqualTo("test.txt");
+        assertThat(event.detectedAt()).isEqualTo(1000L);
+        assertThat(event.endToEndNanos()).isPositive();
+        assertThat(event.isComplete()).isTrue();
+        assertThat(event.isSuccessful()).isTrue();
+        assertThat(result.getHeaders().get(IngestHeaders.FILE_ID)).isEqualTo("file-1");
+    }
+
+    @Test
+    void testFailedBranchIsReportedAndRethrown() {
+        QueueChannel outcomes = new QueueChannel();
+        Message<File> message = MessageBuilder.withPayload(new File("test.txt"))
+                .setHeader(IngestHeaders.FILE_ID, "file-2")
+                .build();
+        MessageHandler handler = advised(new BranchOutcomeAdvice(Branch.PRE_PROCESS, outcomes),
+                new IllegalStateException("disk full"));
+
+        assertThatThrownBy(() -> handler.handleMessage(message)).hasRootCauseMessage("disk full");
+
+        BranchOutcome outcome = (BranchOutcome) outcomes.receive(0).getPayload();
+        assertThat(outcome.successful()).isFalse();
+        assertThat(outcome.error()).isEqualTo("disk full");
+
+        SimpleMessageGroup group = new SimpleMessageGroup("file-2");
+        group.add(MessageBuilder.withPayload(outcome).build());
+        FileCompletionEvent event = (FileCompletionEvent)
+                ((Message<?>) new FileCompletionEventProcessor().processMessageGroup(group)).getPayload();
+        assertThat(event.isComplete()).isFalse();
+        assertThat(event.isSuccessful()).isFalse();
+    }
+
+    @Test
+    void testMessagesWithoutFileIdAreNotReported() {
+        QueueChannel outcomes = new QueueChannel();
+
+        advised(new BranchOutcomeAdvice(Branch.MONITOR, outcomes), null)
+                .handleMessage(MessageBuilder.withPayload(new File("x.txt")).build());
+
+        assertThat(outcomes.getQueueSize()).isZero();
+    }
+
+    private static MessageHandler advised(BranchOutcomeAdvice advice, RuntimeException failure) {
+        AbstractReplyProducingMessageHandler handler = new AbstractReplyProducingMessageHandler() {
+            @Override
+            protected Object handleRequestMessage(Message<?> requestMessage) {
+                if (failure != null) {
+                    throw failure;
+                }
+                return null;
+            }
+        };
+        handler.setAdviceChain(List.of(advice));
+        handler.setBeanFactory(mock(BeanFactory.class));
+        handler.afterPropertiesSet();
+        return handler;
+    }
+}
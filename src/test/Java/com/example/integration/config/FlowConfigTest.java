@@ -1,17 +1,42 @@
 package com.example.integration.config;
 
+import com.example.integration.completion.Branch;
+import com.example.integration.completion.FileCompletionEvent;
+import com.example.integration.digest.DigestingFileWritingMessageHandler;
+import com.example.integration.digest.FileDigest;
+import com.example.integration.gateway.PipelineGateway;
+import com.example.integration.latency.PipelineLatencyRecorder;
+import com.example.integration.latency.PipelineStage;
+import com.example.integration.layout.ShardedDirectoryLayout;
+import com.example.integration.retention.RetentionPolicy;
+import com.example.integration.ratelimit.IoRateLimiter;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.integration.file.FileHeaders;
+import org.springframework.integration.support.MessageBuilder;
 import org.springframework.integration.test.context.SpringIntegrationTest;
+import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.support.GenericMessage;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@SpringBootTest
+@SpringBootTest(properties = "pipeline.digest.sidecar=true")
 @SpringIntegrationTest
 class FlowConfigTest {
 
@@ -21,6 +46,18 @@ class FlowConfigTest {
     @Autowired
     private MessageChannel moveToPreProcessChannel;
 
+    @Autowired
+    private PipelineGateway pipelineGateway;
+
+    @Autowired
+    private IoRateLimiter ioRateLimiter;
+
+    @Autowired
+    private PipelineLatencyRecorder pipelineLatencyRecorder;
+
+    @TempDir
+    Path tempDir;
+
     @Test
     void testCopyToMonitorFlowHandlesFile() throws Exception {
         File testFile = new File("monitor_test.txt");
@@ -34,6 +71,7 @@ class FlowConfigTest {
         Thread.sleep(500);
         assertThat(outFile.exists()).isTrue();
         outFile.delete();
+        new File("monitor/monitor_monitor_test.txt.sum").delete();
         testFile.delete();
     }
 
@@ -51,4 +89,166 @@ class FlowConfigTest {
         assertThat(outFile.exists()).isTrue();
         outFile.delete();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testBranchesWriteByteArrayPayloadsUnderTheirHeaderName() throws Exception {
+        Message<byte[]> message = MessageBuilder.withPayload("uploaded".getBytes())
+                .setHeader(FileHeaders.FILENAME, "upload_test.txt")
+                .build();
+        copyToMonitorChannel.send(message);
+        moveToPreProcessChannel.send(message);
+        Thread.sleep(500);
+        File monitorFile = new File("monitor/monitor_upload_test.txt");
+        File preProcessFile = new File("pre-process/upload_test.txt");
+        File sidecar = new File("monitor/monitor_upload_test.txt.sum");
+        assertThat(monitorFile).hasContent("uploaded");
+        assertThat(preProcessFile).hasContent("uploaded");
+        assertThat(sidecar).content().contains("bytes=8", "lines=1");
+        monitorFile.delete();
+        preProcessFile.delete();
+        sidecar.delete();
+    }
+
+    @Test
+    void testSameNamedFilesOfDifferentTenantsDoNotOverwriteEachOther() throws Exception {
+        for (String tenant : List.of("tenant_a", "tenant_b")) {
+            Path file = Files.createDirectories(tempDir.resolve(tenant)).resolve("report.txt");
+            Files.writeString(file, "report of " + tenant + "\n");
+            Message<File> message = MessageBuilder.withPayload(file.toFile())
+                    .setHeader(FileHeaders.RELATIVE_PATH, tenant + File.separator + "report.txt")
+                    .build();
+            copyToMonitorChannel.send(message);
+            moveToPreProcessChannel.send(message);
+        }
+        try {
+            for (String tenant : List.of("tenant_a", "tenant_b")) {
+                assertThat(new File("monitor/" + tenant + "/monitor_report.txt")).hasContent("report of " + tenant + "\n");
+                assertThat(new File("monitor/" + tenant + "/monitor_report.txt.sum")).exists();
+                assertThat(new File("pre-process/" + tenant + "/report.txt")).hasContent("report of " + tenant + "\n");
+            }
+            assertThat(new File("pre-process/report.txt")).doesNotExist();
+        } finally {
+            for (String tenant : List.of("tenant_a", "tenant_b")) {
+                new File("monitor/" + tenant + "/monitor_report.txt").delete();
+                new File("monitor/" + tenant + "/monitor_report.txt.sum").delete();
+                new File("monitor/" + tenant).delete();
+                new File("pre-process/" + tenant + "/report.txt").delete();
+                new File("pre-process/" + tenant).delete();
+            }
+        }
+    }
+
+    @Test
+    void testPacedFilesReachBothBranches() throws Exception {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            files.add(Files.writeString(tempDir.resolve("paced_test" + i + ".txt"), "paced " + i + "\n"));
+        }
+        long pacedBefore = ioRateLimiter.getPacedCount(Branch.MONITOR);
+        // Only the monitor copies are limited; the moves must still wait for them
+        ioRateLimiter.setFilesPerSecond(Branch.MONITOR, 4);
+        try {
+            List<FileCompletionEvent> events = pipelineGateway.submitAll(files).get(30, TimeUnit.SECONDS);
+
+            assertThat(events).allMatch(FileCompletionEvent::isSuccessful);
+        } finally {
+            ioRateLimiter.setFilesPerSecond(Branch.MONITOR, 0);
+        }
+        assertThat(ioRateLimiter.getPacedCount(Branch.MONITOR)).isGreaterThan(pacedBefore);
+        for (int i = 0; i < 8; i++) {
+            File monitorFile = new File("monitor/monitor_paced_test" + i + ".txt");
+            File preProcessFile = new File("pre-process/paced_test" + i + ".txt");
+            assertThat(monitorFile).hasContent("paced " + i + "\n");
+            assertThat(preProcessFile).hasContent("paced " + i + "\n");
+            monitorFile.delete();
+            new File("monitor/monitor_paced_test" + i + ".txt.sum").delete();
+            preProcessFile.delete();
+        }
+    }
+
+    @Test
+    void testQueueStagesAreRecordedThroughTheFlow() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("latency_test.txt"), "latency\n");
+        long inboundBefore = pipelineLatencyRecorder.getCount(PipelineStage.INBOUND_QUEUE);
+        long pacingBefore = pipelineLatencyRecorder.getCount(PipelineStage.PACING);
+        long executorBefore = pipelineLatencyRecorder.getCount(PipelineStage.EXECUTOR_QUEUE);
+
+        assertThat(pipelineGateway.submit(file).get(30, TimeUnit.SECONDS).isSuccessful()).isTrue();
+
+        assertThat(pipelineLatencyRecorder.getCount(PipelineStage.INBOUND_QUEUE)).isEqualTo(inboundBefore + 1);
+        assertThat(pipelineLatencyRecorder.getCount(PipelineStage.PACING)).isEqualTo(pacingBefore + 1);
+        assertThat(pipelineLatencyRecorder.getCount(PipelineStage.EXECUTOR_QUEUE)).isEqualTo(executorBefore + 1);
+        new File("monitor/monitor_latency_test.txt").delete();
+        new File("monitor/monitor_latency_test.txt.sum").delete();
+        new File("pre-process/latency_test.txt").delete();
+    }
+
+    @Test
+    void testOutputLayoutsComeFromProperties() {
+        PipelineProperties properties = new Binder(new MapConfigurationPropertySource(Map.of(
+                "pipeline.layout.monitor.strategy", "hash",
+                "pipeline.layout.monitor.depth", "1",
+                "pipeline.layout.monitor.fan-out", "16",
+                "pipeline.layout.pre-process.strategy", "date")))
+                .bind("pipeline", PipelineProperties.class)
+                .get();
+
+        ShardedDirectoryLayout monitor = FlowConfig.layout(new File("monitor"), properties.getLayout().getMonitor());
+        ShardedDirectoryLayout preProcess = FlowConfig.layout(new File("pre-process"),
+                properties.getLayout().getPreProcess());
+
+        assertThat(monitor.getStrategy()).isEqualTo(ShardedDirectoryLayout.Strategy.HASH);
+        assertThat(monitor.locate("a.txt", 0).getParentFile().getName()).hasSize(1);
+        assertThat(preProcess.getStrategy()).isEqualTo(ShardedDirectoryLayout.Strategy.DATE);
+        assertThat(preProcess.locate("a.txt", 0).getParent()).isEqualTo(
+                new File("pre-process", "1970-01-01/00").getPath());
+        assertThat(FlowConfig.layout(new File("x"), new PipelineProperties.Layout()).isFlat()).isTrue();
+    }
+
+    @Test
+    void testDigestSidecarAndStrongHashComeFromProperties() throws Exception {
+        PipelineProperties properties = new Binder(new MapConfigurationPropertySource(Map.of(
+                "pipeline.digest.sidecar", "true",
+                "pipeline.digest.strong-hash-algorithm", "SHA-256")))
+                .bind("pipeline", PipelineProperties.class)
+                .get();
+        Message<byte[]> message = MessageBuilder.withPayload("digested".getBytes())
+                .setHeader(FileHeaders.FILENAME, "digest_test.txt")
+                .build();
+
+        write(properties.getDigest(), true, tempDir.resolve("configured"), message);
+        write(new PipelineProperties.Digest(), true, tempDir.resolve("default"), message);
+
+        assertThat(FileDigest.readSidecar(tempDir.resolve("configured/digest_test.txt.sum")).strongHashAlgorithm())
+                .isEqualTo("SHA-256");
+        assertThat(tempDir.resolve("default/digest_test.txt")).hasContent("digested");
+        assertThat(tempDir.resolve("default/digest_test.txt.sum")).doesNotExist();
+    }
+
+    private static void write(PipelineProperties.Digest digest, boolean sidecar, Path directory, Message<?> message) {
+        DigestingFileWritingMessageHandler handler = FlowConfig.fileWritingHandler(
+                ShardedDirectoryLayout.flat(directory.toFile()), FlowConfig::sourceFileName);
+        FlowConfig.configureDigest(handler, digest, sidecar);
+        handler.setExpectReply(false);
+        handler.setBeanFactory(Mockito.mock(BeanFactory.class));
+        handler.afterPropertiesSet();
+        handler.handleMessage(message);
+    }
+
+    @Test
+    void testRetentionLimitsComeFromProperties() {
+        PipelineProperties properties = new Binder(new MapConfigurationPropertySource(Map.of(
+                "pipeline.retention.max-age", "7d",
+                "pipeline.retention.max-files", "100000",
+                "pipeline.retention.max-bytes", "20GB")))
+                .bind("pipeline", PipelineProperties.class)
+                .get();
+
+        RetentionPolicy policy = FlowConfig.retentionPolicy(properties.getRetention());
+
+        assertThat(policy.maxAge()).isEqualTo(Duration.ofDays(7));
+        assertThat(policy.maxFileCount()).isEqualTo(100_000);
+        assertThat(policy.maxTotalBytes()).isEqualTo(20L * 1024 * 1024 * 1024);
+        assertThat(FlowConfig.retentionPolicy(new PipelineProperties.Retention()).isEnabled()).isFalse();
+    }
+}
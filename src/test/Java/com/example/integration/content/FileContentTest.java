@@ -0,0 +1,136 @@
+package com.example.integration.content;
+
+import com.example.integration.latency.IngestHeaders;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileContentTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWindowsCoverTheWholeFile() throws Exception {
+        File file = write("0123456789abcdefghij");
+        List<String> windows = new ArrayList<>();
+
+        try (FileContent content = new FileContent(file, 8)) {
+            content.forEachWindow((position, window) -> {
+                windows.add(position + ":" + StandardCharsets.US_ASCII.decode(window));
+                return true;
+            });
+            assertThat(content.size()).isEqualTo(20);
+        }
+
+        assertThat(windows).containsExactly("0:01234567", "8:89abcdef", "16:ghij");
+    }
+
+    @Test
+    void testVisitorCanStopEarly() throws Exception {
+        File file = write("x".repeat(100));
+        int[] visited = {0};
+
+        try (FileContent content = new FileContent(file, 10)) {
+            content.forEachWindow((position, window) -> ++visited[0] < 3);
+        }
+
+        assertThat(visited[0]).isEqualTo(3);
+    }
+
+    @Test
+    void testHeadForSniffing() throws Exception {
+        File file = write("a,b,c\n1,2,3\n");
+
+        try (FileContent content = new FileContent(file)) {
+            ByteBuffer head = content.head(5);
+            assertThat(StandardCharsets.US_ASCII.decode(head).toString()).isEqualTo("a,b,c");
+            assertThat(content.head(1000).remaining()).isEqualTo(12);
+        }
+    }
+
+    @Test
+    void testEarlierBuffersStayReadableAfterMovingOnAndClosing() throws Exception {
+        FileContent content = new FileContent(write("0123456789abcdef"), 8);
+        ByteBuffer first = content.window(0);
+        ByteBuffer head = content.head(4);
+        content.window(8);
+        content.close();
+
+        assertThat(StandardCharsets.US_ASCII.decode(first).toString()).isEqualTo("01234567");
+        assertThat(StandardCharsets.US_ASCII.decode(head).toString()).isEqualTo("0123");
+    }
+
+    @Test
+    void testReleasedContentCannotBeRead() throws Exception {
+        FileContent content = new FileContent(write("abc"));
+        content.head(1);
+        content.close();
+
+        assertThat(content.isClosed()).isTrue();
+        assertThatThrownBy(() -> content.window(0)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testAttachAndReleaseOnMessages() throws Exception {
+        File file = write("abc");
+        Message<?> attached = FileContentSupport.attach(new GenericMessage<>(file));
+        FileContent content = FileContentSupport.contentOf(attached);
+        assertThat(content).isNotNull();
+        assertThat(content.size()).isEqualTo(3);
+
+        Message<?> released = FileContentSupport.release(attached);
+
+        assertThat(content.isClosed()).isTrue();
+        assertThat(released.getHeaders()).doesNotContainKey(IngestHeaders.CONTENT);
+        assertThat(released.getPayload()).isSameAs(file);
+        assertThat(FileContentSupport.attach(new GenericMessage<>("not a file")).getHeaders())
+                .doesNotContainKey(IngestHeaders.CONTENT);
+    }
+
+    @Test
+    void testContentIsReleasedWhenAStepInBetweenThrows() throws Exception {
+        File file = write("abc");
+        AtomicReference<FileContent> seen = new AtomicReference<>();
+
+        assertThatThrownBy(() -> FileContentSupport.withContent(new GenericMessage<>(file), m -> {
+            seen.set(FileContentSupport.contentOf(m));
+            seen.get().head(1);
+            throw new IllegalStateException("step failed");
+        })).hasMessage("step failed");
+
+        assertThat(seen.get()).isNotNull();
+        assertThat(seen.get().isClosed()).isTrue();
+
+        Message<?> released = FileContentSupport.withContent(new GenericMessage<>(file), m -> m);
+        assertThat(released.getHeaders()).doesNotContainKey(IngestHeaders.CONTENT);
+        assertThat(released.getPayload()).isSameAs(file);
+    }
+
+    @Test
+    void testEmptyFile() throws Exception {
+        try (FileContent content = new FileContent(write(""))) {
+            assertThat(content.head(10).remaining()).isZero();
+            content.forEachWindow((position, window) -> {
+                throw new AssertionError("no windows expected");
+            });
+        }
+    }
+
+    private File write(String text) throws Exception {
+        return Files.writeString(tempDir.resolve("f" + System.nanoTime() + ".txt"), text).toFile();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.integration.digest;
+
+import org.mockito.Mockito;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.file.FileHeaders;
+import org.springframework.integration.file.support.FileExistsMode;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.MessageChannel;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Copy throughput of the monitor branch's handler writing on the calling threads versus through
+ * an {@link AsyncFileWriter}, with the same number of calling threads. Point {@code directory}
+ * at the device under test, e.g. an NVMe mount. Not run as part of the test suite.
+ *
+ * <pre>
+ * java ... com.example.integration.digest.AsyncFileWriterBenchmark [files] [kilobytes] [threads] [ioThreads] [directory]
+ * </pre>
+ */
+public class AsyncFileWriterBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int files = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int kilobytes = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int ioThreads = args.length > 3 ? Integer.parseInt(args[3]) : 32;
+        Path directory = Files.createTempDirectory(args.length > 4 ? Path.of(args[4]) : Path.of(System.getProperty(
+                "java.io.tmpdir")), "async-write-benchmark");
+        try {
+            File[] sources = generate(directory.resolve("in"), files, kilobytes);
+            for (int i = 0; i < 3; i++) {
+                run("blocking", sources, directory.resolve("blocking"), threads, null, i > 0);
+                try (AsyncFileWriter writer = new AsyncFileWriter(ioThreads, 4 * ioThreads, 4, 256 * 1024)) {
+                    run("async", sources, directory.resolve("async"), threads, writer, i > 0);
+                }
+            }
+        } finally {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void run(String name, File[] sources, Path target, int threads, AsyncFileWriter writer,
+                            boolean report) throws Exception {
+        CountDownLatch done = new CountDownLatch(sources.length);
+        MessageChannel replies = (message, timeout) -> {
+            done.countDown();
+            return true;
+        };
+        DigestingFileWritingMessageHandler handler = new DigestingFileWritingMessageHandler(target.toFile());
+        // Blocking copies stream the source, so the name comes from the header there
+        handler.setFileNameGenerator(m -> m.getPayload() instanceof File file
+                ? file.getName() : m.getHeaders().get(FileHeaders.FILENAME, String.class));
+        handler.setFileExistsMode(FileExistsMode.REPLACE);
+        handler.setAsyncWriter(writer);
+        handler.setOutputChannel(replies);
+        handler.setBeanFactory(Mockito.mock(BeanFactory.class));
+        handler.afterPropertiesSet();
+
+        ExecutorService callers = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (File source : sources) {
+            callers.execute(() -> handler.handleMessage(MessageBuilder.withPayload(source).build()));
+        }
+        boolean completed = done.await(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+        callers.shutdown();
+        if (!completed) {
+            throw new IllegalStateException(name + ": " + done.getCount() + " copies did not complete");
+        }
+        if (report) {
+            double megabytes = sources.length * sources[0].length() / 1_000_000.0;
+            System.out.printf("%-8s %,d files %,.0f MB in %,d ms: %,.0f files/s %,.0f MB/s%n", name, sources.length,
+                    megabytes, elapsed / 1_000_000, sources.length * 1e9 / elapsed, megabytes * 1e9 / elapsed);
+        }
+    }
+
+    private static File[] generate(Path directory, int files, int kilobytes) throws Exception {
+        Files.createDirectories(directory);
+        byte[] content = new byte[kilobytes * 1024];
+        new Random(42).nextBytes(content);
+        File[] sources = new File[files];
+        for (int i = 0; i < files; i++) {
+            sources[i] = Files.write(directory.resolve("file-" + i + ".bin"), content).toFile();
+        }
+        return sources;
+    }
+}
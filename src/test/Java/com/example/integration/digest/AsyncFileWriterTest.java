@@ -0,0 +1,165 @@
+package com.example.integration.digest;
+
+import com.example.integration.completion.Branch;
+import com.example.integration.completion.BranchOutcome;
+import com.example.integration.completion.BranchOutcomeAdvice;
+import com.example.integration.latency.IngestHeaders;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.file.FileHeaders;
+import org.springframework.integration.file.support.FileExistsMode;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncFileWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final AsyncFileWriter writer = new AsyncFileWriter(2, 4, 3, 4096);
+
+    @AfterEach
+    void close() {
+        writer.close();
+    }
+
+    @Test
+    void testCopyOverlapsChunksAndDigestsInOrder() throws Exception {
+        byte[] content = new byte[1_000_003];
+        new Random(7).nextBytes(content);
+        Path source = Files.write(tempDir.resolve("source.bin"), content);
+        Files.writeString(tempDir.resolve("target.bin"), "longer stale content that must be truncated");
+
+        FileDigest digest = writer.copy(source, tempDir.resolve("target.bin"), "SHA-256").get(10, TimeUnit.SECONDS);
+
+        assertThat(Files.readAllBytes(tempDir.resolve("target.bin"))).isEqualTo(content);
+        DigestAccumulator expected = new DigestAccumulator("SHA-256");
+        expected.update(content, 0, content.length);
+        assertThat(digest).isEqualTo(expected.finish());
+        assertThat(writer.getInFlight()).isZero();
+    }
+
+    @Test
+    void testSingleBufferPerFileStillCopiesEveryChunk() throws Exception {
+        byte[] content = new byte[50_000];
+        new Random(11).nextBytes(content);
+        Path source = Files.write(tempDir.resolve("single.bin"), content);
+
+        try (AsyncFileWriter single = new AsyncFileWriter(1, 1, 1, 4096)) {
+            assertThat(single.copy(source, tempDir.resolve("copy.bin"), null).get(10, TimeUnit.SECONDS).bytes())
+                    .isEqualTo(content.length);
+        }
+
+        assertThat(Files.readAllBytes(tempDir.resolve("copy.bin"))).isEqualTo(content);
+    }
+
+    @Test
+    void testEmptyFilesAndByteArrays() throws Exception {
+        Path empty = Files.createFile(tempDir.resolve("empty.txt"));
+
+        assertThat(writer.copy(empty, tempDir.resolve("copy.txt"), null).get(10, TimeUnit.SECONDS).bytes()).isZero();
+        assertThat(tempDir.resolve("copy.txt")).isEmptyFile();
+        FileDigest digest = writer.write("a\nb".getBytes(StandardCharsets.UTF_8), tempDir.resolve("bytes.txt"), null)
+                .get(10, TimeUnit.SECONDS);
+        assertThat(digest.bytes()).isEqualTo(3);
+        assertThat(digest.lines()).isEqualTo(2);
+        assertThat(tempDir.resolve("bytes.txt")).hasContent("a\nb");
+    }
+
+    @Test
+    void testMissingSourceFailsTheFuture() {
+        CompletableFuture<FileDigest> copy = writer.copy(tempDir.resolve("missing.txt"), tempDir.resolve("t.txt"), null);
+
+        assertThatThrownBy(() -> copy.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(NoSuchFileException.class);
+        assertThat(writer.getInFlight()).isZero();
+    }
+
+    @Test
+    void testHandlerRepliesWhenTheWriteCompletesAndOutcomeFollows() throws Exception {
+        Path source = Files.writeString(tempDir.resolve("source.txt"), "one\ntwo\n");
+        Path moved = Files.writeString(tempDir.resolve("moved.txt"), "moved\n");
+        QueueChannel replies = new QueueChannel();
+        QueueChannel outcomes = new QueueChannel();
+        DigestingFileWritingMessageHandler copying = handler(false, replies, outcomes);
+        DigestingFileWritingMessageHandler moving = handler(true, replies, outcomes);
+
+        copying.handleMessage(MessageBuilder.withPayload(source.toFile()).setHeader(IngestHeaders.FILE_ID, "1").build());
+        copying.handleMessage(MessageBuilder.withPayload("upload\n".getBytes(StandardCharsets.UTF_8))
+                .setHeader(FileHeaders.FILENAME, "upload.txt")
+                .setHeader(IngestHeaders.FILE_ID, "2")
+                .build());
+        moving.handleMessage(MessageBuilder.withPayload(moved.toFile()).setHeader(IngestHeaders.FILE_ID, "3").build());
+
+        for (int i = 0; i < 3; i++) {
+            Message<?> reply = replies.receive(10_000);
+            File written = (File) reply.getPayload();
+            assertThat(FileDigest.fromHeaders(reply.getHeaders()).bytes()).isEqualTo(written.length());
+            BranchOutcome outcome = (BranchOutcome) outcomes.receive(0).getPayload();
+            assertThat(outcome.successful()).isTrue();
+            assertThat(outcome.digest()).isNotNull();
+        }
+        assertThat(tempDir.resolve("out/source.txt")).hasContent("one\ntwo\n");
+        assertThat(FileDigest.readSidecar(tempDir.resolve("out/source.txt.sum")).lines()).isEqualTo(2);
+        assertThat(tempDir.resolve("out/upload.txt")).hasContent("upload\n");
+        assertThat(tempDir.resolve("out/moved.txt")).hasContent("moved\n");
+        assertThat(source).exists();
+        assertThat(moved).doesNotExist();
+        try (var files = Files.list(tempDir.resolve("out"))) {
+            assertThat(files.map(Path::toString)).noneMatch(name -> name.endsWith(".writing"));
+        }
+    }
+
+    @Test
+    void testFailedWriteIsReportedAsAFailedOutcome() {
+        QueueChannel replies = new QueueChannel();
+        QueueChannel outcomes = new QueueChannel();
+        DigestingFileWritingMessageHandler handler = handler(false, replies, outcomes);
+
+        handler.handleMessage(MessageBuilder.withPayload(tempDir.resolve("vanished.txt").toFile())
+                .setHeader(IngestHeaders.FILE_ID, "1")
+                .build());
+
+        BranchOutcome outcome = (BranchOutcome) outcomes.receive(10_000).getPayload();
+        assertThat(outcome.successful()).isFalse();
+        assertThat(outcome.error()).contains("vanished.txt");
+        assertThat(replies.getQueueSize()).isZero();
+        assertThat(tempDir.resolve("out/vanished.txt.writing")).doesNotExist();
+    }
+
+    private DigestingFileWritingMessageHandler handler(boolean move, QueueChannel replies, QueueChannel outcomes) {
+        DigestingFileWritingMessageHandler handler =
+                new DigestingFileWritingMessageHandler(tempDir.resolve("out").toFile());
+        handler.setFileNameGenerator(m -> m.getPayload() instanceof File file
+                ? file.getName() : m.getHeaders().get(FileHeaders.FILENAME, String.class));
+        handler.setFileExistsMode(FileExistsMode.REPLACE);
+        handler.setDeleteSourceFiles(move);
+        handler.setDigestMoves(move);
+        handler.setSidecarSuffix(".sum");
+        handler.setAsyncWriter(writer);
+        handler.setAdviceChain(List.of(new BranchOutcomeAdvice(Branch.MONITOR, outcomes)));
+        handler.setOutputChannel(replies);
+        handler.setBeanFactory(Mockito.mock(BeanFactory.class));
+        handler.afterPropertiesSet();
+        return handler;
+    }
+}
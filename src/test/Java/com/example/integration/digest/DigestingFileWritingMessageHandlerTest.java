@@ -0,0 +1,249 @@
+package com.example.integration.digest;
+
+import com.example.integration.latency.IngestHeaders;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.file.FileHeaders;
+import org.springframework.integration.file.support.FileExistsMode;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.zip.CRC32C;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DigestingFileWritingMessageHandlerTest {
+
+    private static final String CONTENT = "first line\nsecond line\nno newline at the end";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCopyIsDigestedWhileWriting() throws Exception {
+        Path source = Files.writeString(tempDir.resolve("source.txt"), CONTENT);
+        QueueChannel replies = new QueueChannel();
+        DigestingFileWritingMessageHandler handler = handler("out", false, replies);
+        handler.setStrongHashAlgorithm("SHA-256");
+        handler.setSidecarSuffix(".sum");
+
+        handler.handleMessage(MessageBuilder.withPayload(source.toFile()).build());
+
+        Message<?> reply = replies.receive(0);
+        FileDigest digest = FileDigest.fromHeaders(reply.getHeaders());
+        byte[] bytes = CONTENT.getBytes(StandardCharsets.UTF_8);
+        assertThat(digest.crc32c()).isEqualTo(crc32c(bytes));
+        assertThat(digest.strongHash()).isEqualTo(HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(bytes)));
+        assertThat(digest.bytes()).isEqualTo(bytes.length);
+        assertThat(digest.lines()).isEqualTo(3);
+        assertThat(reply.getPayload()).isEqualTo(tempDir.resolve("out/source.txt").toFile());
+        assertThat(tempDir.resolve("out/source.txt")).hasContent(CONTENT);
+        assertThat(source).exists();
+        assertThat(FileDigest.readSidecar(tempDir.resolve("out/source.txt.sum"))).isEqualTo(digest);
+    }
+
+    @Test
+    void testMoveIsOnlyARenameByDefault() throws Exception {
+        Path source = Files.writeString(tempDir.resolve("moved.txt"), "a\nb\n");
+        QueueChannel replies = new QueueChannel();
+        DigestingFileWritingMessageHandler handler = handler("out", true, replies);
+
+        handler.handleMessage(MessageBuilder.withPayload(source.toFile()).build());
+
+        Message<?> reply = replies.receive(0);
+        assertThat(reply.getPayload()).isEqualTo(tempDir.resolve("out/moved.txt").toFile());
+        assertThat(FileDigest.fromHeaders(reply.getHeaders())).isNull();
+        assertThat(source).doesNotExist();
+        assertThat(tempDir.resolve("out/moved.txt")).hasContent("a\nb\n");
+    }
+
+    @Test
+    void testMoveIsStillARenameAndDigestedWhenAskedTo() throws Exception {
+        Path source = Files.writeString(tempDir.resolve("moved.txt"), "a\nb\n");
+        QueueChannel replies = new QueueChannel();
+        DigestingFileWritingMessageHandler handler = handler("out", true, replies);
+        handler.setDigestMoves(true);
+
+        handler.handleMessage(MessageBuilder.withPayload(source.toFile()).build());
+
+        FileDigest digest = FileDigest.fromHeaders(replies.receive(0).getHeaders());
+        assertThat(digest.lines()).isEqualTo(2);
+        assertThat(digest.bytes()).isEqualTo(4);
+        assertThat(digest.strongHash()).isNull();
+        assertThat(source).doesNotExist();
+        assertThat(tempDir.resolve("out/moved.txt")).hasContent("a\nb\n");
+    }
+
+    @Test
+    void testByteArrayPayloadIsDigested() {
+        QueueChannel replies = new QueueChannel();
+        DigestingFileWritingMessageHandler handler = handler("out", false, replies);
+        byte[] content = "uploaded\n".getBytes(StandardCharsets.UTF_8);
+
+        handler.handleMessage(MessageBuilder.withPayload(content)
+                .setHeader(FileHeaders.FILENAME, "upload.txt")
+                .build());
+
+        Message<?> reply = replies.receive(0);
+        assertThat(reply.getHeaders().get(IngestHeaders.CRC32C)).isEqualTo(String.format("%08x", crc32c(content)));
+        assertThat(reply.getHeaders().get(IngestHeaders.LINE_COUNT)).isEqualTo(1L);
+        assertThat(tempDir.resolve("out/upload.txt")).hasContent("uploaded\n");
+    }
+
+    @Test
+    void testTerminalHandlerStillWritesTheSidecar() throws Exception {
+        Path source = Files.writeString(tempDir.resolve("quiet.txt"), "");
+        QueueChannel replies = new QueueChannel();
+        DigestingFileWritingMessageHandler handler = handler("out", false, replies);
+        handler.setSidecarSuffix(".sum");
+        handler.setExpectReply(false);
+
+        handler.handleMessage(MessageBuilder.withPayload(source.toFile()).build());
+
+        assertThat(replies.getQueueSize()).isZero();
+        FileDigest digest = FileDigest.readSidecar(tempDir.resolve("out/quiet.txt.sum"));
+        assertThat(digest.bytes()).isZero();
+        assertThat(digest.lines()).isZero();
+        assertThat(digest.crc32c()).isEqualTo(crc32c(new byte[0]));
+    }
+
+    @Test
+    void testAppendModeIsNotDigested() throws Exception {
+        Path source = Files.writeString(tempDir.resolve("log.txt"), "entry\n");
+        QueueChannel replies = new QueueChannel();
+        DigestingFileWritingMessageHandler handler = handler("out", false, replies);
+        handler.setFileExistsMode(FileExistsMode.APPEND);
+        handler.setSidecarSuffix(".sum");
+
+        handler.handleMessage(MessageBuilder.withPayload(source.toFile()).build());
+        handler.handleMessage(MessageBuilder.withPayload(source.toFile()).build());
+
+        assertThat(replies.receive(0).getHeaders()).doesNotContainKey(IngestHeaders.CRC32C);
+        assertThat(tempDir.resolve("out/log.txt")).hasContent("entry\nentry\n");
+        assertThat(tempDir.resolve("out/log.txt.sum")).doesNotExist();
+    }
+
+    @Test
+    void testRepeatedCopyIsSkippedOnUnchangedAttributes() throws Exception {
+        Path source = Files.writeString(tempDir.resolve("same.txt"), CONTENT);
+        QueueChannel replies = new QueueChannel();
+        DigestingFileWritingMessageHandler handler = skippingHandler(false, replies);
+        handler.handleMessage(MessageBuilder.withPayload(source.toFile()).build());
+        Path written = tempDir.resolve("out/same.txt");
+        Object fileKey = Files.readAttributes(written, BasicFileAttributes.class).fileKey();
+        FileDigest first = FileDigest.fromHeaders(replies.receive(0).getHeaders());
+
+        handler.handleMessage(MessageBuilder.withPayload(source.toFile()).build());
+
+        Message<?> reply = replies.receive(0);
+        assertThat(reply.getPayload()).isEqualTo(written.toFile());
+        assertThat(FileDigest.fromHeaders(reply.getHeaders())).isEqualTo(first);
+        assertThat(Files.readAttributes(written, BasicFileAttributes.class).fileKey()).isEqualTo(fileKey);
+        WriteSkipStatistics statistics = handler.getSkipStatistics();
+        assertThat(statistics.getSkippedCount(WriteSkipStatistics.Check.ATTRIBUTES)).isEqualTo(1);
+        assertThat(statistics.getBytesAvoided()).isEqualTo(CONTENT.length());
+        assertThat(statistics.getWrittenCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testReplayIsComparedByFingerprint() throws Exception {
+        Path source = Files.writeString(tempDir.resolve("replay.txt"), CONTENT);
+        QueueChannel replies = new QueueChannel();
+        DigestingFileWritingMessageHandler handler = skippingHandler(false, replies);
+        handler.handleMessage(MessageBuilder.withPayload(source.toFile()).build());
+
+        // A replay drops a fresh copy: new attributes, same bytes
+        Files.delete(source);
+        Files.writeString(source, CONTENT);
+        handler.handleMessage(MessageBuilder.withPayload(source.toFile()).build());
+        assertThat(handler.getSkipStatistics().getSkippedCount(WriteSkipStatistics.Check.FINGERPRINT)).isEqualTo(1);
+
+        // Same size, different content
+        String changed = CONTENT.replace('f', 'F');
+        Files.writeString(source, changed);
+        handler.handleMessage(MessageBuilder.withPayload(source.toFile()).build());
+        assertThat(handler.getSkipStatistics().getSkippedCount()).isEqualTo(1);
+        assertThat(handler.getSkipStatistics().getWrittenCount()).isEqualTo(2);
+        assertThat(tempDir.resolve("out/replay.txt")).hasContent(changed);
+    }
+
+    @Test
+    void testSidecarOrBytesDecideWithoutACachedFingerprint() throws Exception {
+        Path source = Files.writeString(tempDir.resolve("restart.txt"), CONTENT);
+        skippingHandler(false, new QueueChannel()).handleMessage(MessageBuilder.withPayload(source.toFile()).build());
+
+        // A new handler, as after a restart, trusts the sidecar written with the file
+        DigestingFileWritingMessageHandler restarted = skippingHandler(false, new QueueChannel());
+        restarted.handleMessage(MessageBuilder.withPayload(source.toFile()).build());
+        assertThat(restarted.getSkipStatistics().getSkippedCount(WriteSkipStatistics.Check.FINGERPRINT)).isEqualTo(1);
+
+        // Without a sidecar the bytes are compared, and the sidecar is written for next time
+        Files.delete(tempDir.resolve("out/restart.txt.sum"));
+        DigestingFileWritingMessageHandler noSidecar = skippingHandler(false, new QueueChannel());
+        noSidecar.handleMessage(MessageBuilder.withPayload(source.toFile()).build());
+        assertThat(noSidecar.getSkipStatistics().getSkippedCount(WriteSkipStatistics.Check.CONTENT)).isEqualTo(1);
+        assertThat(tempDir.resolve("out/restart.txt.sum")).exists();
+    }
+
+    @Test
+    void testSkippedMoveStillConsumesTheSource() throws Exception {
+        Files.createDirectories(tempDir.resolve("out"));
+        Files.writeString(tempDir.resolve("out/moved.txt"), "a\nb\n");
+        Path source = Files.writeString(tempDir.resolve("moved.txt"), "a\nb\n");
+        QueueChannel replies = new QueueChannel();
+        DigestingFileWritingMessageHandler handler = skippingHandler(true, replies);
+
+        handler.handleMessage(MessageBuilder.withPayload(source.toFile()).build());
+
+        assertThat(source).doesNotExist();
+        assertThat(FileDigest.fromHeaders(replies.receive(0).getHeaders()).lines()).isEqualTo(2);
+        assertThat(handler.getSkipStatistics().getSkippedCount(WriteSkipStatistics.Check.CONTENT)).isEqualTo(1);
+
+        byte[] upload = "a\nb\n".getBytes(StandardCharsets.UTF_8);
+        handler.handleMessage(MessageBuilder.withPayload(upload).setHeader(FileHeaders.FILENAME, "moved.txt").build());
+        assertThat(handler.getSkipStatistics().getSkippedCount()).isEqualTo(2);
+    }
+
+    private DigestingFileWritingMessageHandler handler(String directory, boolean move, QueueChannel replies) {
+        DigestingFileWritingMessageHandler handler =
+                new DigestingFileWritingMessageHandler(tempDir.resolve(directory).toFile());
+        handler.setFileExistsMode(FileExistsMode.REPLACE);
+        handler.setDeleteSourceFiles(move);
+        handler.setOutputChannel(replies);
+        handler.setBeanFactory(Mockito.mock(BeanFactory.class));
+        handler.afterPropertiesSet();
+        return handler;
+    }
+
+    private DigestingFileWritingMessageHandler skippingHandler(boolean move, QueueChannel replies) {
+        DigestingFileWritingMessageHandler handler =
+                new DigestingFileWritingMessageHandler(tempDir.resolve("out").toFile());
+        handler.setFileNameGenerator(m -> m.getPayload() instanceof File file
+                ? file.getName() : m.getHeaders().get(FileHeaders.FILENAME, String.class));
+        handler.setFileExistsMode(FileExistsMode.REPLACE);
+        handler.setDeleteSourceFiles(move);
+        handler.setSidecarSuffix(move ? null : ".sum");
+        handler.setSkipIdentical(true);
+        handler.setOutputChannel(replies);
+        handler.setBeanFactory(Mockito.mock(BeanFactory.class));
+        handler.afterPropertiesSet();
+        return handler;
+    }
+
+    private static long crc32c(byte[] bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+}
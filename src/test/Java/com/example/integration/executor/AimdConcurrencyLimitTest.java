@@ -0,0 +1,107 @@
+package com.example.integration.executor;
+
+import com.example.integration.executor.AimdConcurrencyLimit.Decision;
+import com.example.integration.executor.AimdConcurrencyLimit.Sample;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class AimdConcurrencyLimitTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void testGrowsWhileThroughputRisesAndWorkIsQueued() {
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(2, 10, 2, 0.5, 2.0);
+
+        assertThat(limit.update(new Sample(100, MILLI, 50, SECOND))).isEqualTo(Decision.INCREASE);
+        assertThat(limit.update(new Sample(150, MILLI, 50, SECOND))).isEqualTo(Decision.INCREASE);
+        assertThat(limit.update(new Sample(200, MILLI, 50, SECOND))).isEqualTo(Decision.INCREASE);
+
+        assertThat(limit.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void testHoldsWhenAnExtraThreadBuysNothing() {
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(2, 10, 2, 0.5, 2.0);
+
+        limit.update(new Sample(100, MILLI, 50, SECOND));
+
+        // Flat throughput keeps the limit where it is, not just for the next interval
+        for (int i = 0; i < 10; i++) {
+            assertThat(limit.update(new Sample(100 + i % 2, MILLI, 50, SECOND))).isEqualTo(Decision.HOLD);
+        }
+        assertThat(limit.getLimit()).isEqualTo(3);
+
+        // Until throughput actually rises
+        assertThat(limit.update(new Sample(110, MILLI, 50, SECOND))).isEqualTo(Decision.INCREASE);
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void testHoldsWithoutQueuedWork() {
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(2, 10, 4, 0.5, 2.0);
+
+        assertThat(limit.update(new Sample(100, MILLI, 0, SECOND))).isEqualTo(Decision.HOLD);
+        assertThat(limit.update(new Sample(0, 0, 10, SECOND))).isEqualTo(Decision.HOLD);
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void testBacksOffWhenLatencyClimbs() {
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(2, 10, 8, 0.5, 2.0);
+
+        limit.update(new Sample(100, MILLI, 0, SECOND));
+
+        assertThat(limit.update(new Sample(100, 5 * MILLI, 50, SECOND))).isEqualTo(Decision.DECREASE);
+        assertThat(limit.getLimit()).isEqualTo(4);
+        assertThat(limit.update(new Sample(100, 10 * MILLI, 50, SECOND))).isEqualTo(Decision.DECREASE);
+        assertThat(limit.getLimit()).isEqualTo(2);
+        // Never below the minimum
+        assertThat(limit.update(new Sample(100, 50 * MILLI, 50, SECOND))).isNotEqualTo(Decision.DECREASE);
+        assertThat(limit.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void testBoundsCanChangeAtRuntime() {
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(2, 10, 8, 0.5, 2.0);
+
+        limit.setBounds(1, 4);
+
+        assertThat(limit.getLimit()).isEqualTo(4);
+        assertThat(limit.getMaxLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void testExecutorGrowsPoolUnderQueuedLoad() throws InterruptedException {
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(1, 4, 1, 0.9, 100.0);
+        try (AdaptiveTaskExecutor executor = new AdaptiveTaskExecutor("test-", limit, 1000, Duration.ofMillis(50))) {
+            CountDownLatch done = new CountDownLatch(400);
+            for (int i = 0; i < 400; i++) {
+                executor.execute(() -> {
+                    sleep(5);
+                    done.countDown();
+                });
+            }
+
+            await().atMost(Duration.ofSeconds(5)).until(() -> executor.getConcurrencyLimit() > 1);
+            assertThat(executor.getIncreaseCount()).isPositive();
+            assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(executor.getLastThroughput()).isPositive();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.integration.filter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StableFileListFilterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testNameMatchersRejectWithoutReadingAttributes() throws Exception {
+        write("a.txt", "x");
+        write("b.csv", "x");
+        int[] attributeReads = {0};
+        FileCandidateMatcher counting = new FileCandidateMatcher() {
+
+            @Override
+            public boolean matches(FileCandidate candidate) {
+                attributeReads[0]++;
+                return candidate.getAttributes() != null;
+            }
+
+            @Override
+            public boolean needsAttributes() {
+                return true;
+            }
+        };
+        StableFileListFilter filter = new StableFileListFilter(counting, FileMatchers.glob("*.txt"));
+
+        assertThat(names(filter.filterFiles(list()))).containsExactly("a.txt");
+        assertThat(attributeReads[0]).isEqualTo(1);
+    }
+
+    @Test
+    void testRegexMatchesWholeName() throws Exception {
+        write("data-1.txt", "x");
+        write("data-x.txt", "x");
+        StableFileListFilter filter = new StableFileListFilter(FileMatchers.regex("data-\\d+\\.txt"));
+
+        assertThat(names(filter.filterFiles(list()))).containsExactly("data-1.txt");
+    }
+
+    @Test
+    void testSizeStableWaitsForAnUnchangedScan() throws Exception {
+        Path growing = write("a.txt", "x");
+        StableFileListFilter filter = new StableFileListFilter(FileMatchers.sizeStable(1));
+
+        assertThat(filter.filterFiles(list())).isEmpty();
+        Files.writeString(growing, "xy");
+        assertThat(filter.filterFiles(list())).isEmpty();
+        assertThat(names(filter.filterFiles(list()))).containsExactly("a.txt");
+    }
+
+    @Test
+    void testSizeStableHandsAStableFileOutOnce() throws Exception {
+        Path file = write("a.txt", "x");
+        StableFileListFilter filter = new StableFileListFilter(FileMatchers.sizeStable(1));
+
+        filter.filterFiles(list());
+        assertThat(names(filter.filterFiles(list()))).containsExactly("a.txt");
+        // Still queued or being processed: not dispatched again
+        assertThat(filter.filterFiles(list())).isEmpty();
+        assertThat(filter.filterFiles(list())).isEmpty();
+
+        // A rewritten file is new content and goes out again once it has settled
+        Files.writeString(file, "xy");
+        assertThat(filter.filterFiles(list())).isEmpty();
+        assertThat(names(filter.filterFiles(list()))).containsExactly("a.txt");
+    }
+
+    @Test
+    void testSizeStableOnlyRemembersFilesTheWholeFilterAccepted() throws Exception {
+        write("a.txt", "x");
+        boolean[] ready = {false};
+        StableFileListFilter filter = new StableFileListFilter(FileMatchers.sizeStable(1), new FileCandidateMatcher() {
+
+            @Override
+            public boolean matches(FileCandidate candidate) {
+                return ready[0];
+            }
+
+            @Override
+            public boolean needsAttributes() {
+                return true;
+            }
+        });
+
+        filter.filterFiles(list());
+        assertThat(filter.filterFiles(list())).isEmpty();
+        ready[0] = true;
+        assertThat(names(filter.filterFiles(list()))).containsExactly("a.txt");
+    }
+
+    @Test
+    void testSizeStableForgetsFilesThatDisappear() throws Exception {
+        Path file = write("a.txt", "x");
+        FileMatchers.SizeStableMatcher matcher = new FileMatchers.SizeStableMatcher(1);
+        StableFileListFilter filter = new StableFileListFilter(matcher);
+
+        filter.filterFiles(list());
+        assertThat(matcher.trackedCount()).isEqualTo(1);
+        Files.delete(file);
+        filter.filterFiles(list());
+        assertThat(matcher.trackedCount()).isZero();
+    }
+
+    @Test
+    void testMinimumAge() throws Exception {
+        Path old = write("old.txt", "x");
+        Files.setLastModifiedTime(old, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        write("new.txt", "x");
+        StableFileListFilter filter = new StableFileListFilter(FileMatchers.minimumAge(Duration.ofSeconds(30)));
+
+        assertThat(names(filter.filterFiles(list()))).containsExactly("old.txt");
+    }
+
+    @Test
+    void testMarkerFileMustBeListed() throws Exception {
+        write("ready.txt", "x");
+        write("ready.txt.done", "");
+        write("pending.txt", "x");
+        StableFileListFilter filter = new StableFileListFilter(FileMatchers.glob("*.txt"), FileMatchers.markerFile(".done"));
+
+        assertThat(names(filter.filterFiles(list()))).containsExactly("ready.txt");
+    }
+
+    @Test
+    void testVanishedEntryIsSkipped() throws Exception {
+        Path file = write("a.txt", "x");
+        File[] listed = list();
+        Files.delete(file);
+        StableFileListFilter filter = new StableFileListFilter(FileMatchers.minimumAge(Duration.ZERO));
+
+        assertThat(filter.filterFiles(listed)).isEmpty();
+    }
+
+    private Path write(String name, String content) throws Exception {
+        return Files.writeString(tempDir.resolve(name), content);
+    }
+
+    private File[] list() {
+        File[] files = tempDir.toFile().listFiles();
+        java.util.Arrays.sort(files);
+        return files;
+    }
+
+    private static List<String> names(List<File> files) {
+        return files.stream().map(File::getName).toList();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.integration.gateway;
+
+import com.example.integration.completion.FileCompletionEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class PipelineGatewayTest {
+
+    @Autowired
+    private PipelineGateway gateway;
+
+    @Autowired
+    private PipelineSubmitter submitter;
+
+    @TempDir
+    Path tempDir;
+
+    private final List<File> outputs = new ArrayList<>();
+
+    @AfterEach
+    void deleteOutputs() {
+        outputs.forEach(File::delete);
+    }
+
+    @Test
+    void testSubmittedFileCompletesAfterBothBranches() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("gateway_file.txt"), "a,b\n1,2\n");
+        expectOutputs("gateway_file.txt");
+
+        CompletableFuture<FileCompletionEvent> completion = gateway.submit(file);
+        FileCompletionEvent event = completion.get(20, TimeUnit.SECONDS);
+
+        assertThat(event.isComplete()).isTrue();
+        assertThat(event.isSuccessful()).isTrue();
+        assertThat(event.fileName()).isEqualTo("gateway_file.txt");
+        assertThat(new File("monitor/monitor_gateway_file.txt")).hasContent("a,b\n1,2\n");
+        assertThat(new File("pre-process/gateway_file.txt")).hasContent("a,b\n1,2\n");
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void testContentIsSubmittedUnderItsName() throws Exception {
+        expectOutputs("gateway_bytes.txt", "gateway_buffer.txt");
+        ByteBuffer buffer = ByteBuffer.wrap("skip buffered\n".getBytes(StandardCharsets.UTF_8));
+        buffer.position(5);
+
+        FileCompletionEvent bytes = gateway.submit("gateway_bytes.txt", "bytes\n".getBytes(StandardCharsets.UTF_8))
+                .get(20, TimeUnit.SECONDS);
+        FileCompletionEvent buffered = gateway.submit("gateway_buffer.txt", buffer).get(20, TimeUnit.SECONDS);
+
+        assertThat(bytes.isSuccessful()).isTrue();
+        assertThat(buffered.isSuccessful()).isTrue();
+        assertThat(new File("pre-process/gateway_bytes.txt")).hasContent("bytes\n");
+        assertThat(new File("monitor/monitor_gateway_buffer.txt")).hasContent("buffered\n");
+    }
+
+    @Test
+    void testBatchCompletesOnceAllFilesHave() throws Exception {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            files.add(Files.writeString(tempDir.resolve("gateway_batch" + i + ".txt"), "line " + i + "\n"));
+            expectOutputs("gateway_batch" + i + ".txt");
+        }
+        long submittedBefore = submitter.getSubmittedCount();
+
+        List<FileCompletionEvent> events = gateway.submitAll(files).get(30, TimeUnit.SECONDS);
+
+        assertThat(events).hasSize(20).allMatch(FileCompletionEvent::isSuccessful);
+        assertThat(events.get(7).fileName()).isEqualTo("gateway_batch7.txt");
+        assertThat(submitter.getSubmittedCount() - submittedBefore).isEqualTo(20);
+    }
+
+    @Test
+    void testInvalidSubmissionsAreRejected() {
+        assertThatThrownBy(() -> gateway.submit(tempDir.resolve("missing.txt")).get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(NoSuchFileException.class);
+        // The gateway itself insists on the name
+        assertThatThrownBy(() -> gateway.submit(null, new byte[1]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testContentNamesMustNotLeaveTheOutputDirectories() {
+        long submittedBefore = submitter.getSubmittedCount();
+
+        for (String name : List.of("../gateway_escape.txt", "gateway_dir/escape.txt", "..")) {
+            assertThatThrownBy(() -> gateway.submit(name, "escape\n".getBytes(StandardCharsets.UTF_8))
+                    .get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalArgumentException.class);
+        }
+        assertThatThrownBy(() -> gateway.submit("gateway_dir\\escape.txt", ByteBuffer.wrap(new byte[1]))
+                .get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+
+        assertThat(submitter.getSubmittedCount()).isEqualTo(submittedBefore);
+        assertThat(new File("gateway_escape.txt")).doesNotExist();
+        assertThat(new File("pre-process/gateway_dir")).doesNotExist();
+    }
+
+    private void expectOutputs(String... names) {
+        for (String name : names) {
+            outputs.add(new File("monitor/monitor_" + name));
+            outputs.add(new File("monitor/monitor_" + name + ".sum"));
+            outputs.add(new File("pre-process/" + name));
+        }
+    }
+}
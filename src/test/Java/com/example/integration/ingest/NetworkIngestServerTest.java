@@ -0,0 +1,179 @@
+package com.example.integration.ingest;
+
+import com.example.integration.completion.Branch;
+import com.example.integration.completion.BranchOutcome;
+import com.example.integration.completion.FileCompletionEvent;
+import com.example.integration.completion.FileCompletionRegistry;
+import com.example.integration.ingest.UploadProtocol.Response;
+import com.example.integration.ingest.UploadProtocol.Status;
+import com.example.integration.latency.IngestHeaders;
+import com.example.integration.latency.PipelineLatencyRecorder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.file.FileHeaders;
+import org.springframework.messaging.Message;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class NetworkIngestServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final FileCompletionRegistry registry = new FileCompletionRegistry();
+    private final DirectChannel pipeline = new DirectChannel();
+    private final List<Message<?>> held = new CopyOnWriteArrayList<>();
+    private NetworkIngestServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testUploadsOverLoopbackAreWrittenAndAcknowledged() throws Exception {
+        pipeline.subscribe(this::writeAndComplete);
+        start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4);
+
+        List<CompletableFuture<Response>> responses = new ArrayList<>();
+        try (UploadClient client = new UploadClient(server.getLocalAddress())) {
+            for (int i = 0; i < 20; i++) {
+                responses.add(client.upload("file" + i + ".txt", ("content " + i).getBytes()));
+            }
+            for (CompletableFuture<Response> response : responses) {
+                assertThat(response.get(5, TimeUnit.SECONDS).status()).isEqualTo(Status.OK);
+            }
+        }
+
+        assertThat(Files.readString(tempDir.resolve("file7.txt"))).isEqualTo("content 7");
+        // Counted once the send returns, which may be after the synchronous pipeline acknowledged it
+        await().atMost(Duration.ofSeconds(5)).until(() -> server.getAcceptedUploads() == 20);
+        assertThat(registry.getPendingCount()).isZero();
+    }
+
+    @Test
+    void testUploadsOverUnixDomainSocket() throws Exception {
+        pipeline.subscribe(this::writeAndComplete);
+        start(UnixDomainSocketAddress.of(tempDir.resolve("ingest.sock")), 4);
+
+        try (UploadClient client = new UploadClient(server.getLocalAddress())) {
+            Response response = client.upload("unix.txt", "over a socket file".getBytes()).get(5, TimeUnit.SECONDS);
+            assertThat(response.isOk()).isTrue();
+        }
+        assertThat(tempDir.resolve("unix.txt")).hasContent("over a socket file");
+    }
+
+    @Test
+    void testFullWindowStopsReadingFromTheConnection() throws Exception {
+        pipeline.subscribe(held::add);
+        start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+
+        try (UploadClient client = new UploadClient(server.getLocalAddress())) {
+            List<CompletableFuture<Response>> responses = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                responses.add(client.upload("held" + i + ".txt", new byte[100]));
+            }
+            await().atMost(Duration.ofSeconds(5)).until(() -> server.getStalledReads() > 0);
+            Thread.sleep(200);
+            assertThat(server.getAcceptedUploads()).isEqualTo(2);
+
+            while (server.getAcceptedUploads() < 5 || !held.isEmpty()) {
+                if (!held.isEmpty()) {
+                    writeAndComplete(held.remove(0));
+                }
+                Thread.sleep(10);
+            }
+            for (CompletableFuture<Response> response : responses) {
+                assertThat(response.get(5, TimeUnit.SECONDS).isOk()).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void testFileNamesWithPathsAreRejected() throws Exception {
+        pipeline.subscribe(this::writeAndComplete);
+        start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4);
+
+        try (UploadClient client = new UploadClient(server.getLocalAddress())) {
+            Response response = client.upload("../escape.txt", new byte[1]).get(5, TimeUnit.SECONDS);
+            assertThat(response.status()).isEqualTo(Status.REJECTED);
+            assertThat(client.upload("after.txt", new byte[1]).get(5, TimeUnit.SECONDS).isOk()).isTrue();
+        }
+        assertThat(server.getRejectedUploads()).isEqualTo(1);
+        assertThat(tempDir.getParent().resolve("escape.txt")).doesNotExist();
+    }
+
+    @Test
+    void testFailedBranchIsReported() throws Exception {
+        pipeline.subscribe(message -> registry.complete(event(message, false)));
+        start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4);
+
+        try (UploadClient client = new UploadClient(server.getLocalAddress())) {
+            Response response = client.upload("broken.txt", new byte[1]).get(5, TimeUnit.SECONDS);
+            assertThat(response.status()).isEqualTo(Status.FAILED);
+            assertThat(response.detail()).isEqualTo("disk full");
+        }
+    }
+
+    @Test
+    void testOversizedUploadClosesTheConnection() throws Exception {
+        pipeline.subscribe(this::writeAndComplete);
+        start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4);
+
+        try (UploadClient client = new UploadClient(server.getLocalAddress())) {
+            CompletableFuture<Response> response = client.upload("big.bin", new byte[2048]);
+            assertThatThrownBy(() -> response.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        }
+        assertThat(server.getAcceptedUploads()).isZero();
+    }
+
+    private void start(SocketAddress address, int window) {
+        server = new NetworkIngestServer(address, pipeline, registry, new PipelineLatencyRecorder(),
+                2, window, 1024, Duration.ofSeconds(10));
+        server.start();
+    }
+
+    private void writeAndComplete(Message<?> message) {
+        try {
+            Files.write(tempDir.resolve(message.getHeaders().get(FileHeaders.FILENAME, String.class)),
+                    (byte[]) message.getPayload());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registry.complete(event(message, true));
+    }
+
+    private static FileCompletionEvent event(Message<?> message, boolean successful) {
+        Map<Branch, BranchOutcome> outcomes = new EnumMap<>(Branch.class);
+        for (Branch branch : Branch.values()) {
+            boolean failed = !successful && branch == Branch.PRE_PROCESS;
+            outcomes.put(branch, new BranchOutcome(branch, null, !failed, 0, 0, 1, failed ? "disk full" : null));
+        }
+        return new FileCompletionEvent(message.getHeaders().get(IngestHeaders.FILE_ID, String.class),
+                message.getHeaders().get(FileHeaders.FILENAME, String.class), 0, 0, outcomes);
+    }
+}
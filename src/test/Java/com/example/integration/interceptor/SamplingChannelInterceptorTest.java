@@ -0,0 +1,79 @@
+package com.example.integration.interceptor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SamplingChannelInterceptorTest {
+
+    @Test
+    void testRingBufferKeepsOnlyTheMostRecentSamples() {
+        SamplingChannelInterceptor interceptor = new SamplingChannelInterceptor(5, 1.0);
+        DirectChannel channel = new DirectChannel();
+        channel.subscribe(message -> { });
+        channel.addInterceptor(interceptor);
+
+        for (int i = 0; i < 20; i++) {
+            channel.send(MessageBuilder.withPayload(i).build());
+        }
+
+        assertThat(interceptor.getCapacity()).isEqualTo(8);
+        assertThat(interceptor.getSentMessageCount()).isEqualTo(20);
+        assertThat(interceptor.getReceivedMessageCount()).isEqualTo(20);
+        List<Message<?>> sampled = interceptor.getSampledSentMessages();
+        assertThat(sampled.stream().<Object>map(Message::getPayload).toList()).containsExactly(12, 13, 14, 15, 16, 17, 18, 19);
+        assertThat(interceptor.getLastSentMessage().getPayload()).isEqualTo(19);
+        assertThat(interceptor.getLastReceivedMessage().getPayload()).isEqualTo(19);
+    }
+
+    @Test
+    void testZeroSamplingRateStillCounts() {
+        SamplingChannelInterceptor interceptor = new SamplingChannelInterceptor(16, 0.0);
+        DirectChannel channel = new DirectChannel();
+        channel.subscribe(message -> { });
+        channel.addInterceptor(interceptor);
+
+        channel.send(MessageBuilder.withPayload("test").build());
+
+        assertThat(interceptor.getSampledSentMessages()).isEmpty();
+        assertThat(interceptor.getSentMessageCount()).isEqualTo(1);
+        assertThat(interceptor.getLastSentMessage().getPayload()).isEqualTo("test");
+
+        interceptor.clear();
+        assertThat(interceptor.getSentMessageCount()).isZero();
+        assertThat(interceptor.getLastSentMessage()).isNull();
+    }
+
+    @Test
+    void testConcurrentSendersAreAllCounted() throws InterruptedException {
+        SamplingChannelInterceptor interceptor = new SamplingChannelInterceptor(64, 0.5);
+        DirectChannel channel = new DirectChannel();
+        channel.subscribe(message -> { });
+        channel.addInterceptor(interceptor);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch latch = new CountDownLatch(8);
+
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    channel.send(MessageBuilder.withPayload(i).build());
+                }
+                latch.countDown();
+            });
+        }
+
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+        assertThat(interceptor.getSentMessageCount()).isEqualTo(80_000);
+        assertThat(interceptor.getSampledSentMessages()).hasSize(64);
+    }
+}
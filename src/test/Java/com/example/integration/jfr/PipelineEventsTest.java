@@ -0,0 +1,142 @@
+package com.example.integration.jfr;
+
+import com.example.integration.digest.DigestingFileWritingMessageHandler;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.NullChannel;
+import org.springframework.integration.file.support.FileExistsMode;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.MessageHandlingException;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PipelineEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Recording recording;
+
+    @BeforeEach
+    void setUp() {
+        recording = new Recording();
+        for (String name : List.of("Poll", "Scan", "Dispatch", "Copy", "Move", "Delete")) {
+            recording.enable("com.example.integration." + name).withoutThreshold();
+        }
+        recording.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        recording.close();
+    }
+
+    @Test
+    void testCopyAndMoveEventsCarryFileAndBytes() throws Exception {
+        Path copied = Files.writeString(tempDir.resolve("copied.txt"), "twelve bytes");
+        Path moved = Files.writeString(tempDir.resolve("moved.txt"), "six b\n");
+
+        handler(false, new FileTransferEventAdvice(CopyEvent::new)).handleMessage(
+                MessageBuilder.withPayload(copied.toFile()).build());
+        handler(true, new FileTransferEventAdvice(MoveEvent::new)).handleMessage(
+                MessageBuilder.withPayload(moved.toFile()).build());
+
+        List<RecordedEvent> events = events();
+        RecordedEvent copy = single(events, "com.example.integration.Copy");
+        assertThat(copy.getString("fileName")).isEqualTo("copied.txt");
+        assertThat(copy.getLong("size")).isEqualTo(12);
+        assertThat(copy.getLong("bytes")).isEqualTo(12);
+        assertThat(copy.getString("destination")).endsWith("out" + File.separator + "copied.txt");
+        assertThat(copy.getString("failure")).isNull();
+        assertThat(copy.getThread().getJavaName()).isEqualTo(Thread.currentThread().getName());
+        RecordedEvent move = single(events, "com.example.integration.Move");
+        assertThat(move.getLong("size")).isEqualTo(6);
+        assertThat(move.getLong("bytes")).isEqualTo(6);
+    }
+
+    @Test
+    void testFailedTransferIsRecorded() throws Exception {
+        DigestingFileWritingMessageHandler handler = handler(false, new FileTransferEventAdvice(CopyEvent::new));
+
+        assertThatThrownBy(() -> handler.handleMessage(
+                MessageBuilder.withPayload(tempDir.resolve("missing.txt").toFile()).build()))
+                .isInstanceOf(MessageHandlingException.class);
+
+        RecordedEvent copy = single(events(), "com.example.integration.Copy");
+        assertThat(copy.getString("fileName")).isEqualTo("missing.txt");
+        assertThat(copy.getLong("bytes")).isZero();
+        assertThat(copy.getString("failure")).isNotBlank();
+    }
+
+    @Test
+    void testScanAndDispatchEvents() throws Exception {
+        Files.writeString(tempDir.resolve("a.txt"), "a");
+        Files.writeString(tempDir.resolve("b.txt"), "bb");
+        ScanEventDirectoryScanner scanner = new ScanEventDirectoryScanner();
+        List<File> files = scanner.listFiles(tempDir.toFile());
+        DirectChannel channel = new DirectChannel();
+        channel.addInterceptor(new DispatchEventInterceptor());
+        channel.subscribe(new NullChannel()::send);
+        channel.send(MessageBuilder.withPayload(tempDir.resolve("b.txt").toFile()).build());
+
+        List<RecordedEvent> events = events();
+        RecordedEvent scan = single(events, "com.example.integration.Scan");
+        assertThat(scan.getInt("filesAccepted")).isEqualTo(files.size()).isEqualTo(2);
+        assertThat(scan.getString("directory")).isEqualTo(tempDir.toString());
+        RecordedEvent dispatch = single(events, "com.example.integration.Dispatch");
+        assertThat(dispatch.getString("fileName")).isEqualTo("b.txt");
+        assertThat(dispatch.getLong("size")).isEqualTo(2);
+    }
+
+    @Test
+    void testNothingIsRecordedWhenDisabled() throws Exception {
+        recording.disable("com.example.integration.Copy");
+        Path copied = Files.writeString(tempDir.resolve("copied.txt"), "content");
+
+        handler(false, new FileTransferEventAdvice(CopyEvent::new)).handleMessage(
+                MessageBuilder.withPayload(copied.toFile()).build());
+
+        assertThat(events()).noneMatch(e -> e.getEventType().getName().equals("com.example.integration.Copy"));
+    }
+
+    private DigestingFileWritingMessageHandler handler(boolean move, FileTransferEventAdvice advice) {
+        DigestingFileWritingMessageHandler handler =
+                new DigestingFileWritingMessageHandler(tempDir.resolve("out").toFile());
+        handler.setFileExistsMode(FileExistsMode.REPLACE);
+        handler.setDeleteSourceFiles(move);
+        handler.setOutputChannel(new NullChannel());
+        handler.setAdviceChain(List.of(advice));
+        handler.setBeanFactory(Mockito.mock(BeanFactory.class));
+        handler.afterPropertiesSet();
+        return handler;
+    }
+
+    private List<RecordedEvent> events() throws Exception {
+        recording.stop();
+        Path dump = tempDir.resolve("recording.jfr");
+        recording.dump(dump);
+        return RecordingFile.readAllEvents(dump);
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream()
+                .filter(e -> e.getEventType().getName().equals(name))
+                .toList();
+        assertThat(matching).hasSize(1);
+        return matching.get(0);
+    }
+}
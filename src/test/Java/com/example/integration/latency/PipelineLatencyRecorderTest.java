@@ -0,0 +1,69 @@
+package com.example.integration.latency;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PipelineLatencyRecorderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testStagesAreRecordedAlongThePipeline() throws Exception {
+        PipelineLatencyRecorder recorder = new PipelineLatencyRecorder();
+        File file = Files.writeString(tempDir.resolve("test.txt"), "content").toFile();
+
+        Message<?> detected = recorder.markDetected(MessageBuilder.withPayload(file).build());
+        assertThat(detected.getHeaders()).containsKeys(IngestHeaders.DETECTED_AT, IngestHeaders.DETECTED_NANOS);
+
+        Message<?> dispatched = recorder.markDispatched(detected);
+        assertThat(dispatched.getHeaders()).containsKey(IngestHeaders.DISPATCHED_NANOS);
+
+        Thread.sleep(20);
+        Message<?> paced = recorder.markPaced(dispatched);
+        recorder.markExecutorStart(paced);
+
+        assertThat(recorder.snapshot(PipelineStage.POLL_DELAY).getTotalCount()).isEqualTo(1);
+        assertThat(recorder.snapshot(PipelineStage.INBOUND_QUEUE).getTotalCount()).isEqualTo(1);
+        // The executor queue starts where pacing ended
+        assertThat(recorder.snapshot(PipelineStage.PACING).getMinValue()).isGreaterThanOrEqualTo(15_000);
+        assertThat(recorder.snapshot(PipelineStage.EXECUTOR_QUEUE).getMaxValue()).isLessThan(15_000);
+        assertThat(recorder.snapshot(PipelineStage.EXECUTOR_QUEUE).getTotalCount()).isEqualTo(1);
+        assertThat(recorder.snapshot(PipelineStage.MONITOR_WRITE).getTotalCount()).isZero();
+    }
+
+    @Test
+    void testSnapshotsAccumulateAcrossIntervals() {
+        PipelineLatencyRecorder recorder = new PipelineLatencyRecorder();
+
+        recorder.recordNanos(PipelineStage.MONITOR_WRITE, 2_000_000);
+        assertThat(recorder.snapshot(PipelineStage.MONITOR_WRITE).getTotalCount()).isEqualTo(1);
+
+        recorder.recordNanos(PipelineStage.MONITOR_WRITE, 4_000_000);
+        assertThat(recorder.snapshot(PipelineStage.MONITOR_WRITE).getTotalCount()).isEqualTo(2);
+        assertThat(recorder.snapshot(PipelineStage.MONITOR_WRITE).getMaxValue()).isBetween(3_990L, 4_010L);
+
+        recorder.reset();
+        assertThat(recorder.snapshot(PipelineStage.MONITOR_WRITE).getTotalCount()).isZero();
+    }
+
+    @Test
+    void testMessagesWithoutDetectionTimeSkipQueueWait() {
+        PipelineLatencyRecorder recorder = new PipelineLatencyRecorder();
+        Message<String> message = MessageBuilder.withPayload("not a file").build();
+
+        recorder.markExecutorStart(recorder.markDispatched(message));
+
+        assertThat(recorder.snapshot(PipelineStage.POLL_DELAY).getTotalCount()).isZero();
+        assertThat(recorder.snapshot(PipelineStage.INBOUND_QUEUE).getTotalCount()).isZero();
+        assertThat(recorder.snapshot(PipelineStage.EXECUTOR_QUEUE).getTotalCount()).isEqualTo(1);
+    }
+}
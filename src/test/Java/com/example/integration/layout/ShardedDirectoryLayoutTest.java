@@ -0,0 +1,79 @@
+package com.example.integration.layout;
+
+import com.example.integration.latency.IngestHeaders;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.file.FileNameGenerator;
+import org.springframework.integration.file.FileWritingMessageHandler;
+import org.springframework.integration.support.MessageBuilder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardedDirectoryLayoutTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testHashedLayoutIsStableAndBounded() {
+        ShardedDirectoryLayout layout = ShardedDirectoryLayout.hashed(tempDir.toFile(), 2, 256);
+
+        File first = layout.locate("data-1.txt", 0);
+        assertThat(layout.locate("data-1.txt", 12345)).isEqualTo(first);
+        assertThat(tempDir.relativize(first.toPath()).toString()).matches("[0-9a-f]{2}/[0-9a-f]{2}/data-1\\.txt");
+    }
+
+    @Test
+    void testDatedLayoutUsesUtcDayAndHour() {
+        ShardedDirectoryLayout layout = ShardedDirectoryLayout.dated(tempDir.toFile(), 2);
+        long timestamp = Instant.parse("2024-03-05T07:15:00Z").toEpochMilli();
+
+        assertThat(tempDir.relativize(layout.locate("a.txt", timestamp).toPath()).toString())
+                .isEqualTo("2024-03-05/07/a.txt");
+    }
+
+    @Test
+    void testDirectoriesAreCreatedOnceAndCached() {
+        ShardedDirectoryLayout layout = ShardedDirectoryLayout.hashed(tempDir.toFile(), 1, 4);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(layout.directoryFor("file-" + i, 0)).isDirectory();
+        }
+        assertThat(layout.cachedDirectoryCount()).isEqualTo(4);
+    }
+
+    @Test
+    void testHandlerWritesIntoShardAndFindLocatesIt() throws Exception {
+        ShardedDirectoryLayout layout = ShardedDirectoryLayout.dated(tempDir.resolve("out").toFile(), 3);
+        FileNameGenerator names = message -> "copy_" + ((File) message.getPayload()).getName();
+        FileWritingMessageHandler handler = new FileWritingMessageHandler(layout.directoryExpression(names));
+        handler.setFileNameGenerator(names);
+        handler.setExpectReply(false);
+        handler.setBeanFactory(Mockito.mock(BeanFactory.class));
+        handler.afterPropertiesSet();
+        File source = Files.writeString(tempDir.resolve("in.txt"), "hello").toFile();
+        long detectedAt = Instant.parse("2024-03-05T07:15:00Z").toEpochMilli();
+
+        handler.handleMessage(MessageBuilder.withPayload(source).setHeader(IngestHeaders.DETECTED_AT, detectedAt).build());
+
+        File expected = layout.locate("copy_in.txt", detectedAt);
+        assertThat(expected).hasContent("hello");
+        assertThat(layout.find("copy_in.txt")).contains(expected);
+        assertThat(layout.find("missing.txt")).isEmpty();
+    }
+
+    @Test
+    void testFlatLayoutWritesIntoRoot() {
+        ShardedDirectoryLayout layout = ShardedDirectoryLayout.flat(tempDir.toFile());
+
+        assertThat(layout.directoryFor("a.txt", 0)).isEqualTo(tempDir.toFile());
+        assertThat(layout.locate("a.txt", 0)).isEqualTo(tempDir.resolve("a.txt").toFile());
+    }
+}
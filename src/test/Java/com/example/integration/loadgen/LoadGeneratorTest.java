@@ -0,0 +1,68 @@
+package com.example.integration.loadgen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAtomicRenameLeavesOnlyCompleteFiles() throws Exception {
+        LoadProfile profile = profile(LoadProfile.WriteMode.ATOMIC_RENAME, LoadProfile.SizeDistribution.UNIFORM);
+
+        LoadGenerator generator = new LoadGenerator(profile, null);
+        generator.run();
+
+        List<Path> written = list(profile.inputDirectory());
+        assertThat(written).hasSize(20);
+        assertThat(written).allSatisfy(path -> {
+            assertThat(path.getFileName().toString()).endsWith(".txt").doesNotStartWith(".");
+            assertThat(Files.size(path)).isBetween(100L, 200L);
+        });
+        assertThat(generator.getFilesWritten()).isEqualTo(20);
+    }
+
+    @Test
+    void testWatcherMeasuresBothBranches() throws Exception {
+        LoadProfile profile = profile(LoadProfile.WriteMode.IN_PLACE, LoadProfile.SizeDistribution.FIXED);
+
+        try (ArrivalWatcher watcher = new ArrivalWatcher(profile.monitorDirectory(), profile.preProcessDirectory())) {
+            new LoadGenerator(profile, watcher).run();
+
+            // Stand in for the pipeline: copy to monitor and move to pre-process
+            for (Path file : list(profile.inputDirectory())) {
+                String name = file.getFileName().toString();
+                Files.copy(file, profile.monitorDirectory().resolve("monitor_" + name));
+                Files.move(file, profile.preProcessDirectory().resolve(name));
+            }
+
+            assertThat(watcher.awaitDrained(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(watcher.getMonitorLatency().getTotalCount()).isEqualTo(20);
+            assertThat(watcher.getPreProcessLatency().getTotalCount()).isEqualTo(20);
+            assertThat(watcher.getEndToEndLatency().getTotalCount()).isEqualTo(20);
+        }
+    }
+
+    private LoadProfile profile(LoadProfile.WriteMode writeMode, LoadProfile.SizeDistribution sizes) {
+        return new LoadProfile(tempDir.resolve("input-directory"), tempDir.resolve("monitor"),
+                tempDir.resolve("pre-process"), 20, 1000, 10, Duration.ofMillis(5), sizes, 100, 200,
+                writeMode, Duration.ofSeconds(5));
+    }
+
+    private static List<Path> list(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.integration.ordering;
+
+import com.example.integration.queue.ResizableBlockingQueue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.file.FileReadingMessageSource;
+import org.springframework.integration.file.FileHeaders;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileRanksTest {
+
+    private static final Duration MAX_ADVANCE = Duration.ofMinutes(5);
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void testOldestFirstFollowsLastModifiedUpToTheLimit() throws Exception {
+        ResizableBlockingQueue<Message<?>> queue = new ResizableBlockingQueue<>(10,
+                FileRanks.oldestFirst(MAX_ADVANCE, clock::get));
+        queue.add(file("new.txt", clock.get() - 1_000));
+        queue.add(file("old.txt", clock.get() - 60_000));
+        queue.add(file("ancient.txt", clock.get() - 86_400_000));
+        clock.addAndGet(1_000);
+        queue.add(file("newest.txt", clock.get()));
+
+        // Ancient is capped at five minutes of advance, so it goes first but cannot be ranked arbitrarily early
+        assertThat(names(queue)).containsExactly("ancient.txt", "old.txt", "new.txt", "newest.txt");
+    }
+
+    @Test
+    void testPriorityJumpsTheBacklogButOnlyByItsStep() {
+        ToIntFunction<Message<?>> priority = FileRanks.priorityFromPath(Pattern.compile("\\.p(\\d+)\\."), 0);
+        ResizableBlockingQueue<Message<?>> queue = new ResizableBlockingQueue<>(10,
+                FileRanks.byPriority(priority, Duration.ofSeconds(10), MAX_ADVANCE, clock::get));
+        queue.add(named("waiting-long.txt"));
+        clock.addAndGet(30_000);
+        queue.add(named("backlog.txt"));
+        queue.add(named("urgent.p2.txt"));
+        queue.add(named("normal.p0.txt"));
+
+        // urgent is worth 20 s of waiting: ahead of backlog, but not of a file that waited 30 s
+        assertThat(names(queue)).containsExactly("waiting-long.txt", "urgent.p2.txt", "backlog.txt", "normal.p0.txt");
+    }
+
+    @Test
+    void testSustainedHighPriorityLoadCannotStarveOthers() {
+        ToIntFunction<Message<?>> priority = FileRanks.priorityFromPath(Pattern.compile("\\.p(\\d+)\\."), 0);
+        ResizableBlockingQueue<Message<?>> queue = new ResizableBlockingQueue<>(1000,
+                FileRanks.byPriority(priority, Duration.ofMinutes(10), MAX_ADVANCE, clock::get));
+        queue.add(named("low.txt"));
+        List<String> served = new ArrayList<>();
+        // One urgent arrival per second, one file served per second
+        for (int second = 0; served.size() < 400 && !served.contains("low.txt"); second++) {
+            clock.addAndGet(1_000);
+            queue.add(named("urgent-" + second + ".p9.txt"));
+            served.add(name(queue.poll()));
+        }
+
+        assertThat(served).contains("low.txt");
+        assertThat(served.size()).isLessThanOrEqualTo((int) MAX_ADVANCE.toSeconds() + 1);
+    }
+
+    @Test
+    void testSmallestFirstDelaysLargeFilesBoundedly() throws Exception {
+        ResizableBlockingQueue<Message<?>> queue = new ResizableBlockingQueue<>(10,
+                FileRanks.smallestFirst(1024, Duration.ofSeconds(1), Duration.ofSeconds(30), clock::get));
+        queue.add(sized("huge.bin", 10 * 1024 * 1024));
+        queue.add(sized("medium.bin", 5 * 1024));
+        queue.add(sized("tiny.bin", 10));
+        clock.addAndGet(31_000);
+        queue.add(sized("later.bin", 10));
+
+        assertThat(names(queue)).containsExactly("tiny.bin", "medium.bin", "huge.bin", "later.bin");
+    }
+
+    @Test
+    void testSourceBacklogLargerThanTheQueueIsTakenSmallestFirst() throws Exception {
+        Path input = Files.createDirectories(tempDir.resolve("input"));
+        long modified = clock.get() - 60_000;
+        // Path order is the reverse of size order, so the source's default order would get it wrong
+        for (int i = 0; i < 120; i++) {
+            Path file = Files.write(input.resolve(String.format("file-%03d.txt", i)), new byte[(120 - i) * 1024]);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(modified));
+        }
+        FileReadingMessageSource source = new FileReadingMessageSource(
+                FileRanks.smallestFilesFirst(1024, Duration.ofSeconds(1), Duration.ofDays(1)));
+        source.setDirectory(input.toFile());
+        source.setBeanFactory(Mockito.mock(BeanFactory.class));
+        source.afterPropertiesSet();
+        ResizableBlockingQueue<Message<?>> queue = new ResizableBlockingQueue<>(50,
+                FileRanks.smallestFirst(1024, Duration.ofSeconds(1), Duration.ofDays(1), clock::get));
+
+        List<Long> sizes = new ArrayList<>();
+        Message<File> polled = source.receive();
+        while (polled != null || !queue.isEmpty()) {
+            // Like the poller, which waits while the queue is full
+            while (polled != null && queue.offer(polled)) {
+                polled = source.receive();
+            }
+            sizes.add(((File) queue.poll().getPayload()).length());
+        }
+
+        assertThat(sizes).hasSize(120).isSorted();
+    }
+
+    @Test
+    void testFileRankIsFixedOnceQueued() throws Exception {
+        File older = file("older.txt", 1_000).getPayload();
+        File newer = file("newer.txt", 2_000).getPayload();
+        Comparator<File> order = FileRanks.oldestFilesFirst();
+        assertThat(order.compare(older, newer)).isNegative();
+
+        // Touching a waiting file neither reorders the queue nor is read again
+        Files.setLastModifiedTime(older.toPath(), FileTime.fromMillis(3_000));
+        assertThat(order.compare(older, newer)).isNegative();
+        assertThat(FileRanks.oldestFilesFirst().compare(older, newer)).isPositive();
+    }
+
+    @Test
+    void testFilePriorityIsReadFromThePathBelowTheRoot() {
+        File root = new File("in");
+        ToIntFunction<File> priority = FileRanks.priorityFromPath(Pattern.compile("^urgent-(\\d+)/"), 3, root);
+        Comparator<File> order = FileRanks.filesByPriority(priority, Duration.ofSeconds(10), MAX_ADVANCE);
+
+        assertThat(priority.applyAsInt(new File(root, "urgent-8/a.txt"))).isEqualTo(8);
+        assertThat(priority.applyAsInt(new File(root, "other/urgent-8/a.txt"))).isEqualTo(3);
+        // Neither exists, so both arrived at 0 and only the priority decides
+        assertThat(order.compare(new File(root, "urgent-8/a.txt"), new File(root, "a.txt"))).isNegative();
+    }
+
+    @Test
+    void testPriorityIsReadFromRelativePathOrDefaults() {
+        ToIntFunction<Message<?>> priority = FileRanks.priorityFromPath(Pattern.compile("(?:^|/)urgent-(\\d+)/"), 3);
+
+        assertThat(priority.applyAsInt(MessageBuilder.withPayload(new File("in/urgent-8/a.txt"))
+                .setHeader(FileHeaders.RELATIVE_PATH, "urgent-8" + File.separator + "a.txt")
+                .build())).isEqualTo(8);
+        assertThat(priority.applyAsInt(named("a.txt"))).isEqualTo(3);
+    }
+
+    private Message<File> file(String name, long lastModified) throws Exception {
+        Path path = Files.writeString(tempDir.resolve(name), name);
+        Files.setLastModifiedTime(path, FileTime.fromMillis(lastModified));
+        return MessageBuilder.withPayload(path.toFile()).build();
+    }
+
+    private static Message<File> named(String name) {
+        return MessageBuilder.withPayload(new File(name)).build();
+    }
+
+    private static Message<byte[]> sized(String name, int size) {
+        return MessageBuilder.withPayload(new byte[size]).setHeader(FileHeaders.FILENAME, name).build();
+    }
+
+    private static List<String> names(ResizableBlockingQueue<Message<?>> queue) {
+        List<String> names = new ArrayList<>();
+        for (Message<?> message = queue.poll(); message != null; message = queue.poll()) {
+            names.add(name(message));
+        }
+        return names;
+    }
+
+    private static String name(Message<?> message) {
+        return message.getPayload() instanceof File file ? file.getName()
+                : message.getHeaders().get(FileHeaders.FILENAME, String.class);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.integration.parser;
+
+import com.example.integration.content.FileContent;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+/**
+ * Single-threaded parse throughput for the CSV and JSON Lines parsers over memory-mapped
+ * input. Not run as part of the test suite.
+ *
+ * <pre>
+ * java ... com.example.integration.parser.RecordParserBenchmark [megabytes] [iterations]
+ * </pre>
+ */
+public class RecordParserBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Path directory = Files.createTempDirectory("parser-benchmark");
+        try {
+            File csv = generate(directory.resolve("data.csv"), megabytes, false);
+            File jsonl = generate(directory.resolve("data.jsonl"), megabytes, true);
+            run("csv", csv, () -> new CsvRecordParser(',', true), iterations);
+            run("jsonl", jsonl, JsonLinesRecordParser::new, iterations);
+        } finally {
+            try (var files = Files.list(directory)) {
+                files.forEach(path -> path.toFile().delete());
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private static void run(String name, File file, Supplier<RecordParser> parsers, int iterations) {
+        long[] checksum = {0};
+        RecordBatchHandler handler = batch -> {
+            for (int i = 0; i < batch.size(); i++) {
+                checksum[0] += batch.get(i).getLong(0);
+            }
+        };
+        for (int i = 0; i < iterations + 2; i++) {
+            try (FileContent content = new FileContent(file)) {
+                RecordStreamParser.ParseResult result = new RecordStreamParser(parsers.get(), 1024)
+                        .parse(content, handler);
+                if (i >= 2) {
+                    System.out.printf("%-5s %,d records %,d MB in %,d ms: %,.0f MB/s%n", name, result.records(),
+                            result.bytes() / 1_000_000, result.elapsedNanos() / 1_000_000,
+                            result.megabytesPerSecond());
+                }
+            }
+        }
+        System.out.println(name + " checksum " + checksum[0]);
+    }
+
+    private static File generate(Path path, int megabytes, boolean json) throws Exception {
+        long target = megabytes * 1_000_000L;
+        long written = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            if (!json) {
+                writer.write("id,name,city,amount,comment\n");
+            }
+            for (long id = 0; written < target; id++) {
+                String line = json
+                        ? "{\"id\":" + id + ",\"name\":\"user" + id + "\",\"city\":\"Springfield\",\"amount\":"
+                        + (id % 1000) + ".25,\"comment\":\"lorem ipsum dolor sit amet\"}\n"
+                        : id + ",user" + id + ",Springfield," + (id % 1000) + ".25,\"lorem, ipsum dolor sit amet\"\n";
+                writer.write(line);
+                written += line.length();
+            }
+        }
+        return path.toFile();
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.integration.parser;
+
+import com.example.integration.content.FileContent;
+import com.example.integration.latency.IngestHeaders;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecordParserTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCsvFieldsQuotesAndHeader() {
+        String csv = "id,name,note\r\n1,alpha,\"a, \"\"quoted\"\" note\"\r\n\n-42,beta,\r\n";
+        List<String> rows = new ArrayList<>();
+        long[] ids = new long[2];
+
+        RecordStreamParser.ParseResult result = new RecordStreamParser(new CsvRecordParser(',', true), 16)
+                .parse(buffer(csv), batch -> {
+                    for (int i = 0; i < batch.size(); i++) {
+                        ParsedRecord record = batch.get(i);
+                        ids[i] = record.getLong(record.indexOf("id"));
+                        rows.add(record.getString(1) + "|" + record.getString(2));
+                    }
+                });
+
+        assertThat(result.records()).isEqualTo(2);
+        assertThat(ids).containsExactly(1, -42);
+        assertThat(rows).containsExactly("alpha|a, \"quoted\" note", "beta|");
+    }
+
+    @Test
+    void testJsonLinesMembers() {
+        String json = "{\"id\": 7, \"name\": \"caf\\u00e9 \\\"x\\\"\", \"tags\": [1, {\"a\": \"]\"}], \"gone\": null}\n"
+                + "\n{}\n";
+        List<String> values = new ArrayList<>();
+
+        RecordStreamParser.ParseResult result = new RecordStreamParser(new JsonLinesRecordParser(), 16)
+                .parse(buffer(json), batch -> {
+                    ParsedRecord record = batch.get(0);
+                    assertThat(record.fieldCount()).isEqualTo(4);
+                    assertThat(record.getLong(record.indexOf("id"))).isEqualTo(7);
+                    values.add(record.getString(record.indexOf("name")));
+                    values.add(record.getString(2));
+                    assertThat(record.isRaw(2)).isTrue();
+                    assertThat(record.isNull(3)).isTrue();
+                    assertThat(record.getName(3)).isEqualTo("gone");
+                });
+
+        // The empty object has no fields and is skipped
+        assertThat(result.records()).isEqualTo(1);
+        assertThat(values).containsExactly("café \"x\"", "[1, {\"a\": \"]\"}]");
+    }
+
+    @Test
+    void testRecordsStraddlingWindowsMatchSinglePass() throws Exception {
+        StringBuilder csv = new StringBuilder("k,v\n");
+        for (int i = 0; i < 500; i++) {
+            csv.append(i).append(",\"value ").append(i).append(i % 7 == 0 ? "\nwith break" : "").append("\"\n");
+        }
+        File file = Files.writeString(tempDir.resolve("data.csv"), csv).toFile();
+
+        List<String> whole = collect(new RecordStreamParser(new CsvRecordParser(',', true), 64), buffer(csv.toString()));
+        List<String> windowed = new ArrayList<>();
+        try (FileContent content = new FileContent(file, 13)) {
+            new RecordStreamParser(new CsvRecordParser(',', true), 7).parse(content, batch -> copy(batch, windowed));
+        }
+
+        assertThat(whole).hasSize(500);
+        assertThat(windowed).isEqualTo(whole);
+    }
+
+    @Test
+    void testMalformedLinesAreCountedAndSkipped() {
+        String json = "{\"a\": 1}\n{\"a\": \n{broken\n{\"a\": 2}\n";
+        List<String> values = new ArrayList<>();
+
+        RecordStreamParser.ParseResult result = new RecordStreamParser(new JsonLinesRecordParser(), 2)
+                .parse(buffer(json), batch -> copy(batch, values));
+
+        assertThat(values).containsExactly("1", "2");
+        assertThat(result.errors()).isEqualTo(2);
+    }
+
+    @Test
+    void testBatchesAreFilledUpToCapacity() {
+        List<Integer> sizes = new ArrayList<>();
+
+        RecordStreamParser.ParseResult result = new RecordStreamParser(new CsvRecordParser(';', false), 2)
+                .parse(buffer("a;1\nb;2\nc;3\nd;4\ne;5"), batch -> sizes.add(batch.size()));
+
+        assertThat(sizes).containsExactly(2, 2, 1);
+        assertThat(result.batches()).isEqualTo(3);
+        assertThat(result.records()).isEqualTo(5);
+    }
+
+    @Test
+    void testTransformerStampsCountsAndKeepsPayload() throws Exception {
+        File file = Files.writeString(tempDir.resolve("input.txt"), "a,b,c\n1,2,3\n4,5,6\n").toFile();
+        RecordParsingTransformer transformer = new RecordParsingTransformer(batch -> {
+        }, 16);
+
+        Message<?> result = transformer.transform(new GenericMessage<>(file));
+
+        assertThat(result.getPayload()).isSameAs(file);
+        assertThat(result.getHeaders().get(IngestHeaders.RECORD_COUNT)).isEqualTo(2L);
+        assertThat(result.getHeaders().get(IngestHeaders.RECORD_ERRORS)).isEqualTo(0L);
+    }
+
+    private static List<String> collect(RecordStreamParser parser, ByteBuffer input) {
+        List<String> values = new ArrayList<>();
+        parser.parse(input, batch -> copy(batch, values));
+        return values;
+    }
+
+    private static void copy(RecordBatch batch, List<String> values) {
+        for (int i = 0; i < batch.size(); i++) {
+            ParsedRecord record = batch.get(i);
+            values.add(record.fieldCount() == 1 ? record.getString(0) : record.getString(0) + "=" + record.getString(1));
+        }
+    }
+
+    private static ByteBuffer buffer(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
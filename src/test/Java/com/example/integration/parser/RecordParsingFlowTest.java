@@ -0,0 +1,66 @@
+package com.example.integration.parser;
+
+import com.example.integration.completion.FileCompletionEvent;
+import com.example.integration.gateway.PipelineGateway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "pipeline.parsing.enabled=true")
+class RecordParsingFlowTest {
+
+    @TestConfiguration
+    static class CollectingHandler {
+
+        static final AtomicInteger records = new AtomicInteger();
+
+        static final List<String> threads = new CopyOnWriteArrayList<>();
+
+        @Bean
+        RecordBatchHandler recordBatchHandler() {
+            return batch -> {
+                records.addAndGet(batch.size());
+                threads.add(Thread.currentThread().getName());
+            };
+        }
+    }
+
+    @Autowired
+    private PipelineGateway gateway;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void deleteOutputs() {
+        new File("monitor/monitor_parsed_flow.csv").delete();
+        new File("monitor/monitor_parsed_flow.csv.sum").delete();
+        new File("pre-process/parsed_flow.csv").delete();
+    }
+
+    @Test
+    void testEnabledParsingHandsBatchesToTheApplicationOnTheExecutor() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("parsed_flow.csv"), "a,b\n1,2\n3,4\n5,6\n");
+
+        FileCompletionEvent event = gateway.submit(file).get(20, TimeUnit.SECONDS);
+
+        assertThat(event.isSuccessful()).isTrue();
+        assertThat(CollectingHandler.records).hasValue(3);
+        assertThat(CollectingHandler.threads).allMatch(name -> name.startsWith("file-processor-"));
+        assertThat(new File("pre-process/parsed_flow.csv")).hasContent("a,b\n1,2\n3,4\n5,6\n");
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.integration.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResizableBlockingQueueTest {
+
+    @Test
+    void testOfferFailsWhenFull() {
+        ResizableBlockingQueue<String> queue = new ResizableBlockingQueue<>(2);
+
+        assertThat(queue.offer("a")).isTrue();
+        assertThat(queue.offer("b")).isTrue();
+        assertThat(queue.offer("c")).isFalse();
+        assertThat(queue.remainingCapacity()).isZero();
+        assertThat(queue.poll()).isEqualTo("a");
+        assertThat(queue.offer("c")).isTrue();
+    }
+
+    @Test
+    void testGrowingWakesBlockedProducers() throws Exception {
+        ResizableBlockingQueue<String> queue = new ResizableBlockingQueue<>(1);
+        queue.put("a");
+        CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> {
+            try {
+                queue.put("b");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread.sleep(100);
+        assertThat(producer).isNotDone();
+
+        queue.setCapacity(2);
+
+        producer.get(1, TimeUnit.SECONDS);
+        assertThat(queue).containsExactly("a", "b");
+    }
+
+    @Test
+    void testShrinkingKeepsQueuedElements() throws Exception {
+        ResizableBlockingQueue<Integer> queue = new ResizableBlockingQueue<>(5);
+        for (int i = 0; i < 5; i++) {
+            queue.put(i);
+        }
+
+        queue.setCapacity(2);
+
+        assertThat(queue).hasSize(5);
+        assertThat(queue.offer(5, 10, TimeUnit.MILLISECONDS)).isFalse();
+        List<Integer> drained = new ArrayList<>();
+        queue.drainTo(drained, 3);
+        assertThat(drained).containsExactly(0, 1, 2);
+        assertThat(queue.offer(5)).isFalse();
+        assertThat(queue.take()).isEqualTo(3);
+        assertThat(queue.offer(5)).isTrue();
+        assertThat(queue).containsExactly(4, 5);
+    }
+
+    @Test
+    void testIteratorRemoveRemovesFromQueue() {
+        ResizableBlockingQueue<String> queue = new ResizableBlockingQueue<>(3);
+        queue.addAll(List.of("a", "b", "c"));
+
+        queue.removeIf("b"::equals);
+
+        assertThat(queue).containsExactly("a", "c");
+        assertThat(queue.remainingCapacity()).isEqualTo(1);
+    }
+
+    @Test
+    void testRankedQueueTakesLowestRankFirstAndKeepsTiesFifo() throws Exception {
+        ResizableBlockingQueue<String> queue = new ResizableBlockingQueue<>(5, s -> s.charAt(0) - '0');
+        queue.addAll(List.of("5a", "1a", "3a", "1b", "3b"));
+
+        assertThat(queue.offer("0a")).isFalse();
+        List<String> drained = new ArrayList<>();
+        queue.drainTo(drained, 2);
+        assertThat(drained).containsExactly("1a", "1b");
+        queue.put("0a");
+        assertThat(queue.take()).isEqualTo("0a");
+        assertThat(queue.poll()).isEqualTo("3a");
+        queue.removeIf("3b"::equals);
+        assertThat(queue.peek()).isEqualTo("5a");
+        assertThat(queue).containsExactly("5a");
+    }
+
+    @Test
+    void testExecutorRejectsAccordingToCurrentCapacity() throws Exception {
+        ResizableBlockingQueue<Runnable> queue = new ResizableBlockingQueue<>(1);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, queue);
+        CompletableFuture<Void> gate = new CompletableFuture<>();
+        try {
+            pool.execute(gate::join);
+            pool.execute(() -> { });
+            assertThatThrownBy(() -> pool.execute(() -> { })).isInstanceOf(RejectedExecutionException.class);
+
+            queue.setCapacity(2);
+            pool.execute(() -> { });
+            assertThat(queue).hasSize(2);
+        } finally {
+            gate.complete(null);
+            pool.shutdown();
+            assertThat(pool.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(pool.getCompletedTaskCount()).isEqualTo(3);
+        assertThat(queue).isEmpty();
+    }
+}
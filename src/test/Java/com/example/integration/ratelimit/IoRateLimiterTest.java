@@ -0,0 +1,108 @@
+package com.example.integration.ratelimit;
+
+import com.example.integration.completion.Branch;
+import org.junit.jupiter.api.Test;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IoRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testTokenBucketAllowsBurstThenPaces() {
+        TokenBucket bucket = new TokenBucket(10, 1);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(bucket.reserve(1, now)).isZero();
+        }
+        assertThat(bucket.reserve(1, now)).isEqualTo(SECOND / 10);
+        assertThat(bucket.reserve(1, now)).isEqualTo(2 * SECOND / 10);
+        assertThat(bucket.tryAcquire(1, now)).isFalse();
+        // Debt is paid off as time passes
+        assertThat(bucket.tryAcquire(1, now + SECOND)).isTrue();
+    }
+
+    @Test
+    void testTokenBucketRateCanChangeAtRuntime() {
+        TokenBucket bucket = TokenBucket.unlimited();
+        long now = System.nanoTime();
+
+        assertThat(bucket.reserve(1_000_000, now)).isZero();
+
+        bucket.setPermitsPerSecond(1000);
+        assertThat(bucket.isUnlimited()).isFalse();
+        assertThat(bucket.reserve(2000, now)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void testBytesAndFilesAreLimitedPerDestination() {
+        IoRateLimiter limiter = new IoRateLimiter();
+        limiter.setBytesPerSecond(Branch.MONITOR, 1000);
+
+        assertThat(limiter.reserve(Branch.MONITOR, 1000)).isZero();
+        assertThat(limiter.reserve(Branch.MONITOR, 1000)).isGreaterThan(SECOND / 2);
+        assertThat(limiter.reserve(Branch.PRE_PROCESS, 1_000_000)).isZero();
+        assertThat(limiter.getPacedCount(Branch.MONITOR)).isEqualTo(1);
+
+        limiter.setFilesPerSecond(Branch.PRE_PROCESS, 1);
+        limiter.reserve(Branch.PRE_PROCESS, 0);
+        assertThat(limiter.reserve(Branch.PRE_PROCESS, 0)).isGreaterThan(SECOND / 2);
+    }
+
+    @Test
+    void testDelayMillisUsesPayloadSize() {
+        IoRateLimiter limiter = new IoRateLimiter();
+        limiter.setBytesPerSecond(Branch.MONITOR, 1000);
+
+        assertThat(limiter.delayMillis(Branch.MONITOR, MessageBuilder.withPayload(new byte[1000]).build())).isZero();
+        assertThat(limiter.delayMillis(Branch.MONITOR, MessageBuilder.withPayload(new byte[500]).build()))
+                .isBetween(400L, 501L);
+    }
+
+    @Test
+    void testPacingOnceCoversEveryDestination() {
+        IoRateLimiter limiter = new IoRateLimiter();
+        limiter.setFilesPerSecond(Branch.MONITOR, 1);
+        limiter.setBytesPerSecond(Branch.PRE_PROCESS, 1000);
+        limiter.reserveAll(1000);
+
+        // The file waits for the slowest destination, and each one is charged
+        assertThat(limiter.reserveAll(2000)).isGreaterThan(SECOND + SECOND / 2);
+        assertThat(limiter.getPacedCount(Branch.MONITOR)).isEqualTo(1);
+        assertThat(limiter.getPacedCount(Branch.PRE_PROCESS)).isEqualTo(1);
+
+        assertThat(limiter.dispatchDelayMillis(MessageBuilder.withPayload(new byte[0]).build())).isGreaterThan(1500L);
+        long start = System.nanoTime();
+        limiter.pace(MessageBuilder.withPayload(new byte[0]).build());
+        assertThat(System.nanoTime() - start).isGreaterThan(SECOND / 2);
+    }
+
+    @Test
+    void testDispatchPacerSkipsPollsWhileFullAndFreesReleasedFiles() {
+        IoRateLimiter limiter = new IoRateLimiter();
+        DispatchPacer pacer = new DispatchPacer(limiter, 2);
+        Message<byte[]> first = MessageBuilder.withPayload(new byte[0]).build();
+        Message<byte[]> second = MessageBuilder.withPayload(new byte[0]).build();
+
+        // Unpaced files are never held
+        assertThat(pacer.delayMillis(first)).isZero();
+        assertThat(pacer.getHeldCount()).isZero();
+
+        limiter.setFilesPerSecond(Branch.MONITOR, 1);
+        limiter.reserveAll(0);
+        assertThat(pacer.delayMillis(first)).isPositive();
+        assertThat(pacer.beforeReceive(null)).isTrue();
+        assertThat(pacer.delayMillis(second)).isPositive();
+        assertThat(pacer.beforeReceive(null)).isFalse();
+
+        assertThat(pacer.released(first)).isSameAs(first);
+        assertThat(pacer.getHeldCount()).isEqualTo(1);
+        assertThat(pacer.beforeReceive(null)).isTrue();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.integration.reactive;
+
+import com.example.integration.completion.Branch;
+import com.example.integration.completion.FileCompletionEvent;
+import com.example.integration.latency.PipelineLatencyRecorder;
+import com.example.integration.ratelimit.IoRateLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.file.FileReadingMessageSource;
+import org.springframework.integration.file.FileWritingMessageHandler;
+import org.springframework.integration.file.filters.AcceptOnceFileListFilter;
+import org.springframework.integration.file.support.FileExistsMode;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ReactiveFilePipelineTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final Scheduler scheduler = Schedulers.newBoundedElastic(4, 100, "test-io");
+
+    @AfterEach
+    void tearDown() {
+        scheduler.dispose();
+    }
+
+    @Test
+    void testCopiesThenMovesEachFileOnce() throws Exception {
+        Path input = Files.createDirectories(tempDir.resolve("in"));
+        for (int i = 0; i < 10; i++) {
+            Files.writeString(input.resolve("f" + i + ".txt"), "data " + i);
+        }
+        AcceptOnceFileListFilter<File> inFlight = new AcceptOnceFileListFilter<>();
+        ReactiveFilePipeline pipeline = new ReactiveFilePipeline(source(input, inFlight), inFlight,
+                writer(tempDir.resolve("monitor"), false, "monitor_"), writer(tempDir.resolve("pre"), true, ""),
+                new IoRateLimiter(), new PipelineLatencyRecorder(), scheduler, 3, Duration.ofMillis(20));
+        List<FileCompletionEvent> events = new CopyOnWriteArrayList<>();
+
+        Disposable subscription = pipeline.events().subscribe(events::add);
+        try {
+            await().atMost(Duration.ofSeconds(10)).until(() -> events.size() >= 10);
+            Thread.sleep(200);
+        } finally {
+            subscription.dispose();
+        }
+
+        assertThat(events).hasSize(10).allMatch(FileCompletionEvent::isSuccessful);
+        assertThat(events).allSatisfy(event -> assertThat(event.outcomes().get(Branch.MONITOR).bytes()).isPositive());
+        assertThat(tempDir.resolve("monitor").toFile().list()).hasSize(10);
+        assertThat(tempDir.resolve("pre").toFile().list()).hasSize(10);
+        assertThat(input.toFile().list()).isEmpty();
+    }
+
+    @Test
+    void testSourceIsOnlyPolledForFreeSlots() throws Exception {
+        Path input = Files.createDirectories(tempDir.resolve("in"));
+        for (int i = 0; i < 20; i++) {
+            Files.writeString(input.resolve("f" + i + ".txt"), "x");
+        }
+        AcceptOnceFileListFilter<File> inFlight = new AcceptOnceFileListFilter<>();
+        FileReadingMessageSource files = source(input, inFlight);
+        AtomicInteger received = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger started = new AtomicInteger();
+        MessageHandler blocked = message -> {
+            started.incrementAndGet();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        ReactiveFilePipeline pipeline = new ReactiveFilePipeline(() -> {
+            Message<File> message = files.receive();
+            if (message != null) {
+                received.incrementAndGet();
+            }
+            return message;
+        }, inFlight, blocked, message -> { }, new IoRateLimiter(), new PipelineLatencyRecorder(), scheduler, 2,
+                Duration.ofMillis(20));
+
+        Disposable subscription = pipeline.events().subscribe();
+        try {
+            await().atMost(Duration.ofSeconds(5)).until(() -> started.get() == 2);
+            Thread.sleep(300);
+            assertThat(received.get()).isEqualTo(2);
+        } finally {
+            release.countDown();
+            subscription.dispose();
+        }
+    }
+
+    private static FileReadingMessageSource source(Path input, AcceptOnceFileListFilter<File> inFlight) {
+        FileReadingMessageSource source = new FileReadingMessageSource();
+        source.setDirectory(input.toFile());
+        source.setFilter(inFlight);
+        source.setBeanFactory(Mockito.mock(BeanFactory.class));
+        source.afterPropertiesSet();
+        return source;
+    }
+
+    private static MessageHandler writer(Path directory, boolean move, String prefix) {
+        FileWritingMessageHandler handler = new FileWritingMessageHandler(directory.toFile());
+        handler.setFileExistsMode(FileExistsMode.REPLACE);
+        handler.setDeleteSourceFiles(move);
+        handler.setFileNameGenerator(message -> prefix + ((File) message.getPayload()).getName());
+        handler.setExpectReply(false);
+        handler.setBeanFactory(Mockito.mock(BeanFactory.class));
+        handler.afterPropertiesSet();
+        return handler;
+    }
+}
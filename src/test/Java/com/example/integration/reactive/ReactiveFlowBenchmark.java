@@ -0,0 +1,98 @@
+package com.example.integration.reactive;
+
+import com.example.integration.Application;
+import com.example.integration.completion.FileCompletionStatistics;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end throughput of the default {@code FlowConfig} pipeline versus the {@code reactive}
+ * profile's {@code ReactiveFlowConfig} on the same batch of files. Each run starts the
+ * application, renames the batch into its input directory at once and waits until every file
+ * has completed both branches. Point {@code directory} at the device under test. Not run as
+ * part of the test suite.
+ *
+ * <pre>
+ * java ... com.example.integration.reactive.ReactiveFlowBenchmark [files] [kilobytes] [rounds] [directory]
+ * </pre>
+ */
+public class ReactiveFlowBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int files = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int kilobytes = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        Path directory = Files.createTempDirectory(args.length > 3 ? Path.of(args[3]) : Path.of(System.getProperty(
+                "java.io.tmpdir")), "reactive-flow-benchmark");
+        try {
+            byte[] content = new byte[kilobytes * 1024];
+            new Random(42).nextBytes(content);
+            // The first round of each warms up the JIT and the file system caches
+            for (int i = 0; i <= rounds; i++) {
+                run("flow", directory.resolve("flow-" + i), files, content, i > 0);
+                run("reactive", directory.resolve("reactive-" + i), files, content, i > 0, "reactive");
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static void run(String name, Path root, int files, byte[] content, boolean report, String... profiles)
+            throws Exception {
+        Path staging = Files.createDirectories(root.resolve("staging"));
+        Path input = Files.createDirectories(root.resolve("input"));
+        for (int i = 0; i < files; i++) {
+            Files.write(staging.resolve("file-" + i + ".txt"), content);
+        }
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+                .profiles(profiles)
+                .properties("pipeline.input-directory=" + input, "pipeline.monitor-directory=" + root.resolve("monitor"),
+                        "pipeline.pre-process-directory=" + root.resolve("pre-process"),
+                        "pipeline.poll-interval=1ms", "spring.integration.poller.fixed-delay=1ms",
+                        // Pollers share these threads; with one, the inbound consumer's receive starves the scan
+                        "spring.task.scheduling.pool.size=4", "logging.level.root=WARN")
+                .run()) {
+            FileCompletionStatistics statistics = context.getBean(FileCompletionStatistics.class);
+            long start = System.nanoTime();
+            try (Stream<Path> staged = Files.list(staging)) {
+                for (Path file : (Iterable<Path>) staged::iterator) {
+                    Files.move(file, input.resolve(file.getFileName()), StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            long deadline = start + TimeUnit.MINUTES.toNanos(10);
+            while (done(statistics) < files) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException(name + ": " + (files - done(statistics)) + " files did not complete");
+                }
+                Thread.sleep(10);
+            }
+            long elapsed = System.nanoTime() - start;
+            if (report) {
+                double megabytes = (double) files * content.length / 1_000_000;
+                System.out.printf("%-8s %,d files %,.0f MB in %,d ms: %,.0f files/s %,.0f MB/s (%d failed, %d timed out)%n",
+                        name, files, megabytes, elapsed / 1_000_000, files * 1e9 / elapsed, megabytes * 1e9 / elapsed,
+                        statistics.getFailedCount(), statistics.getTimedOutCount());
+            }
+        } finally {
+            delete(root);
+        }
+    }
+
+    private static long done(FileCompletionStatistics statistics) {
+        return statistics.getCompletedCount() + statistics.getFailedCount() + statistics.getTimedOutCount();
+    }
+
+    private static void delete(Path directory) throws Exception {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
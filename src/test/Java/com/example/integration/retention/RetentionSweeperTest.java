@@ -0,0 +1,134 @@
+package com.example.integration.retention;
+
+import com.example.integration.ratelimit.TokenBucket;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetentionSweeperTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testMaxAgeRemovesOnlyExpiredFilesIncludingShards() throws Exception {
+        write("old.txt", 10, Duration.ofHours(2));
+        write("ab/old-shard.txt", 10, Duration.ofHours(3));
+        write("new.txt", 10, Duration.ZERO);
+        RetentionSweeper sweeper = sweeper(new RetentionPolicy(Duration.ofHours(1), 0, 0), TokenBucket.unlimited());
+
+        runCycle(sweeper);
+
+        assertThat(remaining()).containsExactly("new.txt");
+        assertThat(sweeper.getDeletedFiles()).isEqualTo(2);
+        assertThat(sweeper.getDeletedBytes()).isEqualTo(20);
+    }
+
+    @Test
+    void testCountAndByteLimitsRemoveOldestFirst() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            write("f" + i + ".txt", 100, Duration.ofMinutes(10 - i));
+        }
+
+        runCycle(sweeper(new RetentionPolicy(null, 0, 3), TokenBucket.unlimited()));
+        assertThat(remaining()).containsExactly("f2.txt", "f3.txt", "f4.txt");
+
+        runCycle(sweeper(new RetentionPolicy(null, 150, 0), TokenBucket.unlimited()));
+        assertThat(remaining()).containsExactly("f4.txt");
+    }
+
+    @Test
+    void testCopyAndSidecarAreCountedAndDeletedTogether() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            write("f" + i + ".txt", 100, Duration.ofMinutes(10 - i));
+            write("f" + i + ".txt.sum", 20, Duration.ofMinutes(10 - i));
+        }
+        write("orphan.txt.sum", 20, Duration.ofMinutes(20));
+        RetentionSweeper sweeper = sweeper(new RetentionPolicy(null, 0, 2), TokenBucket.unlimited());
+        sweeper.setSidecarSuffix(".sum");
+
+        runCycle(sweeper);
+
+        assertThat(remaining()).containsExactly("f1.txt", "f1.txt.sum", "f2.txt", "f2.txt.sum");
+        assertThat(sweeper.getScannedFiles()).isEqualTo(4);
+        assertThat(sweeper.getDeletedFiles()).isEqualTo(2);
+        assertThat(sweeper.getDeletedBytes()).isEqualTo(140);
+    }
+
+    @Test
+    void testCandidateLimitWorksOffALargeExcessOverSeveralCycles() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            write("f" + i + ".txt", 100, Duration.ofMinutes(10 - i));
+        }
+        RetentionSweeper sweeper = sweeper(new RetentionPolicy(null, 0, 1), TokenBucket.unlimited());
+        sweeper.setCandidateLimit(2);
+
+        runCycle(sweeper);
+        // Only the two oldest were kept as candidates
+        assertThat(remaining()).containsExactly("f2.txt", "f3.txt", "f4.txt", "f5.txt");
+
+        for (int i = 0; i < 2; i++) {
+            runCycle(sweeper);
+        }
+        assertThat(remaining()).containsExactly("f5.txt");
+    }
+
+    @Test
+    void testBudgetSpreadsWorkOverSlices() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            write("f" + i + ".txt", 1, Duration.ofHours(2));
+        }
+        // Burst of 5 operations, then 1 per second: one slice cannot finish the cycle
+        RetentionSweeper sweeper = sweeper(new RetentionPolicy(Duration.ofHours(1), 0, 0), new TokenBucket(1, 5));
+
+        assertThat(sweeper.sweep()).isFalse();
+        assertThat(sweeper.getScannedFiles()).isEqualTo(4);
+        assertThat(sweeper.getDeletedFiles()).isZero();
+
+        sweeper.getIopsBudget().setRate(0, 1);
+        runCycle(sweeper);
+        assertThat(remaining()).isEmpty();
+    }
+
+    @Test
+    void testDisabledPolicyDoesNothing() throws Exception {
+        write("old.txt", 10, Duration.ofDays(30));
+        RetentionSweeper sweeper = sweeper(RetentionPolicy.none(), TokenBucket.unlimited());
+
+        assertThat(sweeper.sweep()).isFalse();
+        assertThat(remaining()).containsExactly("old.txt");
+        assertThat(sweeper.getScannedFiles()).isZero();
+    }
+
+    private RetentionSweeper sweeper(RetentionPolicy policy, TokenBucket budget) {
+        return new RetentionSweeper(tempDir.toFile(), policy, budget, Duration.ofMillis(100), Duration.ofMillis(10));
+    }
+
+    private static void runCycle(RetentionSweeper sweeper) {
+        for (int i = 0; i < 1000 && !sweeper.sweep(); i++) {
+            // keep slicing
+        }
+        assertThat(sweeper.getCompletedCycles()).isPositive();
+    }
+
+    private void write(String name, int size, Duration age) throws Exception {
+        Path path = tempDir.resolve(name);
+        Files.createDirectories(path.getParent());
+        Files.write(path, new byte[size]);
+        Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis() - age.toMillis()));
+    }
+
+    private List<String> remaining() throws Exception {
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            return paths.filter(Files::isRegularFile).map(p -> p.getFileName().toString()).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.integration.scan;
+
+import com.example.integration.filter.FileMatchers;
+import com.example.integration.filter.StableFileListFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelTreeScannerTest {
+
+    @TempDir
+    Path root;
+
+    private ParallelTreeScanner scanner;
+
+    @AfterEach
+    void closeScanner() {
+        if (scanner != null) {
+            scanner.close();
+        }
+    }
+
+    @Test
+    void testWalksNestedTreeDownToMaxDepth() throws Exception {
+        write("top.txt");
+        write("acme/2024/01/a.txt");
+        write("acme/2024/02/b.txt");
+        write("globex/2024/01/c.txt");
+        write("acme/2024/01/deeper/ignored.txt");
+        write("acme/2024/01/skipped.tmp");
+        scanner = new ParallelTreeScanner(3, 4, Duration.ZERO);
+        scanner.setFilter(new StableFileListFilter(FileMatchers.glob("*.txt")));
+
+        assertThat(names(scanner.listFiles(root.toFile()))).containsExactlyInAnyOrder(
+                "top.txt", "a.txt", "b.txt", "c.txt");
+        assertThat(scanner.getLastScan().directories()).isEqualTo(8);
+
+        scanner.close();
+        scanner = new ParallelTreeScanner(0, 1, Duration.ZERO);
+        assertThat(names(scanner.listFiles(root.toFile()))).containsExactly("top.txt");
+    }
+
+    @Test
+    void testOnlyChangedDirectoriesAreListedAgain() throws Exception {
+        for (int tenant = 0; tenant < 4; tenant++) {
+            for (int day = 0; day < 5; day++) {
+                write("t" + tenant + "/d" + day + "/f.txt");
+            }
+        }
+        ageDirectories();
+        scanner = new ParallelTreeScanner(2, 4, Duration.ofSeconds(1));
+        scanner.setFilter(new StableFileListFilter(FileMatchers.glob("*.txt")));
+
+        assertThat(scanner.listFiles(root.toFile())).hasSize(20);
+        assertThat(scanner.getLastScan().listed()).isEqualTo(25);
+
+        // Files already handed out are not offered again while they stay unchanged
+        assertThat(scanner.listFiles(root.toFile())).isEmpty();
+        assertThat(scanner.getLastScan()).isEqualTo(new ParallelTreeScanner.ScanStatistics(25, 0, 20));
+
+        // A new file only changes the mtime of its own directory
+        write("t2/d3/g.txt");
+        Files.delete(root.resolve("t1/d0/f.txt"));
+        List<File> files = scanner.listFiles(root.toFile());
+        assertThat(files).containsExactly(root.resolve("t2/d3/g.txt").toFile());
+        assertThat(scanner.getLastScan().listed()).isEqualTo(2);
+    }
+
+    @Test
+    void testHandedOutFilesAreOfferedAgainOnlyOnceChangedOrReplaced() throws Exception {
+        write("d/a.txt");
+        write("d/b.txt");
+        write("d/skipped.tmp");
+        scanner = new ParallelTreeScanner(1, 2, Duration.ZERO);
+        List<File> offered = new ArrayList<>();
+        scanner.setFilter(files -> {
+            offered.addAll(List.of(files));
+            return List.of(files);
+        });
+
+        assertThat(names(scanner.listFiles(root.toFile()))).containsExactlyInAnyOrder("a.txt", "b.txt", "skipped.tmp");
+        offered.clear();
+        // Listing d again, as a new sibling does, offers only what is new or changed
+        Files.writeString(root.resolve("d/a.txt"), "rewritten");
+        write("d/c.txt");
+        assertThat(names(scanner.listFiles(root.toFile()))).containsExactlyInAnyOrder("a.txt", "c.txt");
+        assertThat(names(offered)).containsExactlyInAnyOrder("a.txt", "c.txt");
+    }
+
+    @Test
+    void testRecentlyChangedDirectoryIsNotTrusted() throws Exception {
+        write("d/a.txt");
+        scanner = new ParallelTreeScanner(1, 2, Duration.ofHours(1));
+
+        scanner.listFiles(root.toFile());
+        scanner.listFiles(root.toFile());
+
+        // Within the racy window a same-tick change would go unnoticed, so the listing is redone
+        assertThat(scanner.getLastScan().listed()).isEqualTo(2);
+    }
+
+    @Test
+    void testStreamsMatchesFromSeveralThreads() throws Exception {
+        for (int i = 0; i < 64; i++) {
+            write("dir" + i + "/f.txt");
+        }
+        scanner = new ParallelTreeScanner(1, 4, Duration.ZERO);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        Set<File> found = ConcurrentHashMap.newKeySet();
+
+        scanner.walk(root.toFile(), file -> {
+            threads.add(Thread.currentThread().getName());
+            found.add(file);
+        });
+
+        assertThat(found).hasSize(64);
+        assertThat(threads).allMatch(name -> name.contains("ForkJoinPool"));
+    }
+
+    private void write(String relative) throws Exception {
+        Path file = root.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, relative);
+    }
+
+    private void ageDirectories() throws Exception {
+        FileTime past = FileTime.from(Instant.now().minusSeconds(60));
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.filter(Files::isDirectory).toList()) {
+                Files.setLastModifiedTime(path, past);
+            }
+        }
+    }
+
+    private static List<String> names(List<File> files) {
+        return files.stream().map(File::getName).toList();
+    }
+}
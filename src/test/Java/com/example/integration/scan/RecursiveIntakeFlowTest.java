@@ -0,0 +1,82 @@
+package com.example.integration.scan;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.integration.endpoint.SourcePollingChannelAdapter;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = {"pipeline.scan.max-depth=3", "pipeline.poll-interval=10ms",
+        "spring.integration.poller.fixed-delay=10ms", "spring.task.scheduling.pool.size=4"})
+@DirtiesContext
+class RecursiveIntakeFlowTest {
+
+    private static final Path ROOT = createRoot();
+    private static final Path INPUT = ROOT.resolve("input");
+    private static final Path MONITOR = ROOT.resolve("monitor");
+    private static final Path PRE_PROCESS = ROOT.resolve("pre-process");
+
+    @DynamicPropertySource
+    static void directories(DynamicPropertyRegistry registry) {
+        registry.add("pipeline.input-directory", INPUT::toString);
+        registry.add("pipeline.monitor-directory", MONITOR::toString);
+        registry.add("pipeline.pre-process-directory", PRE_PROCESS::toString);
+    }
+
+    @Autowired
+    private ApplicationContext context;
+
+    // The input directory goes away with the root; a poller still scanning it would only log errors
+    @AfterEach
+    void stopPolling() {
+        context.getBeansOfType(SourcePollingChannelAdapter.class).values()
+                .forEach(SourcePollingChannelAdapter::stop);
+    }
+
+    @AfterAll
+    static void deleteRoot() throws IOException {
+        FileSystemUtils.deleteRecursively(ROOT);
+    }
+
+    @Test
+    void testSameNamedFilesInDifferentSubdirectoriesKeepTheirRelativePaths() throws Exception {
+        List<String> days = List.of("2026/10/18", "2026/10/19");
+        for (String day : days) {
+            Path file = Files.createDirectories(INPUT.resolve(day)).resolve("data.txt");
+            Files.writeString(file, "data of " + day + "\n");
+        }
+
+        await().atMost(Duration.ofSeconds(20)).untilAsserted(() -> {
+            for (String day : days) {
+                assertThat(PRE_PROCESS.resolve(day).resolve("data.txt")).hasContent("data of " + day + "\n");
+                assertThat(MONITOR.resolve(day).resolve("monitor_data.txt")).hasContent("data of " + day + "\n");
+            }
+        });
+        assertThat(PRE_PROCESS.resolve("data.txt")).doesNotExist();
+        assertThat(MONITOR.resolve("monitor_data.txt")).doesNotExist();
+    }
+
+    private static Path createRoot() {
+        try {
+            return Files.createTempDirectory("recursive-intake");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.integration.soak;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Decides whether a soak run leaked or slowed down. The first {@code warmUpFraction} of the
+ * samples is ignored (caches, JIT, pool growth); the rest are checked two ways, and a metric
+ * only fails when both agree, so a single GC or I/O hiccup cannot fail a run:
+ *
+ * <ul>
+ * <li>the least-squares slope against files processed, extrapolated over the measured span,
+ * exceeds the allowed growth, and</li>
+ * <li>the median of the last quarter exceeds the median of the first quarter by that much.</li>
+ * </ul>
+ *
+ * Throughput fails when the last quarter's median falls below the first quarter's by more
+ * than the allowed fraction.
+ */
+class GrowthTrend {
+
+    private final double warmUpFraction;
+    private final long maxHeapGrowthBytes;
+    private final long maxDescriptorGrowth;
+    private final int maxThreadGrowth;
+    private final double maxThroughputDecay;
+
+    GrowthTrend(double warmUpFraction, long maxHeapGrowthBytes, long maxDescriptorGrowth, int maxThreadGrowth,
+                double maxThroughputDecay) {
+        this.warmUpFraction = warmUpFraction;
+        this.maxHeapGrowthBytes = maxHeapGrowthBytes;
+        this.maxDescriptorGrowth = maxDescriptorGrowth;
+        this.maxThreadGrowth = maxThreadGrowth;
+        this.maxThroughputDecay = maxThroughputDecay;
+    }
+
+    /**
+     * @return a description of every violated limit; empty if the run was clean
+     */
+    List<String> violations(List<ResourceSample> samples) {
+        List<ResourceSample> measured = samples.subList((int) (samples.size() * warmUpFraction), samples.size());
+        List<String> violations = new ArrayList<>();
+        if (measured.size() < 8) {
+            violations.add("Only " + measured.size() + " samples after warm-up; run longer or sample more often");
+            return violations;
+        }
+        checkGrowth(measured, "heap after GC (bytes)", ResourceSample::heapAfterGcBytes, maxHeapGrowthBytes, violations);
+        if (measured.get(0).openFileDescriptors() >= 0) {
+            checkGrowth(measured, "open file descriptors", ResourceSample::openFileDescriptors, maxDescriptorGrowth,
+                    violations);
+        }
+        checkGrowth(measured, "threads", ResourceSample::threadCount, maxThreadGrowth, violations);
+
+        double early = median(quarter(measured, true), ResourceSample::throughput);
+        double late = median(quarter(measured, false), ResourceSample::throughput);
+        if (late < early * (1 - maxThroughputDecay)) {
+            violations.add(String.format("throughput decayed from %.1f to %.1f files/s", early, late));
+        }
+        return violations;
+    }
+
+    private static void checkGrowth(List<ResourceSample> samples, String metric, ToDoubleFunction<ResourceSample> value,
+                                    double maxGrowth, List<String> violations) {
+        double projected = slope(samples, value)
+                * (samples.get(samples.size() - 1).filesProcessed() - samples.get(0).filesProcessed());
+        double stepped = median(quarter(samples, false), value) - median(quarter(samples, true), value);
+        if (projected > maxGrowth && stepped > maxGrowth) {
+            violations.add(String.format("%s grew by %.0f (trend %.0f) over %d files, limit %.0f", metric, stepped,
+                    projected, samples.get(samples.size() - 1).filesProcessed() - samples.get(0).filesProcessed(),
+                    maxGrowth));
+        }
+    }
+
+    // Per file processed, so pauses in the load do not read as growth
+    static double slope(List<ResourceSample> samples, ToDoubleFunction<ResourceSample> value) {
+        double meanX = samples.stream().mapToDouble(ResourceSample::filesProcessed).average().orElse(0);
+        double meanY = samples.stream().mapToDouble(value).average().orElse(0);
+        double covariance = 0;
+        double variance = 0;
+        for (ResourceSample sample : samples) {
+            double dx = sample.filesProcessed() - meanX;
+            covariance += dx * (value.applyAsDouble(sample) - meanY);
+            variance += dx * dx;
+        }
+        return variance == 0 ? 0 : covariance / variance;
+    }
+
+    private static List<ResourceSample> quarter(List<ResourceSample> samples, boolean first) {
+        int size = Math.max(1, samples.size() / 4);
+        return first ? samples.subList(0, size) : samples.subList(samples.size() - size, samples.size());
+    }
+
+    private static double median(List<ResourceSample> samples, ToDoubleFunction<ResourceSample> value) {
+        double[] values = samples.stream().mapToDouble(value).toArray();
+        Arrays.sort(values);
+        int middle = values.length / 2;
+        return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2;
+    }
+}
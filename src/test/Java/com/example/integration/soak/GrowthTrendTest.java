@@ -0,0 +1,75 @@
+package com.example.integration.soak;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongUnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GrowthTrendTest {
+
+    private static final long MB = 1024 * 1024;
+
+    private final GrowthTrend trend = new GrowthTrend(0.2, 64 * MB, 32, 8, 0.3);
+
+    @Test
+    void testSteadyRunPasses() {
+        List<ResourceSample> samples = samples(i -> 100 * MB + (i % 3) * 5 * MB, i -> 120, i -> 1000);
+
+        assertThat(trend.violations(samples)).isEmpty();
+    }
+
+    @Test
+    void testHeapGrowingWithFilesFails() {
+        List<ResourceSample> samples = samples(i -> 100 * MB + i * 4 * MB, i -> 120, i -> 1000);
+
+        assertThat(trend.violations(samples)).singleElement().asString().startsWith("heap after GC");
+    }
+
+    @Test
+    void testOneSpikeDoesNotFail() {
+        List<ResourceSample> samples = samples(i -> i == 45 ? 400 * MB : 100 * MB, i -> 120, i -> 1000);
+
+        assertThat(trend.violations(samples)).isEmpty();
+    }
+
+    @Test
+    void testWarmUpGrowthIsIgnored() {
+        List<ResourceSample> samples = samples(i -> 100 * MB, i -> i < 8 ? 20 + i * 10 : 120, i -> 1000);
+
+        assertThat(trend.violations(samples)).isEmpty();
+    }
+
+    @Test
+    void testLeakedDescriptorsAndDecayingThroughputFail() {
+        List<ResourceSample> samples = samples(i -> 100 * MB, i -> 120 + i * 2, i -> 1000 - i * 15);
+
+        assertThat(trend.violations(samples))
+                .hasSize(2)
+                .anySatisfy(violation -> assertThat(violation).startsWith("open file descriptors"))
+                .anySatisfy(violation -> assertThat(violation).startsWith("throughput decayed"));
+    }
+
+    @Test
+    void testTooFewSamplesIsReported() {
+        assertThat(trend.violations(samples(5, i -> 100 * MB, i -> 120, i -> 1000)))
+                .singleElement().asString().contains("run longer");
+    }
+
+    private static List<ResourceSample> samples(LongUnaryOperator heap, LongUnaryOperator descriptors,
+                                                LongUnaryOperator throughput) {
+        return samples(50, heap, descriptors, throughput);
+    }
+
+    private static List<ResourceSample> samples(int count, LongUnaryOperator heap, LongUnaryOperator descriptors,
+                                                LongUnaryOperator throughput) {
+        List<ResourceSample> samples = new ArrayList<>();
+        for (long i = 0; i < count; i++) {
+            samples.add(new ResourceSample(i * 10_000, i * 10_000, heap.applyAsLong(i), descriptors.applyAsLong(i), 40,
+                    throughput.applyAsLong(i)));
+        }
+        return samples;
+    }
+}
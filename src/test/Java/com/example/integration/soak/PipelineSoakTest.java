@@ -0,0 +1,170 @@
+package com.example.integration.soak;
+
+import com.example.integration.completion.FileCompletionStatistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Streams synthetic files through the real {@code FlowConfig} on a local temp directory and
+ * fails if heap after GC, file descriptors or threads trend upwards, or throughput decays.
+ * Too slow for every build, so it only runs with {@code -Dsoak=true}, e.g.
+ * {@code mvn test -Psoak -Dsoak.files=2000000}.
+ *
+ * <p>Options: {@code soak.files} (default one million), {@code soak.backlog} files allowed
+ * to wait in the input directory (500) and {@code soak.sample-seconds} (10). Samples are
+ * written to {@code target/soak-samples.csv}. Every file must complete both branches: a
+ * single failed or timed-out file fails the run.
+ */
+@SpringBootTest(properties = {"pipeline.poll-interval=1ms", "spring.integration.poller.fixed-delay=1ms",
+        "spring.task.scheduling.pool.size=4", "logging.level.root=WARN"})
+@EnabledIfSystemProperty(named = "soak", matches = "true")
+class PipelineSoakTest {
+
+    private static final long FILES = Long.getLong("soak.files", 1_000_000);
+    private static final int BACKLOG = Integer.getInteger("soak.backlog", 500);
+    private static final long SAMPLE_NANOS = TimeUnit.SECONDS.toNanos(Long.getLong("soak.sample-seconds", 10));
+    private static final long STALL_NANOS = TimeUnit.MINUTES.toNanos(2);
+    private static final long OUTPUT_MIN_AGE_MILLIS = 5_000;
+
+    private static final Path ROOT = createRoot();
+    private static final Path INPUT = ROOT.resolve("input");
+    private static final Path MONITOR = ROOT.resolve("monitor");
+    private static final Path PRE_PROCESS = ROOT.resolve("pre-process");
+
+    @Autowired
+    private FileCompletionStatistics statistics;
+
+    @DynamicPropertySource
+    static void directories(DynamicPropertyRegistry registry) {
+        registry.add("pipeline.input-directory", INPUT::toString);
+        registry.add("pipeline.monitor-directory", MONITOR::toString);
+        registry.add("pipeline.pre-process-directory", PRE_PROCESS::toString);
+    }
+
+    @AfterAll
+    static void deleteRoot() throws IOException {
+        FileSystemUtils.deleteRecursively(ROOT);
+    }
+
+    @Test
+    void testSustainedLoadDoesNotLeakOrSlowDown() throws Exception {
+        Files.createDirectories(INPUT);
+        byte[] content = content();
+        ResourceSampler sampler = new ResourceSampler();
+        List<ResourceSample> samples = new ArrayList<>();
+        long written = 0;
+        long nextSample = System.nanoTime() + SAMPLE_NANOS;
+        long lastProgress = System.nanoTime();
+        long lastProcessed = 0;
+
+        while (processed() < FILES) {
+            long processed = processed();
+            while (written < FILES && written - processed < BACKLOG) {
+                write(written++, content);
+            }
+            long now = System.nanoTime();
+            if (processed > lastProcessed) {
+                lastProcessed = processed;
+                lastProgress = now;
+            } else if (now - lastProgress > STALL_NANOS) {
+                fail("Pipeline stalled at " + processed + " of " + FILES + " files");
+            }
+            if (now >= nextSample) {
+                ResourceSample sample = sampler.sample(processed);
+                samples.add(sample);
+                System.out.println("soak " + sample.toCsv());
+                deleteOutputs(MONITOR);
+                deleteOutputs(PRE_PROCESS);
+                nextSample = System.nanoTime() + SAMPLE_NANOS;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        writeCsv(samples);
+        System.out.printf("soak completed=%d failed=%d timedOut=%d%n", statistics.getCompletedCount(),
+                statistics.getFailedCount(), statistics.getTimedOutCount());
+
+        assertThat(statistics.getFailedCount()).as("failed files").isZero();
+        assertThat(statistics.getTimedOutCount()).as("timed-out files").isZero();
+        assertThat(new GrowthTrend(0.2, 64L * 1024 * 1024, 32, 8, 0.3).violations(samples)).isEmpty();
+    }
+
+    private long processed() {
+        return statistics.getCompletedCount() + statistics.getFailedCount() + statistics.getTimedOutCount();
+    }
+
+    // Written under a name the filter ignores, then renamed, so no partial file is ever polled
+    private static void write(long index, byte[] content) throws IOException {
+        Path temp = INPUT.resolve(".soak-" + index + ".tmp");
+        Files.write(temp, content);
+        Files.move(temp, INPUT.resolve(String.format("soak-%09d.txt", index)), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Keeps the temp file system small over millions of files; outputs are not inspected.
+    // Recent files may still be written or renamed by a branch handler and are left alone.
+    private static void deleteOutputs(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - OUTPUT_MIN_AGE_MILLIS;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                try {
+                    if (Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                        Files.delete(file);
+                    }
+                } catch (NoSuchFileException e) {
+                    // Renamed by its handler in the meantime
+                }
+            }
+        }
+    }
+
+    private static byte[] content() {
+        StringBuilder csv = new StringBuilder("id,name,value\n");
+        for (int i = 0; i < 8; i++) {
+            csv.append(i).append(",item-").append(i).append(',').append(i * 31).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void writeCsv(List<ResourceSample> samples) throws IOException {
+        Path csv = Paths.get("target", "soak-samples.csv");
+        Files.createDirectories(csv.getParent());
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv))) {
+            out.println(ResourceSample.CSV_HEADER);
+            samples.forEach(sample -> out.println(sample.toCsv()));
+        }
+    }
+
+    private static Path createRoot() {
+        try {
+            return Files.createTempDirectory("pipeline-soak");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
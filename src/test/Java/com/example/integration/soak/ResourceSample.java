@@ -0,0 +1,17 @@
+package com.example.integration.soak;
+
+/**
+ * One point of a soak run.
+ *
+ * @param throughput files per second since the previous sample
+ */
+record ResourceSample(long elapsedMillis, long filesProcessed, long heapAfterGcBytes, long openFileDescriptors,
+                      int threadCount, double throughput) {
+
+    static final String CSV_HEADER = "elapsedMillis,filesProcessed,heapAfterGcBytes,openFileDescriptors,threadCount,throughput";
+
+    String toCsv() {
+        return String.format("%d,%d,%d,%d,%d,%.1f", elapsedMillis, filesProcessed, heapAfterGcBytes,
+                openFileDescriptors, threadCount, throughput);
+    }
+}
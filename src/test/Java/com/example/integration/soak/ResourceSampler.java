@@ -0,0 +1,36 @@
+package com.example.integration.soak;
+
+import com.sun.management.UnixOperatingSystemMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Takes {@link ResourceSample}s of this JVM. Heap is measured right after a requested full
+ * GC, so only live objects count; file descriptors are only available on Unix and read as -1
+ * elsewhere.
+ */
+class ResourceSampler {
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    private final long startNanos = System.nanoTime();
+
+    private long previousNanos = startNanos;
+    private long previousFiles;
+
+    ResourceSample sample(long filesProcessed) {
+        System.gc();
+        long now = System.nanoTime();
+        double seconds = (now - previousNanos) / 1e9;
+        double throughput = seconds > 0 ? (filesProcessed - previousFiles) / seconds : 0;
+        previousNanos = now;
+        previousFiles = filesProcessed;
+        long descriptors = os instanceof UnixOperatingSystemMXBean unix ? unix.getOpenFileDescriptorCount() : -1;
+        return new ResourceSample((now - startNanos) / 1_000_000, filesProcessed,
+                memory.getHeapMemoryUsage().getUsed(), descriptors, threads.getThreadCount(), throughput);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.integration.status;
+
+import com.example.integration.completion.Branch;
+import com.example.integration.completion.BranchOutcome;
+import com.example.integration.completion.FileCompletionStatistics;
+import com.example.integration.executor.AdaptiveTaskExecutor;
+import com.example.integration.executor.AimdConcurrencyLimit;
+import com.example.integration.latency.IngestHeaders;
+import com.example.integration.latency.PipelineLatencyRecorder;
+import com.example.integration.latency.PipelineStage;
+import com.example.integration.queue.ResizableBlockingQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandlingException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PipelineStatusTest {
+
+    private final InFlightTracker tracker = new InFlightTracker();
+    private final PipelineLatencyRecorder recorder = new PipelineLatencyRecorder();
+    private final ResizableBlockingQueue<Message<?>> inbound = new ResizableBlockingQueue<>(10);
+    private AdaptiveTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.close();
+        }
+    }
+
+    @Test
+    void testFilesAreInFlightUntilTheirOutcomeArrives() {
+        DirectChannel branch = new DirectChannel();
+        branch.addInterceptor(tracker.entryInterceptor(Branch.MONITOR));
+        branch.subscribe(message -> { });
+        DirectChannel outcomes = new DirectChannel();
+        outcomes.addInterceptor(tracker.outcomeInterceptor());
+        outcomes.subscribe(message -> { });
+
+        branch.send(file("a", System.nanoTime() - TimeUnit.SECONDS.toNanos(2)));
+        branch.send(file("b", System.nanoTime()));
+
+        assertThat(tracker.getInFlightCount(Branch.MONITOR)).isEqualTo(2);
+        assertThat(tracker.getInFlightCount(Branch.PRE_PROCESS)).isZero();
+        assertThat(tracker.getOldestAgeNanos()).isGreaterThanOrEqualTo(TimeUnit.SECONDS.toNanos(2));
+
+        outcomes.send(outcome("a"));
+        assertThat(tracker.getInFlightCount(Branch.MONITOR)).isEqualTo(1);
+        assertThat(tracker.getOldestAgeNanos(Branch.MONITOR)).isLessThan(TimeUnit.SECONDS.toNanos(2));
+    }
+
+    @Test
+    void testFailedSendIsNotLeftInFlight() {
+        DirectChannel branch = new DirectChannel();
+        branch.addInterceptor(tracker.entryInterceptor(Branch.PRE_PROCESS));
+        branch.subscribe(message -> {
+            throw new MessageHandlingException(message, "no space");
+        });
+
+        assertThatThrownBy(() -> branch.send(file("a", System.nanoTime()))).isInstanceOf(MessageHandlingException.class);
+        assertThat(tracker.getInFlightCount(Branch.PRE_PROCESS)).isZero();
+    }
+
+    @Test
+    void testMeterBinderReportsLiveState() {
+        executor = new AdaptiveTaskExecutor("status-test-", new AimdConcurrencyLimit(2, 8, 2, 0.9, 2.0), 100,
+                Duration.ofHours(1));
+        FileCompletionStatistics statistics = new FileCompletionStatistics();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new PipelineMeterBinder(inbound, executor, tracker, recorder, statistics).bindTo(registry);
+
+        inbound.offer(file("a", System.nanoTime()));
+        inbound.offer(file("b", System.nanoTime()));
+        tracker.entered(Branch.PRE_PROCESS, file("c", System.nanoTime()));
+        recorder.recordNanos(PipelineStage.MONITOR_WRITE, 1_000_000);
+        recorder.recordNanos(PipelineStage.MONITOR_WRITE, 2_000_000);
+
+        assertThat(registry.get("pipeline.channel.depth").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("pipeline.channel.remaining").gauge().value()).isEqualTo(8);
+        assertThat(registry.get("pipeline.executor.limit").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("pipeline.inflight").tag("branch", "pre_process").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("pipeline.stage.recorded").tag("stage", "monitor_write").functionCounter().count())
+                .isEqualTo(2);
+        assertThat(registry.get("pipeline.files").tag("outcome", "completed").functionCounter().count()).isZero();
+    }
+
+    @Test
+    void testStatusReportsRatesOfTheLastSamplingWindow() {
+        executor = new AdaptiveTaskExecutor("status-test-", new AimdConcurrencyLimit(2, 8, 2, 0.9, 2.0), 100,
+                Duration.ofHours(1));
+        try (PipelineStatusEndpoint endpoint = new PipelineStatusEndpoint(inbound, executor, tracker, recorder,
+                new FileCompletionStatistics(), Duration.ofHours(1))) {
+            for (int i = 0; i < 10; i++) {
+                recorder.recordNanos(PipelineStage.PRE_PROCESS_WRITE, 500_000);
+            }
+            PipelineStatus beforeSample = endpoint.status();
+            endpoint.sample();
+            PipelineStatus first = endpoint.status();
+            // Readers share the window instead of resetting it for each other
+            PipelineStatus second = endpoint.status();
+
+            assertThat(beforeSample.stages().get(PipelineStage.PRE_PROCESS_WRITE).count()).isEqualTo(10);
+            assertThat(beforeSample.stages().get(PipelineStage.PRE_PROCESS_WRITE).ratePerSecond()).isZero();
+            assertThat(first.stages().get(PipelineStage.PRE_PROCESS_WRITE).ratePerSecond()).isPositive();
+            assertThat(first.stages().get(PipelineStage.PRE_PROCESS_WRITE).p50Micros()).isBetween(499L, 501L);
+            assertThat(second.stages().get(PipelineStage.PRE_PROCESS_WRITE).ratePerSecond())
+                    .isEqualTo(first.stages().get(PipelineStage.PRE_PROCESS_WRITE).ratePerSecond());
+            assertThat(second.inboundQueueCapacity()).isEqualTo(10);
+            assertThat(second.executorSaturation()).isZero();
+            assertThat(endpoint.report()).contains("PRE_PROCESS_WRITE", "inbound queue   0/10");
+
+            endpoint.sample();
+            assertThat(endpoint.status().stages().get(PipelineStage.PRE_PROCESS_WRITE).ratePerSecond()).isZero();
+        }
+    }
+
+    private static Message<String> file(String fileId, long detectedNanos) {
+        return MessageBuilder.withPayload(fileId)
+                .setHeader(IngestHeaders.FILE_ID, fileId)
+                .setHeader(IngestHeaders.DETECTED_NANOS, detectedNanos)
+                .build();
+    }
+
+    private static Message<BranchOutcome> outcome(String fileId) {
+        return MessageBuilder.withPayload(new BranchOutcome(Branch.MONITOR, null, true, 0, 0, 1, null))
+                .setHeader(IngestHeaders.FILE_ID, fileId)
+                .build();
+    }
+}
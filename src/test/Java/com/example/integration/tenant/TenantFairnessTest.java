@@ -0,0 +1,190 @@
+package com.example.integration.tenant;
+
+import com.example.integration.completion.Branch;
+import com.example.integration.completion.BranchOutcome;
+import com.example.integration.completion.FileCompletionEvent;
+import com.example.integration.filter.FileMatchers;
+import com.example.integration.filter.StableFileListFilter;
+import com.example.integration.latency.IngestHeaders;
+import com.example.integration.queue.ResizableBlockingQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantFairnessTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void testResolverUsesTheFirstSubdirectory() {
+        TenantResolver resolver = new TenantResolver(root.toFile(), "default");
+
+        assertThat(resolver.tenantOf(root.resolve("a.txt").toFile())).isEqualTo("default");
+        assertThat(resolver.tenantOf(root.resolve("acme/a.txt").toFile())).isEqualTo("acme");
+        assertThat(resolver.tenantOf(root.resolve("acme/2024/01/a.txt").toFile())).isEqualTo("acme");
+        assertThat(resolver.tenantOf(new File("/elsewhere/acme/a.txt"))).isEqualTo("default");
+
+        Message<?> stamped = resolver.stamp(MessageBuilder.withPayload(root.resolve("acme/a.txt").toFile()).build());
+        assertThat(stamped.getHeaders().get(IngestHeaders.TENANT)).isEqualTo("acme");
+    }
+
+    @Test
+    void testNoisyTenantCannotStarveTheOthers() {
+        DeficitRoundRobinQueue<String> queue = new DeficitRoundRobinQueue<>(
+                s -> s.substring(0, s.indexOf('/')), s -> 1, tenant -> 1, 1);
+        for (int i = 0; i < 1000; i++) {
+            queue.add("noisy/" + i);
+        }
+        queue.add("quiet/0");
+        queue.add("quiet/1");
+
+        assertThat(List.of(queue.poll(), queue.poll(), queue.poll(), queue.poll()))
+                .containsExactly("noisy/0", "quiet/0", "noisy/1", "quiet/1");
+        assertThat(queue.size()).isEqualTo(998);
+        assertThat(queue.size("quiet")).isZero();
+    }
+
+    @Test
+    void testSharesFollowWeightsAndCost() {
+        // acme has weight 3; small files cost 1 and big files cost 4
+        DeficitRoundRobinQueue<String> queue = new DeficitRoundRobinQueue<>(
+                s -> s.substring(0, s.indexOf('/')), s -> s.contains("big") ? 4 : 1,
+                tenant -> tenant.equals("acme") ? 3 : 1, 2);
+        for (int i = 0; i < 1000; i++) {
+            queue.add("acme/small" + i);
+            queue.add("globex/small" + i);
+            queue.add("initech/big" + i);
+        }
+        Map<String, Integer> cost = new HashMap<>();
+        for (int i = 0; i < 850; i++) {
+            String next = queue.poll();
+            cost.merge(next.substring(0, next.indexOf('/')), next.contains("big") ? 4 : 1, Integer::sum);
+        }
+
+        // Served cost is 3:1:1 whatever the size of each tenant's files
+        assertThat(cost).containsExactlyInAnyOrderEntriesOf(Map.of("acme", 600, "globex", 200, "initech", 200));
+    }
+
+    @Test
+    void testBlockingQueueKeepsCapacityAndSupportsRemoval() throws Exception {
+        ResizableBlockingQueue<String> queue = new ResizableBlockingQueue<>(3, new DeficitRoundRobinQueue<>(
+                s -> s.substring(0, s.indexOf('/')), s -> 1, tenant -> 1, 1));
+        assertThat(queue.offer("a/1")).isTrue();
+        assertThat(queue.offer("a/2")).isTrue();
+        assertThat(queue.offer("b/1")).isTrue();
+        assertThat(queue.offer("b/2")).isFalse();
+
+        assertThat(queue.remove("a/1")).isTrue();
+        assertThat(queue.peek()).isEqualTo("a/2");
+        assertThat(queue.take()).isEqualTo("a/2");
+        assertThat(queue.poll(1, TimeUnit.SECONDS)).isEqualTo("b/1");
+        assertThat(queue.poll()).isNull();
+    }
+
+    @Test
+    void testScannerInterleavesTenantsAndCapsEachBatch() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            write("noisy/" + String.format("%02d", i) + ".txt");
+        }
+        // Names the filter rejects must not use up a tenant's share of the scan
+        for (int i = 0; i < 50; i++) {
+            write("noisy/" + String.format("%02d", i) + ".tmp");
+        }
+        write("quiet/q.txt");
+        write("r.txt");
+        TenantDirectoryScanner scanner = new TenantDirectoryScanner(new TenantResolver(root.toFile(), "default"),
+                tenant -> tenant.equals("noisy") ? 2 : 1, 3, Duration.ofMinutes(5));
+        scanner.setFilter(new StableFileListFilter(FileMatchers.glob("*.txt")));
+        TenantResolver resolver = new TenantResolver(root.toFile(), "default");
+
+        List<File> first = scanner.listFiles(root.toFile());
+        List<String> tenants = first.stream().map(resolver::tenantOf).toList();
+        assertThat(tenants).hasSize(8);
+        assertThat(tenants).filteredOn("noisy"::equals).hasSize(6);
+        // Each round takes up to its weight from every tenant, so the quiet tenants are in the first round
+        assertThat(tenants.subList(0, 4)).containsExactlyInAnyOrder("default", "noisy", "noisy", "quiet");
+        List<File> sorted = new ArrayList<>(first);
+        Collections.shuffle(sorted);
+        sorted.sort(scanner.receptionOrder());
+        assertThat(sorted).containsExactlyElementsOf(first);
+
+        // Files handed out are not listed again while they exist
+        List<File> second = scanner.listFiles(root.toFile());
+        assertThat(second).hasSize(6).doesNotContainAnyElementsOf(first);
+
+        Files.delete(second.get(0).toPath());
+        Files.delete(second.get(1).toPath());
+        assertThat(scanner.listFiles(root.toFile())).hasSize(6).doesNotContainAnyElementsOf(second);
+    }
+
+    @Test
+    void testScannerOnlyRedeliversFilesThatCompleted() throws Exception {
+        write("tenant/a.txt");
+        TenantDirectoryScanner scanner = new TenantDirectoryScanner(new TenantResolver(root.toFile(), "default"),
+                tenant -> 1, 10, Duration.ZERO);
+        scanner.setFilter(new StableFileListFilter(FileMatchers.glob("*.txt")));
+
+        List<File> first = scanner.listFiles(root.toFile());
+        assertThat(first).hasSize(1);
+        // Still queued or in flight, however long that takes
+        assertThat(scanner.listFiles(root.toFile())).isEmpty();
+
+        Map<Branch, BranchOutcome> outcomes = new EnumMap<>(Branch.class);
+        outcomes.put(Branch.PRE_PROCESS, new BranchOutcome(Branch.PRE_PROCESS, first.get(0), false, 0, 0, 0, "failed"));
+        scanner.completed(new FileCompletionEvent("1", "a.txt", -1, -1, outcomes));
+        assertThat(scanner.listFiles(root.toFile())).containsExactlyElementsOf(first);
+    }
+
+    @Test
+    void testStatisticsArePerTenantAndReachTheMeterRegistry() {
+        TenantStatistics statistics = new TenantStatistics();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        statistics.record("acme", event(true, 100, 2_000_000));
+        new TenantMeterBinder(statistics).bindTo(registry);
+        statistics.record("acme", event(true, 50, 4_000_000));
+        statistics.record("globex", event(false, 10, 1_000_000));
+
+        assertThat(statistics.getTenants()).containsExactly("acme", "globex");
+        assertThat(registry.get("pipeline.tenant.files").tags("tenant", "acme", "outcome", "completed")
+                .functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("pipeline.tenant.files").tags("tenant", "globex", "outcome", "failed")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("pipeline.tenant.bytes").tag("tenant", "acme").functionCounter().count())
+                .isEqualTo(150);
+        assertThat(registry.get("pipeline.tenant.latency").tag("tenant", "acme").functionTimer()
+                .mean(TimeUnit.MILLISECONDS)).isEqualTo(3);
+        assertThat(statistics.snapshot("acme").getMaxValue()).isBetween(3_990L, 4_010L);
+        assertThat(statistics.summary()).contains("acme", "globex");
+    }
+
+    private void write(String relative) throws Exception {
+        Path file = root.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, relative);
+    }
+
+    private static FileCompletionEvent event(boolean successful, long bytes, long endToEndNanos) {
+        Map<Branch, BranchOutcome> outcomes = new EnumMap<>(Branch.class);
+        for (Branch branch : Branch.values()) {
+            outcomes.put(branch, new BranchOutcome(branch, null, successful, 0, 0, bytes, successful ? null : "failed"));
+        }
+        return new FileCompletionEvent("id", "name", 0, endToEndNanos, outcomes);
+    }
+}